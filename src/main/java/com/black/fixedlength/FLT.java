@@ -2,12 +2,26 @@ package com.black.fixedlength;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
+import com.black.fixedlength.layout.GenericRecord;
+import com.black.fixedlength.layout.RecordSchema;
 import com.black.fixedlength.manager.FLTEntityReader;
 import com.black.fixedlength.manager.FLTEntityWriter;
 
@@ -62,6 +76,31 @@ public class FLT {
 		return ret;
 	}
 
+	/**
+	 * 実行時に組み立てたレコード定義で固定長ファイルを読み込みます。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param schema レコード定義
+	 * @return レコードのList
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws InstantiationException レコードの生成に失敗した場合
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public static List<GenericRecord> load(FLTConfig conf, Path inputPath, RecordSchema schema)
+			throws InstantiationException, IllegalAccessException, IOException, ParseException {
+		List<GenericRecord> ret = new ArrayList<GenericRecord>();
+
+		try (FLTEntityReader<GenericRecord> entityReader = FLTEntityReader.forSchema(conf, inputPath, schema)) {
+			GenericRecord line = null;
+			while ((line = entityReader.read()) != null) {
+				ret.add(line);
+			}
+		}
+
+		return ret;
+	}
+
 	/**
 	 * 固定長ファイルを読み込みます。
 	 *
@@ -103,4 +142,228 @@ public class FLT {
 
 		return ret;
 	}
+
+	/**
+	 * 複数の固定長ファイルを、指定された並列数で同時に読み込みます。<p>
+	 * ファイルごとに{@link #load(FLTConfig, Path, Class)}と同じ読み込みを行い、結果を指定されたファイルの順で返却します。
+	 * 読み込みに失敗したファイルは結果にエラーを保持し、他のファイルの読み込みは継続します。
+	 * 仮想スレッドを使用できる実行環境(Java 21以降)では仮想スレッドで、それ以外ではスレッドプールで読み込みます。
+	 * 固定長形式情報は変更不可の複製({@link FLTConfig#freeze()})を共有します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param inputPaths 読み込み先ファイルパスのList
+	 * @param clazz 格納先クラス
+	 * @param parallelism 同時に読み込むファイル数の上限
+	 * @return ファイルごとの読み込み結果のList
+	 * @throws IOException 指定された文字セットがサポートされていない場合、読み込み中に割り込まれた場合
+	 */
+	public static <T> List<FLTFileResult<T>> loadAll(FLTConfig conf, List<Path> inputPaths, Class<T> clazz, int parallelism) throws IOException {
+		if (conf == null || clazz == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		FLTConfig shared = conf.freeze();
+		return loadAll(inputPaths, parallelism, path -> load(shared, path, clazz));
+	}
+
+	/**
+	 * 複数の固定長ファイルを、指定された並列数で同時に読み込み、読み込みが完了したファイルから順に結果を処理します。<p>
+	 * 結果は読み込みが完了した順に、呼び出し元のスレッドで{@code action}に渡します。
+	 * {@code action}から戻った結果は保持しないため、すべてのファイルのレコードを同時に保持せずに処理できます。
+	 * 次のファイルの読み込みは{@code action}から戻った後に開始するため、同時に保持する結果は並列数のファイルまでです。
+	 * 読み込みに失敗したファイルは結果にエラーを保持し、他のファイルの読み込みは継続します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param inputPaths 読み込み先ファイルパスのList
+	 * @param clazz 格納先クラス
+	 * @param parallelism 同時に読み込むファイル数の上限
+	 * @param action ファイルごとの読み込み結果の処理
+	 * @throws IOException 指定された文字セットがサポートされていない場合、読み込み中に割り込まれた場合
+	 * @see #loadAll(FLTConfig, List, Class, int)
+	 */
+	public static <T> void loadAll(FLTConfig conf, List<Path> inputPaths, Class<T> clazz, int parallelism, Consumer<? super FLTFileResult<T>> action) throws IOException {
+		if (conf == null || clazz == null || action == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		FLTConfig shared = conf.freeze();
+		loadAll(inputPaths, parallelism, path -> load(shared, path, clazz), (index, result) -> action.accept(result));
+	}
+
+	/**
+	 * 指定されたディレクトリ内の、パターンに一致する固定長ファイルを同時に読み込みます。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param directory 読み込み先ディレクトリ
+	 * @param glob ファイル名のパターン(「*.dat」など)
+	 * @param clazz 格納先クラス
+	 * @param parallelism 同時に読み込むファイル数の上限
+	 * @return ファイル名の順の、ファイルごとの読み込み結果のList
+	 * @throws IOException ディレクトリを読み込めない場合、指定された文字セットがサポートされていない場合、読み込み中に割り込まれた場合
+	 * @see #loadAll(FLTConfig, List, Class, int)
+	 */
+	public static <T> List<FLTFileResult<T>> loadAll(FLTConfig conf, Path directory, String glob, Class<T> clazz, int parallelism) throws IOException {
+		return loadAll(conf, listFiles(directory, glob), clazz, parallelism);
+	}
+
+	/**
+	 * 実行時に組み立てたレコード定義で、複数の固定長ファイルを同時に読み込みます。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param inputPaths 読み込み先ファイルパスのList
+	 * @param schema レコード定義
+	 * @param parallelism 同時に読み込むファイル数の上限
+	 * @return ファイルごとの読み込み結果のList
+	 * @throws IOException 指定された文字セットがサポートされていない場合、読み込み中に割り込まれた場合
+	 * @see #loadAll(FLTConfig, List, Class, int)
+	 */
+	public static List<FLTFileResult<GenericRecord>> loadAll(FLTConfig conf, List<Path> inputPaths, RecordSchema schema, int parallelism) throws IOException {
+		if (conf == null || schema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		FLTConfig shared = conf.freeze();
+		return loadAll(inputPaths, parallelism, path -> load(shared, path, schema));
+	}
+
+	/**
+	 * 実行時に組み立てたレコード定義で複数の固定長ファイルを同時に読み込み、読み込みが完了したファイルから順に結果を処理します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param inputPaths 読み込み先ファイルパスのList
+	 * @param schema レコード定義
+	 * @param parallelism 同時に読み込むファイル数の上限
+	 * @param action ファイルごとの読み込み結果の処理
+	 * @throws IOException 指定された文字セットがサポートされていない場合、読み込み中に割り込まれた場合
+	 * @see #loadAll(FLTConfig, List, Class, int, Consumer)
+	 */
+	public static void loadAll(FLTConfig conf, List<Path> inputPaths, RecordSchema schema, int parallelism, Consumer<? super FLTFileResult<GenericRecord>> action) throws IOException {
+		if (conf == null || schema == null || action == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		FLTConfig shared = conf.freeze();
+		loadAll(inputPaths, parallelism, path -> load(shared, path, schema), (index, result) -> action.accept(result));
+	}
+
+	/**
+	 * 指定されたディレクトリ内の、パターンに一致するファイルをファイル名の順で返却します。
+	 *
+	 * @param directory ディレクトリ
+	 * @param glob ファイル名のパターン(「*.dat」など)
+	 * @return ファイルパスのList
+	 * @throws IOException ディレクトリを読み込めない場合
+	 */
+	public static List<Path> listFiles(Path directory, String glob) throws IOException {
+		if (directory == null || glob == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		List<Path> ret = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			for (Path path : stream) {
+				if (Files.isRegularFile(path)) {
+					ret.add(path);
+				}
+			}
+		}
+		Collections.sort(ret);
+		return ret;
+	}
+
+	/**
+	 * 1ファイルの読み込み処理です。
+	 */
+	@FunctionalInterface
+	private interface FileLoader<T> {
+		List<T> load(Path path) throws Exception;
+	}
+
+	/**
+	 * 1ファイルの読み込み結果の処理です。
+	 */
+	@FunctionalInterface
+	private interface ResultHandler<T> {
+		void accept(int index, FLTFileResult<T> result);
+	}
+
+	/**
+	 * 読み込みが完了したファイルの、指定された順の位置と結果です。
+	 */
+	private static final class Loaded<T> {
+		final int index;
+		final FLTFileResult<T> result;
+
+		Loaded(int index, FLTFileResult<T> result) {
+			this.index = index;
+			this.result = result;
+		}
+	}
+
+	private static <T> List<FLTFileResult<T>> loadAll(List<Path> inputPaths, int parallelism, FileLoader<T> loader) throws IOException {
+		List<FLTFileResult<T>> ret = new ArrayList<>(Collections.<FLTFileResult<T>>nCopies(inputPaths == null ? 0 : inputPaths.size(), null));
+		loadAll(inputPaths, parallelism, loader, (index, result) -> ret.set(index, result));
+		return ret;
+	}
+
+	private static <T> void loadAll(List<Path> inputPaths, int parallelism, FileLoader<T> loader, ResultHandler<T> handler) throws IOException {
+		if (inputPaths == null || inputPaths.contains(null) || parallelism < 1) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		// 仮想スレッドはファイルごとに生成されるため、同時に読み込むファイル数はセマフォで制限します。
+		// 許可は結果を処理した後に解放し、処理されていない結果が並列数を超えて溜まらないようにします。
+		Semaphore permits = new Semaphore(parallelism);
+		ExecutorService executor = newExecutor(parallelism);
+		CompletionService<Loaded<T>> completion = new ExecutorCompletionService<>(executor);
+		try {
+			for (int i = 0; i < inputPaths.size(); i++) {
+				int index = i;
+				Path path = inputPaths.get(i);
+				completion.submit(() -> {
+					permits.acquire();
+					FLTFileResult<T> result;
+					try {
+						result = new FLTFileResult<>(path, loader.load(path), null);
+					} catch (Exception e) {
+						result = new FLTFileResult<T>(path, null, e);
+					}
+					return new Loaded<>(index, result);
+				});
+			}
+
+			for (int i = 0; i < inputPaths.size(); i++) {
+				Loaded<T> done = completion.take().get();
+				try {
+					handler.accept(done.index, done.result);
+				} finally {
+					permits.release();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The loading was interrupted.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 仮想スレッドを使用できる場合は仮想スレッドの、それ以外は指定された数のスレッドの実行処理を生成します。
+	 * 仮想スレッドがない実行環境でも動作するよう、リフレクションで使用します。
+	 */
+	private static ExecutorService newExecutor(int parallelism) {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return Executors.newFixedThreadPool(parallelism, runnable -> {
+				Thread thread = new Thread(runnable, "flt-loader");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
 }
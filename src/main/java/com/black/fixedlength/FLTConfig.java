@@ -1,10 +1,17 @@
 package com.black.fixedlength;
 
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
 import java.text.DateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.codec.ColumnCodec;
+import com.black.fixedlength.codec.DefaultColumnCodecs;
 import com.black.fixedlength.format.DefaultBlankPaddingFormatter;
 import com.black.fixedlength.format.DefaultTrimmingFormatter;
 import com.black.fixedlength.format.DefaultZeroPaddingFormatter;
@@ -14,7 +21,8 @@ import com.black.fixedlength.type.FLTType;
 
 
 /**
- * 固定長形式情報を提供します。
+ * 固定長形式情報を提供します。<p>
+ * {@link #freeze()}で作成した変更不可の固定長形式情報は、複数のスレッドの読み込み/書き込みで共有できます。
  *
  */
 public class FLTConfig {
@@ -49,6 +57,17 @@ public class FLTConfig {
 	 */
 	private TrimmingFormat trimming;
 
+	/**
+	 * 書き込み時に項目の桁数(またはバイト数)を超える値を、文字の境界で切り捨てるかどうかです。
+	 * 切り捨てない場合、書き込み時にエラーになります。
+	 */
+	private boolean truncateOverflow;
+
+	/**
+	 * 読み込み時に別スレッドで先読みするバッファのバイト数(初期値：0 先読みしない)
+	 */
+	private int readAheadSize = 0;
+
 	/**
 	 * 書き込み時に指定された型からの変換時にパディングを行います。
 	 * デフォルトでは下記が設定されています。
@@ -65,7 +84,33 @@ public class FLTConfig {
 	 */
 	private Map<Class<?>, PaddingFormat> paddingMap = new HashMap<>();
 
+	/**
+	 * 型ごとに登録された変換処理です。
+	 * 登録されていない型は{@link DefaultColumnCodecs}の変換処理を使用します。
+	 */
+	private Map<Class<?>, ColumnCodec<?>> codecMap = new HashMap<>();
+
+	/**
+	 * 変更不可かどうかです。
+	 */
+	private final boolean frozen;
+
+	/**
+	 * 設定を変更した回数です。
+	 * 設定から解決した変換処理をキャッシュする側が、変更を検知するために使用します。
+	 */
+	private int modCount = 0;
+
+	/**
+	 * 変更不可の場合のスレッドごとの日付書式情報
+	 * DateFormatはスレッドセーフではないため、スレッドごとに複製して使用します。
+	 */
+	private final ThreadLocal<DateFormat> localDateFormat;
+
 	public FLTConfig() {
+		this.frozen = false;
+		this.localDateFormat = null;
+
 		paddingMap.put(int.class, new DefaultZeroPaddingFormatter());
 		paddingMap.put(Integer.class, new DefaultZeroPaddingFormatter());
 		paddingMap.put(double.class, new DefaultZeroPaddingFormatter());
@@ -84,8 +129,30 @@ public class FLTConfig {
 		paddingMap.put(java.sql.Date.class, new DefaultBlankPaddingFormatter());
 		paddingMap.put(Calendar.class, new DefaultBlankPaddingFormatter());
 		paddingMap.put(java.sql.Timestamp.class, new DefaultBlankPaddingFormatter());
+		paddingMap.put(UUID.class, new DefaultBlankPaddingFormatter());
+		paddingMap.put(BigInteger.class, new DefaultZeroPaddingFormatter());
 
-		setTrimming(new DefaultTrimmingFormatter());
+		trimming = new DefaultTrimmingFormatter();
+	}
+
+	/**
+	 * 指定された固定長形式情報を複製し、変更不可の固定長形式情報を構築します。
+	 */
+	private FLTConfig(FLTConfig src) {
+		this.frozen = true;
+		this.charCode = src.charCode;
+		this.fltType = src.fltType;
+		this.append = src.append;
+		this.ignoreblankLines = src.ignoreblankLines;
+		this.trimming = src.trimming;
+		this.truncateOverflow = src.truncateOverflow;
+		this.readAheadSize = src.readAheadSize;
+		this.paddingMap = Collections.unmodifiableMap(new HashMap<>(src.paddingMap));
+		this.codecMap = Collections.unmodifiableMap(new HashMap<>(src.codecMap));
+
+		DateFormat template = src.dateFormat == null ? null : (DateFormat) src.dateFormat.clone();
+		this.dateFormat = template;
+		this.localDateFormat = template == null ? null : ThreadLocal.withInitial(() -> (DateFormat) template.clone());
 	}
 
 	public FLTConfig(String charCode) {
@@ -104,29 +171,85 @@ public class FLTConfig {
 		this.append = append;
 	}
 
+	/**
+	 * 現在の設定を複製し、変更不可の固定長形式情報を作成します。<p>
+	 * 作成した固定長形式情報はスレッドセーフであり、複数の読み込み/書き込みで共有できます。
+	 * 設定を変更するメソッドは{@link IllegalStateException}をスローします。
+	 * パディング、トリミング、変換処理はスレッドセーフな実装である必要があります。
+	 *
+	 * @return 変更不可の固定長形式情報、既に変更不可の場合はこのインスタンス
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTConfig freeze() throws UnsupportedEncodingException {
+		if (frozen) {
+			return this;
+		}
+		// 文字セットは作成時に検査し、バイト数計算処理を解決しておきます。
+		ByteWidthCalculator.getInstance(charCode);
+		return new FLTConfig(this);
+	}
+
+	/**
+	 * 変更不可の固定長形式情報かどうかを返却します。
+	 *
+	 * @return {@link #freeze()}で作成した場合true
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * 設定を変更した回数を返却します。
+	 * 変更不可の固定長形式情報の場合は、常に0です。
+	 *
+	 * @return 設定を変更した回数
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * 設定を変更できることを検査し、変更回数を加算します。
+	 */
+	private void checkMutable() {
+		if (frozen) {
+			throw new IllegalStateException("The configuration is frozen.");
+		}
+		modCount++;
+	}
 
 	public String getCharCode() {
 		return charCode;
 	}
 	public void setCharCode(String charCode) {
+		checkMutable();
 		this.charCode = charCode;
 	}
 	public FLTType getFltType() {
 		return fltType;
 	}
 	public void setFltType(FLTType fltType) {
+		checkMutable();
 		this.fltType = fltType;
 	}
 	public boolean isAppend() {
 		return append;
 	}
 	public void setAppend(boolean append) {
+		checkMutable();
 		this.append = append;
 	}
+	/**
+	 * 日付書式情報を返却します。
+	 * 変更不可の固定長形式情報の場合は、呼び出したスレッド専用の複製を返却します。
+	 *
+	 * @return 日付書式情報
+	 */
 	public DateFormat getDateFormat() {
-		return dateFormat;
+		return localDateFormat != null ? localDateFormat.get() : dateFormat;
 	}
 	public void setDateFormat(DateFormat dateFormat) {
+		checkMutable();
 		this.dateFormat = dateFormat;
 	}
 
@@ -135,6 +258,7 @@ public class FLTConfig {
 	}
 
 	public void setIgnoreblankLines(boolean ignoreblankLines) {
+		checkMutable();
 		this.ignoreblankLines = ignoreblankLines;
 	}
 
@@ -143,21 +267,89 @@ public class FLTConfig {
 	}
 
 	public void setTrimming(TrimmingFormat trimming) {
+		checkMutable();
 		this.trimming = trimming;
 	}
 
+	public boolean isTruncateOverflow() {
+		return truncateOverflow;
+	}
+
+	public void setTruncateOverflow(boolean truncateOverflow) {
+		checkMutable();
+		this.truncateOverflow = truncateOverflow;
+	}
+
+	public int getReadAheadSize() {
+		return readAheadSize;
+	}
+
+	/**
+	 * 読み込み時に別スレッドで先読みするバッファのバイト数を設定します。<p>
+	 * 0より大きい場合、指定されたバイト数のダイレクトバッファ2つを交互に使用し、
+	 * レコードの解析中に次のバッファを読み込みます。ネットワーク上のファイルなど、
+	 * 読み込みごとの待ち時間が大きい場合に有効です(目安：1MB以上)。
+	 *
+	 * @param readAheadSize バッファのバイト数(0の場合は先読みしない)
+	 */
+	public void setReadAheadSize(int readAheadSize) {
+		checkMutable();
+		if (readAheadSize < 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.readAheadSize = readAheadSize;
+	}
+
+	/**
+	 * 文字コードに対応したバイト数計算処理を返却します。
+	 *
+	 * @return バイト数計算処理
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public ByteWidthCalculator getByteWidthCalculator() throws UnsupportedEncodingException {
+		return ByteWidthCalculator.getInstance(charCode);
+	}
+
 	public PaddingFormat getPaddingFormat(Class<?> type){
 		PaddingFormat ret = null;
 		if (paddingMap.containsKey(type)) {
 			ret = paddingMap.get(type);
+		} else if (type != null && type.isEnum()) {
+			// 列挙型は定数名を文字列と同様にパディングします。
+			ret = paddingMap.get(String.class);
 		}
 		return ret;
 	}
 
 	public void setPadding(Class<?> clazz, PaddingFormat padding) {
+		checkMutable();
 		paddingMap.put(clazz, padding);
 	}
 
+	/**
+	 * 指定された型の変換処理を返却します。
+	 * 登録されていない型の場合は、標準の変換処理を返却します。
+	 *
+	 * @param type フィールドの型
+	 * @return 変換処理、対応していない型の場合はnull
+	 */
+	public ColumnCodec<?> getCodec(Class<?> type) {
+		ColumnCodec<?> ret = codecMap.get(type);
+		return ret != null ? ret : DefaultColumnCodecs.get(type);
+	}
+
+	/**
+	 * 指定された型の変換処理を登録します。
+	 * 読み込み/書き込みの途中で登録した場合は、次のレコードの変換から使用します。
+	 *
+	 * @param type フィールドの型
+	 * @param codec 変換処理
+	 */
+	public <T> void setCodec(Class<T> type, ColumnCodec<T> codec) {
+		checkMutable();
+		codecMap.put(type, codec);
+	}
+
 
 
 
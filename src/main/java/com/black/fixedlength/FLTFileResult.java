@@ -0,0 +1,62 @@
+package com.black.fixedlength;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 複数の固定長ファイルを読み込んだ、1ファイルの結果を提供します。<p>
+ * 読み込みに失敗したファイルはエラーを保持し、他のファイルの結果には影響しません。
+ *
+ * @param <T> レコードの型
+ * @see FLT#loadAll(FLTConfig, List, Class, int)
+ * @see FLT#loadAll(FLTConfig, List, Class, int, java.util.function.Consumer)
+ */
+public final class FLTFileResult<T> {
+
+	private final Path path;
+	private final List<T> records;
+	private final Exception error;
+
+	FLTFileResult(Path path, List<T> records, Exception error) {
+		this.path = path;
+		this.records = records;
+		this.error = error;
+	}
+
+	/**
+	 * 読み込んだファイルのパスを返却します。
+	 *
+	 * @return ファイルパス
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * 読み込んだレコードを返却します。
+	 *
+	 * @return レコードのList、読み込みに失敗した場合は空のList
+	 */
+	public List<T> getRecords() {
+		return records == null ? Collections.<T>emptyList() : records;
+	}
+
+	/**
+	 * 読み込みで発生したエラーを返却します。
+	 *
+	 * @return エラー、成功した場合はnull
+	 */
+	public Exception getError() {
+		return error;
+	}
+
+	/**
+	 * 読み込みに成功したかどうかを返却します。
+	 *
+	 * @return 成功した場合true
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+}
@@ -6,6 +6,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.black.fixedlength.codec.ColumnCodec;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.SignPosition;
+
 /**
  * 固定長文字列項目定義
  *
@@ -27,4 +31,57 @@ public @interface Column {
 	 */
 	String name() default "";
 
+	/**
+	 * 繰り返し回数(初期値：0 繰り返しなし)
+	 *
+	 * 配列のフィールドに指定し、要素ごとに文字数/バイト数、格納形式などが同じ項目を指定された回数だけ配置します。
+	 * 項目名は「フィールド名[要素の位置]」です。読み込み時は要素数の配列を生成(既存の配列は再利用)し、
+	 * プリミティブ型の配列にはラッパークラスを経由せずに格納します。
+	 *
+	 * {@code @Column}のフィールドを持つクラス(入れ子のレコード)のフィールドは、入れ子のレコードの項目をその位置に配置します。
+	 * 項目名は「フィールド名.入れ子のレコードの項目名」です。入れ子のレコードの場合、文字数/バイト数の指定は不要です。
+	 * @return
+	 */
+	int occurs() default 0;
+
+	/**
+	 * 格納形式(初期値：文字)
+	 *
+	 * 文字以外の格納形式は固定長の読み取り形式がバイト数の場合のみ使用できます。
+	 * 対応する型はlong、int、short(ラッパークラスを含む)、BigDecimalです。
+	 * @return
+	 */
+	ColumnEncoding encoding() default ColumnEncoding.TEXT;
+
+	/**
+	 * 小数点以下の桁数(初期値：0)
+	 *
+	 * 型がBigDecimalの場合、指定された桁数を小数部として扱います。
+	 * 整数型の場合は小数点を除いた値(スケールなしの値)をそのまま格納します。
+	 *
+	 * 格納形式が文字の場合、小数点は格納せず(暗黙の小数点)、数字のみで表現します。
+	 * @return
+	 */
+	int scale() default 0;
+
+	/**
+	 * 符号の位置(初期値：符号なし)
+	 *
+	 * 格納形式が文字の数値項目(long、int、short、BigDecimal)で使用します。
+	 * 小数点以下の桁数または符号の位置が指定された数値項目、BigDecimalの項目は、
+	 * トリミング、パディングを行わずに数字の並びとして直接読み込み/書き込みを行います。
+	 * @return
+	 */
+	SignPosition sign() default SignPosition.NONE;
+
+	/**
+	 * 変換処理(初期値：型ごとの変換処理)
+	 *
+	 * 格納形式が文字の項目で、型ごとの変換処理の代わりに使用する変換処理を指定します。
+	 * 指定するクラスには引数なしのコンストラクタが必要です。
+	 * @return
+	 */
+	@SuppressWarnings("rawtypes")
+	Class<? extends ColumnCodec> codec() default ColumnCodec.class;
+
 }
@@ -0,0 +1,251 @@
+package com.black.fixedlength.charset;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 文字列を指定された文字セットでエンコードした場合のバイト数を計算します。<p>
+ * エンコード結果のバイト配列を生成せずにバイト数を求めます。
+ * 文字列がASCII文字のみで構成されている場合は、文字数をそのままバイト数として扱います。
+ *
+ */
+public abstract class ByteWidthCalculator {
+
+	/**
+	 * 文字セット名ごとのインスタンスのキャッシュ
+	 */
+	private static final ConcurrentMap<String, ByteWidthCalculator> CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 * 文字セット
+	 */
+	protected final Charset charset;
+
+	/**
+	 * ASCII文字を1バイトでそのままエンコードする文字セットかどうかです。
+	 */
+	private final boolean asciiCompatible;
+
+	/**
+	 * 数字をEBCDIC(0xF0～0xF9)でエンコードする文字セットかどうかです。
+	 */
+	private final boolean ebcdic;
+
+	protected ByteWidthCalculator(Charset charset) {
+		this.charset = charset;
+
+		char[] chars = new char[0x80];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) i;
+		}
+		byte[] bytes = new String(chars).getBytes(charset);
+		boolean compatible = bytes.length == chars.length;
+		for (int i = 0; compatible && i < bytes.length; i++) {
+			compatible = bytes[i] == i;
+		}
+		this.asciiCompatible = compatible;
+
+		byte[] zero = "0".getBytes(charset);
+		this.ebcdic = zero.length == 1 && (zero[0] & 0xFF) == 0xF0;
+	}
+
+	/**
+	 * 指定された文字セットのインスタンスを返却します。
+	 *
+	 * @param charCode 文字コード
+	 * @return 指定された文字セットのインスタンス
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public static ByteWidthCalculator getInstance(String charCode) throws UnsupportedEncodingException {
+		ByteWidthCalculator ret = CACHE.get(charCode);
+		if (ret != null) {
+			return ret;
+		}
+
+		Charset charset;
+		try {
+			charset = Charset.forName(charCode);
+		} catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+			throw new UnsupportedEncodingException(charCode);
+		}
+
+		switch (charset.name()) {
+		case "UTF-8" :
+			ret = new Utf8WidthCalculator(charset);
+			break;
+		case "Shift_JIS" :
+		case "windows-31j" :
+		case "EUC-JP" :
+		case "US-ASCII" :
+		case "ISO-8859-1" :
+			ret = new TableWidthCalculator(charset);
+			break;
+		default:
+			ret = new EncoderWidthCalculator(charset);
+			break;
+		}
+
+		ByteWidthCalculator current = CACHE.putIfAbsent(charCode, ret);
+		return current != null ? current : ret;
+	}
+
+	/**
+	 * 指定された範囲の文字がすべてASCII文字かどうかを返却します。
+	 *
+	 * @param str 判定する文字列
+	 * @param beginIndex 開始インデックス(この値を含む)
+	 * @param endIndex 終了インデックス(この値を含まない)
+	 * @return すべてASCII文字の場合true
+	 */
+	public static boolean isAscii(CharSequence str, int beginIndex, int endIndex) {
+		for (int i = beginIndex; i < endIndex; i++) {
+			if (str.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 指定された範囲のバイトがすべてASCII文字の範囲(0x00～0x7F)かどうかを返却します。
+	 *
+	 * @param bytes 判定するバイト配列
+	 * @param offset 開始位置
+	 * @param length バイト数
+	 * @return すべてASCII文字の範囲の場合true
+	 */
+	public static boolean isAscii(byte[] bytes, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (bytes[i] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 文字セットを返却します。
+	 *
+	 * @return 文字セット
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * ASCII文字を1バイトでそのままエンコードする文字セットかどうかを返却します。
+	 *
+	 * @return ASCII互換の文字セットの場合true
+	 */
+	public boolean isAsciiCompatible() {
+		return asciiCompatible;
+	}
+
+	/**
+	 * 数字をEBCDIC(0xF0～0xF9)でエンコードする文字セットかどうかを返却します。
+	 *
+	 * @return EBCDICの文字セットの場合true
+	 */
+	public boolean isEbcdic() {
+		return ebcdic;
+	}
+
+	/**
+	 * 指定された文字列をエンコードした場合のバイト数を返却します。
+	 *
+	 * @param str 文字列
+	 * @return バイト数
+	 */
+	public int byteLength(CharSequence str) {
+		return byteLength(str, 0, str.length());
+	}
+
+	/**
+	 * 指定された範囲の文字列をエンコードした場合のバイト数を返却します。
+	 *
+	 * @param str 文字列
+	 * @param beginIndex 開始インデックス(この値を含む)
+	 * @param endIndex 終了インデックス(この値を含まない)
+	 * @return バイト数
+	 */
+	public int byteLength(CharSequence str, int beginIndex, int endIndex) {
+		int i = beginIndex;
+		if (asciiCompatible) {
+			while (i < endIndex && str.charAt(i) < 0x80) {
+				i++;
+			}
+		}
+
+		int ret = i - beginIndex;
+		while (i < endIndex) {
+			ret += width(str, i, endIndex);
+			i += charCount(str, i, endIndex);
+		}
+		return ret;
+	}
+
+	/**
+	 * 指定された開始インデックスから、指定されたバイト数を超えない範囲の終了インデックスを返却します。<p>
+	 * 終了インデックスは文字の境界になるため、マルチバイト文字の途中で分割されることはありません。
+	 *
+	 * @param str 文字列
+	 * @param beginIndex 開始インデックス(この値を含む)
+	 * @param maxBytes 最大バイト数
+	 * @return 終了インデックス(この値を含まない)
+	 */
+	public int charIndex(CharSequence str, int beginIndex, int maxBytes) {
+		int length = str.length();
+		int i = beginIndex;
+		if (asciiCompatible) {
+			int limit = Math.min(length, beginIndex + maxBytes);
+			while (i < limit && str.charAt(i) < 0x80) {
+				i++;
+			}
+		}
+
+		int bytes = i - beginIndex;
+		while (i < length) {
+			int width = width(str, i, length);
+			if (bytes + width > maxBytes) {
+				break;
+			}
+			bytes += width;
+			i += charCount(str, i, length);
+		}
+		return i;
+	}
+
+	/**
+	 * 指定されたバイト数に収まるよう、文字の境界で文字列を切り詰めます。
+	 *
+	 * @param str 文字列
+	 * @param maxBytes 最大バイト数
+	 * @return 切り詰めた文字列
+	 */
+	public String truncate(String str, int maxBytes) {
+		int endIndex = charIndex(str, 0, maxBytes);
+		return endIndex == str.length() ? str : str.substring(0, endIndex);
+	}
+
+	/**
+	 * 指定された位置の1文字(サロゲートペアの場合は2文字)をエンコードした場合のバイト数を返却します。
+	 *
+	 * @param str 文字列
+	 * @param index インデックス
+	 * @param endIndex 終了インデックス(この値を含まない)
+	 * @return バイト数
+	 */
+	protected abstract int width(CharSequence str, int index, int endIndex);
+
+	/**
+	 * 指定された位置の文字がサロゲートペアの場合は2、それ以外は1を返却します。
+	 */
+	protected static int charCount(CharSequence str, int index, int endIndex) {
+		return Character.isHighSurrogate(str.charAt(index)) && index + 1 < endIndex
+				&& Character.isLowSurrogate(str.charAt(index + 1)) ? 2 : 1;
+	}
+}
@@ -0,0 +1,25 @@
+package com.black.fixedlength.charset;
+
+import java.nio.charset.Charset;
+
+/**
+ * 専用の計算方法を持たない文字セットのバイト数を、実際にエンコードして計算します。
+ *
+ */
+class EncoderWidthCalculator extends ByteWidthCalculator {
+
+	EncoderWidthCalculator(Charset charset) {
+		super(charset);
+	}
+
+	@Override
+	public int byteLength(CharSequence str, int beginIndex, int endIndex) {
+		// シフト状態を持つ文字セットがあるため、範囲全体をまとめてエンコードします。
+		return str.subSequence(beginIndex, endIndex).toString().getBytes(charset).length;
+	}
+
+	@Override
+	protected int width(CharSequence str, int index, int endIndex) {
+		return str.subSequence(index, index + charCount(str, index, endIndex)).toString().getBytes(charset).length;
+	}
+}
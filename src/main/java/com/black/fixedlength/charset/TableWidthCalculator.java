@@ -0,0 +1,36 @@
+package com.black.fixedlength.charset;
+
+import java.nio.charset.Charset;
+
+/**
+ * 1文字ごとに独立してエンコードされる文字セット(Shift_JIS、Windows-31J、EUC-JPなど)のバイト数を計算します。<p>
+ * 文字ごとのバイト数は初回の出現時にのみエンコードして求め、以降は表から参照します。
+ *
+ */
+class TableWidthCalculator extends ByteWidthCalculator {
+
+	/**
+	 * 文字ごとのバイト数(0は未計算)
+	 */
+	private final byte[] widths = new byte[Character.MAX_VALUE + 1];
+
+	TableWidthCalculator(Charset charset) {
+		super(charset);
+	}
+
+	@Override
+	protected int width(CharSequence str, int index, int endIndex) {
+		char c = str.charAt(index);
+		if (charCount(str, index, endIndex) == 2) {
+			return new String(new char[] { c, str.charAt(index + 1) }).getBytes(charset).length;
+		}
+
+		// 同じ値を書き込むだけのため、複数スレッドから同時に更新されても問題ありません。
+		int ret = widths[c];
+		if (ret == 0) {
+			ret = String.valueOf(c).getBytes(charset).length;
+			widths[c] = (byte) ret;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,28 @@
+package com.black.fixedlength.charset;
+
+import java.nio.charset.Charset;
+
+/**
+ * UTF-8のバイト数を文字コードの範囲から計算します。
+ *
+ */
+class Utf8WidthCalculator extends ByteWidthCalculator {
+
+	Utf8WidthCalculator(Charset charset) {
+		super(charset);
+	}
+
+	@Override
+	protected int width(CharSequence str, int index, int endIndex) {
+		char c = str.charAt(index);
+		if (c < 0x80) {
+			return 1;
+		} else if (c < 0x800) {
+			return 2;
+		} else if (Character.isSurrogate(c)) {
+			// サロゲートペアは4バイト、不正なサロゲートは置換文字(?)の1バイト
+			return charCount(str, index, endIndex) == 2 ? 4 : 1;
+		}
+		return 3;
+	}
+}
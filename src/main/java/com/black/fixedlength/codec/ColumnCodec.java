@@ -0,0 +1,36 @@
+package com.black.fixedlength.codec;
+
+import java.text.ParseException;
+
+import com.black.fixedlength.FLTConfig;
+
+/**
+ * 文字の項目の値と、フィールドの型との変換のインタフェースです。<p>
+ * 読み込み時はトリミング済みの文字列を、書き込み時はパディング前の文字列を扱います。
+ * {@link FLTConfig#setCodec(Class, ColumnCodec)}で型ごとに登録するか、
+ * {@link com.black.fixedlength.annotation.Column#codec()}で項目ごとに指定します。
+ * 項目ごとに指定する場合は、引数なしのコンストラクタが必要です。
+ *
+ * @param <T> フィールドの型
+ */
+public interface ColumnCodec<T> {
+
+	/**
+	 * 文字列をフィールドの型に変換します。
+	 *
+	 * @param str トリミング済みの文字列
+	 * @param conf 固定長形式情報
+	 * @return 変換した値
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public T decode(String str, FLTConfig conf) throws ParseException;
+
+	/**
+	 * フィールドの値を文字列に変換します。
+	 *
+	 * @param value フィールドの値(nullは渡されません)
+	 * @param conf 固定長形式情報
+	 * @return パディング前の文字列
+	 */
+	public String encode(T value, FLTConfig conf);
+}
@@ -0,0 +1,279 @@
+package com.black.fixedlength.codec;
+
+import java.math.BigInteger;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.black.fixedlength.FLTConfig;
+
+/**
+ * 標準で対応している型の変換処理を提供します。<p>
+ * String、数値型(ラッパークラスを含む)、char、日付型に加えて、UUID、BigInteger、列挙型に対応します。
+ *
+ */
+public final class DefaultColumnCodecs {
+
+	private static final Map<Class<?>, ColumnCodec<?>> CODECS = new HashMap<>();
+
+	/**
+	 * 列挙型ごとの変換処理のキャッシュ
+	 */
+	private static final ClassValue<ColumnCodec<?>> ENUM_CODECS = new ClassValue<ColumnCodec<?>>() {
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected ColumnCodec<?> computeValue(Class<?> type) {
+			return new EnumCodec(type);
+		}
+	};
+
+	static {
+		register(new StringCodec(), String.class);
+		register(new IntCodec(), int.class, Integer.class);
+		register(new LongCodec(), long.class, Long.class);
+		register(new DoubleCodec(), double.class, Double.class);
+		register(new FloatCodec(), float.class, Float.class);
+		register(new ByteCodec(), byte.class, Byte.class);
+		register(new ShortCodec(), short.class, Short.class);
+		register(new CharCodec(), char.class, Character.class);
+		register(new DateCodec(), java.util.Date.class);
+		register(new SqlDateCodec(), java.sql.Date.class);
+		register(new TimestampCodec(), java.sql.Timestamp.class);
+		register(new CalendarCodec(), Calendar.class);
+		register(new UUIDCodec(), UUID.class);
+		register(new BigIntegerCodec(), BigInteger.class);
+	}
+
+	private DefaultColumnCodecs() {
+	}
+
+	private static void register(ColumnCodec<?> codec, Class<?>... types) {
+		for (Class<?> type : types) {
+			CODECS.put(type, codec);
+		}
+	}
+
+	/**
+	 * 指定された型の標準の変換処理を返却します。
+	 *
+	 * @param type フィールドの型
+	 * @return 変換処理、対応していない型の場合はnull
+	 */
+	public static ColumnCodec<?> get(Class<?> type) {
+		ColumnCodec<?> ret = CODECS.get(type);
+		if (ret == null && type != null && type.isEnum()) {
+			ret = ENUM_CODECS.get(type);
+		}
+		return ret;
+	}
+
+	private static DateFormat getDateFormat(FLTConfig conf) {
+		if (conf.getDateFormat() == null) {
+			throw new IllegalArgumentException("The conversion date format is not set.");
+		}
+		return conf.getDateFormat();
+	}
+
+	private static final class StringCodec implements ColumnCodec<String> {
+		@Override
+		public String decode(String str, FLTConfig conf) {
+			return str;
+		}
+
+		@Override
+		public String encode(String value, FLTConfig conf) {
+			return value;
+		}
+	}
+
+	private static final class IntCodec implements IntColumnCodec {
+		@Override
+		public int decodeInt(String str, FLTConfig conf) {
+			return Integer.parseInt(str);
+		}
+
+		@Override
+		public String encodeInt(int value, FLTConfig conf) {
+			return Integer.toString(value);
+		}
+	}
+
+	private static final class LongCodec implements LongColumnCodec {
+		@Override
+		public long decodeLong(String str, FLTConfig conf) {
+			return Long.parseLong(str);
+		}
+
+		@Override
+		public String encodeLong(long value, FLTConfig conf) {
+			return Long.toString(value);
+		}
+	}
+
+	private static final class DoubleCodec implements DoubleColumnCodec {
+		@Override
+		public double decodeDouble(String str, FLTConfig conf) {
+			return Double.parseDouble(str);
+		}
+
+		@Override
+		public String encodeDouble(double value, FLTConfig conf) {
+			return Double.toString(value);
+		}
+	}
+
+	private static final class FloatCodec implements ColumnCodec<Float> {
+		@Override
+		public Float decode(String str, FLTConfig conf) {
+			return Float.valueOf(str);
+		}
+
+		@Override
+		public String encode(Float value, FLTConfig conf) {
+			return value.toString();
+		}
+	}
+
+	private static final class ByteCodec implements ColumnCodec<Byte> {
+		@Override
+		public Byte decode(String str, FLTConfig conf) {
+			return Byte.valueOf(str);
+		}
+
+		@Override
+		public String encode(Byte value, FLTConfig conf) {
+			return value.toString();
+		}
+	}
+
+	private static final class ShortCodec implements ColumnCodec<Short> {
+		@Override
+		public Short decode(String str, FLTConfig conf) {
+			return Short.valueOf(str);
+		}
+
+		@Override
+		public String encode(Short value, FLTConfig conf) {
+			return value.toString();
+		}
+	}
+
+	private static final class CharCodec implements ColumnCodec<Character> {
+		@Override
+		public Character decode(String str, FLTConfig conf) {
+			// 空白のみの値はトリミングにより空文字になるため、空白として扱います。
+			return str.isEmpty() ? ' ' : str.charAt(0);
+		}
+
+		@Override
+		public String encode(Character value, FLTConfig conf) {
+			return value.toString();
+		}
+	}
+
+	private static final class DateCodec implements ColumnCodec<java.util.Date> {
+		@Override
+		public java.util.Date decode(String str, FLTConfig conf) throws ParseException {
+			return getDateFormat(conf).parse(str);
+		}
+
+		@Override
+		public String encode(java.util.Date value, FLTConfig conf) {
+			return getDateFormat(conf).format(value);
+		}
+	}
+
+	private static final class SqlDateCodec implements ColumnCodec<java.sql.Date> {
+		@Override
+		public java.sql.Date decode(String str, FLTConfig conf) throws ParseException {
+			return new java.sql.Date(getDateFormat(conf).parse(str).getTime());
+		}
+
+		@Override
+		public String encode(java.sql.Date value, FLTConfig conf) {
+			return getDateFormat(conf).format(new java.util.Date(value.getTime()));
+		}
+	}
+
+	private static final class TimestampCodec implements ColumnCodec<java.sql.Timestamp> {
+		@Override
+		public java.sql.Timestamp decode(String str, FLTConfig conf) throws ParseException {
+			return new java.sql.Timestamp(getDateFormat(conf).parse(str).getTime());
+		}
+
+		@Override
+		public String encode(java.sql.Timestamp value, FLTConfig conf) {
+			return getDateFormat(conf).format(new java.util.Date(value.getTime()));
+		}
+	}
+
+	private static final class CalendarCodec implements ColumnCodec<Calendar> {
+		@Override
+		public Calendar decode(String str, FLTConfig conf) throws ParseException {
+			Calendar cal = Calendar.getInstance();
+			cal.setTime(getDateFormat(conf).parse(str));
+			return cal;
+		}
+
+		@Override
+		public String encode(Calendar value, FLTConfig conf) {
+			return getDateFormat(conf).format(value.getTime());
+		}
+	}
+
+	private static final class UUIDCodec implements ColumnCodec<UUID> {
+		@Override
+		public UUID decode(String str, FLTConfig conf) throws ParseException {
+			try {
+				return UUID.fromString(str);
+			} catch (IllegalArgumentException e) {
+				throw new ParseException(String.format("Invalid UUID %s.", str), 0);
+			}
+		}
+
+		@Override
+		public String encode(UUID value, FLTConfig conf) {
+			return value.toString();
+		}
+	}
+
+	private static final class BigIntegerCodec implements ColumnCodec<BigInteger> {
+		@Override
+		public BigInteger decode(String str, FLTConfig conf) {
+			return new BigInteger(str.trim());
+		}
+
+		@Override
+		public String encode(BigInteger value, FLTConfig conf) {
+			return value.toString();
+		}
+	}
+
+	/**
+	 * 列挙型を定数名で変換します。
+	 */
+	private static final class EnumCodec<E extends Enum<E>> implements ColumnCodec<E> {
+		private final Class<E> type;
+
+		EnumCodec(Class<E> type) {
+			this.type = type;
+		}
+
+		@Override
+		public E decode(String str, FLTConfig conf) throws ParseException {
+			try {
+				return Enum.valueOf(type, str);
+			} catch (IllegalArgumentException e) {
+				throw new ParseException(String.format("Unknown constant %s of %s.", str, type.getName()), 0);
+			}
+		}
+
+		@Override
+		public String encode(E value, FLTConfig conf) {
+			return value.name();
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.black.fixedlength.codec;
+
+import java.text.ParseException;
+
+import com.black.fixedlength.FLTConfig;
+
+/**
+ * double型に特化した変換のインタフェースです。
+ * double型のフィールドでは、ラッパークラスを経由せずに変換します。
+ *
+ */
+public interface DoubleColumnCodec extends ColumnCodec<Double> {
+
+	/**
+	 * 文字列をdouble型に変換します。
+	 *
+	 * @param str トリミング済みの文字列
+	 * @param conf 固定長形式情報
+	 * @return 変換した値
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public double decodeDouble(String str, FLTConfig conf) throws ParseException;
+
+	/**
+	 * double型の値を文字列に変換します。
+	 *
+	 * @param value フィールドの値
+	 * @param conf 固定長形式情報
+	 * @return パディング前の文字列
+	 */
+	public String encodeDouble(double value, FLTConfig conf);
+
+	@Override
+	default Double decode(String str, FLTConfig conf) throws ParseException {
+		return decodeDouble(str, conf);
+	}
+
+	@Override
+	default String encode(Double value, FLTConfig conf) {
+		return encodeDouble(value, conf);
+	}
+}
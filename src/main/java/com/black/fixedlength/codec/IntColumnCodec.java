@@ -0,0 +1,42 @@
+package com.black.fixedlength.codec;
+
+import java.text.ParseException;
+
+import com.black.fixedlength.FLTConfig;
+
+/**
+ * int型に特化した変換のインタフェースです。
+ * int型のフィールドでは、ラッパークラスを経由せずに変換します。
+ *
+ */
+public interface IntColumnCodec extends ColumnCodec<Integer> {
+
+	/**
+	 * 文字列をint型に変換します。
+	 *
+	 * @param str トリミング済みの文字列
+	 * @param conf 固定長形式情報
+	 * @return 変換した値
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public int decodeInt(String str, FLTConfig conf) throws ParseException;
+
+	/**
+	 * int型の値を文字列に変換します。
+	 *
+	 * @param value フィールドの値
+	 * @param conf 固定長形式情報
+	 * @return パディング前の文字列
+	 */
+	public String encodeInt(int value, FLTConfig conf);
+
+	@Override
+	default Integer decode(String str, FLTConfig conf) throws ParseException {
+		return decodeInt(str, conf);
+	}
+
+	@Override
+	default String encode(Integer value, FLTConfig conf) {
+		return encodeInt(value, conf);
+	}
+}
@@ -0,0 +1,42 @@
+package com.black.fixedlength.codec;
+
+import java.text.ParseException;
+
+import com.black.fixedlength.FLTConfig;
+
+/**
+ * long型に特化した変換のインタフェースです。
+ * long型のフィールドでは、ラッパークラスを経由せずに変換します。
+ *
+ */
+public interface LongColumnCodec extends ColumnCodec<Long> {
+
+	/**
+	 * 文字列をlong型に変換します。
+	 *
+	 * @param str トリミング済みの文字列
+	 * @param conf 固定長形式情報
+	 * @return 変換した値
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public long decodeLong(String str, FLTConfig conf) throws ParseException;
+
+	/**
+	 * long型の値を文字列に変換します。
+	 *
+	 * @param value フィールドの値
+	 * @param conf 固定長形式情報
+	 * @return パディング前の文字列
+	 */
+	public String encodeLong(long value, FLTConfig conf);
+
+	@Override
+	default Long decode(String str, FLTConfig conf) throws ParseException {
+		return decodeLong(str, conf);
+	}
+
+	@Override
+	default String encode(Long value, FLTConfig conf) {
+		return encodeLong(value, conf);
+	}
+}
@@ -0,0 +1,147 @@
+package com.black.fixedlength.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.manager.FLTAnnotationManager;
+import com.black.fixedlength.manager.FLTRecordAccessor;
+import com.black.fixedlength.manager.FLTWriter;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * ResultSetの行を固定長ファイルに出力します。<p>
+ * 固定長の項目とResultSetの列を項目名(または{@link #mapColumn(String, String)}で指定した列名)で対応付け、
+ * 各行の値を{@link FLTRecordAccessor}で再利用するレコードに直接書き込みます。エンティティは使用しません。
+ * NULLの列はエンティティの書き込みと同様にエラーとなるため、SQLでCOALESCEなどを使用して値を補ってください。
+ *
+ */
+public class FLTJdbcExporter {
+
+	private final FLTConfig conf;
+	private final RecordLayout layout;
+
+	/**
+	 * 固定長の項目名とResultSetの列名の対応(指定されていない項目は項目名と同じ列名)
+	 */
+	private final Map<String, String> columnMap = new HashMap<>();
+
+	/**
+	 * 指定されたクラスの配置情報で出力するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz データレコードのクラス
+	 */
+	public FLTJdbcExporter(FLTConfig conf, Class<?> clazz) {
+		this(conf, FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 指定されたレコード定義で出力するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param schema データレコードのレコード定義
+	 */
+	public FLTJdbcExporter(FLTConfig conf, RecordSchema schema) {
+		this(conf, schema.getLayout());
+	}
+
+	private FLTJdbcExporter(FLTConfig conf, RecordLayout layout) {
+		if (conf == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.conf = conf;
+		this.layout = layout;
+	}
+
+	/**
+	 * 固定長の項目に対応するResultSetの列名を指定します。
+	 *
+	 * @param column 固定長の項目名
+	 * @param label ResultSetの列名
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public void mapColumn(String column, String label) {
+		if (column == null || label == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (layout.getColumn(column) == null) {
+			throw new IllegalArgumentException(String.format("Unknown column %s.", column));
+		}
+		columnMap.put(column, label);
+	}
+
+	/**
+	 * ResultSetの残りの行を、指定されたファイルに出力します。
+	 *
+	 * @param rs 出力するResultSet
+	 * @param outputPath 出力先ファイルパス
+	 * @return 出力した行数
+	 * @throws SQLException ResultSetの読み込みに失敗した場合、対応する列が存在しない場合
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public long export(ResultSet rs, Path outputPath) throws SQLException, IOException {
+		try (FLTWriter writer = new FLTWriter(conf, outputPath)) {
+			return export(rs, writer);
+		}
+	}
+
+	/**
+	 * ResultSetの残りの行を、指定された書き込み処理に出力します。
+	 * ヘッダ、トレーラレコードは、書き込み処理に対して前後に書き込んでください。
+	 *
+	 * @param rs 出力するResultSet
+	 * @param writer 書き込み処理
+	 * @return 出力した行数
+	 * @throws SQLException ResultSetの読み込みに失敗した場合、対応する列が存在しない場合
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public long export(ResultSet rs, FLTWriter writer) throws SQLException, IOException {
+		if (rs == null || writer == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		// 列の位置と変換処理は開始時に一度だけ解決します。
+		FLTRecordAccessor accessor = new FLTRecordAccessor(conf, layout);
+		int[] indexes = new int[layout.getColumnCount()];
+		for (int i = 0; i < indexes.length; i++) {
+			String name = layout.getColumn(i).getName();
+			String label = columnMap.get(name);
+			indexes[i] = rs.findColumn(label != null ? label : name);
+		}
+
+		int recordSize = layout.getRecordSize();
+		byte[] record = conf.getFltType() == FLTType.BYTE ? new byte[recordSize] : null;
+		StringBuilder line = record == null ? new StringBuilder(recordSize) : null;
+
+		long count = 0;
+		while (rs.next()) {
+			if (line != null) {
+				line.setLength(0);
+			}
+			for (int i = 0; i < indexes.length; i++) {
+				ColumnLayout column = layout.getColumn(i);
+				Object value = JdbcColumns.getValue(rs, indexes[i], column.getType());
+				if (record != null) {
+					accessor.encode(i, value, record);
+				} else {
+					accessor.append(i, value, line);
+				}
+			}
+
+			if (record != null) {
+				writer.writeRecord(record, 0, recordSize);
+			} else {
+				writer.write(line.toString(), recordSize);
+			}
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,344 @@
+package com.black.fixedlength.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.manager.FLTAnnotationManager;
+import com.black.fixedlength.manager.FLTReader;
+import com.black.fixedlength.manager.FLTRecordAccessor;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * 固定長ファイルのデータレコードをPreparedStatementのバッチで登録します。<p>
+ * 固定長の項目をパラメータの順に対応付け、指定された件数ごとに{@link PreparedStatement#executeBatch()}を実行します。
+ * パラメータの値は{@link FLTRecordAccessor}で読み込んだレコードから直接取り出し、エンティティは使用しません。
+ * レコード判定文字が一致しない先頭のレコードはヘッダレコードとして読み飛ばし、それ以降に一致しないレコードはトレーラレコードとして読み込みを終了します。
+ * パイプライン処理を有効にした場合は、ファイルの読み込みと変換を別スレッドで行い、登録と並行して次のバッチを準備します。
+ * トランザクションの確定は呼び出し側で行ってください。
+ *
+ */
+public class FLTJdbcImporter {
+
+	/**
+	 * パイプライン処理の終了を表すバッチ
+	 */
+	private static final List<Object[]> END = Collections.emptyList();
+
+	private final FLTConfig conf;
+	private final RecordLayout layout;
+
+	/**
+	 * パラメータの順に並べた項目のインデックス
+	 */
+	private int[] parameters;
+
+	/**
+	 * 1回のバッチで登録する件数(初期値：1000)
+	 */
+	private int batchSize = 1000;
+
+	/**
+	 * 読み込みと登録を並行して行うかどうかです。
+	 */
+	private boolean pipelined = false;
+
+	/**
+	 * パイプライン処理で先読みするバッチの数(初期値：2)
+	 */
+	private int queueDepth = 2;
+
+	/**
+	 * 指定されたクラスの配置情報で読み込むコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz データレコードのクラス
+	 */
+	public FLTJdbcImporter(FLTConfig conf, Class<?> clazz) {
+		this(conf, FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 指定されたレコード定義で読み込むコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param schema データレコードのレコード定義
+	 */
+	public FLTJdbcImporter(FLTConfig conf, RecordSchema schema) {
+		this(conf, schema.getLayout());
+	}
+
+	private FLTJdbcImporter(FLTConfig conf, RecordLayout layout) {
+		if (conf == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (layout.isBinary() && conf.getFltType() != FLTType.BYTE) {
+			throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+		}
+		this.conf = conf;
+		this.layout = layout;
+		this.parameters = new int[layout.getColumnCount()];
+		for (int i = 0; i < parameters.length; i++) {
+			parameters[i] = i;
+		}
+	}
+
+	/**
+	 * パラメータに対応する項目を、パラメータの順に指定します。
+	 * 指定しない場合は、全ての項目をレコード内の出現順に対応付けます。
+	 *
+	 * @param columns 項目名(パラメータの順)
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public void setParameterColumns(String... columns) {
+		if (columns == null || columns.length == 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		int[] ret = new int[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			ColumnLayout column = layout.getColumn(columns[i]);
+			if (column == null) {
+				throw new IllegalArgumentException(String.format("Unknown column %s.", columns[i]));
+			}
+			ret[i] = layout.getColumns().indexOf(column);
+		}
+		this.parameters = ret;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	public boolean isPipelined() {
+		return pipelined;
+	}
+
+	public void setPipelined(boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public void setQueueDepth(int queueDepth) {
+		this.queueDepth = Math.max(1, queueDepth);
+	}
+
+	/**
+	 * 指定されたファイルのデータレコードを登録します。
+	 *
+	 * @param inputPath 読み込み先ファイルパス
+	 * @param ps 登録に使用するPreparedStatement
+	 * @return 登録した件数
+	 * @throws IOException 入出力でエラーが発生した場合、値の変換に失敗した場合
+	 * @throws SQLException 登録に失敗した場合
+	 */
+	public long importFrom(Path inputPath, PreparedStatement ps) throws IOException, SQLException {
+		if (inputPath == null || ps == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return pipelined ? importPipelined(inputPath, ps) : importDirect(inputPath, ps);
+	}
+
+	/**
+	 * 読み込み、登録を同じスレッドで行います。
+	 */
+	private long importDirect(Path inputPath, PreparedStatement ps) throws IOException, SQLException {
+		long count = 0;
+		int pending = 0;
+		try (Source source = new Source(inputPath)) {
+			while (source.next()) {
+				for (int i = 0; i < parameters.length; i++) {
+					JdbcColumns.setParameter(ps, i + 1, layout.getColumn(parameters[i]).getType(), source.get(parameters[i]));
+				}
+				ps.addBatch();
+				count++;
+				if (++pending == batchSize) {
+					ps.executeBatch();
+					pending = 0;
+				}
+			}
+		} catch (ParseException e) {
+			throw new FixedLengthFormatException(String.format("Failed to read the record %d.", count + 1), e);
+		}
+
+		if (pending > 0) {
+			ps.executeBatch();
+		}
+		return count;
+	}
+
+	/**
+	 * 読み込み、変換を別スレッドで行い、変換済みのバッチを登録します。
+	 * PreparedStatementの操作は呼び出し元のスレッドでのみ行います。
+	 */
+	private long importPipelined(Path inputPath, PreparedStatement ps) throws IOException, SQLException {
+		BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(queueDepth);
+		ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "flt-jdbc-reader");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long count = 0;
+		try {
+			Future<Long> producer = executor.submit(() -> produce(inputPath, queue));
+
+			List<Object[]> batch;
+			while ((batch = queue.take()) != END) {
+				for (Object[] values : batch) {
+					for (int i = 0; i < parameters.length; i++) {
+						JdbcColumns.setParameter(ps, i + 1, layout.getColumn(parameters[i]).getType(), values[i]);
+					}
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				count += batch.size();
+			}
+
+			// 読み込み側のエラーを通知します。
+			producer.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FixedLengthFormatException("The import was interrupted.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new FixedLengthFormatException(String.format("Failed to read the record %d.", count + 1), cause);
+		} finally {
+			executor.shutdownNow();
+		}
+		return count;
+	}
+
+	/**
+	 * ファイルを読み込み、パラメータの値のバッチをキューに格納します。
+	 * 終了時(エラーの場合を含む)には、終了を表すバッチを格納します。
+	 */
+	private long produce(Path inputPath, BlockingQueue<List<Object[]>> queue) throws Exception {
+		long count = 0;
+		try (Source source = new Source(inputPath)) {
+			List<Object[]> batch = new ArrayList<>(batchSize);
+			while (source.next()) {
+				Object[] values = new Object[parameters.length];
+				for (int i = 0; i < parameters.length; i++) {
+					values[i] = source.get(parameters[i]);
+				}
+				batch.add(values);
+				count++;
+				if (batch.size() == batchSize) {
+					queue.put(batch);
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+			if (!batch.isEmpty()) {
+				queue.put(batch);
+			}
+		} finally {
+			queue.put(END);
+		}
+		return count;
+	}
+
+	/**
+	 * 固定長ファイルからデータレコードを読み込み、項目の値を取り出します。
+	 * 読み取り形式がバイト数の場合はバイト配列、文字数の場合は文字列のまま保持します。
+	 */
+	private final class Source implements AutoCloseable {
+		private final FLTReader reader;
+		private final FLTRecordAccessor accessor;
+		private final boolean byteMode;
+		private final String recordCode;
+		private final byte[] recordCodeBytes;
+
+		private byte[] record;
+		private String line;
+		private long readCount;
+		private boolean endOfFile;
+
+		Source(Path inputPath) throws IOException {
+			this.accessor = new FLTRecordAccessor(conf, layout);
+			this.byteMode = conf.getFltType() == FLTType.BYTE;
+			this.recordCode = layout.getRecordCodeNum() == null ? "" : layout.getRecordCodeNum();
+			this.recordCodeBytes = recordCode.getBytes(conf.getCharCode());
+			this.reader = new FLTReader(conf, inputPath, layout.getRecordSize());
+			reader.setBinary(layout.isBinary());
+		}
+
+		/**
+		 * 次のデータレコードを読み込みます。
+		 *
+		 * @return データレコードが存在しない場合false
+		 */
+		boolean next() throws IOException {
+			while (!endOfFile) {
+				if (byteMode) {
+					record = reader.readRecord();
+				} else {
+					line = reader.read();
+				}
+				if (record == null && line == null) {
+					break;
+				}
+
+				readCount++;
+				if (matches()) {
+					return true;
+				} else if (readCount > 1) {
+					// 先頭以外で一致しないレコードはトレーラレコードとして終了します。
+					break;
+				}
+			}
+			endOfFile = true;
+			record = null;
+			line = null;
+			return false;
+		}
+
+		/**
+		 * 読み込んだデータレコードから、指定された項目の値を取り出します。
+		 */
+		Object get(int index) throws ParseException {
+			return byteMode ? accessor.decode(index, record) : accessor.decode(index, line);
+		}
+
+		private boolean matches() {
+			if (!byteMode) {
+				return line.startsWith(recordCode);
+			}
+			for (int i = 0; i < recordCodeBytes.length; i++) {
+				if (record[i] != recordCodeBytes[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.black.fixedlength.jdbc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.UUID;
+
+/**
+ * 項目の型に応じたResultSetの値の取得、PreparedStatementのパラメータの設定をまとめたクラス
+ *
+ */
+final class JdbcColumns {
+
+	private JdbcColumns() {
+	}
+
+	/**
+	 * ResultSetの現在行から、指定された型で値を取得します。
+	 * NULLの場合は、プリミティブ型には0(charは空白)、それ以外にはnullを返却します。
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+		if (type == String.class) {
+			return rs.getString(index);
+		} else if (type == int.class || type == Integer.class) {
+			int value = rs.getInt(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Integer.valueOf(value);
+		} else if (type == long.class || type == Long.class) {
+			long value = rs.getLong(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Long.valueOf(value);
+		} else if (type == short.class || type == Short.class) {
+			short value = rs.getShort(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Short.valueOf(value);
+		} else if (type == byte.class || type == Byte.class) {
+			byte value = rs.getByte(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Byte.valueOf(value);
+		} else if (type == double.class || type == Double.class) {
+			double value = rs.getDouble(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Double.valueOf(value);
+		} else if (type == float.class || type == Float.class) {
+			float value = rs.getFloat(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Float.valueOf(value);
+		} else if (type == boolean.class || type == Boolean.class) {
+			boolean value = rs.getBoolean(index);
+			return rs.wasNull() && !type.isPrimitive() ? null : Boolean.valueOf(value);
+		} else if (type == BigDecimal.class) {
+			return rs.getBigDecimal(index);
+		} else if (type == java.sql.Date.class) {
+			return rs.getDate(index);
+		} else if (type == Timestamp.class || type == java.util.Date.class) {
+			return rs.getTimestamp(index);
+		}
+
+		if (type == char.class || type == Character.class) {
+			String value = rs.getString(index);
+			if (value == null || value.isEmpty()) {
+				return type.isPrimitive() ? Character.valueOf(' ') : null;
+			}
+			return Character.valueOf(value.charAt(0));
+		} else if (type == BigInteger.class) {
+			BigDecimal value = rs.getBigDecimal(index);
+			return value == null ? null : value.toBigInteger();
+		} else if (type == Calendar.class) {
+			Timestamp value = rs.getTimestamp(index);
+			if (value == null) {
+				return null;
+			}
+			Calendar cal = Calendar.getInstance();
+			cal.setTimeInMillis(value.getTime());
+			return cal;
+		} else if (type == UUID.class) {
+			String value = rs.getString(index);
+			return value == null ? null : UUID.fromString(value.trim());
+		} else if (type.isEnum()) {
+			String value = rs.getString(index);
+			return value == null ? null : Enum.valueOf((Class<? extends Enum>) type, value.trim());
+		}
+		return rs.getObject(index, type);
+	}
+
+	/**
+	 * PreparedStatementのパラメータに、指定された型で値を設定します。
+	 */
+	static void setParameter(PreparedStatement ps, int index, Class<?> type, Object value) throws SQLException {
+		if (value == null) {
+			ps.setNull(index, sqlType(type));
+		} else if (type == String.class) {
+			ps.setString(index, (String) value);
+		} else if (type == int.class || type == Integer.class) {
+			ps.setInt(index, ((Integer) value).intValue());
+		} else if (type == long.class || type == Long.class) {
+			ps.setLong(index, ((Long) value).longValue());
+		} else if (type == short.class || type == Short.class) {
+			ps.setShort(index, ((Short) value).shortValue());
+		} else if (type == byte.class || type == Byte.class) {
+			ps.setByte(index, ((Byte) value).byteValue());
+		} else if (type == double.class || type == Double.class) {
+			ps.setDouble(index, ((Double) value).doubleValue());
+		} else if (type == float.class || type == Float.class) {
+			ps.setFloat(index, ((Float) value).floatValue());
+		} else if (type == boolean.class || type == Boolean.class) {
+			ps.setBoolean(index, ((Boolean) value).booleanValue());
+		} else if (type == BigDecimal.class) {
+			ps.setBigDecimal(index, (BigDecimal) value);
+		} else if (type == BigInteger.class) {
+			ps.setBigDecimal(index, new BigDecimal((BigInteger) value));
+		} else if (type == java.sql.Date.class) {
+			ps.setDate(index, (java.sql.Date) value);
+		} else if (type == Timestamp.class) {
+			ps.setTimestamp(index, (Timestamp) value);
+		} else if (type == java.util.Date.class) {
+			ps.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+		} else if (type == Calendar.class) {
+			ps.setTimestamp(index, new Timestamp(((Calendar) value).getTimeInMillis()));
+		} else if (type == char.class || type == Character.class || type == UUID.class) {
+			ps.setString(index, value.toString());
+		} else if (type.isEnum()) {
+			ps.setString(index, ((Enum<?>) value).name());
+		} else {
+			ps.setObject(index, value);
+		}
+	}
+
+	/**
+	 * 項目の型に対応するSQLの型を返却します。
+	 */
+	private static int sqlType(Class<?> type) {
+		if (type == Integer.class) {
+			return Types.INTEGER;
+		} else if (type == Long.class) {
+			return Types.BIGINT;
+		} else if (type == Short.class) {
+			return Types.SMALLINT;
+		} else if (type == Byte.class) {
+			return Types.TINYINT;
+		} else if (type == Double.class) {
+			return Types.DOUBLE;
+		} else if (type == Float.class) {
+			return Types.REAL;
+		} else if (type == Boolean.class) {
+			return Types.BOOLEAN;
+		} else if (type == BigDecimal.class || type == BigInteger.class) {
+			return Types.DECIMAL;
+		} else if (type == java.sql.Date.class) {
+			return Types.DATE;
+		} else if (type == Timestamp.class || type == java.util.Date.class || type == Calendar.class) {
+			return Types.TIMESTAMP;
+		} else if (type == String.class || type == Character.class || type == UUID.class || type.isEnum()) {
+			return Types.VARCHAR;
+		}
+		return Types.OTHER;
+	}
+}
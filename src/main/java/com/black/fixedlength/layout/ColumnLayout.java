@@ -0,0 +1,506 @@
+package com.black.fixedlength.layout;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+
+import java.math.BigDecimal;
+
+import com.black.fixedlength.codec.ColumnCodec;
+import com.black.fixedlength.format.PaddingFormat;
+import com.black.fixedlength.format.TrimmingFormat;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.SignPosition;
+
+/**
+ * 固定長レコード内の1項目の配置情報を提供します。<p>
+ * 項目の値はレコード定義クラスのフィールド、または{@link GenericRecord}の配列の要素に格納されます。
+ * 配列のフィールド、入れ子のレコードは、要素、項目ごとの配置情報に展開され、配列や入れ子のレコードを経由して格納されます。
+ * 値の取得/設定は{@link #get(Object)}、{@link #set(Object, Object)}などを使用してください。
+ *
+ */
+public final class ColumnLayout {
+
+	/**
+	 * 項目名
+	 */
+	private final String name;
+
+	/**
+	 * 格納先フィールド({@link GenericRecord}に格納する場合はnull)
+	 */
+	private final Field field;
+
+	/**
+	 * {@link GenericRecord}の格納先の位置(フィールドに格納する場合は-1)
+	 */
+	private final int index;
+
+	/**
+	 * 格納先フィールドを保持する入れ子のレコードまでの経路(エンティティのフィールドの場合はnull)
+	 */
+	private final FieldPath container;
+
+	/**
+	 * 配列のフィールドの要素の位置(配列でない場合は-1)、配列の要素数
+	 */
+	private final int element;
+	private final int occurs;
+
+	/**
+	 * 項目の型
+	 */
+	private final Class<?> type;
+
+	/**
+	 * レコード先頭からの位置(文字数/バイト数)
+	 */
+	private final int offset;
+
+	/**
+	 * 文字数/バイト数
+	 */
+	private final int length;
+
+	/**
+	 * 格納形式
+	 */
+	private final ColumnEncoding encoding;
+
+	/**
+	 * 小数点以下の桁数
+	 */
+	private final int scale;
+
+	/**
+	 * 符号の位置
+	 */
+	private final SignPosition sign;
+
+	/**
+	 * 文字の数値項目として直接変換するかどうかです。
+	 */
+	private final boolean decimalText;
+
+	/**
+	 * 項目に指定された変換処理(指定されていない場合はnull)
+	 */
+	private final ColumnCodec<?> codec;
+
+	/**
+	 * 項目に指定されたパディング、トリミング(指定されていない場合はnull)
+	 */
+	private final PaddingFormat padding;
+	private final TrimmingFormat trimming;
+
+	/**
+	 * 配置情報を構築するコンストラクタです。
+	 *
+	 * @param name 項目名
+	 * @param field 格納先フィールド
+	 * @param offset レコード先頭からの位置
+	 * @param length 文字数/バイト数
+	 * @param encoding 格納形式
+	 * @param scale 小数点以下の桁数
+	 * @param sign 符号の位置
+	 */
+	public ColumnLayout(String name, Field field, int offset, int length, ColumnEncoding encoding, int scale, SignPosition sign) {
+		this(name, field, offset, length, encoding, scale, sign, null);
+	}
+
+	/**
+	 * 変換処理を指定して配置情報を構築するコンストラクタです。
+	 *
+	 * @param name 項目名
+	 * @param field 格納先フィールド
+	 * @param offset レコード先頭からの位置
+	 * @param length 文字数/バイト数
+	 * @param encoding 格納形式
+	 * @param scale 小数点以下の桁数
+	 * @param sign 符号の位置
+	 * @param codec 変換処理(型ごとの変換処理を使用する場合はnull)
+	 */
+	public ColumnLayout(String name, Field field, int offset, int length, ColumnEncoding encoding, int scale, SignPosition sign, ColumnCodec<?> codec) {
+		this(name, field, null, -1, 0, field.getType(), -1, offset, length, encoding, scale, sign, codec, null, null);
+	}
+
+	/**
+	 * 配列のフィールドの1要素の配置情報を構築するコンストラクタです。
+	 * 項目の型は配列の要素の型です。
+	 *
+	 * @param name 項目名
+	 * @param field 格納先の配列のフィールド
+	 * @param element 要素の位置
+	 * @param occurs 配列の要素数
+	 * @param offset レコード先頭からの位置
+	 * @param length 文字数/バイト数
+	 * @param encoding 格納形式
+	 * @param scale 小数点以下の桁数
+	 * @param sign 符号の位置
+	 * @param codec 変換処理(型ごとの変換処理を使用する場合はnull)
+	 */
+	public ColumnLayout(String name, Field field, int element, int occurs, int offset, int length, ColumnEncoding encoding, int scale, SignPosition sign, ColumnCodec<?> codec) {
+		this(name, field, null, element, occurs, componentType(field), -1, offset, length, encoding, scale, sign, codec, null, null);
+		if (element < 0 || element >= occurs) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+	}
+
+	/**
+	 * {@link GenericRecord}に格納する項目の配置情報を構築するコンストラクタです。
+	 *
+	 * @param name 項目名
+	 * @param type 項目の型
+	 * @param index 格納先の位置
+	 * @param offset レコード先頭からの位置
+	 * @param length 文字数/バイト数
+	 * @param encoding 格納形式
+	 * @param scale 小数点以下の桁数
+	 * @param sign 符号の位置
+	 * @param codec 変換処理(型ごとの変換処理を使用する場合はnull)
+	 * @param padding パディング(固定長形式情報のパディングを使用する場合はnull)
+	 * @param trimming トリミング(固定長形式情報のトリミングを使用する場合はnull)
+	 */
+	public ColumnLayout(String name, Class<?> type, int index, int offset, int length, ColumnEncoding encoding, int scale, SignPosition sign,
+			ColumnCodec<?> codec, PaddingFormat padding, TrimmingFormat trimming) {
+		this(name, null, null, -1, 0, type, index, offset, length, encoding, scale, sign, codec, padding, trimming);
+		if (index < 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+	}
+
+	private ColumnLayout(String name, Field field, FieldPath container, int element, int occurs, Class<?> type, int index, int offset, int length,
+			ColumnEncoding encoding, int scale, SignPosition sign, ColumnCodec<?> codec, PaddingFormat padding, TrimmingFormat trimming) {
+		if (name == null || type == null || encoding == null || sign == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.name = name;
+		this.field = field;
+		this.container = container;
+		this.element = element;
+		this.occurs = occurs;
+		this.type = type;
+		this.index = index;
+		this.offset = offset;
+		this.length = length;
+		this.encoding = encoding;
+		this.scale = scale;
+		this.sign = sign;
+		this.decimalText = encoding == ColumnEncoding.TEXT
+				&& (type == BigDecimal.class || scale != 0 || sign != SignPosition.NONE);
+		this.codec = codec;
+		this.padding = padding;
+		this.trimming = trimming;
+		validate();
+	}
+
+	private static Class<?> componentType(Field field) {
+		if (field == null || !field.getType().isArray()) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return field.getType().getComponentType();
+	}
+
+	/**
+	 * 入れ子のレコードの項目を、親のレコード内に配置した配置情報を返却します。
+	 * この配置情報は入れ子のレコードのクラスの配置情報であり、返却する配置情報は、
+	 * 親のレコードの指定されたフィールド(配列の場合はその要素)の入れ子のレコードを経由して値を格納します。
+	 *
+	 * @param name 親のレコードでの項目名
+	 * @param offset 親のレコード先頭からの位置
+	 * @param field 入れ子のレコード(または配列)を保持する親のレコードのフィールド
+	 * @param element 配列の要素の位置(配列でない場合は-1)
+	 * @param occurs 配列の要素数(配列でない場合は0)
+	 * @param nested 入れ子のレコードのクラスの配置情報
+	 * @return 親のレコード内の配置情報
+	 */
+	public ColumnLayout nest(String name, int offset, Field field, int element, int occurs, RecordLayout nested) {
+		if (this.field == null || field == null || nested == null || (element >= 0 && !field.getType().isArray())) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		FieldPath outer = new FieldPath(null, field, element, occurs, nested);
+		return new ColumnLayout(name, this.field, container == null ? outer : container.rebase(outer), this.element, this.occurs,
+				type, index, offset, length, encoding, scale, sign, codec, padding, trimming);
+	}
+
+	/**
+	 * 格納形式、符号の位置と項目の型、桁数の組み合わせを検査します。
+	 */
+	private void validate() {
+		if (!isBinary() && !isDecimalText()) {
+			return;
+		} else if (codec != null) {
+			throw new IllegalArgumentException(String.format("The codec can not be specified for numeric columns. field:%s", name));
+		}
+
+		if (type != long.class && type != Long.class && type != int.class && type != Integer.class
+				&& type != short.class && type != Short.class && type != BigDecimal.class) {
+			throw new IllegalArgumentException(String.format("Unsupported type %s for encoding %s. field:%s", type, encoding, name));
+		}
+
+		int minLength = sign == SignPosition.LEADING || sign == SignPosition.TRAILING ? 2 : 1;
+		if (isBinary() && sign != SignPosition.NONE) {
+			throw new IllegalArgumentException(String.format("The sign position can not be specified for encoding %s. field:%s", encoding, name));
+		}
+		if (length < minLength || (encoding == ColumnEncoding.BINARY && length > 8)) {
+			throw new IllegalArgumentException(String.format("Invalid length %d for encoding %s. field:%s", length, encoding, name));
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Field getField() {
+		return field;
+	}
+
+	/**
+	 * 配列のフィールドの要素の位置を返却します。
+	 *
+	 * @return 要素の位置、配列でない場合は-1
+	 */
+	public int getElement() {
+		return element;
+	}
+
+	/**
+	 * {@link GenericRecord}の格納先の位置を返却します。
+	 *
+	 * @return 格納先の位置、フィールドに格納する場合は-1
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public ColumnEncoding getEncoding() {
+		return encoding;
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	public SignPosition getSign() {
+		return sign;
+	}
+
+	/**
+	 * 項目に指定された変換処理を返却します。
+	 *
+	 * @return 変換処理、指定されていない場合はnull
+	 */
+	public ColumnCodec<?> getCodec() {
+		return codec;
+	}
+
+	/**
+	 * 項目に指定されたパディングを返却します。
+	 *
+	 * @return パディング、指定されていない場合はnull
+	 */
+	public PaddingFormat getPadding() {
+		return padding;
+	}
+
+	/**
+	 * 項目に指定されたトリミングを返却します。
+	 *
+	 * @return トリミング、指定されていない場合はnull
+	 */
+	public TrimmingFormat getTrimming() {
+		return trimming;
+	}
+
+	/**
+	 * 文字の数値項目(暗黙の小数点、符号付き)として直接変換するかどうかを返却します。
+	 *
+	 * @return 格納形式が文字で、BigDecimalの項目、または小数点以下の桁数か符号の位置が指定された項目の場合true
+	 */
+	public boolean isDecimalText() {
+		return decimalText;
+	}
+
+	/**
+	 * 格納形式がバイナリ(文字以外)かどうかを返却します。
+	 *
+	 * @return 文字以外の格納形式の場合true
+	 */
+	public boolean isBinary() {
+		return encoding != ColumnEncoding.TEXT;
+	}
+
+	/**
+	 * 指定された値を項目に設定できるかどうかを返却します。
+	 * プリミティブ型の項目は、ラッパークラスの値(null以外)を設定できます。
+	 *
+	 * @param value 値
+	 * @return 項目の型の値の場合true
+	 */
+	public boolean isAssignable(Object value) {
+		if (value == null) {
+			return !type.isPrimitive();
+		}
+		return (type.isPrimitive() ? RecordSchema.wrap(type) : type).isInstance(value);
+	}
+
+	/**
+	 * エンティティから項目の値を取得します。プリミティブ型の値はラッパークラスで返却します。
+	 *
+	 * @param entity エンティティ
+	 * @return 項目の値
+	 * @throws IllegalAccessException フィールドにアクセスできない場合
+	 */
+	public Object get(Object entity) throws IllegalAccessException {
+		if (field == null) {
+			return values(entity)[index];
+		}
+		Object owner = owner(entity, false);
+		return element < 0 ? field.get(owner) : Array.get(array(owner, false), element);
+	}
+
+	/**
+	 * エンティティに項目の値を設定します。
+	 * 入れ子のレコード、配列が存在しない場合は生成して設定します。
+	 *
+	 * @param entity エンティティ
+	 * @param value 項目の値
+	 * @throws IllegalAccessException フィールドにアクセスできない場合
+	 */
+	public void set(Object entity, Object value) throws IllegalAccessException {
+		if (field == null) {
+			values(entity)[index] = value;
+			return;
+		}
+		Object owner = owner(entity, true);
+		if (element < 0) {
+			field.set(owner, value);
+		} else {
+			Array.set(array(owner, true), element, value);
+		}
+	}
+
+	/**
+	 * エンティティから整数型の項目の値を取得します。
+	 * プリミティブ型の配列の要素は、ラッパークラスを経由せずに取得します。
+	 */
+	public long getLong(Object entity) throws IllegalAccessException {
+		if (field == null) {
+			return ((Number) values(entity)[index]).longValue();
+		}
+		Object owner = owner(entity, false);
+		if (element < 0) {
+			return field.getLong(owner);
+		}
+		Object array = array(owner, false);
+		if (array instanceof long[]) {
+			return ((long[]) array)[element];
+		} else if (array instanceof int[]) {
+			return ((int[]) array)[element];
+		}
+		return Array.getLong(array, element);
+	}
+
+	public void setLong(Object entity, long value) throws IllegalAccessException {
+		if (field == null) {
+			values(entity)[index] = Long.valueOf(value);
+			return;
+		}
+		Object owner = owner(entity, true);
+		if (element < 0) {
+			field.setLong(owner, value);
+		} else {
+			((long[]) array(owner, true))[element] = value;
+		}
+	}
+
+	public int getInt(Object entity) throws IllegalAccessException {
+		if (field == null) {
+			return ((Number) values(entity)[index]).intValue();
+		}
+		Object owner = owner(entity, false);
+		return element < 0 ? field.getInt(owner) : ((int[]) array(owner, false))[element];
+	}
+
+	public void setInt(Object entity, int value) throws IllegalAccessException {
+		if (field == null) {
+			values(entity)[index] = Integer.valueOf(value);
+			return;
+		}
+		Object owner = owner(entity, true);
+		if (element < 0) {
+			field.setInt(owner, value);
+		} else {
+			((int[]) array(owner, true))[element] = value;
+		}
+	}
+
+	public void setShort(Object entity, short value) throws IllegalAccessException {
+		if (field == null) {
+			values(entity)[index] = Short.valueOf(value);
+			return;
+		}
+		Object owner = owner(entity, true);
+		if (element < 0) {
+			field.setShort(owner, value);
+		} else {
+			((short[]) array(owner, true))[element] = value;
+		}
+	}
+
+	public double getDouble(Object entity) throws IllegalAccessException {
+		if (field == null) {
+			return ((Number) values(entity)[index]).doubleValue();
+		}
+		Object owner = owner(entity, false);
+		return element < 0 ? field.getDouble(owner) : ((double[]) array(owner, false))[element];
+	}
+
+	public void setDouble(Object entity, double value) throws IllegalAccessException {
+		if (field == null) {
+			values(entity)[index] = Double.valueOf(value);
+			return;
+		}
+		Object owner = owner(entity, true);
+		if (element < 0) {
+			field.setDouble(owner, value);
+		} else {
+			((double[]) array(owner, true))[element] = value;
+		}
+	}
+
+	/**
+	 * 格納先フィールドを保持するオブジェクト(入れ子のレコードの場合は入れ子のレコード)を返却します。
+	 */
+	private Object owner(Object entity, boolean create) throws IllegalAccessException {
+		return container == null ? entity : container.get(entity, create, name);
+	}
+
+	/**
+	 * 格納先の配列を返却します。
+	 * 生成する場合、配列が存在しないか要素数が足りない場合は、新しい配列を設定します。
+	 */
+	private Object array(Object owner, boolean create) throws IllegalAccessException {
+		Object ret = field.get(owner);
+		if (ret == null || Array.getLength(ret) < occurs) {
+			ret = FieldPath.newArray(field, occurs, create, name);
+			field.set(owner, ret);
+		}
+		return ret;
+	}
+
+	private static Object[] values(Object entity) {
+		return ((GenericRecord) entity).values;
+	}
+}
@@ -0,0 +1,111 @@
+package com.black.fixedlength.layout;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+
+/**
+ * 入れ子のレコードの項目について、エンティティから項目を保持するオブジェクトまでの経路を表します。<p>
+ * 経路の各段は、親のオブジェクトのフィールド(配列の場合はその要素)です。
+ * 読み込み時は、存在しない入れ子のレコード、配列を生成して設定します。
+ *
+ */
+final class FieldPath {
+
+	/**
+	 * 親の経路(最上位のエンティティのフィールドの場合はnull)
+	 */
+	private final FieldPath parent;
+
+	/**
+	 * 入れ子のレコード(または配列)を保持するフィールド
+	 */
+	private final Field field;
+
+	/**
+	 * 配列の要素の位置(配列でない場合は-1)
+	 */
+	private final int element;
+
+	/**
+	 * 配列の要素数
+	 */
+	private final int occurs;
+
+	/**
+	 * 入れ子のレコードの配置情報
+	 */
+	private final RecordLayout layout;
+
+	FieldPath(FieldPath parent, Field field, int element, int occurs, RecordLayout layout) {
+		this.parent = parent;
+		this.field = field;
+		this.element = element;
+		this.occurs = occurs;
+		this.layout = layout;
+	}
+
+	/**
+	 * 指定された経路の下に、この経路を付け替えた経路を返却します。
+	 *
+	 * @param outer 最上位に追加する経路
+	 * @return 付け替えた経路
+	 */
+	FieldPath rebase(FieldPath outer) {
+		return new FieldPath(parent == null ? outer : parent.rebase(outer), field, element, occurs, layout);
+	}
+
+	/**
+	 * エンティティから、経路の先の入れ子のレコードを返却します。
+	 *
+	 * @param entity エンティティ
+	 * @param create 存在しない場合に生成する場合true
+	 * @param column エラー時に表示する項目名
+	 * @return 入れ子のレコード
+	 * @throws IllegalArgumentException 生成しない場合に入れ子のレコードが存在しない場合、生成に失敗した場合
+	 */
+	Object get(Object entity, boolean create, String column) throws IllegalAccessException {
+		Object owner = parent == null ? entity : parent.get(entity, create, column);
+		Object value = field.get(owner);
+		if (element < 0) {
+			if (value == null) {
+				value = newInstance(create, column);
+				field.set(owner, value);
+			}
+			return value;
+		}
+
+		if (value == null || Array.getLength(value) < occurs) {
+			value = newArray(field, occurs, create, column);
+			field.set(owner, value);
+		}
+		Object ret = Array.get(value, element);
+		if (ret == null) {
+			ret = newInstance(create, column);
+			Array.set(value, element, ret);
+		}
+		return ret;
+	}
+
+	private Object newInstance(boolean create, String column) throws IllegalAccessException {
+		if (!create) {
+			throw new IllegalArgumentException(String.format("The value of column %s is null.", column));
+		}
+		try {
+			return layout.newInstance();
+		} catch (InstantiationException e) {
+			throw new IllegalArgumentException(String.format("Can not create %s. column:%s", layout.getRecordClass().getName(), column), e);
+		}
+	}
+
+	/**
+	 * 配列のフィールドの要素数の配列を生成します。
+	 *
+	 * @throws IllegalArgumentException 生成しない場合
+	 */
+	static Object newArray(Field field, int occurs, boolean create, String column) {
+		if (!create) {
+			throw new IllegalArgumentException(String.format("The value of column %s is null or has less than %d elements.", column, occurs));
+		}
+		return Array.newInstance(field.getType().getComponentType(), occurs);
+	}
+}
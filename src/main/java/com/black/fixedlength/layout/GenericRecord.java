@@ -0,0 +1,112 @@
+package com.black.fixedlength.layout;
+
+import java.util.Arrays;
+
+/**
+ * {@link RecordSchema}で定義したレコードの値を格納します。<p>
+ * 項目の値は項目の位置をインデックスとする配列に格納されます。
+ * 項目名による取得/設定は項目名から位置を検索するため、繰り返し使用する場合は位置を指定してください。
+ *
+ */
+public final class GenericRecord {
+
+	private final RecordSchema schema;
+
+	/**
+	 * 項目の値(プリミティブ型の項目はラッパークラスで格納します)
+	 */
+	final Object[] values;
+
+	/**
+	 * 指定されたレコード定義の空のレコードを構築するコンストラクタです。
+	 * プリミティブ型の項目は0(charは空白、booleanはfalse)で初期化されます。
+	 *
+	 * @param schema レコード定義
+	 */
+	public GenericRecord(RecordSchema schema) {
+		if (schema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.schema = schema;
+		this.values = schema.newValues();
+	}
+
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * 指定された位置の項目の値を返却します。
+	 *
+	 * @param index 項目の位置
+	 * @return 項目の値
+	 */
+	public Object get(int index) {
+		return values[index];
+	}
+
+	/**
+	 * 指定された項目名の値を返却します。
+	 *
+	 * @param name 項目名
+	 * @return 項目の値
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public Object get(String name) {
+		return values[schema.indexOf(name)];
+	}
+
+	/**
+	 * 指定された位置の項目に値を設定します。
+	 *
+	 * @param index 項目の位置
+	 * @param value 項目の値
+	 * @throws IllegalArgumentException 値の型が項目の型と一致しない場合
+	 */
+	public void set(int index, Object value) {
+		ColumnLayout column = schema.getLayout().getColumn(index);
+		if (!column.isAssignable(value)) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for column %s of type %s.", value, column.getName(), column.getType().getName()));
+		}
+		values[index] = value;
+	}
+
+	/**
+	 * 指定された項目名の項目に値を設定します。
+	 *
+	 * @param name 項目名
+	 * @param value 項目の値
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合、値の型が項目の型と一致しない場合
+	 */
+	public void set(String name, Object value) {
+		set(schema.indexOf(name), value);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder("GenericRecord{");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				ret.append(", ");
+			}
+			ret.append(schema.getLayout().getColumn(i).getName()).append('=').append(values[i]);
+		}
+		return ret.append('}').toString();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (!(obj instanceof GenericRecord)) {
+			return false;
+		}
+		GenericRecord other = (GenericRecord) obj;
+		return schema == other.schema && Arrays.equals(values, other.values);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
+	}
+}
@@ -0,0 +1,192 @@
+package com.black.fixedlength.layout;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 固定長レコードの配置情報を提供します。<p>
+ * 項目の位置や格納形式はレコード定義から一度だけ解決され、読み込み/書き込みの都度解析されることはありません。
+ *
+ */
+public final class RecordLayout {
+
+	/**
+	 * レコード定義クラス
+	 */
+	private final Class<?> recordClass;
+
+	/**
+	 * レコード判定文字
+	 */
+	private final String recordCodeNum;
+
+	/**
+	 * 項目の配置情報
+	 */
+	private final ColumnLayout[] columns;
+
+	/**
+	 * 項目の配置情報(参照用)
+	 */
+	private final List<ColumnLayout> columnList;
+
+	/**
+	 * 固定長幅
+	 */
+	private final int recordSize;
+
+	/**
+	 * バイナリ項目を含むかどうかです。
+	 */
+	private final boolean binary;
+
+	/**
+	 * エンティティの生成処理(レコード定義クラスの引数無しのコンストラクタを使用する場合はnull)
+	 */
+	private final Supplier<?> factory;
+
+	/**
+	 * 引数無しのコンストラクタ(初回の生成時に解決します)
+	 */
+	private volatile Constructor<?> constructor;
+
+	/**
+	 * 配置情報を構築するコンストラクタです。
+	 *
+	 * @param recordClass レコード定義クラス
+	 * @param recordCodeNum レコード判定文字
+	 * @param columns 項目の配置情報(レコード内の出現順)
+	 */
+	public RecordLayout(Class<?> recordClass, String recordCodeNum, ColumnLayout[] columns) {
+		this(recordClass, recordCodeNum, columns, null);
+	}
+
+	/**
+	 * エンティティの生成処理を指定して配置情報を構築するコンストラクタです。
+	 *
+	 * @param recordClass レコード定義クラス
+	 * @param recordCodeNum レコード判定文字
+	 * @param columns 項目の配置情報(レコード内の出現順)
+	 * @param factory エンティティの生成処理(引数無しのコンストラクタを使用する場合はnull)
+	 */
+	public RecordLayout(Class<?> recordClass, String recordCodeNum, ColumnLayout[] columns, Supplier<?> factory) {
+		this.recordClass = recordClass;
+		this.factory = factory;
+		this.recordCodeNum = recordCodeNum;
+		this.columns = columns.clone();
+		this.columnList = Collections.unmodifiableList(Arrays.asList(this.columns));
+
+		int size = 0;
+		boolean hasBinary = false;
+		for (ColumnLayout column : columns) {
+			size = Math.max(size, column.getOffset() + column.getLength());
+			hasBinary |= column.isBinary();
+		}
+		this.recordSize = size;
+		this.binary = hasBinary;
+	}
+
+	public Class<?> getRecordClass() {
+		return recordClass;
+	}
+
+	/**
+	 * エンティティを生成します。
+	 *
+	 * @return エンティティ
+	 * @throws InstantiationException レコード定義クラスが引数なしのコンストラクタを保持しない場合、あるいはインスタンスの生成がほかの理由で失敗した場合
+	 * @throws IllegalAccessException 引数なしのコンストラクタにアクセスできない場合
+	 */
+	public Object newInstance() throws InstantiationException, IllegalAccessException {
+		if (factory != null) {
+			return factory.get();
+		}
+
+		Constructor<?> ctor = constructor;
+		if (ctor == null) {
+			if (Modifier.isAbstract(recordClass.getModifiers()) || recordClass.isInterface()) {
+				throw new InstantiationException(recordClass.getName());
+			}
+			try {
+				ctor = recordClass.getDeclaredConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new InstantiationException(recordClass.getName());
+			}
+			ctor.setAccessible(true);
+			constructor = ctor;
+		}
+
+		try {
+			return ctor.newInstance();
+		} catch (InvocationTargetException e) {
+			InstantiationException ex = new InstantiationException(recordClass.getName());
+			ex.initCause(e.getCause());
+			throw ex;
+		}
+	}
+
+	public String getRecordCodeNum() {
+		return recordCodeNum;
+	}
+
+	public int getRecordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * バイナリ項目を含むかどうかを返却します。
+	 *
+	 * @return 文字以外の格納形式の項目を含む場合true
+	 */
+	public boolean isBinary() {
+		return binary;
+	}
+
+	/**
+	 * 項目の配置情報をレコード内の出現順に返却します。
+	 *
+	 * @return 項目の配置情報
+	 */
+	public List<ColumnLayout> getColumns() {
+		return columnList;
+	}
+
+	/**
+	 * 指定された項目名の配置情報を返却します。
+	 *
+	 * @param name 項目名
+	 * @return 項目の配置情報、存在しない場合はnull
+	 */
+	public ColumnLayout getColumn(String name) {
+		for (ColumnLayout column : columns) {
+			if (column.getName().equals(name)) {
+				return column;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 指定された位置の項目の配置情報を返却します。
+	 *
+	 * @param index 項目の位置
+	 * @return 項目の配置情報
+	 */
+	public ColumnLayout getColumn(int index) {
+		return columns[index];
+	}
+
+	/**
+	 * 項目数を返却します。
+	 *
+	 * @return 項目数
+	 */
+	public int getColumnCount() {
+		return columns.length;
+	}
+}
@@ -0,0 +1,350 @@
+package com.black.fixedlength.layout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.black.fixedlength.codec.ColumnCodec;
+import com.black.fixedlength.format.PaddingFormat;
+import com.black.fixedlength.format.TrimmingFormat;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.SignPosition;
+
+/**
+ * 実行時に組み立てるレコード定義を提供します。<p>
+ * {@link com.black.fixedlength.annotation.Column}を付与したクラスと同じ配置情報を作成し、
+ * 値は{@link GenericRecord}に格納します。読み込み/書き込みの処理はアノテーションのクラスと共通です。
+ *
+ * <pre>
+ * RecordSchema schema = RecordSchema.builder()
+ *         .recordCode("D")
+ *         .column("kbn", 1, String.class).defaultValue("D")
+ *         .column("amount", 9, BigDecimal.class).scale(2).sign(SignPosition.LEADING)
+ *         .column("name", 20, String.class).trimming(new DefaultTrimmingFormatter())
+ *         .build();
+ * </pre>
+ *
+ */
+public final class RecordSchema {
+
+	private final RecordLayout layout;
+
+	/**
+	 * 項目名と位置の対応
+	 */
+	private final Map<String, Integer> indexes = new HashMap<>();
+
+	/**
+	 * 新しいレコードの初期値
+	 */
+	private final Object[] initialValues;
+
+	private RecordSchema(String recordCodeNum, List<ColumnLayout> columns, Object[] defaultValues) {
+		this.layout = new RecordLayout(GenericRecord.class, recordCodeNum,
+				columns.toArray(new ColumnLayout[columns.size()]), this::newRecord);
+
+		this.initialValues = new Object[columns.size()];
+		for (int i = 0; i < initialValues.length; i++) {
+			indexes.put(columns.get(i).getName(), i);
+			initialValues[i] = defaultValues[i] != null ? defaultValues[i] : defaultValue(columns.get(i).getType());
+		}
+	}
+
+	/**
+	 * レコード定義の組み立てを開始します。
+	 *
+	 * @return 組み立て処理
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * 配置情報を返却します。
+	 *
+	 * @return 配置情報
+	 */
+	public RecordLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * 空のレコードを生成します。
+	 *
+	 * @return レコード
+	 */
+	public GenericRecord newRecord() {
+		return new GenericRecord(this);
+	}
+
+	/**
+	 * 指定された項目名の位置を返却します。
+	 *
+	 * @param name 項目名
+	 * @return 項目の位置
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public int indexOf(String name) {
+		Integer ret = indexes.get(name);
+		if (ret == null) {
+			throw new IllegalArgumentException(String.format("Unknown column %s.", name));
+		}
+		return ret;
+	}
+
+	Object[] newValues() {
+		return initialValues.clone();
+	}
+
+	/**
+	 * プリミティブ型に対応するラッパークラスを返却します。
+	 */
+	static Class<?> wrap(Class<?> type) {
+		if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == char.class) {
+			return Character.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		}
+		return type;
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return null;
+		} else if (type == int.class) {
+			return Integer.valueOf(0);
+		} else if (type == long.class) {
+			return Long.valueOf(0);
+		} else if (type == short.class) {
+			return Short.valueOf((short) 0);
+		} else if (type == byte.class) {
+			return Byte.valueOf((byte) 0);
+		} else if (type == double.class) {
+			return Double.valueOf(0);
+		} else if (type == float.class) {
+			return Float.valueOf(0);
+		} else if (type == char.class) {
+			return Character.valueOf(' ');
+		}
+		return Boolean.FALSE;
+	}
+
+	/**
+	 * レコード定義を組み立てます。<p>
+	 * 項目はレコード内の出現順に追加します。
+	 * {@link #encoding(ColumnEncoding)}、{@link #scale(int)}などは直前に追加した項目に適用されます。
+	 *
+	 */
+	public static final class Builder {
+
+		private String recordCodeNum = "";
+		private final List<ColumnSpec> specs = new ArrayList<>();
+		private int offset = 0;
+
+		private Builder() {
+		}
+
+		/**
+		 * レコード判定文字を設定します。
+		 *
+		 * @param recordCodeNum レコード判定文字
+		 * @return この組み立て処理
+		 */
+		public Builder recordCode(String recordCodeNum) {
+			this.recordCodeNum = recordCodeNum == null ? "" : recordCodeNum;
+			return this;
+		}
+
+		/**
+		 * 直前の項目に続けて項目を追加します。
+		 *
+		 * @param name 項目名
+		 * @param length 文字数/バイト数
+		 * @param type 項目の型
+		 * @return この組み立て処理
+		 * @throws IllegalArgumentException 項目名が重複している場合、桁数が不正な場合
+		 */
+		public Builder column(String name, int length, Class<?> type) {
+			return column(name, offset, length, type);
+		}
+
+		/**
+		 * 位置を指定して項目を追加します。
+		 * 位置は直前の項目の終わりと一致している必要があります。
+		 *
+		 * @param name 項目名
+		 * @param offset レコード先頭からの位置
+		 * @param length 文字数/バイト数
+		 * @param type 項目の型
+		 * @return この組み立て処理
+		 * @throws IllegalArgumentException 項目名が重複している場合、位置や桁数が不正な場合
+		 */
+		public Builder column(String name, int offset, int length, Class<?> type) {
+			if (name == null || type == null || length <= 0) {
+				throw new IllegalArgumentException("Invalid argument specified.");
+			} else if (offset != this.offset) {
+				throw new IllegalArgumentException(String.format("Invalid offset %d of column %s. expected:%d", offset, name, this.offset));
+			}
+			for (ColumnSpec spec : specs) {
+				if (spec.name.equals(name)) {
+					throw new IllegalArgumentException(String.format("Duplicate column %s.", name));
+				}
+			}
+
+			specs.add(new ColumnSpec(name, offset, length, type));
+			this.offset += length;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の格納形式を設定します。
+		 *
+		 * @param encoding 格納形式
+		 * @return この組み立て処理
+		 */
+		public Builder encoding(ColumnEncoding encoding) {
+			last().encoding = encoding;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の小数点以下の桁数を設定します。
+		 *
+		 * @param scale 小数点以下の桁数
+		 * @return この組み立て処理
+		 */
+		public Builder scale(int scale) {
+			last().scale = scale;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の符号の位置を設定します。
+		 *
+		 * @param sign 符号の位置
+		 * @return この組み立て処理
+		 */
+		public Builder sign(SignPosition sign) {
+			last().sign = sign;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の変換処理を設定します。
+		 *
+		 * @param codec 変換処理
+		 * @return この組み立て処理
+		 */
+		public Builder codec(ColumnCodec<?> codec) {
+			last().codec = codec;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の書き込み時のパディングを設定します。
+		 * 設定しない場合は、固定長形式情報の型ごとのパディングを使用します。
+		 *
+		 * @param padding パディング
+		 * @return この組み立て処理
+		 */
+		public Builder padding(PaddingFormat padding) {
+			last().padding = padding;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の読み込み時のトリミングを設定します。
+		 * 設定しない場合は、固定長形式情報のトリミングを使用します。
+		 *
+		 * @param trimming トリミング
+		 * @return この組み立て処理
+		 */
+		public Builder trimming(TrimmingFormat trimming) {
+			last().trimming = trimming;
+			return this;
+		}
+
+		/**
+		 * 直前の項目の初期値を設定します。
+		 * レコード判定文字などの固定値は初期値として定義してください。
+		 *
+		 * @param value 初期値
+		 * @return この組み立て処理
+		 * @throws IllegalArgumentException 値の型が項目の型と一致しない場合
+		 */
+		public Builder defaultValue(Object value) {
+			ColumnSpec spec = last();
+			if (value != null && !wrap(spec.type).isInstance(value)) {
+				throw new IllegalArgumentException(String.format("Invalid value %s for column %s of type %s.", value, spec.name, spec.type.getName()));
+			}
+			spec.defaultValue = value;
+			return this;
+		}
+
+		/**
+		 * レコード定義を作成します。
+		 *
+		 * @return レコード定義
+		 * @throws IllegalArgumentException 項目が追加されていない場合、項目の定義が不正な場合
+		 */
+		public RecordSchema build() {
+			if (specs.isEmpty()) {
+				throw new IllegalArgumentException("No column is defined.");
+			}
+
+			List<ColumnLayout> columns = new ArrayList<>(specs.size());
+			Object[] defaultValues = new Object[specs.size()];
+			for (int i = 0; i < specs.size(); i++) {
+				ColumnSpec spec = specs.get(i);
+				columns.add(new ColumnLayout(spec.name, spec.type, i, spec.offset, spec.length, spec.encoding, spec.scale, spec.sign,
+						spec.codec, spec.padding, spec.trimming));
+				defaultValues[i] = spec.defaultValue;
+			}
+			return new RecordSchema(recordCodeNum, columns, defaultValues);
+		}
+
+		private ColumnSpec last() {
+			if (specs.isEmpty()) {
+				throw new IllegalStateException("No column is added.");
+			}
+			return specs.get(specs.size() - 1);
+		}
+	}
+
+	/**
+	 * 組み立て中の項目の定義
+	 */
+	private static final class ColumnSpec {
+		private final String name;
+		private final int offset;
+		private final int length;
+		private final Class<?> type;
+		private ColumnEncoding encoding = ColumnEncoding.TEXT;
+		private int scale = 0;
+		private SignPosition sign = SignPosition.NONE;
+		private ColumnCodec<?> codec;
+		private PaddingFormat padding;
+		private TrimmingFormat trimming;
+		private Object defaultValue;
+
+		private ColumnSpec(String name, int offset, int length, Class<?> type) {
+			this.name = name;
+			this.offset = offset;
+			this.length = length;
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.black.fixedlength.manager;
+
+/**
+ * バイト配列の範囲をASCII文字列として参照します。<p>
+ * 文字列を生成せずに、レコード内の数字を直接解析するために使用します。
+ *
+ */
+final class AsciiCharSequence implements CharSequence {
+	private byte[] bytes;
+	private int offset;
+	private int length;
+
+	/**
+	 * 参照するバイト配列の範囲を設定します。
+	 *
+	 * @param bytes バイト配列
+	 * @param offset 開始位置
+	 * @param length バイト数
+	 * @return このインスタンス
+	 */
+	AsciiCharSequence set(byte[] bytes, int offset, int length) {
+		this.bytes = bytes;
+		this.offset = offset;
+		this.length = length;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return (char) (bytes[offset + index] & 0xFF);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().substring(start, end);
+	}
+
+	@Override
+	public String toString() {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) (bytes[offset + i] & 0xFF);
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,222 @@
+package com.black.fixedlength.manager;
+
+import java.text.ParseException;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.codec.ColumnCodec;
+import com.black.fixedlength.codec.DoubleColumnCodec;
+import com.black.fixedlength.codec.IntColumnCodec;
+import com.black.fixedlength.codec.LongColumnCodec;
+import com.black.fixedlength.format.PaddingFormat;
+import com.black.fixedlength.format.TrimmingFormat;
+import com.black.fixedlength.layout.ColumnLayout;
+
+/**
+ * 文字の項目と格納先の変換処理を、項目ごとに解決したものです。<p>
+ * 型による分岐は解決時に一度だけ行い、変換時は解決済みの変換処理を直接呼び出します。
+ * int、long、double型のフィールドに特化した変換処理が使用できる場合は、ラッパークラスを経由せずに変換します。
+ *
+ */
+abstract class ColumnBinding {
+
+	protected final ColumnLayout column;
+
+	/**
+	 * 書き込み時のパディング(設定されていない場合はnull)
+	 */
+	private final PaddingFormat padding;
+
+	private ColumnBinding(ColumnLayout column, PaddingFormat padding) {
+		this.column = column;
+		this.padding = padding;
+	}
+
+	/**
+	 * 項目の変換処理を解決します。
+	 * 項目に指定された変換処理、固定長形式情報に登録された変換処理、標準の変換処理の順に使用します。
+	 *
+	 * @param column 項目の配置情報
+	 * @param conf 固定長形式情報
+	 * @return 変換処理
+	 * @throws IllegalArgumentException 項目の型に対応する変換処理が存在しない場合
+	 */
+	@SuppressWarnings("unchecked")
+	static ColumnBinding of(ColumnLayout column, FLTConfig conf) {
+		Class<?> type = column.getType();
+		ColumnCodec<?> codec = column.getCodec() != null ? column.getCodec() : conf.getCodec(type);
+		if (codec == null) {
+			throw new IllegalArgumentException(String.format("Unknown convert type %s. field:%s", type, column.getName()));
+		}
+
+		PaddingFormat padding = column.getPadding() != null ? column.getPadding() : conf.getPaddingFormat(type);
+		if (type == int.class && codec instanceof IntColumnCodec) {
+			return new IntBinding(column, padding, (IntColumnCodec) codec);
+		} else if (type == long.class && codec instanceof LongColumnCodec) {
+			return new LongBinding(column, padding, (LongColumnCodec) codec);
+		} else if (type == double.class && codec instanceof DoubleColumnCodec) {
+			return new DoubleBinding(column, padding, (DoubleColumnCodec) codec);
+		}
+		return new ObjectBinding(column, padding, (ColumnCodec<Object>) codec);
+	}
+
+	/**
+	 * トリミング済みの文字列を変換し、エンティティに設定します。
+	 */
+	abstract void read(Object entity, String value, FLTConfig conf) throws IllegalAccessException, ParseException;
+
+	/**
+	 * トリミング済みの文字列を項目の型の値に変換します。
+	 */
+	abstract Object decode(String value, FLTConfig conf) throws ParseException;
+
+	/**
+	 * エンティティの値をパディング前の文字列に変換します。
+	 */
+	abstract String write(Object entity, FLTConfig conf) throws IllegalAccessException;
+
+	/**
+	 * 項目の型の値をパディング前の文字列に変換します。
+	 */
+	abstract String encode(Object value, FLTConfig conf);
+
+	/**
+	 * 読み込んだ文字列をトリミングします。
+	 * 項目に指定されたトリミング、固定長形式情報のトリミングの順に使用します。
+	 */
+	String trim(String value, FLTConfig conf) {
+		TrimmingFormat trimming = column.getTrimming() != null ? column.getTrimming() : conf.getTrimming();
+		return trimming != null ? trimming.trimming(value) : value;
+	}
+
+	/**
+	 * 書き込み時のパディングを返却します。
+	 *
+	 * @throws IllegalArgumentException パディングが設定されていない場合
+	 */
+	PaddingFormat getPadding() {
+		if (padding == null) {
+			throw new IllegalArgumentException(String.format("Not setting PaddingFormat %s", column.getType()));
+		}
+		return padding;
+	}
+
+	private static final class IntBinding extends ColumnBinding {
+		private final IntColumnCodec codec;
+
+		IntBinding(ColumnLayout column, PaddingFormat padding, IntColumnCodec codec) {
+			super(column, padding);
+			this.codec = codec;
+		}
+
+		@Override
+		void read(Object entity, String value, FLTConfig conf) throws IllegalAccessException, ParseException {
+			column.setInt(entity, codec.decodeInt(value, conf));
+		}
+
+		@Override
+		Object decode(String value, FLTConfig conf) throws ParseException {
+			return Integer.valueOf(codec.decodeInt(value, conf));
+		}
+
+		@Override
+		String write(Object entity, FLTConfig conf) throws IllegalAccessException {
+			return codec.encodeInt(column.getInt(entity), conf);
+		}
+
+		@Override
+		String encode(Object value, FLTConfig conf) {
+			return codec.encodeInt(((Number) value).intValue(), conf);
+		}
+	}
+
+	private static final class LongBinding extends ColumnBinding {
+		private final LongColumnCodec codec;
+
+		LongBinding(ColumnLayout column, PaddingFormat padding, LongColumnCodec codec) {
+			super(column, padding);
+			this.codec = codec;
+		}
+
+		@Override
+		void read(Object entity, String value, FLTConfig conf) throws IllegalAccessException, ParseException {
+			column.setLong(entity, codec.decodeLong(value, conf));
+		}
+
+		@Override
+		Object decode(String value, FLTConfig conf) throws ParseException {
+			return Long.valueOf(codec.decodeLong(value, conf));
+		}
+
+		@Override
+		String write(Object entity, FLTConfig conf) throws IllegalAccessException {
+			return codec.encodeLong(column.getLong(entity), conf);
+		}
+
+		@Override
+		String encode(Object value, FLTConfig conf) {
+			return codec.encodeLong(((Number) value).longValue(), conf);
+		}
+	}
+
+	private static final class DoubleBinding extends ColumnBinding {
+		private final DoubleColumnCodec codec;
+
+		DoubleBinding(ColumnLayout column, PaddingFormat padding, DoubleColumnCodec codec) {
+			super(column, padding);
+			this.codec = codec;
+		}
+
+		@Override
+		void read(Object entity, String value, FLTConfig conf) throws IllegalAccessException, ParseException {
+			column.setDouble(entity, codec.decodeDouble(value, conf));
+		}
+
+		@Override
+		Object decode(String value, FLTConfig conf) throws ParseException {
+			return Double.valueOf(codec.decodeDouble(value, conf));
+		}
+
+		@Override
+		String write(Object entity, FLTConfig conf) throws IllegalAccessException {
+			return codec.encodeDouble(column.getDouble(entity), conf);
+		}
+
+		@Override
+		String encode(Object value, FLTConfig conf) {
+			return codec.encodeDouble(((Number) value).doubleValue(), conf);
+		}
+	}
+
+	private static final class ObjectBinding extends ColumnBinding {
+		private final ColumnCodec<Object> codec;
+
+		ObjectBinding(ColumnLayout column, PaddingFormat padding, ColumnCodec<Object> codec) {
+			super(column, padding);
+			this.codec = codec;
+		}
+
+		@Override
+		void read(Object entity, String value, FLTConfig conf) throws IllegalAccessException, ParseException {
+			column.set(entity, codec.decode(value, conf));
+		}
+
+		@Override
+		Object decode(String value, FLTConfig conf) throws ParseException {
+			return codec.decode(value, conf);
+		}
+
+		@Override
+		String write(Object entity, FLTConfig conf) throws IllegalAccessException {
+			Object value = column.get(entity);
+			if (value == null) {
+				throw new IllegalArgumentException(String.format("The value of column %s is null.", column.getName()));
+			}
+			return encode(value, conf);
+		}
+
+		@Override
+		String encode(Object value, FLTConfig conf) {
+			return codec.encode(value, conf);
+		}
+	}
+}
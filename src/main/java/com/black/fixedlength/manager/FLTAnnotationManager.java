@@ -1,13 +1,29 @@
 package com.black.fixedlength.manager;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.black.fixedlength.FLTConfig;
 import com.black.fixedlength.annotation.Column;
 import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.codec.ColumnCodec;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.GenericRecord;
+import com.black.fixedlength.layout.RecordLayout;
 
 /**
  * アノテーションを操作する処理をまとめたクラス
@@ -15,6 +31,61 @@ import com.black.fixedlength.annotation.Record;
  */
 public class FLTAnnotationManager {
 
+	/**
+	 * 文字の数値項目の変換に使用する作業領域
+	 */
+	private final AsciiCharSequence ascii = new AsciiCharSequence();
+	private byte[] scratch = new byte[32];
+
+	/**
+	 * 配置情報ごとに解決した文字の項目の変換処理
+	 */
+	private final Map<RecordLayout, ColumnBinding[]> bindings = new IdentityHashMap<>();
+	private FLTConfig bindingConf;
+	private int bindingModCount;
+
+	/**
+	 * 配置情報を作成中の入れ子のレコードのクラス(循環の検出に使用します)
+	 */
+	private static final ThreadLocal<Set<Class<?>>> NESTING = ThreadLocal.withInitial(HashSet::new);
+
+	/**
+	 * クラスごとの配置情報のキャッシュ
+	 */
+	private static final ClassValue<RecordLayout> LAYOUTS = new ClassValue<RecordLayout>() {
+		@Override
+		protected RecordLayout computeValue(Class<?> type) {
+			return createLayout(type);
+		}
+	};
+
+	/**
+	 * 指定されたクラスの配置情報を返却します。
+	 * 配置情報はクラスごとに一度だけ解析され、以降はキャッシュされた値を返却します。
+	 *
+	 * @param clazz @インターフェースが実装されいるクラス
+	 * @return 配置情報
+	 * @throws IllegalArgumentException 項目の定義が不正な場合
+	 */
+	public static RecordLayout getLayout(Class<?> clazz) {
+		return LAYOUTS.get(clazz);
+	}
+
+	/**
+	 * 指定されたエンティティの配置情報を返却します。
+	 * {@link GenericRecord}の場合は、レコード定義の配置情報を返却します。
+	 *
+	 * @param entity エンティティ
+	 * @return 配置情報
+	 * @throws IllegalArgumentException 項目の定義が不正な場合
+	 */
+	public static RecordLayout getEntityLayout(Object entity) {
+		if (entity instanceof GenericRecord) {
+			return ((GenericRecord) entity).getSchema().getLayout();
+		}
+		return getLayout(entity.getClass());
+	}
+
 	/**
 	 * 指定されたクラスの固定長幅を計算し、返却します。
 	 * 指定するクラスには＠インターフェースが実装されている必要があります。
@@ -23,19 +94,7 @@ public class FLTAnnotationManager {
 	 * @return 固定長幅
 	 */
 	protected static <T> int getRecordSize(Class<T> clazz) {
-		Field[] fields = clazz.getDeclaredFields();
-
-		int length = 0;
-		for (Field field : fields) {
-			Column column = field.getAnnotation(Column.class);
-
-			if (column != null) {
-				length += column.length();
-			}
-
-		}
-
-		return length;
+		return getLayout(clazz).getRecordSize();
 	}
 
 	/**
@@ -55,6 +114,125 @@ public class FLTAnnotationManager {
 		return ret;
 	}
 
+	/**
+	 * 指定されたクラスの@Columnを解析し、配置情報を作成します。
+	 *
+	 * @param clazz @インターフェースが実装されいるクラス
+	 * @return 配置情報
+	 */
+	private static RecordLayout createLayout(Class<?> clazz) {
+		List<ColumnLayout> columns = new ArrayList<>();
+
+		int offset = 0;
+		for (Field field : clazz.getDeclaredFields()) {
+			Column column = field.getAnnotation(Column.class);
+
+			if (column != null) {
+				field.setAccessible(true);
+				offset = addColumns(columns, field, column, offset);
+			}
+		}
+
+		return new RecordLayout(clazz, getRecordCodeNum(clazz), columns.toArray(new ColumnLayout[columns.size()]));
+	}
+
+	/**
+	 * フィールドの配置情報を追加し、次の項目の位置を返却します。
+	 * 繰り返し回数が指定された配列は要素ごとに、入れ子のレコードは入れ子のレコードの項目ごとに展開します。
+	 */
+	private static int addColumns(List<ColumnLayout> columns, Field field, Column column, int offset) {
+		Class<?> type = field.getType();
+		if (column.occurs() < 0 || (column.occurs() > 0 && !type.isArray())) {
+			throw new IllegalArgumentException(String.format("The occurs can be specified only for array fields. field:%s", field.getName()));
+		}
+
+		if (column.occurs() > 0) {
+			Class<?> component = type.getComponentType();
+			if (isNestedRecord(component)) {
+				RecordLayout nested = getNestedLayout(component, column, field);
+				for (int i = 0; i < column.occurs(); i++) {
+					offset = nest(columns, nested, field.getName() + "[" + i + "]", field, i, column.occurs(), offset);
+				}
+				return offset;
+			}
+
+			ColumnCodec<?> codec = newCodec(column, field);
+			for (int i = 0; i < column.occurs(); i++) {
+				columns.add(new ColumnLayout(field.getName() + "[" + i + "]", field, i, column.occurs(), offset, column.length(), column.encoding(), column.scale(), column.sign(), codec));
+				offset += column.length();
+			}
+			return offset;
+		} else if (isNestedRecord(type)) {
+			return nest(columns, getNestedLayout(type, column, field), field.getName(), field, -1, 0, offset);
+		}
+
+		columns.add(new ColumnLayout(field.getName(), field, offset, column.length(), column.encoding(), column.scale(), column.sign(), newCodec(column, field)));
+		return offset + column.length();
+	}
+
+	/**
+	 * 入れ子のレコードの項目を、指定された位置に配置して追加します。
+	 */
+	private static int nest(List<ColumnLayout> columns, RecordLayout nested, String name, Field field, int element, int occurs, int offset) {
+		for (ColumnLayout column : nested.getColumns()) {
+			columns.add(column.nest(name + "." + column.getName(), offset + column.getOffset(), field, element, occurs, nested));
+		}
+		return offset + nested.getRecordSize();
+	}
+
+	/**
+	 * {@code @Column}のフィールドを持つクラス(入れ子のレコード)かどうかを返却します。
+	 */
+	private static boolean isNestedRecord(Class<?> type) {
+		if (type.isPrimitive() || type.isArray() || type.isEnum()) {
+			return false;
+		}
+		for (Field field : type.getDeclaredFields()) {
+			if (field.isAnnotationPresent(Column.class)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 入れ子のレコードの配置情報を返却します。
+	 *
+	 * @throws IllegalArgumentException 文字数/バイト数が入れ子のレコードのサイズと一致しない場合、入れ子のレコードが循環している場合
+	 */
+	private static RecordLayout getNestedLayout(Class<?> type, Column column, Field field) {
+		Set<Class<?>> nesting = NESTING.get();
+		if (!nesting.add(type)) {
+			throw new IllegalArgumentException(String.format("The nested record %s is circular. field:%s", type.getName(), field.getName()));
+		}
+		RecordLayout ret;
+		try {
+			ret = getLayout(type);
+		} finally {
+			nesting.remove(type);
+		}
+
+		if (column.length() != 0 && column.length() != ret.getRecordSize()) {
+			throw new IllegalArgumentException(String.format("Invalid length %d of nested record %s. expected:%d field:%s", column.length(), type.getName(), ret.getRecordSize(), field.getName()));
+		}
+		return ret;
+	}
+
+	/**
+	 * 項目に指定された変換処理を生成します。
+	 */
+	private static ColumnCodec<?> newCodec(Column column, Field field) {
+		if (column.codec() == ColumnCodec.class) {
+			return null;
+		}
+		try {
+			Constructor<?> ctor = column.codec().getDeclaredConstructor();
+			ctor.setAccessible(true);
+			return (ColumnCodec<?>) ctor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(String.format("Can not create codec %s. field:%s", column.codec().getName(), field.getName()), e);
+		}
+	}
 
 	/**
 	 * 指定されたクラスに指定された文字から固定長の文字を設定します。
@@ -70,25 +248,136 @@ public class FLTAnnotationManager {
 	 * @throws IndexOutOfBoundsException 指定されたclazzまたは、指定されたstrのフォーマットが一致していない場合
 	 * @throws ParseException 値の型変換に失敗した場合
 	 */
+	@SuppressWarnings("unchecked")
 	protected <T> T convertToEntity(FLTConfig conf, Class<T> clazz, String str) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, UnsupportedEncodingException, ParseException {
-		T ret = (T) clazz.newInstance();
+		return (T) convertToEntity(conf, getLayout(clazz), str);
+	}
 
-		Field[] fields = clazz.getDeclaredFields();
+	/**
+	 * 指定された配置情報のエンティティを生成し、指定された文字から固定長の値を設定します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout 配置情報
+	 * @param str 格納する文字列
+	 * @return エンティティ
+	 * @throws InstantiationException エンティティの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IndexOutOfBoundsException 指定された配置情報と、指定されたstrのフォーマットが一致していない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	protected Object convertToEntity(FLTConfig conf, RecordLayout layout, String str) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, UnsupportedEncodingException, ParseException {
+		return convertToEntity(conf, layout, str, layout.newInstance());
+	}
+
+	/**
+	 * 指定されたエンティティに、指定された文字から固定長の値を設定します。
+	 * エンティティの全ての項目が上書きされます。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout 配置情報
+	 * @param str 格納する文字列
+	 * @param ret 格納先のエンティティ
+	 * @return 格納先のエンティティ
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IndexOutOfBoundsException 指定された配置情報と、指定されたstrのフォーマットが一致していない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	protected Object convertToEntity(FLTConfig conf, RecordLayout layout, String str, Object ret) throws IllegalAccessException, IndexOutOfBoundsException, UnsupportedEncodingException, ParseException {
+		if (layout.isBinary()) {
+			throw new IllegalArgumentException(String.format("Binary columns can not be read as characters. %s", layout.getRecordClass()));
+		}
 
+		ColumnBinding[] binding = getBindings(conf, layout);
 		int beginIndex = 0;
-		for (Field field : fields) {
-			field.setAccessible(true);
-			Column column = field.getAnnotation(Column.class);
+		for (int i = 0; i < binding.length; i++) {
+			ColumnLayout column = layout.getColumn(i);
+			int endIndex = getEndIndex(conf, str, beginIndex, column.getLength());
+			if (column.isDecimalText()) {
+				setDecimal(ret, column, str, beginIndex, endIndex);
+				beginIndex = endIndex;
+				continue;
+			}
 
-			if (column != null) {
-				int endIndex = beginIndex + column.length();
-				String value = subString(conf, str, beginIndex, endIndex);
-				value = conf.getTrimming() != null ? conf.getTrimming().trimming(value) : value;
-				field.set(ret, convert(value, field.getType(), conf));
+			binding[i].read(ret, binding[i].trim(str.substring(beginIndex, endIndex), conf), conf);
+
+			beginIndex = endIndex;
+		}
+		return ret;
+	}
+
+	/**
+	 * 指定されたクラスに指定されたバイト配列から固定長の値を設定します。
+	 * 固定長の読み取り形式がバイト数の場合に使用します。
+	 * 指定されたクラスに引数無しのコンストラクタが実装されている必要があります。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz @インターフェースが実装されいるクラス
+	 * @param record 格納するレコード
+	 * @return 指定された{@code clazz}のインスタンス
+	 * @throws InstantiationException 指定されたclazzが抽象クラス、インタフェース、配列クラス、プリミティブ型、またはvoidを表す場合、クラスが引数なしのコンストラクタを保持しない場合、あるいはインスタンスの生成がほかの理由で失敗した場合
+	 * @throws IllegalAccessException {@code clazz}が対応していない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> T convertToEntity(FLTConfig conf, Class<T> clazz, byte[] record) throws InstantiationException, IllegalAccessException, UnsupportedEncodingException, ParseException {
+		return (T) convertToEntity(conf, getLayout(clazz), record);
+	}
 
-				beginIndex += column.length();
+	/**
+	 * 指定された配置情報のエンティティを生成し、指定されたバイト配列から固定長の値を設定します。
+	 * 固定長の読み取り形式がバイト数の場合に使用します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout 配置情報
+	 * @param record 格納するレコード
+	 * @return エンティティ
+	 * @throws InstantiationException エンティティの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	protected Object convertToEntity(FLTConfig conf, RecordLayout layout, byte[] record) throws InstantiationException, IllegalAccessException, UnsupportedEncodingException, ParseException {
+		return convertToEntity(conf, layout, record, layout.newInstance());
+	}
+
+	/**
+	 * 指定されたエンティティに、指定されたバイト配列から固定長の値を設定します。
+	 * エンティティの全ての項目が上書きされます。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout 配置情報
+	 * @param record 格納するレコード
+	 * @param ret 格納先のエンティティ
+	 * @return 格納先のエンティティ
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	protected Object convertToEntity(FLTConfig conf, RecordLayout layout, byte[] record, Object ret) throws IllegalAccessException, UnsupportedEncodingException, ParseException {
+		ByteWidthCalculator calculator = conf.getByteWidthCalculator();
+		Charset charset = calculator.getCharset();
+
+		ColumnBinding[] binding = getBindings(conf, layout);
+		for (int i = 0; i < binding.length; i++) {
+			ColumnLayout column = layout.getColumn(i);
+			if (column.isBinary()) {
+				setNumber(ret, column, record);
+				continue;
+			} else if (column.isDecimalText()) {
+				if (calculator.isAsciiCompatible()) {
+					setDecimal(ret, column, ascii.set(record, column.getOffset(), column.getLength()), 0, column.getLength());
+				} else {
+					String value = new String(record, column.getOffset(), column.getLength(), charset);
+					setDecimal(ret, column, value, 0, value.length());
+				}
+				continue;
 			}
 
+			String value = new String(record, column.getOffset(), column.getLength(), charset);
+			binding[i].read(ret, binding[i].trim(value, conf), conf);
 		}
 		return ret;
 	}
@@ -105,74 +394,419 @@ public class FLTAnnotationManager {
 	 */
 	protected <T> String convertToFixedlength(FLTConfig conf, T entity) throws IllegalArgumentException, IllegalAccessException, UnsupportedEncodingException {
 
-		String ret = "";
-		Field[] fields = entity.getClass().getDeclaredFields();
+		StringBuilder ret = new StringBuilder();
 
-		for (Field field : fields) {
-			field.setAccessible(true);
-			Column column = field.getAnnotation(Column.class);
+		RecordLayout layout = getEntityLayout(entity);
+		if (layout.isBinary()) {
+			throw new IllegalArgumentException(String.format("Binary columns can not be written as characters. %s", entity.getClass()));
+		}
 
-			if (column != null) {
-				String value = convert(field.get(entity), conf);
+		ColumnBinding[] binding = getBindings(conf, layout);
+		for (int i = 0; i < binding.length; i++) {
+			ColumnLayout column = layout.getColumn(i);
+			if (column.isDecimalText()) {
+				byte[] digits = getScratch(column.getLength());
+				putNumber(entity, column, digits, 0, false);
+				for (int j = 0; j < column.getLength(); j++) {
+					ret.append((char) digits[j]);
+				}
+				continue;
+			}
+			ret.append(formatColumn(conf, binding[i], entity));
+		}
 
-				int length = 0;
-				switch (conf.getFltType()) {
-				case BYTE :
-					length = column.length() - value.getBytes(conf.getCharCode()).length + value.length();
-					break;
+		return ret.toString();
+	}
 
-				case STRING :
-					length = column.length();
-					break;
+	/**
+	 * 指定されたエンティティを固定長のバイト配列に変換します。
+	 * 固定長の読み取り形式がバイト数の場合に使用します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param entity 変換元エンティティ
+	 * @param record 書き込み先のバイト配列(レコードサイズ以上)
+	 * @throws IllegalArgumentException 変換に失敗した場合
+	 * @throws IllegalAccessException
+	 * @throws IOException 指定された文字セットがサポートされていない場合、項目のバイト数が一致しない場合
+	 */
+	protected <T> void convertToRecord(FLTConfig conf, T entity, byte[] record) throws IllegalArgumentException, IllegalAccessException, IOException {
+		RecordLayout layout = getEntityLayout(entity);
+		ByteWidthCalculator calculator = conf.getByteWidthCalculator();
+
+		ColumnBinding[] binding = getBindings(conf, layout);
+		for (int i = 0; i < binding.length; i++) {
+			ColumnLayout column = layout.getColumn(i);
+			if (column.isBinary() || (column.isDecimalText() && calculator.isAsciiCompatible())) {
+				putNumber(entity, column, record, column.getOffset(), calculator.isEbcdic());
+				continue;
+			} else if (column.isDecimalText()) {
+				// ASCII互換でない文字セットの場合は、ASCII文字で作成してからエンコードします。
+				byte[] digits = getScratch(column.getLength());
+				putNumber(entity, column, digits, 0, false);
+				encodeText(calculator, column, new String(digits, 0, column.getLength(), StandardCharsets.ISO_8859_1), record);
+				continue;
+			}
+
+			String value = formatColumn(conf, binding[i], entity);
+			encodeText(calculator, column, value, record);
+		}
+	}
+
+	/**
+	 * 指定された値を、項目に書き込まれるバイト列に変換します。
+	 * エンティティの書き込みと同じ変換、パディング、エンコードを行うため、
+	 * 変換結果はレコード内の項目のバイト列と比較できます。
+	 * 固定長の読み取り形式がバイト数の場合に使用します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param column 項目の配置情報
+	 * @param value 項目の型の値
+	 * @return 項目のバイト数のバイト配列
+	 * @throws IllegalArgumentException 変換に失敗した場合
+	 * @throws IOException 指定された文字セットがサポートされていない場合、項目のバイト数が一致しない場合
+	 */
+	public static byte[] encodeColumn(FLTConfig conf, ColumnLayout column, Object value) throws IOException {
+		if (conf == null || column == null || value == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		ByteWidthCalculator calculator = conf.getByteWidthCalculator();
+
+		byte[] ret = new byte[column.getLength()];
+		if (column.isBinary() || (column.isDecimalText() && calculator.isAsciiCompatible())) {
+			putNumber(column, value, ret, 0, calculator.isEbcdic());
+		} else if (column.isDecimalText()) {
+			byte[] digits = new byte[column.getLength()];
+			putNumber(column, value, digits, 0, false);
+			encodeText(calculator, column, new String(digits, StandardCharsets.ISO_8859_1), ret, 0);
+		} else {
+			ColumnBinding binding = ColumnBinding.of(column, conf);
+			encodeText(calculator, column, padColumn(conf, binding, binding.encode(value, conf)), ret, 0);
+		}
+		return ret;
+	}
+
+	/**
+	 * 項目の値を文字列に変換し、項目の桁数(またはバイト数)になるようパディングします。
+	 */
+	private static String formatColumn(FLTConfig conf, ColumnBinding binding, Object entity) throws UnsupportedEncodingException, IllegalAccessException {
+		return padColumn(conf, binding, binding.write(entity, conf));
+	}
+
+	/**
+	 * 変換済みの文字列を、項目の桁数(またはバイト数)になるようパディングします。
+	 */
+	static String padColumn(FLTConfig conf, ColumnBinding binding, String value) throws UnsupportedEncodingException {
+		ColumnLayout column = binding.column;
+
+		int length = 0;
+		switch (conf.getFltType()) {
+		case BYTE :
+			ByteWidthCalculator calculator = conf.getByteWidthCalculator();
+			int byteLength = calculator.byteLength(value);
+			if (byteLength > column.getLength() && conf.isTruncateOverflow()) {
+				value = calculator.truncate(value, column.getLength());
+				byteLength = calculator.byteLength(value);
+			}
+			length = column.getLength() - byteLength + value.length();
+			break;
+
+		case STRING :
+			if (value.length() > column.getLength() && conf.isTruncateOverflow()) {
+				value = value.substring(0, column.getLength());
+			}
+			length = column.getLength();
+			break;
+		default:
+			throw new IllegalArgumentException(String.format("Unknown enum tyoe %s", conf.getFltType()));
+		}
+
+		return binding.getPadding().padding(value, length);
+	}
+
+	/**
+	 * パディング済みの文字列をエンコードし、レコードの項目位置に書き込みます。
+	 * ASCII文字のみの場合はエンコードを行わずに書き込みます。
+	 */
+	private static void encodeText(ByteWidthCalculator calculator, ColumnLayout column, String value, byte[] record) throws FixedLengthFormatException {
+		encodeText(calculator, column, value, record, column.getOffset());
+	}
+
+	static void encodeText(ByteWidthCalculator calculator, ColumnLayout column, String value, byte[] record, int offset) throws FixedLengthFormatException {
+		int length = value.length();
+
+		if (calculator.isAsciiCompatible() && length == column.getLength()
+				&& ByteWidthCalculator.isAscii(value, 0, length)) {
+			for (int i = 0; i < length; i++) {
+				record[offset + i] = (byte) value.charAt(i);
+			}
+			return;
+		}
+
+		byte[] bytes = value.getBytes(calculator.getCharset());
+		if (bytes.length != column.getLength()) {
+			throw new FixedLengthFormatException(String.format("The number of bytes in the column is not met. column:%s", column.getName()));
+		}
+		System.arraycopy(bytes, 0, record, offset, bytes.length);
+	}
+
+	/**
+	 * バイナリ項目をレコードから読み込み、エンティティに設定します。
+	 */
+	private static void setNumber(Object entity, ColumnLayout column, byte[] record) throws IllegalAccessException, ParseException {
+		if (column.getType() == BigDecimal.class) {
+			column.set(entity, readDecimal(column, record, column.getOffset()));
+			return;
+		}
+		setLong(entity, column, readLong(column, record, column.getOffset()));
+	}
+
+	/**
+	 * バイナリ項目を指定された位置から読み込み、項目の型の値を返却します。
+	 */
+	static Object decodeNumber(ColumnLayout column, byte[] record, int offset) throws ParseException {
+		if (column.getType() == BigDecimal.class) {
+			return readDecimal(column, record, offset);
+		}
+		return toType(column, readLong(column, record, offset));
+	}
+
+	private static BigDecimal readDecimal(ColumnLayout column, byte[] record, int offset) throws ParseException {
+		int length = column.getLength();
+		switch (column.getEncoding()) {
+		case PACKED :
+			return FLTNumberCodec.decodePackedDecimal(record, offset, length, column.getScale());
+		case ZONED :
+			return FLTNumberCodec.decodeZonedDecimal(record, offset, length, column.getScale());
+		default:
+			return BigDecimal.valueOf(FLTNumberCodec.decodeBinary(record, offset, length), column.getScale());
+		}
+	}
+
+	private static long readLong(ColumnLayout column, byte[] record, int offset) throws ParseException {
+		int length = column.getLength();
+		switch (column.getEncoding()) {
+		case PACKED :
+			return FLTNumberCodec.decodePacked(record, offset, length);
+		case ZONED :
+			return FLTNumberCodec.decodeZoned(record, offset, length);
+		default:
+			return FLTNumberCodec.decodeBinary(record, offset, length);
+		}
+	}
+
+	/**
+	 * 文字の数値項目を文字の範囲から直接読み込み、エンティティに設定します。
+	 * 空白のみの場合は、プリミティブ型には0、それ以外にはnullを設定します。
+	 */
+	private static void setDecimal(Object entity, ColumnLayout column, CharSequence str, int beginIndex, int endIndex) throws IllegalAccessException, ParseException {
+		if (FLTNumberCodec.isBlank(str, beginIndex, endIndex)) {
+			if (column.getType().isPrimitive()) {
+				setLong(entity, column, 0);
+			} else {
+				column.set(entity, null);
+			}
+		} else if (column.getType() == BigDecimal.class) {
+			column.set(entity, FLTNumberCodec.parseDecimal(str, beginIndex, endIndex, column.getSign(), column.getScale()));
+		} else {
+			setLong(entity, column, FLTNumberCodec.parseUnscaled(str, beginIndex, endIndex, column.getSign()));
+		}
+	}
+
+	/**
+	 * 文字の数値項目を文字の範囲から直接読み込み、項目の型の値を返却します。
+	 * 空白のみの場合は、プリミティブ型には0、それ以外にはnullを返却します。
+	 */
+	static Object decodeDecimal(ColumnLayout column, CharSequence str, int beginIndex, int endIndex) throws ParseException {
+		if (FLTNumberCodec.isBlank(str, beginIndex, endIndex)) {
+			return column.getType().isPrimitive() ? toType(column, 0) : null;
+		} else if (column.getType() == BigDecimal.class) {
+			return FLTNumberCodec.parseDecimal(str, beginIndex, endIndex, column.getSign(), column.getScale());
+		}
+		return toType(column, FLTNumberCodec.parseUnscaled(str, beginIndex, endIndex, column.getSign()));
+	}
+
+	/**
+	 * スケールなしの値を、整数型の項目の型の値に変換します。
+	 */
+	private static Object toType(ColumnLayout column, long value) throws ParseException {
+		Class<?> type = column.getType();
+
+		if (type == long.class || type == Long.class) {
+			return Long.valueOf(value);
+		} else if (type == int.class || type == Integer.class) {
+			if ((int) value != value) {
+				throw new ParseException(String.format("The value %d is out of range of int.", value), column.getOffset());
+			}
+			return Integer.valueOf((int) value);
+		}
+		if ((short) value != value) {
+			throw new ParseException(String.format("The value %d is out of range of short.", value), column.getOffset());
+		}
+		return Short.valueOf((short) value);
+	}
+
+	/**
+	 * 整数型の項目にスケールなしの値を設定します。
+	 */
+	private static void setLong(Object entity, ColumnLayout column, long value) throws IllegalAccessException, ParseException {
+		Class<?> type = column.getType();
+
+		if (type == long.class) {
+			column.setLong(entity, value);
+		} else if (type == Long.class) {
+			column.set(entity, Long.valueOf(value));
+		} else if (type == int.class || type == Integer.class) {
+			if ((int) value != value) {
+				throw new ParseException(String.format("The value %d is out of range of int.", value), column.getOffset());
+			}
+			if (type == int.class) {
+				column.setInt(entity, (int) value);
+			} else {
+				column.set(entity, Integer.valueOf((int) value));
+			}
+		} else {
+			if ((short) value != value) {
+				throw new ParseException(String.format("The value %d is out of range of short.", value), column.getOffset());
+			}
+			if (type == short.class) {
+				column.setShort(entity, (short) value);
+			} else {
+				column.set(entity, Short.valueOf((short) value));
+			}
+		}
+	}
+
+	/**
+	 * エンティティのバイナリ項目、文字の数値項目を指定された位置に書き込みます。
+	 * 文字の数値項目はASCII文字で書き込みます。
+	 */
+	private static void putNumber(Object entity, ColumnLayout column, byte[] record, int offset, boolean ebcdic) throws IllegalAccessException {
+		if (column.getType().isPrimitive()) {
+			putLong(column, column.getLong(entity), record, offset, ebcdic);
+			return;
+		}
+
+		Object obj = column.get(entity);
+		if (obj == null) {
+			throw new IllegalArgumentException(String.format("The value of column %s is null.", column.getName()));
+		}
+		putNumber(column, obj, record, offset, ebcdic);
+	}
+
+	/**
+	 * 数値をバイナリ項目、文字の数値項目として指定された位置に書き込みます。
+	 */
+	static void putNumber(ColumnLayout column, Object obj, byte[] record, int offset, boolean ebcdic) {
+		int length = column.getLength();
+
+		long value;
+		{
+			if (obj instanceof BigDecimal) {
+				BigDecimal decimal = (BigDecimal) obj;
+				switch (column.getEncoding()) {
+				case TEXT :
+					FLTNumberCodec.formatDecimal(decimal, column.getScale(), column.getSign(), record, offset, length);
+					return;
+				case PACKED :
+					FLTNumberCodec.encodePacked(decimal, column.getScale(), record, offset, length);
+					return;
+				case ZONED :
+					FLTNumberCodec.encodeZoned(decimal, column.getScale(), record, offset, length, ebcdic);
+					return;
 				default:
-					throw new IllegalArgumentException(String.format("Unknown enum tyoe %s", conf.getFltType()));
+					try {
+						value = FLTNumberCodec.unscaled(decimal, column.getScale()).longValueExact();
+					} catch (ArithmeticException e) {
+						throw new IllegalArgumentException(String.format("The value %s is out of range of long.", decimal), e);
+					}
+					break;
 				}
+			} else {
+				value = ((Number) obj).longValue();
+			}
+		}
+		putLong(column, value, record, offset, ebcdic);
+	}
+
+	/**
+	 * スケールなしの整数をバイナリ項目、文字の数値項目として指定された位置に書き込みます。
+	 */
+	private static void putLong(ColumnLayout column, long value, byte[] record, int offset, boolean ebcdic) {
+		int length = column.getLength();
+
+		switch (column.getEncoding()) {
+		case TEXT :
+			FLTNumberCodec.formatUnscaled(value, column.getSign(), record, offset, length);
+			break;
+		case PACKED :
+			FLTNumberCodec.encodePacked(value, record, offset, length);
+			break;
+		case ZONED :
+			FLTNumberCodec.encodeZoned(value, record, offset, length, ebcdic);
+			break;
+		default:
+			FLTNumberCodec.encodeBinary(value, record, offset, length);
+			break;
+		}
+	}
+
+	/**
+	 * 配置情報の文字の項目ごとに解決した変換処理を返却します。
+	 * 数値項目(バイナリ項目、文字の数値項目)の要素はnullです。
+	 * 固定長形式情報が異なる場合、設定が変更された場合は解決し直します。
+	 */
+	private ColumnBinding[] getBindings(FLTConfig conf, RecordLayout layout) {
+		if (bindingConf != conf || bindingModCount != conf.getModCount()) {
+			bindings.clear();
+			bindingConf = conf;
+			bindingModCount = conf.getModCount();
+		}
 
-				value = conf.getPaddingFormat(field.getType()).padding(value, length);
-				if (value == null) {
-					throw new IllegalArgumentException(String.format("Not setting PaddingFormat %s", entity.getClass()));
+		ColumnBinding[] ret = bindings.get(layout);
+		if (ret == null) {
+			ret = new ColumnBinding[layout.getColumnCount()];
+			for (int i = 0; i < ret.length; i++) {
+				ColumnLayout column = layout.getColumn(i);
+				if (!column.isBinary() && !column.isDecimalText()) {
+					ret[i] = ColumnBinding.of(column, conf);
 				}
-				ret += value;
 			}
+			bindings.put(layout, ret);
 		}
-
 		return ret;
 	}
 
+	/**
+	 * 作業用のバイト配列を返却します。
+	 */
+	private byte[] getScratch(int length) {
+		if (scratch.length < length) {
+			scratch = new byte[length];
+		}
+		return scratch;
+	}
 
 	/**
-	 * 指定された文字列から固定長の文字列を抜き出します。
+	 * 指定された文字列から固定長の項目を抜き出す際の終了インデックスを返却します。
+	 * バイト数の場合は、マルチバイト文字の途中で分割されない位置を返却します。
 	 *
 	 * @param conf 固定長形式情報
 	 * @param str 抜き出し元の文字列
 	 * @param beginIndex 開始インデックス(この値を含む)
-	 * @param endIndex 終了インデックス(この値を含まない)
-	 * @return 指定された部分文字列
+	 * @param length 項目の文字数/バイト数
+	 * @return 終了インデックス(この値を含まない)
 	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
-	 * @throws IndexOutOfBoundsException beginIndexが負であるか、endIndexがこのStringオブジェクトの長さより大きいか、あるいはbeginIndexがendIndexより大きい場合。
 	 */
-	private static String subString(FLTConfig conf, String str, int beginIndex, int endIndex) throws IndexOutOfBoundsException, UnsupportedEncodingException {
-		String ret = new String();
-
+	private static int getEndIndex(FLTConfig conf, String str, int beginIndex, int length) throws UnsupportedEncodingException {
 		switch(conf.getFltType()) {
 			case BYTE :
-				byte[] bstr = str.getBytes(conf.getCharCode());
-				byte[] retBstr = new byte[endIndex - beginIndex];
-				for(int i = beginIndex; i < bstr.length; i++) {
-					retBstr[beginIndex - i] = bstr[i];
-				}
-
-				ret = new String(retBstr);
-				break;
+				return conf.getByteWidthCalculator().charIndex(str, beginIndex, length);
 
 			case STRING :
-				ret = str.substring(beginIndex, endIndex);
-				break;
+				return beginIndex + length;
 			default:
 				throw new IllegalArgumentException(String.format("Unknown enum tyoe %s", conf.getFltType()));
 		}
-
-		return ret;
 	}
 
 	/**
@@ -192,41 +826,11 @@ public class FLTAnnotationManager {
 			return null;
 		}
 
-		if (type == String.class) {
-			return str.toString();
-		} else if (type == int.class ||  type == Integer.class) {
-			return Integer.valueOf(str);
-		} else if (type == double.class|| type == Double.class ) {
-			return Double.valueOf(str);
-		} else if (type == long.class || type == Long.class) {
-			return Long.valueOf(str);
-		} else if (type == float.class || type == Float.class) {
-			return Float.valueOf(str);
-		} else if (type == byte.class || type == Byte.class) {
-			return Byte.valueOf(str);
-		} else if (type == char.class || type == Character.class) {
-			char[] chars = str.toCharArray();
-			return Character.valueOf(chars.length == 0 ? null : chars[0] );
-		} else if (type == short.class || type == Short.class) {
-			return Short.valueOf(str);
-		} else if (type == java.util.Date.class || type == java.sql.Date.class || type == Calendar.class || type == java.sql.Timestamp.class) {
-			if (conf.getDateFormat() == null) {
-				throw new IllegalArgumentException("The conversion date format is not set.");
-			}
-			if (type == java.util.Date.class) {
-				return conf.getDateFormat().parse(str);
-			} else if (type == java.sql.Date.class) {
-				return new java.sql.Date(conf.getDateFormat().parse(str).getTime());
-			} else if (type == Calendar.class) {
-				Calendar cal = Calendar.getInstance();
-				cal.setTime(conf.getDateFormat().parse(str));
-				return cal;
-			} else if (type == java.sql.Timestamp.class) {
-				return new java.sql.Timestamp(conf.getDateFormat().parse(str).getTime());
-			}
+		ColumnCodec<?> codec = conf.getCodec(type);
+		if (codec == null) {
+			throw new IllegalArgumentException(String.format("Unknown convert type %s", type));
 		}
-
-		return null;
+		return codec.decode(str, conf);
 	}
 
 	/**
@@ -236,43 +840,14 @@ public class FLTAnnotationManager {
 	 * @param conf 固定長形式情報
 	 * @return 文字列
 	 */
+	@SuppressWarnings("unchecked")
 	protected String convert(Object obj, FLTConfig conf) {
 		Class<?> type = obj.getClass();
 
-		if (type == String.class) {
-			return obj.toString();
-		} else if (type == int.class ||  type == Integer.class) {
-			return obj.toString();
-		} else if (type == double.class|| type == Double.class ) {
-			return obj.toString();
-		} else if (type == long.class || type == Long.class) {
-			return obj.toString();
-		} else if (type == float.class || type == Float.class) {
-			return obj.toString();
-		} else if (type == byte.class || type == Byte.class) {
-			return obj.toString();
-		} else if (type == char.class || type == Character.class) {
-			return obj.toString();
-		} else if (type == short.class || type == Short.class) {
-			return obj.toString();
-		} else if (type == java.util.Date.class || type == java.sql.Date.class || type == Calendar.class || type == java.sql.Timestamp.class) {
-			if (conf.getDateFormat() == null) {
-				throw new IllegalArgumentException("The conversion date format is not set.");
-			}
-			if (type == java.util.Date.class) {
-				return conf.getDateFormat().format(obj);
-			} else if (type == java.sql.Date.class) {
-				java.util.Date date = new java.util.Date(((java.sql.Date)obj).getTime());
-				return conf.getDateFormat().format(date);
-			} else if (type == Calendar.class) {
-				java.util.Date date = ((Calendar)obj).getTime();
-				return conf.getDateFormat().format(date);
-			} else if (type == java.sql.Timestamp.class) {
-				java.util.Date date = new java.util.Date(((java.sql.Timestamp)obj).getTime());
-				return conf.getDateFormat().format(date);
-			}
+		ColumnCodec<Object> codec = (ColumnCodec<Object>) conf.getCodec(type);
+		if (codec == null) {
+			throw new IllegalArgumentException(String.format("Unknown convert type %s", type));
 		}
-
-		throw new IllegalArgumentException(String.format("Unknown convert type %s", type));
+		return codec.encode(obj, conf);
 	}
 }
@@ -0,0 +1,303 @@
+package com.black.fixedlength.manager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+
+/**
+ * トレーラレコードの件数、合計金額などの管理項目を定義します。<p>
+ * {@link FLTEntityReader}に設定した場合は、読み込みながらデータレコードの件数と合計を集計し、
+ * ファイルの終わりでトレーラレコードの値と一致するかどうかを検証します。
+ * {@link FLTEntityWriter}に設定した場合は、書き込みながら集計し、トレーラレコードを自動で出力します。
+ *
+ */
+public class FLTControlTotals {
+
+	private final RecordLayout dataLayout;
+	private final RecordLayout trailerLayout;
+
+	/**
+	 * データレコードの件数を格納するトレーラの項目
+	 */
+	private ColumnLayout countColumn;
+
+	/**
+	 * 合計を格納するトレーラの項目と、集計するデータレコードの項目
+	 */
+	private final List<ColumnLayout> sumColumns = new ArrayList<>();
+	private final List<ColumnLayout> dataColumns = new ArrayList<>();
+
+	/**
+	 * 指定されたデータレコード、トレーラレコードのクラスを使用して、構築するコンストラクタです。
+	 *
+	 * @param dataClazz データレコードのクラス
+	 * @param trailerClazz トレーラレコードのクラス
+	 */
+	public FLTControlTotals(Class<?> dataClazz, Class<?> trailerClazz) {
+		if (dataClazz == null || trailerClazz == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.dataLayout = FLTAnnotationManager.getLayout(dataClazz);
+		this.trailerLayout = FLTAnnotationManager.getLayout(trailerClazz);
+	}
+
+	/**
+	 * 指定されたデータレコード、トレーラレコードのレコード定義を使用して、構築するコンストラクタです。
+	 *
+	 * @param dataSchema データレコードのレコード定義
+	 * @param trailerSchema トレーラレコードのレコード定義
+	 */
+	public FLTControlTotals(RecordSchema dataSchema, RecordSchema trailerSchema) {
+		if (dataSchema == null || trailerSchema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.dataLayout = dataSchema.getLayout();
+		this.trailerLayout = trailerSchema.getLayout();
+	}
+
+	/**
+	 * データレコードの件数を格納するトレーラの項目を設定します。
+	 *
+	 * @param trailerColumn トレーラの項目名
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public void setCountColumn(String trailerColumn) {
+		this.countColumn = getColumn(trailerLayout, trailerColumn);
+	}
+
+	/**
+	 * 合計を格納するトレーラの項目と、集計するデータレコードの項目を追加します。
+	 *
+	 * @param trailerColumn トレーラの項目名
+	 * @param dataColumn データレコードの項目名
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public void addSumColumn(String trailerColumn, String dataColumn) {
+		ColumnLayout sum = getColumn(trailerLayout, trailerColumn);
+		ColumnLayout data = getColumn(dataLayout, dataColumn);
+		sumColumns.add(sum);
+		dataColumns.add(data);
+	}
+
+	public Class<?> getDataClass() {
+		return dataLayout.getRecordClass();
+	}
+
+	public Class<?> getTrailerClass() {
+		return trailerLayout.getRecordClass();
+	}
+
+	RecordLayout getTrailerLayout() {
+		return trailerLayout;
+	}
+
+	/**
+	 * 指定されたエンティティがデータレコードかどうかを返却します。
+	 */
+	boolean isData(Object entity) {
+		return FLTAnnotationManager.getEntityLayout(entity) == dataLayout;
+	}
+
+	/**
+	 * 指定されたエンティティがトレーラレコードかどうかを返却します。
+	 */
+	boolean isTrailer(Object entity) {
+		return FLTAnnotationManager.getEntityLayout(entity) == trailerLayout;
+	}
+
+	/**
+	 * 空のトレーラレコードを生成します。
+	 */
+	Object newTrailer() throws InstantiationException, IllegalAccessException {
+		return trailerLayout.newInstance();
+	}
+
+	/**
+	 * 集計を開始します。
+	 *
+	 * @return 集計処理
+	 */
+	Accumulator newAccumulator() {
+		return new Accumulator();
+	}
+
+	private static ColumnLayout getColumn(RecordLayout layout, String name) {
+		ColumnLayout ret = name == null ? null : layout.getColumn(name);
+		if (ret == null) {
+			throw new IllegalArgumentException(String.format("Unknown column %s.", name));
+		}
+		return ret;
+	}
+
+	/**
+	 * 項目の値を数値として返却します。値がない場合はnullを返却します。
+	 */
+	private static BigDecimal toDecimal(ColumnLayout column, Object value) {
+		if (value == null) {
+			return null;
+		} else if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+
+		String str = value.toString().trim();
+		if (str.isEmpty()) {
+			return null;
+		}
+		try {
+			return new BigDecimal(str);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("The value of column %s is not a number.", column.getName()), e);
+		}
+	}
+
+	/**
+	 * 1回の読み込み、書き込みの集計処理です。
+	 */
+	final class Accumulator {
+		private long count;
+
+		/**
+		 * 整数の項目の合計(桁あふれした場合は小数の合計に加算します)
+		 */
+		private final long[] longSums = new long[dataColumns.size()];
+		private final BigDecimal[] decimalSums = new BigDecimal[dataColumns.size()];
+
+		private Accumulator() {
+			for (int i = 0; i < decimalSums.length; i++) {
+				decimalSums[i] = BigDecimal.ZERO;
+			}
+		}
+
+		/**
+		 * データレコードを集計します。
+		 *
+		 * @param entity データレコード
+		 * @throws IllegalAccessException 項目の値を取得できない場合
+		 */
+		void add(Object entity) throws IllegalAccessException {
+			count++;
+			for (int i = 0; i < longSums.length; i++) {
+				ColumnLayout column = dataColumns.get(i);
+				Class<?> type = column.getType();
+
+				if (type == long.class || type == int.class || type == short.class) {
+					add(i, column.getLong(entity));
+					continue;
+				}
+				Object value = column.get(entity);
+				if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+					add(i, ((Number) value).longValue());
+				} else {
+					BigDecimal decimal = toDecimal(column, value);
+					if (decimal != null) {
+						decimalSums[i] = decimalSums[i].add(decimal);
+					}
+				}
+			}
+		}
+
+		private void add(int index, long value) {
+			long sum = longSums[index] + value;
+			if (((longSums[index] ^ sum) & (value ^ sum)) < 0) {
+				decimalSums[index] = decimalSums[index].add(BigDecimal.valueOf(longSums[index])).add(BigDecimal.valueOf(value));
+				sum = 0;
+			}
+			longSums[index] = sum;
+		}
+
+		/**
+		 * 別に集計した結果を加算します。
+		 *
+		 * @param other 同じ管理項目で集計した結果
+		 */
+		void merge(Accumulator other) {
+			count += other.count;
+			for (int i = 0; i < longSums.length; i++) {
+				add(i, other.longSums[i]);
+				decimalSums[i] = decimalSums[i].add(other.decimalSums[i]);
+			}
+		}
+
+		long getCount() {
+			return count;
+		}
+
+		BigDecimal getSum(int index) {
+			return decimalSums[index].add(BigDecimal.valueOf(longSums[index]));
+		}
+
+		/**
+		 * トレーラレコードの値が集計結果と一致するかどうかを検証します。
+		 *
+		 * @param trailer トレーラレコード
+		 * @throws FixedLengthFormatException 値が一致しない場合
+		 * @throws IllegalAccessException 項目の値を取得できない場合
+		 */
+		void verify(Object trailer) throws FixedLengthFormatException, IllegalAccessException {
+			if (countColumn != null) {
+				BigDecimal value = toDecimal(countColumn, countColumn.get(trailer));
+				if (value == null || value.compareTo(BigDecimal.valueOf(count)) != 0) {
+					throw new FixedLengthFormatException(String.format(
+							"The record count of the trailer does not match. trailer:%s, records:%d", value, count));
+				}
+			}
+			for (int i = 0; i < sumColumns.size(); i++) {
+				ColumnLayout column = sumColumns.get(i);
+				BigDecimal value = toDecimal(column, column.get(trailer));
+				BigDecimal sum = getSum(i);
+				if (value == null ? sum.signum() != 0 : value.compareTo(sum) != 0) {
+					throw new FixedLengthFormatException(String.format(
+							"The total of column %s does not match. trailer:%s, total:%s", column.getName(), value, sum));
+				}
+			}
+		}
+
+		/**
+		 * 集計結果をトレーラレコードに設定します。
+		 *
+		 * @param trailer トレーラレコード
+		 * @throws IllegalAccessException 項目に値を設定できない場合
+		 */
+		void fill(Object trailer) throws IllegalAccessException {
+			if (countColumn != null) {
+				setValue(trailer, countColumn, BigDecimal.valueOf(count));
+			}
+			for (int i = 0; i < sumColumns.size(); i++) {
+				setValue(trailer, sumColumns.get(i), getSum(i));
+			}
+		}
+
+		private void setValue(Object trailer, ColumnLayout column, BigDecimal value) throws IllegalAccessException {
+			Class<?> type = column.getType();
+
+			try {
+				if (type == BigDecimal.class) {
+					column.set(trailer, value);
+				} else if (type == long.class || type == Long.class) {
+					column.set(trailer, value.longValueExact());
+				} else if (type == int.class || type == Integer.class) {
+					column.set(trailer, value.intValueExact());
+				} else if (type == short.class || type == Short.class) {
+					column.set(trailer, value.shortValueExact());
+				} else if (type == double.class || type == Double.class) {
+					column.set(trailer, value.doubleValue());
+				} else if (type == String.class) {
+					column.set(trailer, value.toPlainString());
+				} else {
+					throw new IllegalArgumentException(String.format("Unsupported type %s for control total. field:%s", type, column.getName()));
+				}
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException(String.format("The value %s is out of range of column %s.", value, column.getName()), e);
+			}
+		}
+	}
+}
@@ -4,9 +4,19 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.file.Path;
+import java.nio.charset.Charset;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.GenericRecord;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.type.FLTType;
 
 
 
@@ -18,17 +28,50 @@ import com.black.fixedlength.FLTConfig;
  */
 public class FLTEntityReader<T> implements AutoCloseable {
 
-	private Class<T> clazz;
+	/**
+	 * データレコードの配置情報
+	 */
+	private RecordLayout layout;
 	private FLTConfig conf;
+
+	/**
+	 * データレコードの生成処理(配置情報の生成処理を使用する場合はnull)
+	 */
+	private Supplier<? extends T> factory;
 	private FLTReader reader;
 	private FLTAnnotationManager annotationManager;
 
 	private String headerRecord;
 	private String trailerRecord;
 
+	/**
+	 * バイト数の場合のヘッダ、トレーラレコード
+	 */
+	private byte[] headerBytes;
+	private byte[] trailerBytes;
+
+	/**
+	 * バイト数で読み込むかどうかです。
+	 */
+	private boolean byteMode;
+	private Charset charset;
+	private Map<String, byte[]> recordCodes = new HashMap<>();
+
 	private int readCount = 0;
 	private boolean endOfFile = false;
 
+	/**
+	 * トレーラレコードの管理項目と集計結果
+	 */
+	private FLTControlTotals controlTotals;
+	private FLTControlTotals.Accumulator accumulator;
+	private boolean verified = false;
+
+	/**
+	 * 変換前にデータレコードを判定する条件(設定されていない場合はnull)
+	 */
+	private FLTRecordFilter filter;
+
 
 	/**
 	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
@@ -42,13 +85,60 @@ public class FLTEntityReader<T> implements AutoCloseable {
 	 */
 	public FLTEntityReader(FLTConfig conf, Path inputPath, Class<T> clazz)
 			throws FileNotFoundException, UnsupportedEncodingException {
+		this(conf, inputPath, FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * データレコードの生成処理を指定して、構築するコンストラクタです。
+	 * データレコードはリフレクションを使用せず、指定された生成処理で生成します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param inputPath 読み込み先ファイルパス
+	 * @param clazz データレコード格納先クラス
+	 * @param factory データレコードの生成処理(例：{@code E::new})
+	 * @throws FileNotFoundException ファイルが存在しないか、通常ファイルではなくディレクトリであるか、またはなんらかの理由で開くことができない場合。
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTEntityReader(FLTConfig conf, Path inputPath, Class<T> clazz, Supplier<? extends T> factory)
+			throws FileNotFoundException, UnsupportedEncodingException {
+		this(conf, inputPath, FLTAnnotationManager.getLayout(clazz));
+		this.factory = factory;
+	}
+
+	private FLTEntityReader(FLTConfig conf, Path inputPath, RecordLayout layout)
+			throws FileNotFoundException, UnsupportedEncodingException {
 
 		this.conf = conf;
-		this.clazz = clazz;
+		this.layout = layout;
 		annotationManager = new FLTAnnotationManager();
 
+		byteMode = conf.getFltType() == FLTType.BYTE;
+		if (layout.isBinary() && !byteMode) {
+			throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+		}
+
 		// 指定された固定長形式情報を使用して、インスタンスを構築します。
-		reader = new FLTReader(conf, inputPath, FLTAnnotationManager.getRecordSize(clazz));
+		reader = new FLTReader(conf, inputPath, layout.getRecordSize());
+		reader.setBinary(layout.isBinary());
+		charset = reader.getCharset();
+	}
+
+	/**
+	 * 指定されたレコード定義で読み込むインスタンスを構築します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param inputPath 読み込み先ファイルパス
+	 * @param schema データレコードのレコード定義
+	 * @return {@link GenericRecord}を返却するインスタンス
+	 * @throws FileNotFoundException ファイルが存在しないか、通常ファイルではなくディレクトリであるか、またはなんらかの理由で開くことができない場合。
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public static FLTEntityReader<GenericRecord> forSchema(FLTConfig conf, Path inputPath, RecordSchema schema)
+			throws FileNotFoundException, UnsupportedEncodingException {
+		if (schema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return new FLTEntityReader<>(conf, inputPath, schema.getLayout());
 	}
 
 	/**
@@ -63,6 +153,124 @@ public class FLTEntityReader<T> implements AutoCloseable {
 	 * @throws ParseException 値の型変換に失敗した場合
 	 */
 	public T read() throws IllegalStateException, IOException, InstantiationException, IllegalAccessException, ParseException {
+		return read(null);
+	}
+
+	/**
+	 * 1行を読み込み、指定されたインスタンスに格納し返却します。<p>
+	 * 指定されたインスタンスの全ての項目は上書きされます。
+	 * 返却したインスタンスは次の読み込みで上書きされるため、値を保持する場合は複製してください。
+	 *
+	 * @param reuse 格納先のインスタンス(nullの場合は新しいインスタンスを生成します)
+	 * @return 指定されたインスタンス、ファイルの終わりに達した場合はnull
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws IllegalAccessException {@code clazz}が対応していない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 * @throws IllegalArgumentException 指定されたインスタンスがデータレコードの型と一致しない場合
+	 */
+	public T read(T reuse) throws IllegalStateException, IOException, InstantiationException, IllegalAccessException, ParseException {
+		if (reuse != null && FLTAnnotationManager.getEntityLayout(reuse) != layout) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		T ret = byteMode ? readBytes(reuse) : readString(reuse);
+
+		if (accumulator != null) {
+			if (ret != null) {
+				accumulator.add(ret);
+			} else if (!verified) {
+				verified = true;
+				verifyTrailer();
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 全てのデータレコードを、指定されたインスタンスに順に格納して処理します。
+	 * 1つのインスタンスを使い回すため、処理中に値を保持する場合は複製してください。
+	 *
+	 * @param reuse 格納先のインスタンス
+	 * @param action データレコードごとの処理
+	 * @return 処理したデータレコードの件数
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws IllegalAccessException {@code clazz}が対応していない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public long forEach(T reuse, Consumer<? super T> action) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		if (reuse == null || action == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		long count = 0;
+		T entity;
+		while ((entity = read(reuse)) != null) {
+			action.accept(entity);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * トレーラレコードの管理項目を設定します。<p>
+	 * 設定した場合、読み込みながらデータレコードの件数と合計を集計し、
+	 * ファイルの終わりに達した時点でトレーラレコードの値と一致するかどうかを検証します。
+	 * 一致しない場合、またはトレーラレコードが存在しない場合は、{@link #read()}で{@link FixedLengthFormatException}をスローします。
+	 *
+	 * @param controlTotals トレーラレコードの管理項目
+	 * @throws IllegalStateException 読み込みを開始した後に設定した場合
+	 */
+	public void setControlTotals(FLTControlTotals controlTotals) {
+		if (readCount > 0) {
+			throw new IllegalStateException("it is already started reading.");
+		}
+		if (controlTotals != null && filter != null) {
+			throw new IllegalStateException("The control totals can not be used with a record filter.");
+		}
+		this.controlTotals = controlTotals;
+		this.accumulator = controlTotals == null ? null : controlTotals.newAccumulator();
+	}
+
+	/**
+	 * 変換前にデータレコードを判定する条件を設定します。<p>
+	 * 設定した場合、条件に一致しないデータレコードはエンティティに変換せずに読み飛ばし、
+	 * {@link #read()}は条件に一致するデータレコードのみを返却します。
+	 * 固定長の読み取り形式がバイト数の場合のみ使用できます。
+	 * 読み飛ばしたレコードは集計できないため、トレーラレコードの管理項目とは併用できません。
+	 *
+	 * @param filter 条件(nullの場合は全てのデータレコードを返却します)
+	 * @throws IllegalArgumentException 固定長の読み取り形式が文字数の場合
+	 * @throws IllegalStateException 読み込みを開始した後に設定した場合、トレーラレコードの管理項目が設定されている場合
+	 * @see FLTRecordFilters
+	 */
+	public void setFilter(FLTRecordFilter filter) {
+		if (filter != null && !byteMode) {
+			throw new IllegalArgumentException("The record filter requires the read type BYTE.");
+		} else if (readCount > 0) {
+			throw new IllegalStateException("it is already started reading.");
+		} else if (filter != null && controlTotals != null) {
+			throw new IllegalStateException("The control totals can not be used with a record filter.");
+		}
+		this.filter = filter;
+	}
+
+	/**
+	 * トレーラレコードの値が集計結果と一致するかどうかを検証します。
+	 */
+	private void verifyTrailer() throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		Object trailer = getTrailer(controlTotals.getTrailerLayout());
+		if (trailer == null) {
+			throw new FixedLengthFormatException("Trailer does not exist.");
+		}
+		accumulator.verify(trailer);
+	}
+
+	/**
+	 * 文字数の場合に1行を読み込みクラスに格納し返却します。
+	 */
+	@SuppressWarnings("unchecked")
+	private T readString(T reuse) throws IOException, InstantiationException, IllegalAccessException, ParseException {
 		String str = reader.read();
 
 		// ストリームの終わりに達している場合はnullを返却する。
@@ -75,14 +283,14 @@ public class FLTEntityReader<T> implements AutoCloseable {
 		readCount++;
 
 		// データ区分の判定
-		String recordCordNum = FLTAnnotationManager.getRecordCodeNum(clazz);
+		String recordCordNum = layout.getRecordCodeNum();
 		if (recordCordNum != null && !recordCordNum.isEmpty()
 				&& !str.startsWith(recordCordNum)) {
 			if (readCount == 1 && headerRecord == null) {
 				headerRecord = str;
 
-				return this.read();
-			} else if (headerRecord != null && trailerRecord == null) {
+				return readString(reuse);
+			} else if (trailerRecord == null) {
 				trailerRecord = str;
 			}
 
@@ -90,7 +298,79 @@ public class FLTEntityReader<T> implements AutoCloseable {
 			return null;
 		}
 
-		return annotationManager.convertToEntity(conf, clazz, str);
+		return (T) annotationManager.convertToEntity(conf, layout, str, reuse != null ? reuse : newEntity());
+	}
+
+	/**
+	 * バイト数の場合に1レコードを読み込みクラスに格納し返却します。
+	 */
+	@SuppressWarnings("unchecked")
+	private T readBytes(T reuse) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		byte[] record;
+		while (true) {
+			record = reader.readRecord();
+
+			// ストリームの終わりに達している場合はnullを返却する。
+			if (record == null || endOfFile) {
+				endOfFile = true;
+				return null;
+			}
+
+			// レコード数をインクリメント
+			readCount++;
+
+			// データ区分の判定
+			if (!startsWith(record, layout.getRecordCodeNum())) {
+				if (readCount == 1 && headerBytes == null) {
+					headerBytes = record.clone();
+					continue;
+				} else if (trailerBytes == null) {
+					trailerBytes = record.clone();
+				}
+
+				endOfFile = true;
+				return null;
+			}
+
+			// 条件に一致しないデータレコードは変換せずに読み飛ばします。
+			if (filter == null || filter.test(record)) {
+				break;
+			}
+		}
+
+		return (T) annotationManager.convertToEntity(conf, layout, record, reuse != null ? reuse : newEntity());
+	}
+
+	/**
+	 * データレコードのインスタンスを生成します。
+	 */
+	private Object newEntity() throws InstantiationException, IllegalAccessException {
+		return factory != null ? factory.get() : layout.newInstance();
+	}
+
+	/**
+	 * レコードが指定されたレコード判定文字で始まるかどうかを返却します。
+	 * レコード判定文字が指定されていない場合はtrueを返却します。
+	 */
+	private boolean startsWith(byte[] record, String recordCodeNum) {
+		if (recordCodeNum == null || recordCodeNum.isEmpty()) {
+			return true;
+		}
+
+		byte[] code = recordCodes.get(recordCodeNum);
+		if (code == null) {
+			code = recordCodeNum.getBytes(charset);
+			recordCodes.put(recordCodeNum, code);
+		}
+		if (code.length > record.length) {
+			return false;
+		}
+		for (int i = 0; i < code.length; i++) {
+			if (record[i] != code[i]) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -107,8 +387,47 @@ public class FLTEntityReader<T> implements AutoCloseable {
 	 * @throws InstantiationException 指定されたclazzが抽象クラス、インタフェース、配列クラス、プリミティブ型、またはvoidを表す場合、クラスが引数なしのコンストラクタを保持しない場合、あるいはインスタンスの生成がほかの理由で失敗した場合
 	 * @throws ParseException 値の型変換に失敗した場合
 	 */
-	@SuppressWarnings("hiding")
+	@SuppressWarnings({ "hiding", "unchecked" })
 	public <T> T getHeader(Class<T> clazz) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, IOException, ParseException {
+		return (T) getHeader(FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 指定されたレコード定義でヘッダレコードを返却します。
+	 * ヘッダレコードが存在しない場合NULLを返却します。
+	 *
+	 * @param schema ヘッダレコードのレコード定義
+	 * @return ヘッダレコード
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws InstantiationException レコードの生成に失敗した場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 * @see #getHeader(Class)
+	 */
+	public GenericRecord getHeader(RecordSchema schema) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, IOException, ParseException {
+		return (GenericRecord) getHeader(schema.getLayout());
+	}
+
+	private Object getHeader(RecordLayout layout) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, IOException, ParseException {
+		if (byteMode) {
+			if (readCount > 0 && headerBytes == null) {
+				return null;
+			} else if (headerBytes == null) {
+				byte[] record = reader.readRecord();
+
+				if (record == null) {
+					endOfFile = true;
+					return null;
+				}
+				headerBytes = record.clone();
+				readCount++;
+			}
+			if (startsWith(headerBytes, layout.getRecordCodeNum())) {
+				return annotationManager.convertToEntity(conf, layout, headerBytes);
+			}
+			return null;
+		}
+
 		if ((readCount > 0 && headerRecord == null)) {
 			return null;
 		} else if(headerRecord == null) {
@@ -120,8 +439,8 @@ public class FLTEntityReader<T> implements AutoCloseable {
 			}
 			readCount++;
 		}
-		if (headerRecord.startsWith(FLTAnnotationManager.getRecordCodeNum(clazz))) {
-			return annotationManager.convertToEntity(conf, clazz, headerRecord);
+		if (headerRecord.startsWith(layout.getRecordCodeNum())) {
+			return annotationManager.convertToEntity(conf, layout, headerRecord);
 		}
 		return null;
 	}
@@ -139,16 +458,40 @@ public class FLTEntityReader<T> implements AutoCloseable {
 	 * @throws InstantiationException 指定されたclazzが抽象クラス、インタフェース、配列クラス、プリミティブ型、またはvoidを表す場合、クラスが引数なしのコンストラクタを保持しない場合、あるいはインスタンスの生成がほかの理由で失敗した場合
 	 * @throws ParseException 値の型変換に失敗した場合
 	 */
-	@SuppressWarnings("hiding")
+	@SuppressWarnings({ "hiding", "unchecked" })
 	public <T> T getTrailer(Class<T> clazz) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, UnsupportedEncodingException, ParseException {
+		return (T) getTrailer(FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 指定されたレコード定義でトレーラレコードを返却します。
+	 * トレーラレコードが存在しない場合NULLを返却します。
+	 *
+	 * @param schema トレーラレコードのレコード定義
+	 * @return トレーラレコード
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws InstantiationException レコードの生成に失敗した場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 * @see #getTrailer(Class)
+	 */
+	public GenericRecord getTrailer(RecordSchema schema) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, UnsupportedEncodingException, ParseException {
+		return (GenericRecord) getTrailer(schema.getLayout());
+	}
+
+	private Object getTrailer(RecordLayout layout) throws InstantiationException, IllegalAccessException, IndexOutOfBoundsException, UnsupportedEncodingException, ParseException {
 		if (!endOfFile) {
 			throw new IllegalStateException("file not complete read.");
+		} else if (byteMode) {
+			if (trailerBytes == null || !startsWith(trailerBytes, layout.getRecordCodeNum())) {
+				return null;
+			}
+			return annotationManager.convertToEntity(conf, layout, trailerBytes);
 		} else if (trailerRecord == null || trailerRecord.isEmpty()
-				|| trailerRecord.startsWith(FLTAnnotationManager.getRecordCodeNum(clazz))) {
+				|| !trailerRecord.startsWith(layout.getRecordCodeNum())) {
 			return null;
 		}
 
-		return annotationManager.convertToEntity(conf, clazz, trailerRecord);
+		return annotationManager.convertToEntity(conf, layout, trailerRecord);
 	}
 
 	/**
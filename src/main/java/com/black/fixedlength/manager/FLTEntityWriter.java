@@ -6,12 +6,32 @@ import java.io.UnsupportedEncodingException;
 import java.nio.file.Path;
 
 import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.type.FLTType;
 
 public class FLTEntityWriter implements AutoCloseable {
 	private FLTConfig conf;
 	private FLTWriter writer;
 	private FLTAnnotationManager annotationManager;
 
+	/**
+	 * バイト数の場合の書き込み用バッファ
+	 */
+	private byte[] record = new byte[0];
+
+	/**
+	 * トレーラレコードの管理項目と集計結果
+	 */
+	private FLTControlTotals controlTotals;
+	private FLTControlTotals.Accumulator accumulator;
+	private boolean trailerWritten = false;
+
+	/**
+	 * 書き込みに失敗したか、中止されたかどうか(トレーラレコードを自動で出力しません)
+	 */
+	private boolean failed = false;
+
 
 	/**
 	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
@@ -46,17 +66,112 @@ public class FLTEntityWriter implements AutoCloseable {
 			throw new IllegalArgumentException("Invalid argument specified.");
 		}
 
-		String fixedlength = annotationManager.convertToFixedlength(conf, entity);
-		writer.write(fixedlength, FLTAnnotationManager.getRecordSize(entity.getClass()));
+		boolean completed = false;
+		try {
+			if (accumulator != null) {
+				if (controlTotals.isData(entity)) {
+					accumulator.add(entity);
+				} else if (controlTotals.isTrailer(entity)) {
+					trailerWritten = true;
+				}
+			}
+
+			RecordLayout layout = FLTAnnotationManager.getEntityLayout(entity);
+			if (conf.getFltType() == FLTType.BYTE) {
+				if (record.length < layout.getRecordSize()) {
+					record = new byte[layout.getRecordSize()];
+				}
+				annotationManager.convertToRecord(conf, entity, record);
+				writer.writeRecord(record, 0, layout.getRecordSize());
+			} else {
+				String fixedlength = annotationManager.convertToFixedlength(conf, entity);
+				writer.write(fixedlength, layout.getRecordSize());
+			}
+			completed = true;
+		} finally {
+			if (!completed) {
+				failed = true;
+			}
+		}
+	}
+
+	/**
+	 * 書き込みを中止します。<p>
+	 * 中止した場合、{@link #close()}でトレーラレコードを自動で出力しません。
+	 * 書き込み以外の処理(データの取得など)でエラーが発生した場合に、途中までのファイルが完了したものとして扱われないように呼び出してください。
+	 * {@link #write(Object)}でエラーが発生した場合は、自動で中止されます。
+	 */
+	public void abort() {
+		this.failed = true;
+	}
+
+	/**
+	 * トレーラレコードの管理項目を設定します。<p>
+	 * 設定した場合、書き込みながらデータレコードの件数と合計を集計し、
+	 * トレーラレコードが書き込まれていなければ{@link #close()}でトレーラレコードを自動で出力します。
+	 * ただし、書き込みに失敗した場合、{@link #abort()}で中止された場合は出力しません。
+	 * 自動で出力するトレーラレコードは引数なしのコンストラクタで生成するため、
+	 * レコード判定文字などの固定値はフィールドの初期値として定義してください。
+	 *
+	 * @param controlTotals トレーラレコードの管理項目
+	 */
+	public void setControlTotals(FLTControlTotals controlTotals) {
+		this.controlTotals = controlTotals;
+		this.accumulator = controlTotals == null ? null : controlTotals.newAccumulator();
+		this.trailerWritten = false;
+	}
+
+	/**
+	 * 集計結果を設定したトレーラレコードを書き込みます。
+	 *
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws IllegalAccessException トレーラレコードのクラスが対応していない場合
+	 * @throws InstantiationException トレーラレコードのクラスのインスタンスの生成に失敗した場合
+	 * @throws IllegalStateException トレーラレコードの管理項目が設定されていない場合
+	 */
+	public void writeTrailer() throws IOException, IllegalAccessException, InstantiationException {
+		if (controlTotals == null) {
+			throw new IllegalStateException("The control totals are not set.");
+		}
+		writeTrailer(controlTotals.newTrailer());
+	}
+
+	/**
+	 * 指定されたトレーラレコードに集計結果を設定して書き込みます。
+	 *
+	 * @param trailer トレーラレコード
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws IllegalAccessException トレーラレコードのクラスが対応していない場合
+	 * @throws IllegalStateException トレーラレコードの管理項目が設定されていない場合
+	 */
+	public void writeTrailer(Object trailer) throws IOException, IllegalAccessException {
+		if (accumulator == null) {
+			throw new IllegalStateException("The control totals are not set.");
+		} else if (trailer == null || !controlTotals.isTrailer(trailer)) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		accumulator.fill(trailer);
+		write(trailer);
 	}
 
 	/**
 	 * 書き込み後の終了処理です。
+	 * トレーラレコードの管理項目が設定されていて、トレーラレコードが書き込まれていない場合は、トレーラレコードを書き込みます。
+	 * 書き込みに失敗した場合、{@link #abort()}で中止された場合は、トレーラレコードを書き込みません。
 	 * @throws IOException
 	 *
 	 */
 	@Override
 	public void close() throws IOException {
-		writer.close();
+		try {
+			if (accumulator != null && !trailerWritten && !failed) {
+				trailerWritten = true;
+				writeTrailer();
+			}
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new FixedLengthFormatException("Failed to write the trailer.", e);
+		} finally {
+			writer.close();
+		}
 	}
 }
@@ -0,0 +1,629 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.type.FLTType;
+import com.black.fixedlength.type.SignPosition;
+
+/**
+ * レコードの配置情報から、負荷試験用の固定長ファイルを生成します。<p>
+ * データレコードは登録したクラスから重みに比例する確率で選択し、項目ごとに{@link FLTValueGenerator}で値を生成します。
+ * 生成処理を指定しない項目は、型と項目の長さに収まる範囲の値を一様に生成します。
+ * ただし、初期値がnullでない参照型の項目(レコード判定文字など)は、初期値のまま出力します。<p>
+ * 指定された件数ごとに複数のスレッドでエンティティの生成とレコードへの変換を行い、{@link FLTWriter}で生成順に出力します。
+ * 乱数は件数ごとにシードから導出するため、同じシード、同じ件数(チャンク件数)であれば並列数に関わらず同じファイルが生成されます。
+ *
+ */
+public class FLTGenerator {
+
+	/**
+	 * 生成処理を指定しない日付の項目の期間(2000/01/01～2030/12/31)
+	 */
+	private static final FLTValueGenerator DEFAULT_DATES = FLTValueGenerators.dates(
+			new GregorianCalendar(2000, 0, 1).getTime(), new GregorianCalendar(2030, 11, 31).getTime());
+
+	private final FLTConfig conf;
+	private final long seed;
+	private final boolean byteMode;
+
+	private final List<RecordLayout> dataLayouts = new ArrayList<>();
+	private final List<Double> weights = new ArrayList<>();
+	private RecordLayout headerLayout;
+	private RecordLayout trailerLayout;
+	private FLTControlTotals controlTotals;
+
+	/**
+	 * 配置情報ごとの、項目名と生成処理
+	 */
+	private final Map<RecordLayout, Map<String, FLTValueGenerator>> generators = new IdentityHashMap<>();
+
+	/**
+	 * 1回の生成処理で生成するレコード件数(初期値：4096)
+	 */
+	private int chunkRecords = 4096;
+
+	/**
+	 * 並列数(初期値：利用可能なプロセッサ数)
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 指定された固定長形式情報とシードで生成するコンストラクタです。
+	 * 複数のスレッドで変換するため、固定長形式情報は変更不可の複製({@link FLTConfig#freeze()})を使用します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param seed 乱数のシード
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTGenerator(FLTConfig conf, long seed) throws UnsupportedEncodingException {
+		if (conf == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.conf = conf.freeze();
+		this.seed = seed;
+		this.byteMode = conf.getFltType() == FLTType.BYTE;
+	}
+
+	public int getChunkRecords() {
+		return chunkRecords;
+	}
+
+	public void setChunkRecords(int chunkRecords) {
+		this.chunkRecords = Math.max(1, chunkRecords);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * 生成するデータレコードのクラスを追加します。
+	 *
+	 * @param clazz データレコードのクラス
+	 * @param weight 選択される重み(0より大きい値)
+	 */
+	public void addRecord(Class<?> clazz, double weight) {
+		addRecord(FLTAnnotationManager.getLayout(clazz), weight);
+	}
+
+	/**
+	 * 生成するデータレコードのレコード定義を追加します。
+	 *
+	 * @param schema データレコードのレコード定義
+	 * @param weight 選択される重み(0より大きい値)
+	 */
+	public void addRecord(RecordSchema schema, double weight) {
+		addRecord(getLayout(schema), weight);
+	}
+
+	private void addRecord(RecordLayout layout, double weight) {
+		if (!(weight > 0)) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		checkLayout(layout);
+		dataLayouts.add(layout);
+		weights.add(weight);
+	}
+
+	/**
+	 * 先頭に出力するヘッダレコードのクラスを設定します。
+	 *
+	 * @param clazz ヘッダレコードのクラス、出力しない場合はnull
+	 */
+	public void setHeader(Class<?> clazz) {
+		this.headerLayout = clazz == null ? null : checkLayout(FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 先頭に出力するヘッダレコードのレコード定義を設定します。
+	 *
+	 * @param schema ヘッダレコードのレコード定義、出力しない場合はnull
+	 */
+	public void setHeader(RecordSchema schema) {
+		this.headerLayout = schema == null ? null : checkLayout(schema.getLayout());
+	}
+
+	/**
+	 * 末尾に出力するトレーラレコードのクラスを設定します。
+	 *
+	 * @param clazz トレーラレコードのクラス、出力しない場合はnull
+	 */
+	public void setTrailer(Class<?> clazz) {
+		this.trailerLayout = clazz == null ? null : checkLayout(FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 末尾に出力するトレーラレコードのレコード定義を設定します。
+	 *
+	 * @param schema トレーラレコードのレコード定義、出力しない場合はnull
+	 */
+	public void setTrailer(RecordSchema schema) {
+		this.trailerLayout = schema == null ? null : checkLayout(schema.getLayout());
+	}
+
+	/**
+	 * トレーラレコードの管理項目を設定します。<p>
+	 * 設定した場合、管理項目のトレーラレコードを出力し、生成したデータレコードの件数と合計を設定します。
+	 *
+	 * @param controlTotals トレーラレコードの管理項目
+	 */
+	public void setControlTotals(FLTControlTotals controlTotals) {
+		this.controlTotals = controlTotals;
+		if (controlTotals != null) {
+			this.trailerLayout = checkLayout(controlTotals.getTrailerLayout());
+		}
+	}
+
+	/**
+	 * 指定されたクラスの項目の生成処理を設定します。
+	 *
+	 * @param clazz レコードのクラス
+	 * @param column 項目名(入れ子のレコード、配列の項目は「name.col」、「name[0]」の形式)
+	 * @param generator 生成処理
+	 */
+	public void setGenerator(Class<?> clazz, String column, FLTValueGenerator generator) {
+		setGenerator(FLTAnnotationManager.getLayout(clazz), column, generator);
+	}
+
+	/**
+	 * 指定されたレコード定義の項目の生成処理を設定します。
+	 *
+	 * @param schema レコード定義
+	 * @param column 項目名
+	 * @param generator 生成処理
+	 */
+	public void setGenerator(RecordSchema schema, String column, FLTValueGenerator generator) {
+		setGenerator(getLayout(schema), column, generator);
+	}
+
+	private void setGenerator(RecordLayout layout, String column, FLTValueGenerator generator) {
+		if (column == null || generator == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (layout.getColumn(column) == null) {
+			throw new IllegalArgumentException(String.format("Unknown column %s.", column));
+		}
+		generators.computeIfAbsent(layout, key -> new HashMap<>()).put(column, generator);
+	}
+
+	private static RecordLayout getLayout(RecordSchema schema) {
+		if (schema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return schema.getLayout();
+	}
+
+	private RecordLayout checkLayout(RecordLayout layout) {
+		if (layout.isBinary() && !byteMode) {
+			throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+		}
+		return layout;
+	}
+
+	/**
+	 * 指定された件数のデータレコードを生成し、ファイルに出力します。
+	 *
+	 * @param outputPath 出力先ファイルパス
+	 * @param records データレコードの件数
+	 * @return 出力したレコード件数(ヘッダ、トレーラレコードを含む)
+	 * @throws IOException 入出力でエラーが発生した場合、値の変換に失敗した場合
+	 * @throws IllegalArgumentException 生成処理が指定されていない、値を生成できない型の項目がある場合
+	 * @throws IllegalStateException データレコードのクラスが追加されていない場合
+	 */
+	public long generate(Path outputPath, long records) throws IOException {
+		if (outputPath == null || records < 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (dataLayouts.isEmpty()) {
+			throw new IllegalStateException("No data record is added.");
+		}
+
+		Spec[] specs = new Spec[dataLayouts.size()];
+		double[] cumulative = new double[specs.length];
+		double total = 0;
+		for (int i = 0; i < specs.length; i++) {
+			specs[i] = new Spec(dataLayouts.get(i));
+			total += weights.get(i);
+			cumulative[i] = total;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "flt-generator");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long count = 0;
+		FLTControlTotals.Accumulator accumulator = controlTotals == null ? null : controlTotals.newAccumulator();
+		Deque<Future<Chunk>> pending = new ArrayDeque<>();
+		Deque<Chunk> freeChunks = new ArrayDeque<>();
+		FLTAnnotationManager annotationManager = new FLTAnnotationManager();
+		try (FLTWriter writer = new FLTWriter(conf, outputPath)) {
+			if (headerLayout != null) {
+				write(writer, annotationManager, new Spec(headerLayout).newRecord(new Random(chunkSeed(-1)), -1));
+				count++;
+			}
+
+			long chunkIndex = 0;
+			for (long first = 0; first < records; first += chunkRecords) {
+				Chunk chunk = freeChunks.isEmpty() ? new Chunk(specs, cumulative, total) : freeChunks.poll();
+				chunk.chunkIndex = chunkIndex++;
+				chunk.first = first;
+				chunk.count = (int) Math.min(chunkRecords, records - first);
+				pending.add(executor.submit(chunk));
+
+				// 生成中のレコードが上限に達した場合は、先頭の生成結果を出力します。
+				while (pending.size() >= parallelism * 2) {
+					freeChunks.add(write(writer, pending.poll().get(), accumulator));
+				}
+			}
+			while (!pending.isEmpty()) {
+				write(writer, pending.poll().get(), accumulator);
+			}
+			count += records;
+
+			if (trailerLayout != null) {
+				Object trailer = new Spec(trailerLayout).newRecord(new Random(chunkSeed(-2)), -1);
+				if (accumulator != null) {
+					accumulator.fill(trailer);
+				}
+				write(writer, annotationManager, trailer);
+				count++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The generation was interrupted.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} catch (IllegalAccessException | InstantiationException e) {
+			throw new IllegalArgumentException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+		return count;
+	}
+
+	/**
+	 * 指定された番号の生成処理の乱数のシードを返却します。
+	 */
+	private long chunkSeed(long chunkIndex) {
+		long ret = seed + (chunkIndex + 2) * 0x9E3779B97F4A7C15L;
+		ret = (ret ^ (ret >>> 30)) * 0xBF58476D1CE4E5B9L;
+		ret = (ret ^ (ret >>> 27)) * 0x94D049BB133111EBL;
+		return ret ^ (ret >>> 31);
+	}
+
+	/**
+	 * ヘッダ、トレーラレコードを出力します。
+	 */
+	private void write(FLTWriter writer, FLTAnnotationManager annotationManager, Object entity) throws IOException, IllegalAccessException {
+		int recordSize = FLTAnnotationManager.getEntityLayout(entity).getRecordSize();
+		if (byteMode) {
+			byte[] record = new byte[recordSize];
+			annotationManager.convertToRecord(conf, entity, record);
+			writer.writeRecord(record, 0, recordSize);
+		} else {
+			writer.write(annotationManager.convertToFixedlength(conf, entity), recordSize);
+		}
+	}
+
+	/**
+	 * 生成済みのデータレコードを出力します。
+	 */
+	private Chunk write(FLTWriter writer, Chunk chunk, FLTControlTotals.Accumulator accumulator) throws IOException {
+		for (int i = 0; i < chunk.count; i++) {
+			if (chunk.lines != null) {
+				writer.write(chunk.lines[i], chunk.sizes[i]);
+			} else {
+				writer.writeRecord(chunk.data, i * chunk.maxSize, chunk.sizes[i]);
+			}
+		}
+		if (accumulator != null) {
+			accumulator.merge(chunk.accumulator);
+		}
+		return chunk;
+	}
+
+	/**
+	 * 配置情報と、項目ごとに解決した生成処理です。
+	 */
+	private final class Spec {
+		private final RecordLayout layout;
+
+		/**
+		 * 項目ごとの生成処理(初期値のまま出力する項目はnull)
+		 */
+		private final FLTValueGenerator[] columnGenerators;
+		private final ByteWidthCalculator calculator;
+
+		Spec(RecordLayout layout) throws IOException {
+			this.layout = layout;
+			this.calculator = conf.getByteWidthCalculator();
+			this.columnGenerators = new FLTValueGenerator[layout.getColumnCount()];
+
+			Map<String, FLTValueGenerator> specified = generators.get(layout);
+			Object initial;
+			try {
+				initial = layout.newInstance();
+			} catch (InstantiationException | IllegalAccessException e) {
+				throw new IllegalArgumentException(String.format("Can not create %s.", layout.getRecordClass().getName()), e);
+			}
+			for (int i = 0; i < columnGenerators.length; i++) {
+				ColumnLayout column = layout.getColumn(i);
+				FLTValueGenerator generator = specified == null ? null : specified.get(column.getName());
+				if (generator == null && !isConstant(column, initial)) {
+					generator = getDefaultGenerator(column);
+				}
+				columnGenerators[i] = generator;
+			}
+		}
+
+		/**
+		 * 新しいエンティティを生成し、項目の値を設定します。
+		 */
+		Object newRecord(Random random, long index) throws IllegalAccessException, InstantiationException {
+			Object ret = layout.newInstance();
+			for (int i = 0; i < columnGenerators.length; i++) {
+				if (columnGenerators[i] != null) {
+					ColumnLayout column = layout.getColumn(i);
+					column.set(ret, fit(column, columnGenerators[i].next(random, index)));
+				}
+			}
+			return ret;
+		}
+
+		/**
+		 * 生成した値を項目の型に変換し、文字列は項目の長さに切り詰めます。
+		 */
+		private Object fit(ColumnLayout column, Object value) {
+			Class<?> type = column.getType();
+			if (value == null || column.isAssignable(value) && !(value instanceof String) && !(value instanceof BigDecimal)) {
+				return value;
+			}
+
+			if (value instanceof Number) {
+				Number number = (Number) value;
+				if (type == int.class || type == Integer.class) {
+					return number.intValue();
+				} else if (type == long.class || type == Long.class) {
+					return number.longValue();
+				} else if (type == short.class || type == Short.class) {
+					return number.shortValue();
+				} else if (type == byte.class || type == Byte.class) {
+					return number.byteValue();
+				} else if (type == double.class || type == Double.class) {
+					return number.doubleValue();
+				} else if (type == float.class || type == Float.class) {
+					return number.floatValue();
+				} else if (type == BigInteger.class) {
+					return toDecimal(number).toBigInteger();
+				} else if (type == BigDecimal.class) {
+					BigDecimal decimal = toDecimal(number);
+					return column.isBinary() || column.isDecimalText()
+							? decimal.setScale(column.getScale(), RoundingMode.HALF_UP) : decimal;
+				}
+			} else if (value instanceof Date) {
+				long time = ((Date) value).getTime();
+				if (type == java.sql.Date.class) {
+					return new java.sql.Date(time);
+				} else if (type == java.sql.Timestamp.class) {
+					return new java.sql.Timestamp(time);
+				}
+			}
+
+			if (type == String.class || type == char.class || type == Character.class) {
+				String str = value.toString();
+				int length = type == String.class ? column.getLength() : 1;
+				if (byteMode) {
+					str = calculator.truncate(str, length);
+				} else if (str.length() > length) {
+					str = str.substring(0, length);
+				}
+				return type == String.class ? str : Character.valueOf(str.isEmpty() ? ' ' : str.charAt(0));
+			}
+			return value;
+		}
+
+		private BigDecimal toDecimal(Number number) {
+			if (number instanceof BigDecimal) {
+				return (BigDecimal) number;
+			} else if (number instanceof BigInteger) {
+				return new BigDecimal((BigInteger) number);
+			} else if (number instanceof Double || number instanceof Float) {
+				return BigDecimal.valueOf(number.doubleValue());
+			}
+			return BigDecimal.valueOf(number.longValue());
+		}
+	}
+
+	/**
+	 * 新しいエンティティで値が設定されている参照型の項目かどうかを返却します。
+	 */
+	private static boolean isConstant(ColumnLayout column, Object initial) {
+		if (column.getType().isPrimitive()) {
+			return false;
+		}
+		try {
+			return column.get(initial) != null;
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+			// 入れ子のレコード、配列が生成されていない場合です。
+			return false;
+		}
+	}
+
+	/**
+	 * 生成処理を指定しない項目の、型と項目の長さに収まる値の生成処理を返却します。
+	 */
+	private static FLTValueGenerator getDefaultGenerator(ColumnLayout column) {
+		Class<?> type = column.getType();
+		if (type == String.class) {
+			return FLTValueGenerators.text(FLTValueGenerators.ALPHANUMERIC, column.getLength(), column.getLength());
+		} else if (type == char.class || type == Character.class) {
+			return FLTValueGenerators.text(FLTValueGenerators.ALPHANUMERIC, 1, 1);
+		} else if (Date.class.isAssignableFrom(type)) {
+			return DEFAULT_DATES;
+		}
+
+		int typeDigits = getTypeDigits(type);
+		if (typeDigits == 0) {
+			throw new IllegalArgumentException(String.format("No generator is specified for column %s of type %s.", column.getName(), type));
+		}
+		int digits = Math.min(getColumnDigits(column), typeDigits);
+		if (digits <= 0) {
+			return FLTValueGenerators.constant(0L);
+		}
+		long max = BigInteger.TEN.pow(digits).longValue() - 1;
+		if (type == BigDecimal.class) {
+			int scale = column.getScale();
+			return (random, index) -> BigDecimal.valueOf(FLTValueGenerators.nextLong(random, max + 1), scale);
+		}
+		return FLTValueGenerators.uniform(0, max);
+	}
+
+	/**
+	 * 型で表現できる桁数を返却します。数値型でない場合は0を返却します。
+	 */
+	private static int getTypeDigits(Class<?> type) {
+		if (type == byte.class || type == Byte.class) {
+			return 2;
+		} else if (type == short.class || type == Short.class) {
+			return 4;
+		} else if (type == int.class || type == Integer.class) {
+			return 9;
+		} else if (type == long.class || type == Long.class || type == BigDecimal.class || type == BigInteger.class) {
+			return 18;
+		} else if (type == float.class || type == Float.class) {
+			return 6;
+		} else if (type == double.class || type == Double.class) {
+			return 15;
+		}
+		return 0;
+	}
+
+	/**
+	 * 項目に書き込める数値の桁数を返却します。
+	 */
+	private static int getColumnDigits(ColumnLayout column) {
+		int length = column.getLength();
+		switch (column.getEncoding()) {
+		case PACKED :
+			return length * 2 - 1;
+		case ZONED :
+			return length;
+		case BINARY :
+			// 符号付き整数で表現できる桁数です。
+			return (int) ((length * 8 - 1) * Math.log10(2));
+		case TEXT :
+		default:
+			if (column.isDecimalText()) {
+				SignPosition sign = column.getSign();
+				return sign == SignPosition.LEADING || sign == SignPosition.TRAILING ? length - 1 : length;
+			}
+			Class<?> type = column.getType();
+			// 小数の文字列表現(「.0」)の分を除きます。
+			return type == double.class || type == Double.class || type == float.class || type == Float.class ? length - 2 : length;
+		}
+	}
+
+	/**
+	 * まとめて生成するデータレコードと変換結果です。
+	 * 読み取り形式に応じて、バイト配列または文字列で保持します。
+	 */
+	private final class Chunk implements Callable<Chunk> {
+		private final Spec[] specs;
+		private final double[] cumulative;
+		private final double total;
+		private final FLTAnnotationManager annotationManager = new FLTAnnotationManager();
+
+		private final int maxSize;
+		private final byte[] data;
+		private final String[] lines;
+		private final int[] sizes;
+		private FLTControlTotals.Accumulator accumulator;
+
+		private long chunkIndex;
+
+		/**
+		 * 先頭のデータレコードの番号(0から開始)
+		 */
+		private long first;
+		private int count;
+
+		Chunk(Spec[] specs, double[] cumulative, double total) {
+			this.specs = specs;
+			this.cumulative = cumulative;
+			this.total = total;
+
+			int maxSize = 0;
+			for (Spec spec : specs) {
+				maxSize = Math.max(maxSize, spec.layout.getRecordSize());
+			}
+			this.maxSize = maxSize;
+			this.data = byteMode ? new byte[chunkRecords * maxSize] : null;
+			this.lines = byteMode ? null : new String[chunkRecords];
+			this.sizes = new int[chunkRecords];
+		}
+
+		@Override
+		public Chunk call() throws IOException {
+			Random random = new Random(chunkSeed(chunkIndex));
+			accumulator = controlTotals == null ? null : controlTotals.newAccumulator();
+			byte[] record = byteMode ? new byte[maxSize] : null;
+
+			for (int i = 0; i < count; i++) {
+				Spec spec = specs[FLTValueGenerators.select(cumulative, random.nextDouble() * total)];
+				try {
+					Object entity = spec.newRecord(random, first + i);
+					if (accumulator != null && controlTotals.isData(entity)) {
+						accumulator.add(entity);
+					}
+
+					sizes[i] = spec.layout.getRecordSize();
+					if (record != null) {
+						annotationManager.convertToRecord(conf, entity, record);
+						System.arraycopy(record, 0, data, i * maxSize, sizes[i]);
+					} else {
+						lines[i] = annotationManager.convertToFixedlength(conf, entity);
+					}
+				} catch (IOException | RuntimeException | IllegalAccessException | InstantiationException e) {
+					throw new FixedLengthFormatException(String.format("Failed to generate the record %d.", first + i + 1), e);
+				}
+			}
+			return this;
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.GenericRecord;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+
+/**
+ * キー項目の索引({@link FLTKeyIndex})を使用して、固定長ファイルから1レコードずつ読み込みます。<p>
+ * 索引で検索したレコードの位置から、レコードのみを位置を指定して読み込み、エンティティに変換します。
+ * 変換したエンティティは、指定された件数まで最近使用した順に保持し(LRUキャッシュ)、同じキーの検索では読み込みを行いません。
+ * キャッシュしたエンティティは共有されるため、返却されたエンティティは変更しないでください。<p>
+ * 複数のスレッドから同時に検索できます。固定長形式情報は変更不可の複製({@link FLTConfig#freeze()})を使用します。
+ * 索引の更新({@link #update()})は、実行中の検索の完了を待って行い、更新中の検索は更新の完了まで待機します。
+ *
+ * @param <T> データレコードの型
+ */
+public class FLTIndexedReader<T> implements AutoCloseable {
+
+	private final FLTConfig conf;
+	private final RecordLayout layout;
+	private final Path dataPath;
+	private final FLTKeyIndex index;
+	private FileChannel channel;
+
+	/**
+	 * 検索(読み込みロック)と、索引の更新、ファイルの開き直し(書き込みロック)の排他制御
+	 * 検索は索引の検索からキャッシュへの登録までロックを保持するため、更新前の索引で読み込んだエンティティはキャッシュされません。
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * スレッドごとの変換処理(変換処理はスレッドセーフではないため)
+	 */
+	private final ThreadLocal<FLTAnnotationManager> annotationManager = ThreadLocal.withInitial(FLTAnnotationManager::new);
+
+	/**
+	 * 項目のバイト列に変換したキーと、変換済みのエンティティ
+	 */
+	private final LinkedHashMap<ByteBuffer, Object> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * キャッシュするエンティティの件数の上限(初期値：10000件)
+	 */
+	private int cacheSize = 10000;
+
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * 指定されたクラスのキー項目の索引で読み込むコンストラクタです。
+	 * 索引ファイルが存在しない場合は作成し、固定長ファイルに追記されている場合は更新します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param dataPath 固定長ファイルパス
+	 * @param indexPath 索引ファイルパス
+	 * @param clazz データレコード格納先クラス
+	 * @param keyColumn キー項目名
+	 * @throws IOException 入出力でエラーが発生した場合、指定された文字セットがサポートされていない場合
+	 */
+	public FLTIndexedReader(FLTConfig conf, Path dataPath, Path indexPath, Class<T> clazz, String keyColumn) throws IOException {
+		this(conf, dataPath, indexPath, FLTAnnotationManager.getLayout(clazz), keyColumn);
+	}
+
+	private FLTIndexedReader(FLTConfig conf, Path dataPath, Path indexPath, RecordLayout layout, String keyColumn) throws IOException {
+		if (conf == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.conf = conf.freeze();
+		this.layout = layout;
+		this.dataPath = dataPath;
+		this.index = new FLTKeyIndex(this.conf, dataPath, indexPath, layout, keyColumn);
+		this.index.update();
+		this.channel = FileChannel.open(dataPath, StandardOpenOption.READ);
+	}
+
+	/**
+	 * 指定されたレコード定義のキー項目の索引で読み込むインスタンスを構築します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param dataPath 固定長ファイルパス
+	 * @param indexPath 索引ファイルパス
+	 * @param schema データレコードのレコード定義
+	 * @param keyColumn キー項目名
+	 * @return {@link GenericRecord}を返却するインスタンス
+	 * @throws IOException 入出力でエラーが発生した場合、指定された文字セットがサポートされていない場合
+	 */
+	public static FLTIndexedReader<GenericRecord> forSchema(FLTConfig conf, Path dataPath, Path indexPath, RecordSchema schema, String keyColumn) throws IOException {
+		if (schema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return new FLTIndexedReader<>(conf, dataPath, indexPath, schema.getLayout(), keyColumn);
+	}
+
+	public synchronized int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * キャッシュするエンティティの件数の上限を設定します。0の場合はキャッシュしません。
+	 *
+	 * @param cacheSize 件数
+	 */
+	public synchronized void setCacheSize(int cacheSize) {
+		this.cacheSize = Math.max(0, cacheSize);
+		evict();
+	}
+
+	/**
+	 * キャッシュから返却した件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * ファイルから読み込んだ件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * 使用している索引を返却します。
+	 * 索引の更新は、検索との排他制御を行う{@link #update()}で行ってください。
+	 *
+	 * @return 索引
+	 */
+	public FLTKeyIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * 指定されたキーのデータレコードを返却します。
+	 * キーが重複している場合は、ファイル内で最も前のレコードを返却します。
+	 *
+	 * @param key キー項目の型の値
+	 * @return データレコード、存在しない場合はnull
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(Object key) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		ByteBuffer cacheKey = ByteBuffer.wrap(index.encodeKey(key));
+		lock.readLock().lock();
+		try {
+			synchronized (this) {
+				Object ret = cache.get(cacheKey);
+				if (ret != null) {
+					hitCount++;
+					return (T) ret;
+				}
+				missCount++;
+			}
+
+			long offset = index.find(cacheKey.array());
+			if (offset < 0) {
+				return null;
+			}
+			T ret = readRecord(offset);
+			synchronized (this) {
+				if (cacheSize > 0) {
+					cache.put(cacheKey, ret);
+					evict();
+				}
+			}
+			return ret;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 指定されたキーのすべてのデータレコードを、ファイル内の順に返却します。
+	 * キャッシュは使用しません。
+	 *
+	 * @param key キー項目の型の値
+	 * @return データレコードのList
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public List<T> getAll(Object key) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		lock.readLock().lock();
+		try {
+			long[] offsets = index.findAll(key);
+			List<T> ret = new ArrayList<>(offsets.length);
+			for (long offset : offsets) {
+				ret.add(readRecord(offset));
+			}
+			return ret;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 指定された位置のデータレコードを読み込みます。
+	 *
+	 * @param offset 固定長ファイルの先頭からのバイト数
+	 * @return データレコード
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	public T read(long offset) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		lock.readLock().lock();
+		try {
+			return readRecord(offset);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 読み込みロックを保持した状態で、指定された位置のデータレコードを読み込みます。
+	 */
+	@SuppressWarnings("unchecked")
+	private T readRecord(long offset) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		byte[] record = new byte[layout.getRecordSize()];
+		ByteBuffer buffer = ByteBuffer.wrap(record);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+			}
+		}
+		return (T) annotationManager.get().convertToEntity(conf, layout, record);
+	}
+
+	/**
+	 * 固定長ファイルに追記されたレコードを索引に追加します。
+	 * 追記のみであれば、キャッシュしたエンティティはそのまま使用できます。
+	 * 実行中の検索の完了を待って更新し、更新中の検索は更新の完了まで待機します。
+	 *
+	 * @return 追加したレコードの件数
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 * @see FLTKeyIndex#update()
+	 */
+	public long update() throws IOException {
+		lock.writeLock().lock();
+		try {
+			long indexedLength = index.getIndexedLength();
+			long ret = index.update();
+			if (index.getIndexedLength() < indexedLength) {
+				// 索引を作成し直した場合は、ファイルが置き換えられたため開き直し、キャッシュを破棄します。
+				// 古いファイルを読み込んでいる検索はないため、そのまま閉じます。
+				FileChannel old = channel;
+				channel = FileChannel.open(dataPath, StandardOpenOption.READ);
+				old.close();
+				synchronized (this) {
+					cache.clear();
+				}
+			}
+			return ret;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 最近使用していないエンティティを、上限の件数まで破棄します。
+	 */
+	private void evict() {
+		while (cache.size() > cacheSize) {
+			Map.Entry<ByteBuffer, Object> eldest = cache.entrySet().iterator().next();
+			cache.remove(eldest.getKey());
+		}
+	}
+
+	/**
+	 * 読み込み後の終了処理です。
+	 *
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			synchronized (this) {
+				cache.clear();
+			}
+			index.close();
+			channel.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
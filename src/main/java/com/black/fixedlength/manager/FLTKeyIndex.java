@@ -0,0 +1,818 @@
+package com.black.fixedlength.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * 固定長ファイルのキー項目から、レコードのファイル内の位置を検索する索引です。<p>
+ * 索引はキー項目のバイト列とレコードの位置の組を、キー項目のバイト列(符号なし)の順に並べたファイルで、
+ * メモリにマッピングして二分探索します。索引の件数に関わらずヒープはほとんど使用しません。
+ * 索引の作成時は指定された件数ごとに並べ替えて一時ファイルに出力し、マージして索引ファイルを作成します。<p>
+ * 索引は{@link #update()}で作成します。固定長ファイルに追記された場合は、追記されたレコードのみを読み込み、既存の索引とマージします。
+ * 索引ファイルには索引を作成した位置を記録しているため、開き直した場合も追記された分のみを読み込みます。
+ * 固定長ファイルが索引を作成した位置より短くなった場合は、索引を作成し直します。
+ * バイナリ項目を含む場合は、レコードをレコードサイズで区切り、直後の改行コードは存在する場合のみ読み飛ばします({@link FLTReader}と同様)。
+ * 固定長の読み取り形式がバイト数の場合のみ使用できます。
+ *
+ */
+public class FLTKeyIndex implements AutoCloseable {
+
+	/**
+	 * 索引ファイルの識別子("FLTI")と形式のバージョン
+	 */
+	private static final int MAGIC = 0x464C5449;
+	private static final int VERSION = 2;
+
+	/**
+	 * 索引ファイルのヘッダの、レコード判定文字を除いたバイト数
+	 * (識別子、バージョン、キーのバイト数、キー項目の位置、レコードサイズ、レコード判定文字のバイト数、
+	 * 次回の更新で読み飛ばす改行コード、件数、索引を作成した位置)
+	 * ヘッダの末尾にはレコード判定文字のバイト列が続きます。
+	 */
+	private static final int FIXED_HEADER_SIZE = 44;
+
+	private final FLTConfig conf;
+	private final Path dataPath;
+	private final Path indexPath;
+	private final RecordLayout layout;
+	private final ColumnLayout keyColumn;
+	private final byte[] recordCode;
+	private final int keyLength;
+	private final int entrySize;
+	private final int headerSize;
+
+	private int cr = '\r';
+	private int lf = '\n';
+
+	/**
+	 * 1つの一時ファイルに並べ替える件数(初期値：1048576件)
+	 */
+	private int chunkEntries = 1 << 20;
+
+	/**
+	 * マッピングしている索引(更新時に置き換えます)
+	 */
+	private volatile Mapping mapping;
+
+	/**
+	 * 指定されたクラスのキー項目の索引を開くコンストラクタです。
+	 * 索引ファイルが存在しない場合、形式が一致しない場合は空の索引として開きます。
+	 * 開いた後、{@link #update()}で索引を作成、更新してください。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param dataPath 固定長ファイルパス
+	 * @param indexPath 索引ファイルパス
+	 * @param clazz データレコードのクラス
+	 * @param keyColumn キー項目名
+	 * @throws IOException 索引ファイルを読み込めない場合、指定された文字セットがサポートされていない場合
+	 */
+	public FLTKeyIndex(FLTConfig conf, Path dataPath, Path indexPath, Class<?> clazz, String keyColumn) throws IOException {
+		this(conf, dataPath, indexPath, FLTAnnotationManager.getLayout(clazz), keyColumn);
+	}
+
+	/**
+	 * 指定されたレコード定義のキー項目の索引を開くコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param dataPath 固定長ファイルパス
+	 * @param indexPath 索引ファイルパス
+	 * @param schema データレコードのレコード定義
+	 * @param keyColumn キー項目名
+	 * @throws IOException 索引ファイルを読み込めない場合、指定された文字セットがサポートされていない場合
+	 * @see #FLTKeyIndex(FLTConfig, Path, Path, Class, String)
+	 */
+	public FLTKeyIndex(FLTConfig conf, Path dataPath, Path indexPath, RecordSchema schema, String keyColumn) throws IOException {
+		this(conf, dataPath, indexPath, schema.getLayout(), keyColumn);
+	}
+
+	FLTKeyIndex(FLTConfig conf, Path dataPath, Path indexPath, RecordLayout layout, String keyColumn) throws IOException {
+		if (conf == null || dataPath == null || indexPath == null || keyColumn == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (conf.getFltType() != FLTType.BYTE) {
+			throw new IllegalArgumentException("The key index requires the read type BYTE.");
+		}
+		this.conf = conf;
+		this.dataPath = dataPath;
+		this.indexPath = indexPath.toAbsolutePath();
+		this.layout = layout;
+		this.keyColumn = layout.getColumn(keyColumn);
+		if (this.keyColumn == null) {
+			throw new IllegalArgumentException(String.format("Unknown column %s.", keyColumn));
+		}
+		this.keyLength = this.keyColumn.getLength();
+		this.entrySize = keyLength + 8;
+
+		String charCode = conf.getCharCode();
+		this.recordCode = layout.getRecordCodeNum() == null ? new byte[0] : layout.getRecordCodeNum().getBytes(charCode);
+		this.headerSize = FIXED_HEADER_SIZE + recordCode.length;
+		byte[] crBytes = "\r".getBytes(charCode);
+		byte[] lfBytes = "\n".getBytes(charCode);
+		if (crBytes.length == 1 && lfBytes.length == 1) {
+			this.cr = crBytes[0] & 0xFF;
+			this.lf = lfBytes[0] & 0xFF;
+		}
+
+		this.mapping = load();
+	}
+
+	public int getChunkEntries() {
+		return chunkEntries;
+	}
+
+	public void setChunkEntries(int chunkEntries) {
+		this.chunkEntries = Math.max(1, chunkEntries);
+	}
+
+	/**
+	 * 索引のレコードの配置情報を返却します。
+	 *
+	 * @return データレコードの配置情報
+	 */
+	public RecordLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * 索引のキー項目を返却します。
+	 *
+	 * @return キー項目の配置情報
+	 */
+	public ColumnLayout getKeyColumn() {
+		return keyColumn;
+	}
+
+	/**
+	 * 索引に登録されているレコードの件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public long size() {
+		return mapping.count;
+	}
+
+	/**
+	 * 索引を作成した固定長ファイルの位置(バイト数)を返却します。
+	 *
+	 * @return 固定長ファイルの先頭からのバイト数
+	 */
+	public long getIndexedLength() {
+		return mapping.indexedLength;
+	}
+
+	/**
+	 * 固定長ファイルに追記されたレコードを索引に追加します。
+	 * 書き込み途中のレコード(改行コードまで揃っていないレコード)は、次回の更新で追加します。
+	 *
+	 * @return 追加したレコードの件数
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 */
+	public synchronized long update() throws IOException {
+		Mapping current = mapping;
+		long size = Files.size(dataPath);
+		if (size == current.indexedLength) {
+			return 0;
+		}
+
+		// 固定長ファイルが短くなった場合は、置き換えられたものとして作成し直します。
+		boolean rebuild = size < current.indexedLength;
+		Mapping base = rebuild ? Mapping.EMPTY : current;
+		mapping = build(base, rebuild ? 0 : current.indexedLength, base.separator);
+		return mapping.count - base.count;
+	}
+
+	/**
+	 * 指定されたキーのレコードの位置を返却します。
+	 * キーが重複している場合は、ファイル内で最も前のレコードの位置を返却します。
+	 *
+	 * @param key キー項目の型の値
+	 * @return 固定長ファイルの先頭からのバイト数、存在しない場合は-1
+	 * @throws IOException キーを項目のバイト数に変換できない場合
+	 */
+	public long find(Object key) throws IOException {
+		return find(encodeKey(key));
+	}
+
+	/**
+	 * 指定されたキーのすべてのレコードの位置を、ファイル内の順に返却します。
+	 *
+	 * @param key キー項目の型の値
+	 * @return 固定長ファイルの先頭からのバイト数の配列、存在しない場合は空の配列
+	 * @throws IOException キーを項目のバイト数に変換できない場合
+	 */
+	public long[] findAll(Object key) throws IOException {
+		byte[] target = encodeKey(key);
+		Mapping current = mapping;
+		long first = current.lowerBound(target);
+		long last = first;
+		while (last < current.count && current.compareKey(last, target) == 0) {
+			last++;
+		}
+
+		long[] ret = new long[(int) (last - first)];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = current.offset(first + i);
+		}
+		return ret;
+	}
+
+	/**
+	 * 項目のバイト列に変換したキーで、レコードの位置を返却します。
+	 */
+	long find(byte[] target) {
+		Mapping current = mapping;
+		long index = current.lowerBound(target);
+		return index < current.count && current.compareKey(index, target) == 0 ? current.offset(index) : -1;
+	}
+
+	/**
+	 * キーを項目に書き込まれるバイト列に変換します。
+	 */
+	byte[] encodeKey(Object key) throws IOException {
+		if (key == null || !keyColumn.isAssignable(key)) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return FLTAnnotationManager.encodeColumn(conf, keyColumn, key);
+	}
+
+	/**
+	 * 索引ファイルを読み込みます。存在しない場合、形式が一致しない場合は空の索引を返却します。
+	 * キー項目の位置、レコード判定文字が異なるレコード定義で作成した索引も、形式が一致しないものとして扱います。
+	 */
+	private Mapping load() throws IOException {
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(indexPath, StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			return Mapping.EMPTY;
+		}
+
+		try {
+			ByteBuffer header = ByteBuffer.allocate(headerSize);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// ヘッダを読み込みます。
+			}
+			header.flip();
+			if (header.remaining() < headerSize || header.getInt() != MAGIC || header.getInt() != VERSION
+					|| header.getInt() != keyLength || header.getInt() != keyColumn.getOffset()
+					|| header.getInt() != layout.getRecordSize() || header.getInt() != recordCode.length) {
+				return Mapping.EMPTY;
+			}
+			int separator = header.getInt();
+			long count = header.getLong();
+			long indexedLength = header.getLong();
+			byte[] code = new byte[recordCode.length];
+			header.get(code);
+			if (!Arrays.equals(code, recordCode) || separator < 0 || separator > 2 || channel.size() != headerSize + count * entrySize) {
+				return Mapping.EMPTY;
+			}
+			return new Mapping(channel, headerSize, count, indexedLength, separator, keyLength);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * 固定長ファイルの指定された位置以降のレコードを読み込み、既存の索引とマージした索引ファイルを作成します。
+	 *
+	 * @param separator 指定された位置で読み飛ばす改行コード
+	 */
+	private Mapping build(Mapping base, long from, int separator) throws IOException {
+		Path directory = indexPath.getParent();
+		List<Path> runs = new ArrayList<>();
+		Path temp = Files.createTempFile(directory, "flt-index", ".tmp");
+		try {
+			Chunk chunk = new Chunk(chunkEntries);
+			int[] next = { separator };
+			long indexedLength = scan(from, next, chunk, runs, directory);
+			chunk.sort();
+
+			long count;
+			List<EntryReader> readers = new ArrayList<>();
+			try {
+				if (base.count > 0) {
+					readers.add(new StreamEntryReader(indexPath, headerSize, base.count));
+				}
+				for (Path run : runs) {
+					readers.add(new StreamEntryReader(run, 0, -1));
+				}
+				readers.add(chunk.reader());
+				count = merge(readers, temp, indexedLength, next[0]);
+			} finally {
+				for (EntryReader reader : readers) {
+					reader.close();
+				}
+			}
+
+			Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			if (count == 0) {
+				return new Mapping(count, indexedLength, next[0]);
+			}
+			try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+				return new Mapping(channel, headerSize, count, indexedLength, next[0], keyLength);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	/**
+	 * 固定長ファイルの指定された位置以降の完全なレコードのキーと位置を登録します。
+	 * 登録件数が上限に達した場合は、並べ替えて一時ファイルに出力します。
+	 *
+	 * @param separator 指定された位置で読み飛ばす改行コード(0:なし、1:CRまたはLF、2:LF)、終了時は次回の更新で読み飛ばす改行コードを格納します
+	 * @return 最後の完全なレコード(判定できた改行コードを含む)の直後の位置
+	 */
+	private long scan(long from, int[] separator, Chunk chunk, List<Path> runs, Path directory) throws IOException {
+		int recordSize = layout.getRecordSize();
+		byte[] buffer = new byte[Math.max(1 << 20, recordSize * 2 + 2)];
+		int start = 0;
+		int end = 0;
+		long position = from;
+
+		try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+			long readPosition = from;
+			while (true) {
+				int skip = skipSeparator(buffer, start, end, separator[0]);
+				int length = skip < 0 ? -1 : nextRecord(buffer, start + skip, end, recordSize);
+				if (length < 0) {
+					if (start > 0) {
+						System.arraycopy(buffer, start, buffer, 0, end - start);
+						end -= start;
+						start = 0;
+					}
+					if (end == buffer.length) {
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					}
+					int count = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end), readPosition);
+					if (count <= 0) {
+						// 判定できた改行コードは読み飛ばし、判定できない改行コードは次回の更新で判定します。
+						if (skip >= 0) {
+							separator[0] = 0;
+							return position + skip;
+						} else if (separator[0] == 1 && start < end) {
+							separator[0] = 2;
+							return position + 1;
+						}
+						return position;
+					}
+					end += count;
+					readPosition += count;
+					continue;
+				}
+
+				start += skip;
+				position += skip;
+				separator[0] = layout.isBinary() ? 1 : 0;
+				int content = contentLength(buffer, start, length);
+				if (content > 0 && startsWith(buffer, start)) {
+					if (content < recordSize) {
+						throw new FixedLengthFormatException(String.format(
+								"The number of bytes in the record is not met. position:%d", position));
+					}
+					chunk.add(buffer, start + keyColumn.getOffset(), position);
+					if (chunk.isFull()) {
+						chunk.sort();
+						runs.add(chunk.spill(directory));
+					}
+				}
+				start += length;
+				position += length;
+			}
+		}
+	}
+
+	/**
+	 * バイナリ項目を含む場合に、前のレコードの直後の改行コードを、存在する場合のみ読み飛ばすバイト数を返却します。
+	 *
+	 * @param separator 読み飛ばす改行コード(0:なし、1:CRまたはLF、2:LF)
+	 * @return 読み飛ばすバイト数、判定にバイトの読み込みが必要な場合は-1
+	 */
+	private int skipSeparator(byte[] buffer, int start, int end, int separator) {
+		int i = start;
+		if (separator == 1) {
+			if (i >= end) {
+				return -1;
+			} else if ((buffer[i] & 0xFF) == lf) {
+				return 1;
+			} else if ((buffer[i] & 0xFF) != cr) {
+				return 0;
+			}
+			i++;
+		} else if (separator != 2) {
+			return 0;
+		}
+		if (i >= end) {
+			return -1;
+		}
+		return (buffer[i] & 0xFF) == lf ? i + 1 - start : i - start;
+	}
+
+	/**
+	 * バッファ内の次のレコード(改行コードを含む)のバイト数を返却します。
+	 * バイナリ項目を含む場合は、改行コードを含まないレコードサイズを返却します。
+	 *
+	 * @return 完全なレコードのバイト数、改行コードまで揃っていない場合は-1
+	 */
+	private int nextRecord(byte[] buffer, int start, int end, int recordSize) throws FixedLengthFormatException {
+		if (layout.isBinary()) {
+			// バイナリ項目は改行コードと同じ値を含むため、レコードサイズで区切ります。
+			return end - start >= recordSize ? recordSize : -1;
+		}
+
+		int i = start;
+		while (i < end && (buffer[i] & 0xFF) != cr && (buffer[i] & 0xFF) != lf) {
+			i++;
+		}
+
+		if (i < end && (buffer[i] & 0xFF) == cr) {
+			i++;
+		}
+		if (i >= end) {
+			return -1;
+		} else if ((buffer[i] & 0xFF) != lf) {
+			throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+		}
+		return i + 1 - start;
+	}
+
+	/**
+	 * 改行コードを除いたレコードのバイト数を返却します。
+	 */
+	private int contentLength(byte[] buffer, int start, int length) {
+		if (layout.isBinary()) {
+			return layout.getRecordSize();
+		}
+		int ret = length - 1;
+		if (ret > 0 && (buffer[start + ret - 1] & 0xFF) == cr) {
+			ret--;
+		}
+		return ret;
+	}
+
+	private boolean startsWith(byte[] buffer, int start) {
+		for (int i = 0; i < recordCode.length; i++) {
+			if (buffer[start + i] != recordCode[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 並べ替え済みの索引をマージして索引ファイルを出力します。
+	 *
+	 * @return 出力した件数
+	 */
+	private long merge(List<EntryReader> readers, Path output, long indexedLength, int separator) throws IOException {
+		PriorityQueue<EntryReader> queue = new PriorityQueue<>(Math.max(1, readers.size()), (a, b) -> compareEntry(a.entry, b.entry));
+		for (EntryReader reader : readers) {
+			if (reader.next()) {
+				queue.add(reader);
+			}
+		}
+
+		long count = 0;
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+			out.write(header(0, indexedLength, separator).array());
+			while (!queue.isEmpty()) {
+				EntryReader reader = queue.poll();
+				out.write(reader.entry);
+				count++;
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+		}
+
+		// 件数はマージ後に確定するため、ヘッダを書き直します。
+		try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+			ByteBuffer header = header(count, indexedLength, separator);
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 索引ファイルのヘッダを作成します。
+	 */
+	private ByteBuffer header(long count, long indexedLength, int separator) {
+		ByteBuffer ret = ByteBuffer.allocate(headerSize);
+		ret.putInt(MAGIC).putInt(VERSION).putInt(keyLength).putInt(keyColumn.getOffset()).putInt(layout.getRecordSize()).putInt(recordCode.length);
+		ret.putInt(separator).putLong(count).putLong(indexedLength).put(recordCode);
+		ret.flip();
+		return ret;
+	}
+
+	/**
+	 * キーのバイト列(符号なし)、レコードの位置の順に比較します。
+	 */
+	private int compareEntry(byte[] a, byte[] b) {
+		for (int i = 0; i < entrySize; i++) {
+			int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 索引を閉じます。マッピングはガベージコレクションで解放されます。
+	 */
+	@Override
+	public void close() {
+		mapping = Mapping.EMPTY;
+	}
+
+	/**
+	 * メモリにマッピングした索引です。
+	 * 2GBを超える索引は、複数の領域に分けてマッピングします。
+	 */
+	private static final class Mapping {
+		static final Mapping EMPTY = new Mapping(0, 0, 0);
+
+		private final long count;
+		private final long indexedLength;
+		private final int separator;
+		private final int keyLength;
+		private final int entrySize;
+		private final int segmentEntries;
+		private final MappedByteBuffer[] segments;
+
+		Mapping(long count, long indexedLength, int separator) {
+			this.count = count;
+			this.indexedLength = indexedLength;
+			this.separator = separator;
+			this.keyLength = 0;
+			this.entrySize = 8;
+			this.segmentEntries = 1;
+			this.segments = new MappedByteBuffer[0];
+		}
+
+		Mapping(FileChannel channel, int headerSize, long count, long indexedLength, int separator, int keyLength) throws IOException {
+			this.count = count;
+			this.indexedLength = indexedLength;
+			this.separator = separator;
+			this.keyLength = keyLength;
+			this.entrySize = keyLength + 8;
+			this.segmentEntries = Integer.MAX_VALUE / entrySize;
+
+			int segmentCount = (int) ((count + segmentEntries - 1) / segmentEntries);
+			this.segments = new MappedByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long entries = Math.min(segmentEntries, count - (long) i * segmentEntries);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						headerSize + (long) i * segmentEntries * entrySize, entries * entrySize);
+			}
+		}
+
+		/**
+		 * 指定されたキー以上の最初の位置を返却します。
+		 */
+		long lowerBound(byte[] key) {
+			long low = 0;
+			long high = count;
+			while (low < high) {
+				long middle = (low + high) >>> 1;
+				if (compareKey(middle, key) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		int compareKey(long index, byte[] key) {
+			MappedByteBuffer segment = segments[(int) (index / segmentEntries)];
+			int base = (int) (index % segmentEntries) * entrySize;
+			for (int i = 0; i < keyLength; i++) {
+				int diff = (segment.get(base + i) & 0xFF) - (key[i] & 0xFF);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return 0;
+		}
+
+		long offset(long index) {
+			MappedByteBuffer segment = segments[(int) (index / segmentEntries)];
+			return segment.getLong((int) (index % segmentEntries) * entrySize + keyLength);
+		}
+	}
+
+	/**
+	 * 並べ替え済みの索引を1件ずつ読み込みます。
+	 */
+	private abstract static class EntryReader implements AutoCloseable {
+		byte[] entry;
+
+		/**
+		 * 次の1件を読み込みます。
+		 *
+		 * @return 終わりに達した場合false
+		 */
+		abstract boolean next() throws IOException;
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	/**
+	 * 索引ファイル、一時ファイルから読み込みます。
+	 */
+	private final class StreamEntryReader extends EntryReader {
+		private final DataInputStream in;
+		private long remaining;
+
+		/**
+		 * @param count 件数、ファイルの終わりまで読み込む場合は-1
+		 */
+		StreamEntryReader(Path path, long skip, long count) throws IOException {
+			InputStream stream = Files.newInputStream(path);
+			this.in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+			this.remaining = count;
+			this.entry = new byte[entrySize];
+			in.skipBytes((int) skip);
+		}
+
+		@Override
+		boolean next() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			try {
+				in.readFully(entry);
+			} catch (EOFException e) {
+				if (remaining > 0) {
+					throw e;
+				}
+				return false;
+			}
+			if (remaining > 0) {
+				remaining--;
+			}
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	/**
+	 * 並べ替える索引です。キーとレコードの位置を連続したバイト配列に保持し、位置の配列を並べ替えます。
+	 * 追記分のみを更新する場合に備え、配列は件数に応じて上限まで拡張します。
+	 */
+	private final class Chunk {
+		private final int capacity;
+		private byte[] data;
+		private int[] index;
+		private int[] work;
+		private int count;
+
+		Chunk(int capacity) {
+			this.capacity = capacity;
+			int initial = Math.min(capacity, 1024);
+			this.data = new byte[initial * entrySize];
+			this.index = new int[initial];
+			this.work = new int[initial];
+		}
+
+		void add(byte[] record, int keyOffset, long position) {
+			if (count == index.length) {
+				int length = (int) Math.min((long) index.length * 2, capacity);
+				data = Arrays.copyOf(data, length * entrySize);
+				index = Arrays.copyOf(index, length);
+				work = new int[length];
+			}
+			int base = count * entrySize;
+			System.arraycopy(record, keyOffset, data, base, keyLength);
+			ByteBuffer.wrap(data, base + keyLength, 8).putLong(position);
+			index[count] = count;
+			count++;
+		}
+
+		boolean isFull() {
+			return count == capacity;
+		}
+
+		void sort() {
+			sort(0, count);
+		}
+
+		/**
+		 * 位置の配列をマージソートで並べ替えます(短い範囲は挿入ソート)。
+		 */
+		private void sort(int from, int to) {
+			if (to - from <= 16) {
+				for (int i = from + 1; i < to; i++) {
+					int value = index[i];
+					int j = i - 1;
+					while (j >= from && compare(index[j], value) > 0) {
+						index[j + 1] = index[j];
+						j--;
+					}
+					index[j + 1] = value;
+				}
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			sort(from, middle);
+			sort(middle, to);
+			if (compare(index[middle - 1], index[middle]) <= 0) {
+				return;
+			}
+
+			System.arraycopy(index, from, work, from, to - from);
+			int left = from;
+			int right = middle;
+			for (int i = from; i < to; i++) {
+				if (right >= to || left < middle && compare(work[left], work[right]) <= 0) {
+					index[i] = work[left++];
+				} else {
+					index[i] = work[right++];
+				}
+			}
+		}
+
+		private int compare(int a, int b) {
+			int baseA = a * entrySize;
+			int baseB = b * entrySize;
+			for (int i = 0; i < entrySize; i++) {
+				int diff = (data[baseA + i] & 0xFF) - (data[baseB + i] & 0xFF);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * 並べ替え済みの索引を一時ファイルに出力し、空にします。
+		 */
+		Path spill(Path directory) throws IOException {
+			Path ret = Files.createTempFile(directory, "flt-index", ".run");
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(ret), 1 << 16)) {
+				for (int i = 0; i < count; i++) {
+					out.write(data, index[i] * entrySize, entrySize);
+				}
+			}
+			count = 0;
+			return ret;
+		}
+
+		/**
+		 * 並べ替え済みの索引をメモリから読み込みます。
+		 */
+		EntryReader reader() {
+			return new EntryReader() {
+				private int position;
+
+				@Override
+				boolean next() {
+					if (position >= count) {
+						return false;
+					}
+					if (entry == null) {
+						entry = new byte[entrySize];
+					}
+					System.arraycopy(data, index[position++] * entrySize, entry, 0, entrySize);
+					return true;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,622 @@
+package com.black.fixedlength.manager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.ParseException;
+
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.type.SignPosition;
+
+/**
+ * パック10進数、ゾーン10進数、2進数の項目をバイト配列から直接変換する処理を提供します。<p>
+ * 文字列を経由せずに数値へ変換します。
+ * また、暗黙の小数点と符号を持つ文字の数値項目を、文字の範囲から直接変換する処理を提供します。
+ *
+ */
+public final class FLTNumberCodec {
+
+	/**
+	 * longで桁あふれせずに格納できる最大桁数
+	 */
+	static final int MAX_LONG_DIGITS = 18;
+
+	private FLTNumberCodec() {
+	}
+
+	/**
+	 * パック10進数の桁数を返却します。
+	 *
+	 * @param length バイト数
+	 * @return 桁数
+	 */
+	public static int packedDigits(int length) {
+		return length * 2 - 1;
+	}
+
+	/**
+	 * パック10進数をスケールなしの値として読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @return スケールなしの値
+	 * @throws ParseException 数字または符号が不正な場合、longの範囲を超える場合
+	 */
+	public static long decodePacked(byte[] bytes, int offset, int length) throws ParseException {
+		boolean checked = packedDigits(length) > MAX_LONG_DIGITS;
+		long ret = 0;
+		int last = offset + length - 1;
+		for (int i = offset; i < last; i++) {
+			ret = accumulate(ret, digit(bytes[i] >>> 4 & 0x0F, i), checked, i);
+			ret = accumulate(ret, digit(bytes[i] & 0x0F, i), checked, i);
+		}
+		ret = accumulate(ret, digit(bytes[last] >>> 4 & 0x0F, last), checked, last);
+		return isPackedNegative(bytes[last], last) ? -ret : ret;
+	}
+
+	/**
+	 * パック10進数をBigDecimalとして読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @param scale 小数点以下の桁数
+	 * @return 読み込んだ値
+	 * @throws ParseException 数字または符号が不正な場合
+	 */
+	public static BigDecimal decodePackedDecimal(byte[] bytes, int offset, int length, int scale) throws ParseException {
+		if (packedDigits(length) <= MAX_LONG_DIGITS) {
+			return BigDecimal.valueOf(decodePacked(bytes, offset, length), scale);
+		}
+
+		int last = offset + length - 1;
+		char[] chars = new char[packedDigits(length) + 1];
+		int pos = 1;
+		for (int i = offset; i < last; i++) {
+			chars[pos++] = (char) ('0' + digit(bytes[i] >>> 4 & 0x0F, i));
+			chars[pos++] = (char) ('0' + digit(bytes[i] & 0x0F, i));
+		}
+		chars[pos] = (char) ('0' + digit(bytes[last] >>> 4 & 0x0F, last));
+		chars[0] = isPackedNegative(bytes[last], last) ? '-' : '+';
+		return new BigDecimal(chars).scaleByPowerOfTen(-scale);
+	}
+
+	/**
+	 * スケールなしの値をパック10進数として書き込みます。
+	 *
+	 * @param value スケールなしの値
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @throws IllegalArgumentException 値が項目の桁数に収まらない場合
+	 */
+	public static void encodePacked(long value, byte[] bytes, int offset, int length) {
+		int last = offset + length - 1;
+		long rest = value;
+		int digit = remainder(rest);
+		rest /= 10;
+		bytes[last] = (byte) (digit << 4 | (value < 0 ? 0x0D : 0x0C));
+		for (int i = last - 1; i >= offset; i--) {
+			int low = remainder(rest);
+			rest /= 10;
+			int high = remainder(rest);
+			rest /= 10;
+			bytes[i] = (byte) (high << 4 | low);
+		}
+		if (rest != 0) {
+			throw new IllegalArgumentException(String.format("The value %d does not fit in %d digits.", value, packedDigits(length)));
+		}
+	}
+
+	/**
+	 * BigDecimalをパック10進数として書き込みます。
+	 *
+	 * @param value 値
+	 * @param scale 小数点以下の桁数
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @throws IllegalArgumentException 値が項目の桁数に収まらない場合、小数点以下の桁数を超える場合
+	 */
+	public static void encodePacked(BigDecimal value, int scale, byte[] bytes, int offset, int length) {
+		BigInteger unscaled = unscaled(value, scale);
+		if (unscaled.bitLength() < Long.SIZE) {
+			encodePacked(unscaled.longValue(), bytes, offset, length);
+			return;
+		}
+
+		char[] digits = digits(unscaled, packedDigits(length));
+		int last = offset + length - 1;
+		int pos = digits.length - 1;
+		bytes[last] = (byte) ((digits[pos--] - '0') << 4 | (unscaled.signum() < 0 ? 0x0D : 0x0C));
+		for (int i = last - 1; i >= offset; i--) {
+			int low = digits[pos--] - '0';
+			int high = digits[pos--] - '0';
+			bytes[i] = (byte) (high << 4 | low);
+		}
+	}
+
+	/**
+	 * ゾーン10進数をスケールなしの値として読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @return スケールなしの値
+	 * @throws ParseException 数字が不正な場合、longの範囲を超える場合
+	 */
+	public static long decodeZoned(byte[] bytes, int offset, int length) throws ParseException {
+		boolean checked = length > MAX_LONG_DIGITS;
+		long ret = 0;
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			ret = accumulate(ret, digit(bytes[i] & 0x0F, i), checked, i);
+		}
+		return isZonedNegative(bytes[end - 1]) ? -ret : ret;
+	}
+
+	/**
+	 * ゾーン10進数をBigDecimalとして読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @param scale 小数点以下の桁数
+	 * @return 読み込んだ値
+	 * @throws ParseException 数字が不正な場合
+	 */
+	public static BigDecimal decodeZonedDecimal(byte[] bytes, int offset, int length, int scale) throws ParseException {
+		if (length <= MAX_LONG_DIGITS) {
+			return BigDecimal.valueOf(decodeZoned(bytes, offset, length), scale);
+		}
+
+		char[] chars = new char[length + 1];
+		for (int i = 0; i < length; i++) {
+			chars[i + 1] = (char) ('0' + digit(bytes[offset + i] & 0x0F, offset + i));
+		}
+		chars[0] = isZonedNegative(bytes[offset + length - 1]) ? '-' : '+';
+		return new BigDecimal(chars).scaleByPowerOfTen(-scale);
+	}
+
+	/**
+	 * スケールなしの値をゾーン10進数として書き込みます。
+	 *
+	 * @param value スケールなしの値
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @param ebcdic EBCDICのゾーン(F/D)を使用する場合true、ASCIIのゾーン(3/7)を使用する場合false
+	 * @throws IllegalArgumentException 値が項目の桁数に収まらない場合
+	 */
+	public static void encodeZoned(long value, byte[] bytes, int offset, int length, boolean ebcdic) {
+		int zone = ebcdic ? 0xF0 : 0x30;
+		long rest = value;
+		for (int i = offset + length - 1; i >= offset; i--) {
+			bytes[i] = (byte) (zone | remainder(rest));
+			rest /= 10;
+		}
+		if (rest != 0) {
+			throw new IllegalArgumentException(String.format("The value %d does not fit in %d digits.", value, length));
+		}
+		if (value < 0) {
+			int last = offset + length - 1;
+			bytes[last] = (byte) ((ebcdic ? 0xD0 : 0x70) | bytes[last] & 0x0F);
+		}
+	}
+
+	/**
+	 * BigDecimalをゾーン10進数として書き込みます。
+	 *
+	 * @param value 値
+	 * @param scale 小数点以下の桁数
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @param ebcdic EBCDICのゾーン(F/D)を使用する場合true、ASCIIのゾーン(3/7)を使用する場合false
+	 * @throws IllegalArgumentException 値が項目の桁数に収まらない場合、小数点以下の桁数を超える場合
+	 */
+	public static void encodeZoned(BigDecimal value, int scale, byte[] bytes, int offset, int length, boolean ebcdic) {
+		BigInteger unscaled = unscaled(value, scale);
+		if (unscaled.bitLength() < Long.SIZE) {
+			encodeZoned(unscaled.longValue(), bytes, offset, length, ebcdic);
+			return;
+		}
+
+		int zone = ebcdic ? 0xF0 : 0x30;
+		char[] digits = digits(unscaled, length);
+		for (int i = 0; i < length; i++) {
+			bytes[offset + i] = (byte) (zone | digits[i] - '0');
+		}
+		if (unscaled.signum() < 0) {
+			int last = offset + length - 1;
+			bytes[last] = (byte) ((ebcdic ? 0xD0 : 0x70) | bytes[last] & 0x0F);
+		}
+	}
+
+	/**
+	 * ビッグエンディアンの2進数を読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数(1～8)
+	 * @return 読み込んだ値
+	 */
+	public static long decodeBinary(byte[] bytes, int offset, int length) {
+		long ret = bytes[offset];
+		for (int i = offset + 1; i < offset + length; i++) {
+			ret = ret << 8 | bytes[i] & 0xFF;
+		}
+		return ret;
+	}
+
+	/**
+	 * ビッグエンディアンの2進数を書き込みます。
+	 *
+	 * @param value 値
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数(1～8)
+	 * @throws IllegalArgumentException 値が項目のバイト数に収まらない場合
+	 */
+	public static void encodeBinary(long value, byte[] bytes, int offset, int length) {
+		if (length < 8) {
+			long max = (1L << (length * 8 - 1)) - 1;
+			if (value > max || value < -max - 1) {
+				throw new IllegalArgumentException(String.format("The value %d does not fit in %d bytes.", value, length));
+			}
+		}
+
+		long rest = value;
+		for (int i = offset + length - 1; i >= offset; i--) {
+			bytes[i] = (byte) rest;
+			rest >>= 8;
+		}
+	}
+
+	/**
+	 * BigDecimalを指定された小数点以下の桁数のスケールなしの値に変換します。
+	 *
+	 * @param value 値
+	 * @param scale 小数点以下の桁数
+	 * @return スケールなしの値
+	 * @throws IllegalArgumentException 小数点以下の桁数を超える場合
+	 */
+	public static BigInteger unscaled(BigDecimal value, int scale) {
+		try {
+			return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue();
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(String.format("The value %s has more than %d decimal places.", value, scale), e);
+		}
+	}
+
+	/**
+	 * バイト数で配置されたレコード内の数値項目を、格納形式に応じてBigDecimalとして読み込みます。
+	 * 文字の項目が空白のみの場合はnullを返却します。
+	 *
+	 * @param column 項目の配置情報
+	 * @param record レコード
+	 * @param offset レコードの開始位置
+	 * @param calculator レコードの文字セットのバイト数計算処理
+	 * @return 読み込んだ値
+	 * @throws ParseException 数字または符号が不正な場合
+	 */
+	public static BigDecimal decodeColumn(ColumnLayout column, byte[] record, int offset, ByteWidthCalculator calculator) throws ParseException {
+		int start = offset + column.getOffset();
+		int length = column.getLength();
+
+		switch (column.getEncoding()) {
+		case PACKED :
+			return decodePackedDecimal(record, start, length, column.getScale());
+		case ZONED :
+			return decodeZonedDecimal(record, start, length, column.getScale());
+		case BINARY :
+			return BigDecimal.valueOf(decodeBinary(record, start, length), column.getScale());
+		default:
+			// 符号の位置が指定されていない整数の項目は、先頭の符号を許容します。
+			SignPosition sign = column.isDecimalText() ? column.getSign() : SignPosition.LEADING;
+			CharSequence value = calculator.isAsciiCompatible() ? new AsciiCharSequence().set(record, start, length)
+					: new String(record, start, length, calculator.getCharset());
+			if (isBlank(value, 0, value.length())) {
+				return null;
+			}
+			return parseDecimal(value, 0, value.length(), sign, column.getScale());
+		}
+	}
+
+	/**
+	 * 文字の範囲が空白のみかどうかを返却します。
+	 *
+	 * @param str 文字列
+	 * @param beginIndex 開始インデックス(この値を含む)
+	 * @param endIndex 終了インデックス(この値を含まない)
+	 * @return 空白のみ、または空の場合true
+	 */
+	public static boolean isBlank(CharSequence str, int beginIndex, int endIndex) {
+		for (int i = beginIndex; i < endIndex; i++) {
+			if (str.charAt(i) != ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 暗黙の小数点を持つ文字の数値項目を、スケールなしの値として読み込みます。
+	 * 前後の空白は無視します。
+	 *
+	 * @param str 文字列
+	 * @param beginIndex 開始インデックス(この値を含む)
+	 * @param endIndex 終了インデックス(この値を含まない)
+	 * @param sign 符号の位置
+	 * @return スケールなしの値
+	 * @throws ParseException 数字または符号が不正な場合、longの範囲を超える場合
+	 */
+	public static long parseUnscaled(CharSequence str, int beginIndex, int endIndex, SignPosition sign) throws ParseException {
+		return parseText(str, beginIndex, endIndex, sign, null);
+	}
+
+	/**
+	 * ASCII文字で格納された暗黙の小数点を持つ数値項目を、バイト配列から直接スケールなしの値として読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @param sign 符号の位置
+	 * @return スケールなしの値
+	 * @throws ParseException 数字または符号が不正な場合、longの範囲を超える場合
+	 */
+	public static long parseUnscaled(byte[] bytes, int offset, int length, SignPosition sign) throws ParseException {
+		return parseText(new AsciiCharSequence().set(bytes, offset, length), 0, length, sign, null);
+	}
+
+	/**
+	 * ASCII文字で格納された暗黙の小数点を持つ数値項目を、バイト配列から直接BigDecimalとして読み込みます。
+	 *
+	 * @param bytes レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目のバイト数
+	 * @param sign 符号の位置
+	 * @param scale 小数点以下の桁数
+	 * @return 読み込んだ値
+	 * @throws ParseException 数字または符号が不正な場合
+	 */
+	public static BigDecimal parseDecimal(byte[] bytes, int offset, int length, SignPosition sign, int scale) throws ParseException {
+		return parseDecimal(new AsciiCharSequence().set(bytes, offset, length), 0, length, sign, scale);
+	}
+
+	/**
+	 * 暗黙の小数点を持つ文字の数値項目を、BigDecimalとして読み込みます。
+	 * 前後の空白は無視します。
+	 *
+	 * @param str 文字列
+	 * @param beginIndex 開始インデックス(この値を含む)
+	 * @param endIndex 終了インデックス(この値を含まない)
+	 * @param sign 符号の位置
+	 * @param scale 小数点以下の桁数
+	 * @return 読み込んだ値
+	 * @throws ParseException 数字または符号が不正な場合
+	 */
+	public static BigDecimal parseDecimal(CharSequence str, int beginIndex, int endIndex, SignPosition sign, int scale) throws ParseException {
+		if (endIndex - beginIndex <= MAX_LONG_DIGITS) {
+			return BigDecimal.valueOf(parseText(str, beginIndex, endIndex, sign, null), scale);
+		}
+
+		// longに収まらない桁数の場合は、符号と数字のみの配列にして変換します。
+		char[] chars = new char[endIndex - beginIndex + 1];
+		int count = (int) parseText(str, beginIndex, endIndex, sign, chars);
+		return new BigDecimal(chars, 0, count).scaleByPowerOfTen(-scale);
+	}
+
+	/**
+	 * 文字の数値項目を解析します。
+	 *
+	 * @param digits nullの場合はスケールなしの値を返却し、null以外の場合は符号と数字を格納して格納した文字数を返却します。
+	 */
+	private static long parseText(CharSequence str, int beginIndex, int endIndex, SignPosition sign, char[] digits) throws ParseException {
+		int first = beginIndex;
+		int last = endIndex - 1;
+		while (first <= last && str.charAt(first) == ' ') {
+			first++;
+		}
+		while (last >= first && str.charAt(last) == ' ') {
+			last--;
+		}
+
+		boolean negative = false;
+		switch (sign) {
+		case LEADING :
+			if (first <= last && (str.charAt(first) == '-' || str.charAt(first) == '+')) {
+				negative = str.charAt(first++) == '-';
+			}
+			break;
+		case TRAILING :
+			if (first <= last && (str.charAt(last) == '-' || str.charAt(last) == '+')) {
+				negative = str.charAt(last--) == '-';
+			}
+			break;
+		case LEADING_OVERPUNCH :
+			negative = first <= last && isOverpunchNegative(str.charAt(first));
+			break;
+		case TRAILING_OVERPUNCH :
+			negative = first <= last && isOverpunchNegative(str.charAt(last));
+			break;
+		default:
+			break;
+		}
+		if (first > last) {
+			throw new ParseException("The value has no digits.", beginIndex);
+		}
+
+		if (digits != null) {
+			int count = 0;
+			digits[count++] = negative ? '-' : '+';
+			for (int i = first; i <= last; i++) {
+				digits[count++] = (char) ('0' + textDigit(str, i, first, last, sign));
+			}
+			return count;
+		}
+
+		boolean checked = last - first + 1 > MAX_LONG_DIGITS;
+		long ret = 0;
+		for (int i = first; i <= last; i++) {
+			ret = accumulate(ret, textDigit(str, i, first, last, sign), checked, i);
+		}
+		return negative ? -ret : ret;
+	}
+
+	/**
+	 * スケールなしの値を、暗黙の小数点を持つ文字の数値項目としてASCII文字で書き込みます。
+	 * 数字部分は頭0埋めします。
+	 *
+	 * @param value スケールなしの値
+	 * @param sign 符号の位置
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目の桁数
+	 * @throws IllegalArgumentException 値が項目の桁数に収まらない場合、符号なしの項目に負の値を指定した場合
+	 */
+	public static void formatUnscaled(long value, SignPosition sign, byte[] bytes, int offset, int length) {
+		int digitOffset = sign == SignPosition.LEADING ? offset + 1 : offset;
+		int digitLength = sign == SignPosition.LEADING || sign == SignPosition.TRAILING ? length - 1 : length;
+		if (value < 0 && sign == SignPosition.NONE) {
+			throw new IllegalArgumentException(String.format("The value %d is negative but the column is unsigned.", value));
+		}
+
+		long rest = value;
+		for (int i = digitOffset + digitLength - 1; i >= digitOffset; i--) {
+			bytes[i] = (byte) ('0' + remainder(rest));
+			rest /= 10;
+		}
+		if (rest != 0) {
+			throw new IllegalArgumentException(String.format("The value %d does not fit in %d digits.", value, digitLength));
+		}
+		putSign(value < 0, sign, bytes, offset, length);
+	}
+
+	/**
+	 * BigDecimalを、暗黙の小数点を持つ文字の数値項目としてASCII文字で書き込みます。
+	 * 数字部分は頭0埋めします。
+	 *
+	 * @param value 値
+	 * @param scale 小数点以下の桁数
+	 * @param sign 符号の位置
+	 * @param bytes 書き込み先レコード
+	 * @param offset 項目の開始位置
+	 * @param length 項目の桁数
+	 * @throws IllegalArgumentException 値が項目の桁数に収まらない場合、小数点以下の桁数を超える場合、符号なしの項目に負の値を指定した場合
+	 */
+	public static void formatDecimal(BigDecimal value, int scale, SignPosition sign, byte[] bytes, int offset, int length) {
+		BigInteger unscaled = unscaled(value, scale);
+		if (unscaled.bitLength() < Long.SIZE) {
+			formatUnscaled(unscaled.longValue(), sign, bytes, offset, length);
+			return;
+		}
+		if (unscaled.signum() < 0 && sign == SignPosition.NONE) {
+			throw new IllegalArgumentException(String.format("The value %s is negative but the column is unsigned.", value));
+		}
+
+		int digitOffset = sign == SignPosition.LEADING ? offset + 1 : offset;
+		int digitLength = sign == SignPosition.LEADING || sign == SignPosition.TRAILING ? length - 1 : length;
+		char[] digits = digits(unscaled, digitLength);
+		for (int i = 0; i < digitLength; i++) {
+			bytes[digitOffset + i] = (byte) digits[i];
+		}
+		putSign(unscaled.signum() < 0, sign, bytes, offset, length);
+	}
+
+	private static void putSign(boolean negative, SignPosition sign, byte[] bytes, int offset, int length) {
+		int last = offset + length - 1;
+		switch (sign) {
+		case LEADING :
+			bytes[offset] = (byte) (negative ? '-' : '+');
+			break;
+		case TRAILING :
+			bytes[last] = (byte) (negative ? '-' : '+');
+			break;
+		case LEADING_OVERPUNCH :
+			bytes[offset] = (byte) overpunch(bytes[offset] - '0', negative);
+			break;
+		case TRAILING_OVERPUNCH :
+			bytes[last] = (byte) overpunch(bytes[last] - '0', negative);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static char overpunch(int digit, boolean negative) {
+		if (digit == 0) {
+			return negative ? '}' : '{';
+		}
+		return (char) ((negative ? 'J' : 'A') + digit - 1);
+	}
+
+	private static boolean isOverpunchNegative(char c) {
+		return c == '}' || (c >= 'J' && c <= 'R');
+	}
+
+	private static int textDigit(CharSequence str, int index, int first, int last, SignPosition sign) throws ParseException {
+		char c = str.charAt(index);
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if ((sign == SignPosition.LEADING_OVERPUNCH && index == first) || (sign == SignPosition.TRAILING_OVERPUNCH && index == last)) {
+			if (c == '{' || c == '}') {
+				return 0;
+			} else if (c >= 'A' && c <= 'I') {
+				return c - 'A' + 1;
+			} else if (c >= 'J' && c <= 'R') {
+				return c - 'J' + 1;
+			}
+		}
+		throw new ParseException(String.format("Invalid character %s.", c), index);
+	}
+
+	private static int digit(int nibble, int offset) throws ParseException {
+		if (nibble > 9) {
+			throw new ParseException(String.format("Invalid digit 0x%X.", nibble), offset);
+		}
+		return nibble;
+	}
+
+	private static long accumulate(long value, int digit, boolean checked, int offset) throws ParseException {
+		if (checked && value > (Long.MAX_VALUE - digit) / 10) {
+			throw new ParseException("The value is out of range of long.", offset);
+		}
+		return value * 10 + digit;
+	}
+
+	private static boolean isPackedNegative(byte last, int offset) throws ParseException {
+		int sign = last & 0x0F;
+		if (sign == 0x0D || sign == 0x0B) {
+			return true;
+		} else if (sign < 0x0A) {
+			throw new ParseException(String.format("Invalid sign 0x%X.", sign), offset);
+		}
+		return false;
+	}
+
+	private static boolean isZonedNegative(byte last) {
+		int zone = last >>> 4 & 0x0F;
+		return zone == 0x0D || zone == 0x0B || zone == 0x07;
+	}
+
+	private static int remainder(long value) {
+		return (int) Math.abs(value % 10);
+	}
+
+	private static char[] digits(BigInteger unscaled, int length) {
+		String str = unscaled.abs().toString();
+		if (str.length() > length) {
+			throw new IllegalArgumentException(String.format("The value %s does not fit in %d digits.", unscaled, length));
+		}
+		char[] ret = new char[length];
+		int pad = length - str.length();
+		for (int i = 0; i < length; i++) {
+			ret[i] = i < pad ? '0' : str.charAt(i - pad);
+		}
+		return ret;
+	}
+}
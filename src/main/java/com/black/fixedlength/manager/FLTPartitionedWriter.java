@@ -0,0 +1,439 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * エンティティを複数の固定長ファイルに振り分けて書き込みます。<p>
+ * 振り分けキーごとにファイルを作成し、レコード件数またはバイト数の上限を超える場合は、次の連番のファイルに切り替えます。
+ * 振り分けキーごとに書き込み先とバッファを持ち、異なる振り分けキーへの書き込みは複数スレッドから同時に行うことができます。
+ * 同時に開くファイル数が上限を超える場合は、最も長く使用されていないファイルを一旦閉じ、次の書き込み時に追記で開き直します。
+ * 書き込みに失敗した場合、{@link #abort()}で中止された場合は、{@link #close()}で書き込み途中のファイルにトレーラレコードを出力しません。
+ *
+ * @param <T> エンティティの型
+ */
+public class FLTPartitionedWriter<T> implements AutoCloseable {
+
+	private final FLTConfig conf;
+	private final ByteWidthCalculator calculator;
+
+	/**
+	 * エンティティから振り分けキーを求める処理
+	 */
+	private final Function<? super T, String> partitioner;
+
+	/**
+	 * 振り分けキーと連番(0から開始)から出力先ファイルパスを求める処理
+	 */
+	private final BiFunction<String, Integer, Path> pathResolver;
+
+	/**
+	 * 1ファイルあたりの最大レコード件数(0以下の場合は上限なし)
+	 */
+	private long maxRecords;
+
+	/**
+	 * 1ファイルあたりの最大バイト数(0以下の場合は上限なし)
+	 */
+	private long maxBytes;
+
+	/**
+	 * 同時に開くファイルの最大数(初期値：64)
+	 */
+	private int maxOpenFiles = 64;
+
+	/**
+	 * ファイルごとに出力するトレーラレコードの管理項目
+	 */
+	private FLTControlTotals controlTotals;
+
+	/**
+	 * 改行コードのバイト数
+	 */
+	private final int separatorSize;
+
+	private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+	/**
+	 * 開いているファイル(最も長く使用されていない順)
+	 */
+	private final LinkedHashMap<Partition, Boolean> openPartitions = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final List<Path> files = Collections.synchronizedList(new ArrayList<Path>());
+	private volatile boolean closed = false;
+
+	/**
+	 * 書き込みに失敗したか、中止されたかどうか(書き込み途中のファイルにトレーラレコードを出力しません)
+	 */
+	private volatile boolean failed = false;
+
+	/**
+	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param partitioner エンティティから振り分けキーを求める処理(nullの場合は振り分けなし)
+	 * @param pathResolver 振り分けキーと連番(0から開始)から出力先ファイルパスを求める処理
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTPartitionedWriter(FLTConfig conf, Function<? super T, String> partitioner, BiFunction<String, Integer, Path> pathResolver)
+			throws UnsupportedEncodingException {
+		if (conf == null || pathResolver == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.conf = conf;
+		this.calculator = conf.getByteWidthCalculator();
+		this.partitioner = partitioner;
+		this.pathResolver = pathResolver;
+		this.separatorSize = System.lineSeparator().getBytes(calculator.getCharset()).length;
+	}
+
+	public long getMaxRecords() {
+		return maxRecords;
+	}
+
+	public void setMaxRecords(long maxRecords) {
+		this.maxRecords = maxRecords;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public int getMaxOpenFiles() {
+		return maxOpenFiles;
+	}
+
+	public void setMaxOpenFiles(int maxOpenFiles) {
+		this.maxOpenFiles = Math.max(1, maxOpenFiles);
+	}
+
+	/**
+	 * ファイルごとに出力するトレーラレコードの管理項目を設定します。
+	 * 設定した場合、ファイルを切り替える時と{@link #close()}で、ファイルごとの集計結果を設定したトレーラレコードを出力します。
+	 *
+	 * @param controlTotals トレーラレコードの管理項目
+	 * @throws IllegalStateException 書き込みを開始した後に設定した場合
+	 */
+	public void setControlTotals(FLTControlTotals controlTotals) {
+		if (!partitions.isEmpty()) {
+			throw new IllegalStateException("it is already started writing.");
+		}
+		this.controlTotals = controlTotals;
+	}
+
+	/**
+	 * 指定されたエンティティを、振り分けキーに対応するファイルに書き込みます。
+	 *
+	 * @param entity 固定長として出力するエンティティクラス
+	 * @throws IOException 入出力でエラーが発生した場合
+	 * @throws IllegalAccessException エンティティのクラスが対応していない場合
+	 */
+	public void write(T entity) throws IOException, IllegalAccessException {
+		if (entity == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		boolean completed = false;
+		try {
+			String key = partitioner == null ? "" : partitioner.apply(entity);
+			if (key == null) {
+				throw new IllegalArgumentException("The partition key is null.");
+			}
+
+			Partition partition = partitions.computeIfAbsent(key, Partition::new);
+			synchronized (partition) {
+				if (closed) {
+					throw new IllegalStateException("it is already closed.");
+				}
+				partition.write(entity);
+			}
+			closeIdlePartitions();
+			completed = true;
+		} finally {
+			if (!completed) {
+				failed = true;
+			}
+		}
+	}
+
+	/**
+	 * 書き込みを中止します。<p>
+	 * 中止した場合、{@link #close()}で書き込み途中のファイルにトレーラレコードを出力しません。
+	 * 上限を超えて切り替えたファイルには、切り替え時にトレーラレコードを出力済みです。
+	 * 書き込み以外の処理でエラーが発生した場合に、途中までのファイルが完了したものとして扱われないように呼び出してください。
+	 * {@link #write(Object)}でエラーが発生した場合は、自動で中止されます。
+	 */
+	public void abort() {
+		this.failed = true;
+	}
+
+	/**
+	 * これまでに作成したファイルパスを作成順に返却します。
+	 *
+	 * @return ファイルパスのリスト
+	 */
+	public List<Path> getFiles() {
+		synchronized (files) {
+			return new ArrayList<>(files);
+		}
+	}
+
+	/**
+	 * 開いているすべてのファイルのバッファリングされている内容を書き込みます。
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public void flush() throws IOException {
+		for (Partition partition : partitions.values()) {
+			synchronized (partition) {
+				if (partition.writer != null) {
+					partition.writer.flush();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 書き込み後の終了処理です。
+	 * トレーラレコードの管理項目が設定されている場合は、各ファイルにトレーラレコードを書き込みます。
+	 * 書き込みに失敗した場合、{@link #abort()}で中止された場合は、トレーラレコードを書き込まずにファイルを閉じます。
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+
+		IOException error = null;
+		for (Partition partition : partitions.values()) {
+			synchronized (partition) {
+				try {
+					if (failed) {
+						partition.release();
+					} else {
+						partition.finish();
+					}
+				} catch (IOException e) {
+					if (error == null) {
+						error = e;
+					} else {
+						error.addSuppressed(e);
+					}
+				}
+			}
+		}
+		synchronized (openPartitions) {
+			openPartitions.clear();
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * 同時に開くファイルの最大数を超えている場合、最も長く使用されていないファイルを閉じます。
+	 * デッドロックを避けるため、書き込み中の振り分けキーのロックを解放してから行います。
+	 */
+	private void closeIdlePartitions() throws IOException {
+		while (true) {
+			Partition eldest;
+			synchronized (openPartitions) {
+				if (openPartitions.size() <= maxOpenFiles) {
+					return;
+				}
+				Iterator<Partition> it = openPartitions.keySet().iterator();
+				eldest = it.next();
+				it.remove();
+			}
+
+			synchronized (eldest) {
+				// ロックを取得するまでに再度使用された場合は閉じません。
+				boolean reused;
+				synchronized (openPartitions) {
+					reused = openPartitions.containsKey(eldest);
+				}
+				if (!reused) {
+					eldest.suspend();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 1つの振り分けキーの書き込み先です。
+	 */
+	private final class Partition {
+		private final String key;
+		private final FLTAnnotationManager annotationManager = new FLTAnnotationManager();
+		private byte[] record = new byte[0];
+
+		private FLTWriter writer;
+		private Path path;
+		private int sequence = 0;
+
+		/**
+		 * 現在のファイルに書き込んだレコード件数とバイト数
+		 */
+		private long records;
+		private long bytes;
+
+		private FLTControlTotals.Accumulator accumulator;
+
+		Partition(String key) {
+			this.key = key;
+		}
+
+		void write(T entity) throws IOException, IllegalAccessException {
+			RecordLayout layout = FLTAnnotationManager.getEntityLayout(entity);
+			String fixedlength = null;
+			long size;
+			if (conf.getFltType() == FLTType.BYTE) {
+				if (record.length < layout.getRecordSize()) {
+					record = new byte[layout.getRecordSize()];
+				}
+				annotationManager.convertToRecord(conf, entity, record);
+				size = layout.getRecordSize() + separatorSize;
+			} else {
+				fixedlength = annotationManager.convertToFixedlength(conf, entity);
+				size = calculator.byteLength(fixedlength) + separatorSize;
+			}
+
+			if (path != null && records > 0 && isFull(size)) {
+				finish();
+				sequence++;
+			}
+			open();
+
+			if (fixedlength == null) {
+				writer.writeRecord(record, 0, layout.getRecordSize());
+			} else {
+				writer.write(fixedlength, layout.getRecordSize());
+			}
+			records++;
+			bytes += size;
+
+			if (accumulator != null && controlTotals.isData(entity)) {
+				accumulator.add(entity);
+			}
+		}
+
+		/**
+		 * 指定されたバイト数のレコードを書き込むと上限を超えるかどうかを返却します。
+		 */
+		private boolean isFull(long size) {
+			if (maxRecords > 0 && records >= maxRecords) {
+				return true;
+			}
+			long reserved = controlTotals == null ? 0 : controlTotals.getTrailerLayout().getRecordSize() + separatorSize;
+			return maxBytes > 0 && bytes + size + reserved > maxBytes;
+		}
+
+		/**
+		 * 書き込み先を開きます。閉じられていたファイルは追記で開き直します。
+		 */
+		private void open() throws IOException {
+			if (writer == null) {
+				OpenOption[] options;
+				if (path == null) {
+					path = pathResolver.apply(key, sequence);
+					files.add(path);
+					accumulator = controlTotals == null ? null : controlTotals.newAccumulator();
+					options = conf.isAppend()
+							? new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND }
+							: new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING };
+				} else {
+					options = new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND };
+				}
+
+				OutputStream output = Files.newOutputStream(path, options);
+				writer = new FLTWriter(conf, output);
+			}
+			synchronized (openPartitions) {
+				openPartitions.put(this, Boolean.TRUE);
+			}
+		}
+
+		/**
+		 * ファイルを一旦閉じます。ファイルの状態は保持します。
+		 */
+		void suspend() throws IOException {
+			if (writer != null) {
+				FLTWriter current = writer;
+				writer = null;
+				current.close();
+			}
+		}
+
+		/**
+		 * トレーラレコードを書き込まずに、現在のファイルを閉じます。
+		 */
+		void release() throws IOException {
+			synchronized (openPartitions) {
+				openPartitions.remove(this);
+			}
+			path = null;
+			accumulator = null;
+			suspend();
+		}
+
+		/**
+		 * トレーラレコードを書き込み、現在のファイルを終了します。
+		 */
+		void finish() throws IOException {
+			if (path == null) {
+				return;
+			}
+
+			try {
+				if (accumulator != null) {
+					open();
+					Object trailer = controlTotals.newTrailer();
+					accumulator.fill(trailer);
+					RecordLayout layout = controlTotals.getTrailerLayout();
+					if (conf.getFltType() == FLTType.BYTE) {
+						// 切り替え時は次のファイルのレコードが変換済みのため、別の領域に変換します。
+						byte[] trailerRecord = new byte[layout.getRecordSize()];
+						annotationManager.convertToRecord(conf, trailer, trailerRecord);
+						writer.writeRecord(trailerRecord, 0, trailerRecord.length);
+					} else {
+						writer.write(annotationManager.convertToFixedlength(conf, trailer), layout.getRecordSize());
+					}
+				}
+			} catch (InstantiationException | IllegalAccessException e) {
+				throw new FixedLengthFormatException("Failed to write the trailer.", e);
+			} finally {
+				synchronized (openPartitions) {
+					openPartitions.remove(this);
+				}
+				path = null;
+				records = 0;
+				bytes = 0;
+				accumulator = null;
+				suspend();
+			}
+		}
+	}
+}
@@ -4,12 +4,17 @@ import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
 import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.type.FLTType;
 
 /**
  * 固定長ファイルを読み込む処理を提供します。
@@ -21,6 +26,27 @@ public class FLTReader implements AutoCloseable {
 
 	private BufferedReader reader;
 
+	/**
+	 * バイト数の場合の読み込み元ストリーム
+	 */
+	private InputStream input;
+	private Charset charset;
+	private byte[] buffer;
+	private int position;
+	private int limit;
+	private byte[] record;
+
+	/**
+	 * 文字セットでエンコードした改行コード
+	 */
+	private int cr = '\r';
+	private int lf = '\n';
+
+	/**
+	 * レコード内の改行コードを検査しないかどうかです。
+	 */
+	private boolean binary;
+
 	/**
 	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
 	 *
@@ -39,9 +65,27 @@ public class FLTReader implements AutoCloseable {
 		this.recordSize = recordSize;
 
 		FileInputStream input = new FileInputStream(inputPath.toFile());
-		InputStreamReader stream = new InputStreamReader(input,conf.getCharCode());
-		this.reader = new BufferedReader(stream);
+		open(input);
 	}
+
+	/**
+	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param input 読み込み元ストリーム
+	 * @param recordSize レコードサイズ
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTReader(FLTConfig conf, InputStream input, int recordSize) throws UnsupportedEncodingException, IllegalArgumentException {
+		if (conf == null || input == null || recordSize == 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.conf = conf;
+		this.recordSize = recordSize;
+		open(input);
+	}
+
 	/**
 	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
 	 *
@@ -61,6 +105,44 @@ public class FLTReader implements AutoCloseable {
 		this.recordSize = recordSize;
 	}
 
+	/**
+	 * 読み込み形式に応じて読み込み元を準備します。
+	 * バイト数の場合はバイト単位で、文字数の場合は文字単位で読み込みます。
+	 * 先読みのバイト数が設定されている場合は、別スレッドで先読みします。
+	 */
+	private void open(InputStream input) throws UnsupportedEncodingException {
+		if (conf.getReadAheadSize() > 0) {
+			input = new ReadAheadInputStream(input, conf.getReadAheadSize());
+		}
+
+		if (conf.getFltType() == FLTType.BYTE) {
+			this.input = input;
+			this.charset = conf.getByteWidthCalculator().getCharset();
+			this.buffer = new byte[8192];
+			this.record = new byte[recordSize];
+
+			byte[] crBytes = "\r".getBytes(charset);
+			byte[] lfBytes = "\n".getBytes(charset);
+			if (crBytes.length == 1 && lfBytes.length == 1) {
+				this.cr = crBytes[0] & 0xFF;
+				this.lf = lfBytes[0] & 0xFF;
+			}
+		} else {
+			InputStreamReader stream = new InputStreamReader(input,conf.getCharCode());
+			this.reader = new BufferedReader(stream);
+		}
+	}
+
+	/**
+	 * レコード内の改行コードを検査しないかどうかを設定します。<p>
+	 * パック10進数などのバイナリ項目を含むレコードでは、改行コードと同じ値がレコード内に出現するため、
+	 * trueを設定してください。trueの場合、レコードの直後の改行コードのみを読み飛ばし、空行の読み飛ばしは行いません。
+	 *
+	 * @param binary レコード内の改行コードを検査しない場合true
+	 */
+	public void setBinary(boolean binary) {
+		this.binary = binary;
+	}
 
 	/**
 	 * 1行を読み込み返却します。
@@ -71,6 +153,10 @@ public class FLTReader implements AutoCloseable {
 	 * @throws IOException 入出力でエラーが発生した場合
 	 */
 	public String read() throws IOException {
+		if (input != null) {
+			byte[] bytes = readRecord();
+			return bytes == null ? null : new String(bytes, 0, recordSize, charset);
+		}
 		if (reader == null) {
 			throw new IllegalStateException("it is already closed.");
 		}
@@ -98,12 +184,12 @@ public class FLTReader implements AutoCloseable {
 
 		switch (conf.getFltType()) {
 		case BYTE :
-			byte[] byt = str.getBytes(conf.getCharCode());
+			ByteWidthCalculator calculator = conf.getByteWidthCalculator();
 
-			if (byt.length < recordSize) {
+			if (calculator.byteLength(str) < recordSize) {
 				throw new FixedLengthFormatException("The number of bytes in the record is not met.");
 			}
-			ret = new String(str.getBytes(conf.getCharCode()), 0, recordSize, conf.getCharCode());
+			ret = str.substring(0, calculator.charIndex(str, 0, recordSize));
 			break;
 
 		case STRING :
@@ -118,6 +204,117 @@ public class FLTReader implements AutoCloseable {
 		return ret;
 	}
 
+	/**
+	 * 1レコードをバイト配列として読み込み返却します。
+	 * 固定長の読み取り形式がバイト数の場合のみ使用できます。<p>
+	 * 返却される配列は次の読み込みで上書きされます。保持する場合は複製してください。
+	 *
+	 * @return レコードサイズのバイト配列、ストリームの終わりに達している場合はnull
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public byte[] readRecord() throws IOException {
+		if (input == null) {
+			if (conf.getFltType() != FLTType.BYTE) {
+				throw new IllegalStateException("The read type is not BYTE.");
+			}
+			String str = read();
+			return str == null ? null : Arrays.copyOf(str.getBytes(conf.getCharCode()), recordSize);
+		}
+
+		if (!binary && conf.isIgnoreblankLines()) {
+			// 空行を読み飛ばす設定をしていた場合、値が取得できるまで読み込む
+			int c;
+			while ((c = peek()) == cr || c == lf) {
+				position++;
+			}
+		}
+
+		int length = readFully(record, recordSize);
+		if (length == 0) {
+			return null;
+		} else if (length < recordSize) {
+			throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+		}
+
+		if (binary) {
+			skipLineSeparator();
+		} else {
+			for (int i = 0; i < recordSize; i++) {
+				if ((record[i] & 0xFF) == cr || (record[i] & 0xFF) == lf) {
+					throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+				}
+			}
+			// レコードサイズを超える部分は読み飛ばす
+			int c;
+			while ((c = peek()) != -1 && c != cr && c != lf) {
+				position++;
+			}
+			skipLineSeparator();
+		}
+
+		return record;
+	}
+
+	/**
+	 * 読み込み元の文字セットを返却します。
+	 *
+	 * @return 文字セット
+	 */
+	public Charset getCharset() {
+		return charset != null ? charset : Charset.forName(conf.getCharCode());
+	}
+
+	/**
+	 * レコードサイズを返却します。
+	 *
+	 * @return レコードサイズ
+	 */
+	public int getRecordSize() {
+		return recordSize;
+	}
+
+	private void skipLineSeparator() throws IOException {
+		int c = peek();
+		if (c == cr) {
+			position++;
+			c = peek();
+		}
+		if (c == lf) {
+			position++;
+		}
+	}
+
+	private int peek() throws IOException {
+		if (position >= limit && !fill()) {
+			return -1;
+		}
+		return buffer[position] & 0xFF;
+	}
+
+	private int readFully(byte[] dest, int length) throws IOException {
+		int ret = 0;
+		while (ret < length) {
+			if (position >= limit && !fill()) {
+				break;
+			}
+			int count = Math.min(length - ret, limit - position);
+			System.arraycopy(buffer, position, dest, ret, count);
+			position += count;
+			ret += count;
+		}
+		return ret;
+	}
+
+	private boolean fill() throws IOException {
+		if (input == null) {
+			throw new IllegalStateException("it is already closed.");
+		}
+		int count = input.read(buffer, 0, buffer.length);
+		position = 0;
+		limit = Math.max(count, 0);
+		return count > 0;
+	}
+
 	/**
 	 * 読み込み後の終了処理です。
 	 * @throws IOException 入出力でエラーが発生した場合
@@ -128,6 +325,10 @@ public class FLTReader implements AutoCloseable {
 			reader.close();
 			reader = null;
 		}
+		if (input != null) {
+			input.close();
+			input = null;
+		}
 	}
 
 }
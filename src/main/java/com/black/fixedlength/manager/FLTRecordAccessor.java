@@ -0,0 +1,212 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * エンティティを経由せずに、項目の値をレコードに直接書き込み、レコードから直接読み込みます。<p>
+ * 項目の値はエンティティの書き込み、読み込みと同じ変換、パディング、トリミングを行います。
+ * 読み取り形式がバイト数の場合はレコードのバイト配列、文字数の場合は1行の文字列を使用します。
+ * 変換処理は構築時に項目ごとに解決します。スレッドセーフではありません。
+ *
+ */
+public class FLTRecordAccessor {
+
+	private final FLTConfig conf;
+	private final RecordLayout layout;
+	private final ByteWidthCalculator calculator;
+	private final Charset charset;
+	private final boolean byteMode;
+
+	/**
+	 * 項目ごとに解決した変換処理(数値項目の要素はnull)
+	 */
+	private final ColumnBinding[] bindings;
+
+	/**
+	 * 文字の数値項目の変換に使用する作業領域
+	 */
+	private final AsciiCharSequence ascii = new AsciiCharSequence();
+	private byte[] scratch = new byte[32];
+
+	/**
+	 * 指定された配置情報の項目を読み書きするコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout レコードの配置情報
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IllegalArgumentException 文字数の読み取り形式でバイナリ項目を含む場合、項目の型に対応する変換処理が存在しない場合
+	 */
+	public FLTRecordAccessor(FLTConfig conf, RecordLayout layout) throws UnsupportedEncodingException {
+		if (conf == null || layout == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.byteMode = conf.getFltType() == FLTType.BYTE;
+		if (layout.isBinary() && !byteMode) {
+			throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+		}
+
+		this.conf = conf;
+		this.layout = layout;
+		this.calculator = conf.getByteWidthCalculator();
+		this.charset = calculator.getCharset();
+
+		this.bindings = new ColumnBinding[layout.getColumnCount()];
+		for (int i = 0; i < bindings.length; i++) {
+			ColumnLayout column = layout.getColumn(i);
+			if (!column.isBinary() && !column.isDecimalText()) {
+				bindings[i] = ColumnBinding.of(column, conf);
+			}
+		}
+	}
+
+	/**
+	 * レコードの配置情報を返却します。
+	 *
+	 * @return 配置情報
+	 */
+	public RecordLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * 指定された値を、レコードの項目の位置に書き込みます。
+	 * 固定長の読み取り形式がバイト数の場合に使用します。
+	 *
+	 * @param index 項目のインデックス(レコード内の出現順)
+	 * @param value 項目の型の値
+	 * @param record 書き込み先のレコード(レコードサイズ以上)
+	 * @throws IllegalArgumentException 値がnullの場合、変換に失敗した場合
+	 * @throws IOException 項目のバイト数が一致しない場合
+	 * @throws IllegalStateException 読み取り形式がバイト数でない場合
+	 */
+	public void encode(int index, Object value, byte[] record) throws IOException {
+		checkType(true);
+		ColumnLayout column = layout.getColumn(index);
+		checkValue(column, value);
+
+		if (column.isBinary() || (column.isDecimalText() && calculator.isAsciiCompatible())) {
+			FLTAnnotationManager.putNumber(column, value, record, column.getOffset(), calculator.isEbcdic());
+		} else if (column.isDecimalText()) {
+			// ASCII互換でない文字セットの場合は、ASCII文字で作成してからエンコードします。
+			byte[] digits = getScratch(column.getLength());
+			FLTAnnotationManager.putNumber(column, value, digits, 0, false);
+			FLTAnnotationManager.encodeText(calculator, column, new String(digits, 0, column.getLength(), StandardCharsets.ISO_8859_1), record, column.getOffset());
+		} else {
+			String text = FLTAnnotationManager.padColumn(conf, bindings[index], bindings[index].encode(value, conf));
+			FLTAnnotationManager.encodeText(calculator, column, text, record, column.getOffset());
+		}
+	}
+
+	/**
+	 * 指定された値を、パディングした項目の文字列として行の末尾に追加します。
+	 * 固定長の読み取り形式が文字数の場合に、項目の出現順に呼び出して1行を作成します。
+	 *
+	 * @param index 項目のインデックス(レコード内の出現順)
+	 * @param value 項目の型の値
+	 * @param line 作成中の行
+	 * @throws IllegalArgumentException 値がnullの場合、変換に失敗した場合
+	 * @throws IOException 指定された文字セットがサポートされていない場合
+	 * @throws IllegalStateException 読み取り形式が文字数でない場合
+	 */
+	public void append(int index, Object value, StringBuilder line) throws IOException {
+		checkType(false);
+		ColumnLayout column = layout.getColumn(index);
+		checkValue(column, value);
+
+		if (column.isDecimalText()) {
+			byte[] digits = getScratch(column.getLength());
+			FLTAnnotationManager.putNumber(column, value, digits, 0, false);
+			for (int i = 0; i < column.getLength(); i++) {
+				line.append((char) digits[i]);
+			}
+			return;
+		}
+		line.append(FLTAnnotationManager.padColumn(conf, bindings[index], bindings[index].encode(value, conf)));
+	}
+
+	/**
+	 * レコードの項目の位置から、項目の型の値を読み込みます。
+	 * 固定長の読み取り形式がバイト数の場合に使用します。
+	 *
+	 * @param index 項目のインデックス(レコード内の出現順)
+	 * @param record 読み込んだレコード
+	 * @return 項目の型の値
+	 * @throws ParseException 値の型変換に失敗した場合
+	 * @throws IllegalStateException 読み取り形式がバイト数でない場合
+	 */
+	public Object decode(int index, byte[] record) throws ParseException {
+		checkType(true);
+		ColumnLayout column = layout.getColumn(index);
+		if (column.isBinary()) {
+			return FLTAnnotationManager.decodeNumber(column, record, column.getOffset());
+		} else if (column.isDecimalText()) {
+			if (calculator.isAsciiCompatible()) {
+				return FLTAnnotationManager.decodeDecimal(column, ascii.set(record, column.getOffset(), column.getLength()), 0, column.getLength());
+			}
+			String value = new String(record, column.getOffset(), column.getLength(), charset);
+			return FLTAnnotationManager.decodeDecimal(column, value, 0, value.length());
+		}
+
+		String value = new String(record, column.getOffset(), column.getLength(), charset);
+		return bindings[index].decode(bindings[index].trim(value, conf), conf);
+	}
+
+	/**
+	 * 1行の文字列の項目の位置から、項目の型の値を読み込みます。
+	 * 固定長の読み取り形式が文字数の場合に使用します。
+	 *
+	 * @param index 項目のインデックス(レコード内の出現順)
+	 * @param line 読み込んだ1行(レコードサイズの文字数)
+	 * @return 項目の型の値
+	 * @throws ParseException 値の型変換に失敗した場合
+	 * @throws IllegalStateException 読み取り形式が文字数でない場合
+	 */
+	public Object decode(int index, String line) throws ParseException {
+		checkType(false);
+		ColumnLayout column = layout.getColumn(index);
+		int beginIndex = column.getOffset();
+		int endIndex = beginIndex + column.getLength();
+		if (column.isDecimalText()) {
+			return FLTAnnotationManager.decodeDecimal(column, line, beginIndex, endIndex);
+		}
+		return bindings[index].decode(bindings[index].trim(line.substring(beginIndex, endIndex), conf), conf);
+	}
+
+	/**
+	 * 読み取り形式が、バイト配列と文字列のどちらを使用する形式かを検査します。
+	 */
+	private void checkType(boolean bytes) {
+		if (byteMode != bytes) {
+			throw new IllegalStateException(bytes ? "The read type is not BYTE." : "The read type is not STRING.");
+		}
+	}
+
+	/**
+	 * 書き込む値を検査します。
+	 */
+	private static void checkValue(ColumnLayout column, Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException(String.format("The value of column %s is null.", column.getName()));
+		}
+	}
+
+	/**
+	 * 作業用のバイト配列を返却します。
+	 */
+	private byte[] getScratch(int length) {
+		if (scratch.length < length) {
+			scratch = new byte[length];
+		}
+		return scratch;
+	}
+}
@@ -0,0 +1,55 @@
+package com.black.fixedlength.manager;
+
+/**
+ * エンティティに変換する前のレコード(バイト配列)を判定する条件です。<p>
+ * {@link FLTEntityReader#setFilter(FLTRecordFilter)}で設定し、条件に一致しないデータレコードは変換せずに読み飛ばします。
+ * 判定するバイト配列は読み込み処理で再利用されるため、判定後に保持しないでください。
+ *
+ * @see FLTRecordFilters
+ */
+@FunctionalInterface
+public interface FLTRecordFilter {
+
+	/**
+	 * レコードが条件に一致するかどうかを返却します。
+	 *
+	 * @param record レコード(先頭がレコードの開始位置)
+	 * @return 条件に一致する場合true
+	 */
+	boolean test(byte[] record);
+
+	/**
+	 * この条件と指定された条件の両方に一致する条件を返却します。
+	 *
+	 * @param other 条件
+	 * @return 両方に一致する場合にtrueとなる条件
+	 */
+	default FLTRecordFilter and(FLTRecordFilter other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return record -> test(record) && other.test(record);
+	}
+
+	/**
+	 * この条件と指定された条件のいずれかに一致する条件を返却します。
+	 *
+	 * @param other 条件
+	 * @return いずれかに一致する場合にtrueとなる条件
+	 */
+	default FLTRecordFilter or(FLTRecordFilter other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return record -> test(record) || other.test(record);
+	}
+
+	/**
+	 * この条件を否定した条件を返却します。
+	 *
+	 * @return この条件に一致しない場合にtrueとなる条件
+	 */
+	default FLTRecordFilter negate() {
+		return record -> !test(record);
+	}
+}
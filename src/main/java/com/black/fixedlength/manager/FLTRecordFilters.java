@@ -0,0 +1,389 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * データレコードの項目に対する{@link FLTRecordFilter}を生成します。<p>
+ * 条件の値は、エンティティの書き込みと同じ変換でバイト列に変換しておき、
+ * レコード内の項目のバイト列と直接比較します。そのため、判定にエンティティの生成、項目の変換は不要です。
+ * 文字の項目はバイト列の並び(符号なし)で比較するため、範囲の条件は、
+ * ゼロ埋めした0以上の数値、日付(yyyyMMddなど)、左詰めの文字列で使用してください。
+ * 数値項目(パック10進数、ゾーン10進数、バイナリ、符号や小数点以下の桁数を指定した文字の項目)は、
+ * 項目のみをスケールなしの値(long)として読み込んで比較し、オブジェクトは生成しません。
+ * 等しい値の条件では、パック10進数、ゾーン10進数は数字のバイトを比較し、一致した場合のみ読み込みます。バイナリはバイト列を比較します。
+ * 18桁を超える数値項目のみ、BigDecimalとして読み込んで比較します。
+ * 固定長の読み取り形式がバイト数の場合のみ使用できます。
+ *
+ */
+public class FLTRecordFilters {
+
+	private final FLTConfig conf;
+	private final RecordLayout layout;
+	private final ByteWidthCalculator calculator;
+
+	/**
+	 * スレッドごとの文字の数値項目の参照(判定は複数のスレッドから呼び出されることがあるため)
+	 */
+	private final ThreadLocal<AsciiCharSequence> ascii = ThreadLocal.withInitial(AsciiCharSequence::new);
+
+	/**
+	 * 指定されたクラスの配置情報で条件を生成するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz データレコードのクラス
+	 * @throws IOException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTRecordFilters(FLTConfig conf, Class<?> clazz) throws IOException {
+		this(conf, FLTAnnotationManager.getLayout(clazz));
+	}
+
+	/**
+	 * 指定されたレコード定義で条件を生成するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param schema データレコードのレコード定義
+	 * @throws IOException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTRecordFilters(FLTConfig conf, RecordSchema schema) throws IOException {
+		this(conf, schema.getLayout());
+	}
+
+	private FLTRecordFilters(FLTConfig conf, RecordLayout layout) throws IOException {
+		if (conf == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (conf.getFltType() != FLTType.BYTE) {
+			throw new IllegalArgumentException("The record filter requires the read type BYTE.");
+		}
+		this.conf = conf;
+		this.layout = layout;
+		this.calculator = conf.getByteWidthCalculator();
+	}
+
+	/**
+	 * 項目の値が指定された値と等しいレコードに一致する条件を返却します。
+	 *
+	 * @param column 項目名
+	 * @param value 項目の型の値
+	 * @return 条件
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合、値の型が項目の型と一致しない場合
+	 * @throws IOException 値を項目のバイト数に変換できない場合
+	 */
+	public FLTRecordFilter equalTo(String column, Object value) throws IOException {
+		ColumnLayout target = getColumn(column);
+		if (isNumeric(target) && !isLong(target)) {
+			BigDecimal number = toNumber(target, value);
+			return record -> {
+				BigDecimal decoded = decode(target, record);
+				return decoded != null && decoded.compareTo(number) == 0;
+			};
+		}
+
+		byte[] bytes = encode(target, value);
+		int offset = target.getOffset();
+		if (!isNumeric(target) || target.getEncoding() == ColumnEncoding.BINARY) {
+			return record -> compare(record, offset, bytes) == 0;
+		} else if (target.getEncoding() == ColumnEncoding.TEXT) {
+			long number = toUnscaled(target, bytes);
+			return unscaled(target, decoded -> decoded == number);
+		}
+
+		// 符号の表現は複数あるため、数字のバイトが一致した場合のみ値を読み込んで比較します。
+		long number = toUnscaled(target, bytes);
+		boolean packed = target.getEncoding() == ColumnEncoding.PACKED;
+		return record -> equalsDigits(record, offset, bytes, packed) && unscaled(target, record, 0) == number;
+	}
+
+	/**
+	 * 項目の値が指定された文字列で始まるレコードに一致する条件を返却します。
+	 * 文字の項目(数値項目以外)のみ指定できます。
+	 * EBCDICの2バイト文字を含む場合は、シフトコードがあるため項目を文字列に変換して比較します。
+	 *
+	 * @param column 項目名
+	 * @param prefix 先頭の文字列
+	 * @return 条件
+	 * @throws IllegalArgumentException 存在しない項目名、数値項目が指定された場合、文字列が項目のバイト数を超える場合
+	 */
+	public FLTRecordFilter prefix(String column, String prefix) {
+		ColumnLayout target = getColumn(column);
+		if (prefix == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (isNumeric(target)) {
+			throw new IllegalArgumentException(String.format("The column %s is not a character column.", column));
+		}
+
+		Charset charset = calculator.getCharset();
+		byte[] bytes = prefix.getBytes(charset);
+		if (bytes.length > target.getLength()) {
+			throw new IllegalArgumentException(String.format("The prefix %s is longer than column %s.", prefix, column));
+		}
+		int offset = target.getOffset();
+		if (calculator.isEbcdic() && !ByteWidthCalculator.isAscii(prefix, 0, prefix.length())) {
+			return record -> new String(record, offset, target.getLength(), charset).startsWith(prefix);
+		}
+		return record -> {
+			for (int i = 0; i < bytes.length; i++) {
+				if (record[offset + i] != bytes[i]) {
+					return false;
+				}
+			}
+			return true;
+		};
+	}
+
+	/**
+	 * 項目の値が指定された範囲(両端を含む)にあるレコードに一致する条件を返却します。
+	 * 文字の項目は、書き込み時のバイト列の並びで比較します。
+	 *
+	 * @param column 項目名
+	 * @param low 下限値(nullの場合は下限なし)
+	 * @param high 上限値(nullの場合は上限なし)
+	 * @return 条件
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合、値の型が項目の型と一致しない場合
+	 * @throws IOException 値を項目のバイト数に変換できない場合
+	 */
+	public FLTRecordFilter between(String column, Object low, Object high) throws IOException {
+		ColumnLayout target = getColumn(column);
+		if (isNumeric(target) && isLong(target)) {
+			long min = low == null ? Long.MIN_VALUE : toUnscaled(target, encode(target, low));
+			long max = high == null ? Long.MAX_VALUE : toUnscaled(target, encode(target, high));
+			return unscaled(target, decoded -> decoded >= min && decoded <= max);
+		} else if (isNumeric(target)) {
+			BigDecimal min = low == null ? null : toNumber(target, low);
+			BigDecimal max = high == null ? null : toNumber(target, high);
+			return record -> {
+				BigDecimal decoded = decode(target, record);
+				return decoded != null && (min == null || decoded.compareTo(min) >= 0)
+						&& (max == null || decoded.compareTo(max) <= 0);
+			};
+		}
+
+		byte[] min = low == null ? null : encode(target, low);
+		byte[] max = high == null ? null : encode(target, high);
+		int offset = target.getOffset();
+		return record -> (min == null || compare(record, offset, min) >= 0)
+				&& (max == null || compare(record, offset, max) <= 0);
+	}
+
+	/**
+	 * 項目の値が指定された値のいずれかと等しいレコードに一致する条件を返却します。
+	 * 値は並べ替えて保持し、二分探索で判定します。
+	 *
+	 * @param column 項目名
+	 * @param values 項目の型の値
+	 * @return 条件
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合、値の型が項目の型と一致しない場合
+	 * @throws IOException 値を項目のバイト数に変換できない場合
+	 */
+	public FLTRecordFilter in(String column, Object... values) throws IOException {
+		ColumnLayout target = getColumn(column);
+		if (values == null || values.length == 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		if (isNumeric(target) && isLong(target)) {
+			long[] numbers = new long[values.length];
+			for (int i = 0; i < values.length; i++) {
+				numbers[i] = toUnscaled(target, encode(target, values[i]));
+			}
+			Arrays.sort(numbers);
+			return unscaled(target, decoded -> Arrays.binarySearch(numbers, decoded) >= 0);
+		} else if (isNumeric(target)) {
+			BigDecimal[] numbers = new BigDecimal[values.length];
+			for (int i = 0; i < values.length; i++) {
+				numbers[i] = toNumber(target, values[i]);
+			}
+			Arrays.sort(numbers);
+			return record -> {
+				BigDecimal decoded = decode(target, record);
+				return decoded != null && Arrays.binarySearch(numbers, decoded) >= 0;
+			};
+		}
+
+		byte[][] keys = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			keys[i] = encode(target, values[i]);
+		}
+		Arrays.sort(keys, (o1, o2) -> compare(o1, 0, o2));
+		int offset = target.getOffset();
+		return record -> {
+			int low = 0;
+			int high = keys.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int cmp = compare(record, offset, keys[mid]);
+				if (cmp == 0) {
+					return true;
+				} else if (cmp < 0) {
+					high = mid - 1;
+				} else {
+					low = mid + 1;
+				}
+			}
+			return false;
+		};
+	}
+
+	private ColumnLayout getColumn(String name) {
+		ColumnLayout ret = name == null ? null : layout.getColumn(name);
+		if (ret == null) {
+			throw new IllegalArgumentException(String.format("Unknown column %s.", name));
+		}
+		return ret;
+	}
+
+	private static boolean isNumeric(ColumnLayout column) {
+		return column.isBinary() || column.isDecimalText();
+	}
+
+	/**
+	 * 数値項目の値が、スケールなしの値(long)に収まる桁数かどうかを返却します。
+	 */
+	private static boolean isLong(ColumnLayout column) {
+		switch (column.getEncoding()) {
+		case BINARY :
+			return true;
+		case PACKED :
+			return FLTNumberCodec.packedDigits(column.getLength()) <= FLTNumberCodec.MAX_LONG_DIGITS;
+		default:
+			return column.getLength() <= FLTNumberCodec.MAX_LONG_DIGITS;
+		}
+	}
+
+	/**
+	 * 項目をスケールなしの値として読み込み、判定する条件を返却します。空白のみの値は一致しません。
+	 */
+	private FLTRecordFilter unscaled(ColumnLayout column, LongPredicate test) {
+		if (column.getEncoding() != ColumnEncoding.TEXT) {
+			return record -> test.test(unscaled(column, record, 0));
+		}
+		return record -> !isBlank(column, record) && test.test(unscaled(column, record, 0));
+	}
+
+	/**
+	 * 変換済みのバイト列を、スケールなしの値として読み込みます。
+	 */
+	private long toUnscaled(ColumnLayout column, byte[] bytes) {
+		return unscaled(column, bytes, -column.getOffset());
+	}
+
+	/**
+	 * 項目をスケールなしの値として読み込みます。
+	 */
+	private long unscaled(ColumnLayout column, byte[] record, int base) {
+		int offset = base + column.getOffset();
+		int length = column.getLength();
+		try {
+			switch (column.getEncoding()) {
+			case PACKED :
+				return FLTNumberCodec.decodePacked(record, offset, length);
+			case ZONED :
+				return FLTNumberCodec.decodeZoned(record, offset, length);
+			case BINARY :
+				return FLTNumberCodec.decodeBinary(record, offset, length);
+			default:
+				if (calculator.isAsciiCompatible()) {
+					return FLTNumberCodec.parseUnscaled(ascii.get().set(record, offset, length), 0, length, column.getSign());
+				}
+				String value = new String(record, offset, length, calculator.getCharset());
+				return FLTNumberCodec.parseUnscaled(value, 0, value.length(), column.getSign());
+			}
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(String.format("Invalid value of column %s.", column.getName()), e);
+		}
+	}
+
+	private boolean isBlank(ColumnLayout column, byte[] record) {
+		return isBlank(column, record, 0);
+	}
+
+	/**
+	 * 文字の数値項目が空白のみかどうかを返却します。
+	 */
+	private boolean isBlank(ColumnLayout column, byte[] record, int base) {
+		int offset = base + column.getOffset();
+		if (calculator.isAsciiCompatible()) {
+			for (int i = offset; i < offset + column.getLength(); i++) {
+				if (record[i] != ' ') {
+					return false;
+				}
+			}
+			return true;
+		}
+		String value = new String(record, offset, column.getLength(), calculator.getCharset());
+		return FLTNumberCodec.isBlank(value, 0, value.length());
+	}
+
+	/**
+	 * パック10進数、ゾーン10進数の項目の数字のバイトが、変換済みのバイト列と一致するかどうかを返却します。
+	 * パック10進数は符号の半バイト、ゾーン10進数はゾーンの半バイトを除いて比較します。
+	 */
+	private static boolean equalsDigits(byte[] record, int offset, byte[] bytes, boolean packed) {
+		int last = bytes.length - 1;
+		for (int i = 0; i < last; i++) {
+			if (packed ? record[offset + i] != bytes[i] : ((record[offset + i] ^ bytes[i]) & 0x0F) != 0) {
+				return false;
+			}
+		}
+		return ((record[offset + last] ^ bytes[last]) & (packed ? 0xF0 : 0x0F)) == 0;
+	}
+
+	/**
+	 * 値を項目に書き込まれるバイト列に変換します。
+	 */
+	private byte[] encode(ColumnLayout column, Object value) throws IOException {
+		if (value == null || !column.isAssignable(value)) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for column %s of type %s.", value, column.getName(), column.getType().getName()));
+		}
+		return FLTAnnotationManager.encodeColumn(conf, column, value);
+	}
+
+	/**
+	 * 値を書き込み時と同じ変換(小数点以下の桁数を含む)で数値に変換します。
+	 */
+	private BigDecimal toNumber(ColumnLayout column, Object value) throws IOException {
+		BigDecimal ret = decode(column, encode(column, value), -column.getOffset());
+		if (ret == null) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for column %s of type %s.", value, column.getName(), column.getType().getName()));
+		}
+		return ret;
+	}
+
+	private BigDecimal decode(ColumnLayout column, byte[] record) {
+		return decode(column, record, 0);
+	}
+
+	private BigDecimal decode(ColumnLayout column, byte[] record, int offset) {
+		try {
+			return FLTNumberCodec.decodeColumn(column, record, offset, calculator);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(String.format("Invalid value of column %s.", column.getName()), e);
+		}
+	}
+
+	/**
+	 * レコード内の項目のバイト列と、変換済みのバイト列を符号なしで比較します。
+	 */
+	private static int compare(byte[] record, int offset, byte[] bytes) {
+		for (int i = 0; i < bytes.length; i++) {
+			int b1 = record[offset + i] & 0xFF;
+			int b2 = bytes[i] & 0xFF;
+			if (b1 != b2) {
+				return b1 - b2;
+			}
+		}
+		return 0;
+	}
+}
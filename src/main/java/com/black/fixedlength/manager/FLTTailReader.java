@@ -0,0 +1,557 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.GenericRecord;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.layout.RecordSchema;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * 追記され続ける固定長ファイルを、ファイルを開いたまま追跡して読み込みます。<p>
+ * 前回の読み込み位置以降に追記されたバイトのみを読み込み、改行コードまで揃った完全なレコードのみを返却します。
+ * バイナリ項目を含む場合は、レコードサイズのバイトが揃った時点で返却し、直後の改行コードは存在する場合のみ読み飛ばします({@link FLTReader}と同様)。
+ * 書き込み途中のレコードは、残りが追記されるまで保留します。
+ * 追記の検出には{@link WatchService}を使用し、通知されない環境(ネットワーク上のファイルなど)のため、
+ * 追記がない間は間隔を広げながら(最小間隔から最大間隔まで倍増)ファイルの大きさを確認します。<p>
+ * ファイルが別のファイルに置き換えられた場合(ローテーション)は、元のファイルの残りを読み込んだ後、新しいファイルを先頭から読み込みます。
+ * ファイルの識別子({@link BasicFileAttributes#fileKey()})を取得できない環境(Windowsなど)では、
+ * 作成日時と先頭のレコードのバイトが変わった場合に置き換えられたと判定します。
+ * 作成日時が引き継がれ、先頭のレコードが同じ内容のファイルへの置き換えは検出できないため、その場合は切り詰めとして扱われます。
+ * ファイルが切り詰められた場合は、先頭から読み込み直します。
+ * レコード判定文字が一致しないレコード(ヘッダ、トレーラレコード)は読み飛ばします。
+ *
+ * @param <T> データレコードの型
+ */
+public class FLTTailReader<T> implements AutoCloseable {
+
+	private final FLTConfig conf;
+	private final Path path;
+	private final RecordLayout layout;
+	private final FLTAnnotationManager annotationManager = new FLTAnnotationManager();
+
+	private final boolean byteMode;
+	private final Charset charset;
+	private final byte[] recordCode;
+	private final int recordSize;
+
+	/**
+	 * 文字セットでエンコードした改行コード
+	 */
+	private int cr = '\r';
+	private int lf = '\n';
+
+	/**
+	 * 追記を待つ間隔(ミリ秒)の最小値、最大値
+	 */
+	private long minInterval = 10;
+	private long maxInterval = 1000;
+
+	private FileChannel channel;
+
+	/**
+	 * 読み込み中のファイルの識別子(取得できない場合はnull)
+	 */
+	private Object fileKey;
+
+	/**
+	 * 識別子を取得できない場合の、置き換えの判定に使用するファイルの作成日時と先頭のバイト
+	 */
+	private FileTime creationTime;
+	private byte[] head;
+
+	/**
+	 * ファイルから次に読み込む位置
+	 */
+	private long readPosition;
+
+	/**
+	 * 読み込み済みで、まだレコードとして返却していないバイト
+	 */
+	private byte[] buffer = new byte[65536];
+	private int start;
+	private int end;
+
+	/**
+	 * バイナリ項目を含む場合に、次に読み飛ばす改行コード(0:なし、1:CRまたはLF、2:LF)
+	 */
+	private int separator;
+
+	private final WatchService watchService;
+	private volatile boolean closed = false;
+
+	/**
+	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
+	 * ファイルが存在しない場合は、作成されるまで待機します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param path 読み込み先ファイルパス
+	 * @param clazz データレコード格納先クラス
+	 * @throws IOException ファイルを開けない場合、指定された文字セットがサポートされていない場合
+	 */
+	public FLTTailReader(FLTConfig conf, Path path, Class<T> clazz) throws IOException {
+		this(conf, path, FLTAnnotationManager.getLayout(clazz));
+	}
+
+	private FLTTailReader(FLTConfig conf, Path path, RecordLayout layout) throws IOException {
+		if (conf == null || path == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.conf = conf;
+		this.path = path.toAbsolutePath();
+		this.layout = layout;
+		this.byteMode = conf.getFltType() == FLTType.BYTE;
+		if (layout.isBinary() && !byteMode) {
+			throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+		}
+		this.charset = conf.getByteWidthCalculator().getCharset();
+		this.recordCode = layout.getRecordCodeNum() == null ? new byte[0] : layout.getRecordCodeNum().getBytes(charset);
+		this.recordSize = layout.getRecordSize();
+
+		byte[] crBytes = "\r".getBytes(charset);
+		byte[] lfBytes = "\n".getBytes(charset);
+		if (crBytes.length == 1 && lfBytes.length == 1) {
+			this.cr = crBytes[0] & 0xFF;
+			this.lf = lfBytes[0] & 0xFF;
+		}
+
+		this.watchService = newWatchService(this.path);
+		open();
+	}
+
+	/**
+	 * 指定されたレコード定義で読み込むインスタンスを構築します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param path 読み込み先ファイルパス
+	 * @param schema データレコードのレコード定義
+	 * @return {@link GenericRecord}を返却するインスタンス
+	 * @throws IOException ファイルを開けない場合、指定された文字セットがサポートされていない場合
+	 */
+	public static FLTTailReader<GenericRecord> forSchema(FLTConfig conf, Path path, RecordSchema schema) throws IOException {
+		if (schema == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return new FLTTailReader<>(conf, path, schema.getLayout());
+	}
+
+	/**
+	 * ファイルを格納するディレクトリの変更の通知を登録します。
+	 * 通知を使用できない場合はnullを返却し、間隔を空けた確認のみを行います。
+	 */
+	private static WatchService newWatchService(Path path) {
+		Path dir = path.getParent();
+		if (dir == null) {
+			return null;
+		}
+		WatchService ret = null;
+		try {
+			ret = dir.getFileSystem().newWatchService();
+			dir.register(ret, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			return ret;
+		} catch (IOException | UnsupportedOperationException e) {
+			if (ret != null) {
+				try {
+					ret.close();
+				} catch (IOException ignore) {
+					// 通知を使用しないため、クローズのエラーは無視します。
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * 追記を待つ間隔を設定します(初期値：10ミリ秒～1000ミリ秒)。
+	 * 追記がない間は最小間隔から最大間隔まで間隔を倍増し、追記を検出すると最小間隔に戻します。
+	 *
+	 * @param minInterval 最小間隔(ミリ秒)
+	 * @param maxInterval 最大間隔(ミリ秒)
+	 */
+	public void setPollInterval(long minInterval, long maxInterval) {
+		if (minInterval <= 0 || maxInterval < minInterval) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.minInterval = minInterval;
+		this.maxInterval = maxInterval;
+	}
+
+	/**
+	 * 最後に返却したレコードの直後のファイル内の位置を返却します。
+	 * 処理済みの位置として保存し、{@link #setPosition(long)}で再開できます。
+	 *
+	 * @return ファイル先頭からのバイト数
+	 */
+	public long getPosition() {
+		return readPosition - (end - start);
+	}
+
+	/**
+	 * 次に読み込むファイル内の位置を設定します。
+	 * レコードの先頭(前回の{@link #getPosition()}の値)を指定してください。
+	 *
+	 * @param position ファイル先頭からのバイト数
+	 */
+	public void setPosition(long position) {
+		if (position < 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.readPosition = position;
+		this.start = 0;
+		this.end = 0;
+		// レコードの直後から再開する場合は、改行コードが続くことがあります。
+		this.separator = layout.isBinary() && position > 0 ? 1 : 0;
+	}
+
+	/**
+	 * 追記された完全なレコードを1件読み込み返却します。待機はしません。
+	 *
+	 * @return データレコード、完全なレコードが追記されていない場合はnull
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	public T poll() throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		if (closed) {
+			throw new IllegalStateException("it is already closed.");
+		}
+
+		while (true) {
+			int length = nextRecord();
+			if (length < 0) {
+				if (fill() || rotate()) {
+					continue;
+				}
+				return null;
+			}
+
+			int offset = start;
+			start += length;
+			if (length == 0 || !startsWith(offset)) {
+				// 空行、ヘッダ、トレーラレコードは読み飛ばします。
+				continue;
+			}
+			return (T) convert(offset);
+		}
+	}
+
+	/**
+	 * 追記された完全なレコードを1件読み込み返却します。
+	 * 完全なレコードが追記されていない場合は、追記されるまで最大で指定された時間待機します。
+	 *
+	 * @param timeout 最大待機時間
+	 * @param unit 最大待機時間の単位
+	 * @return データレコード、待機時間内に追記されなかった場合、またはクローズされた場合はnull
+	 * @throws IOException 入出力でエラーが発生した場合、レコードのバイト数が一致しない場合
+	 * @throws InstantiationException インスタンスの生成に失敗した場合
+	 * @throws IllegalAccessException 項目に値を設定できない場合
+	 * @throws ParseException 値の型変換に失敗した場合
+	 * @throws InterruptedException 待機中に割り込まれた場合
+	 */
+	public T take(long timeout, TimeUnit unit) throws IOException, InstantiationException, IllegalAccessException, ParseException, InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		long interval = minInterval;
+		while (!closed) {
+			T ret = poll();
+			if (ret != null) {
+				return ret;
+			}
+
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining <= 0) {
+				return null;
+			}
+			await(Math.min(interval, remaining));
+			interval = Math.min(interval * 2, maxInterval);
+		}
+		return null;
+	}
+
+	/**
+	 * ディレクトリの変更が通知されるか、指定された時間が経過するまで待機します。
+	 */
+	private void await(long millis) throws InterruptedException {
+		if (watchService == null) {
+			Thread.sleep(millis);
+			return;
+		}
+		try {
+			WatchKey key = watchService.poll(millis, TimeUnit.MILLISECONDS);
+			if (key != null) {
+				key.pollEvents();
+				key.reset();
+			}
+		} catch (ClosedWatchServiceException e) {
+			// 別のスレッドでクローズされた場合は待機を終了します。
+		}
+	}
+
+	/**
+	 * バッファ内の次のレコード(改行コードを含む)のバイト数を返却します。
+	 * レコードのバイト数の確認は{@link #convert(int)}で行います。
+	 *
+	 * @return 完全なレコードのバイト数、改行コードまで揃っていない場合は-1
+	 */
+	private int nextRecord() throws FixedLengthFormatException {
+		if (layout.isBinary()) {
+			// バイナリ項目は改行コードと同じ値を含むため、レコードサイズで区切り、直後の改行コードは次の読み込みで読み飛ばします。
+			if (!skipSeparator() || end - start < recordSize) {
+				return -1;
+			}
+			separator = 1;
+			return recordSize;
+		}
+
+		int i = start;
+		while (i < end && (buffer[i] & 0xFF) != cr && (buffer[i] & 0xFF) != lf) {
+			i++;
+		}
+		if (i < end && (buffer[i] & 0xFF) == cr) {
+			i++;
+		}
+		if (i >= end) {
+			return -1;
+		} else if ((buffer[i] & 0xFF) != lf) {
+			throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+		}
+		return i + 1 - start;
+	}
+
+	/**
+	 * 前のレコードの直後の改行コードを、存在する場合のみ読み飛ばします。
+	 *
+	 * @return 改行コードの有無を判定できた場合true、判定にバイトの追記が必要な場合false
+	 */
+	private boolean skipSeparator() {
+		if (separator == 1) {
+			if (start >= end) {
+				return false;
+			}
+			int c = buffer[start] & 0xFF;
+			if (c == cr) {
+				start++;
+				separator = 2;
+			} else {
+				if (c == lf) {
+					start++;
+				}
+				separator = 0;
+			}
+		}
+		if (separator == 2) {
+			if (start >= end) {
+				return false;
+			}
+			if ((buffer[start] & 0xFF) == lf) {
+				start++;
+			}
+			separator = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * 改行コードを含む長さが指定されたレコードが、データレコードかどうかを返却します。
+	 */
+	private boolean startsWith(int offset) {
+		if (isLineSeparator(offset)) {
+			return false;
+		}
+		for (int i = 0; i < recordCode.length; i++) {
+			if (offset + i >= end || buffer[offset + i] != recordCode[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isLineSeparator(int offset) {
+		int c = buffer[offset] & 0xFF;
+		return !layout.isBinary() && (c == cr || c == lf);
+	}
+
+	/**
+	 * 指定された位置のレコードをエンティティに変換します。
+	 */
+	private Object convert(int offset) throws IOException, InstantiationException, IllegalAccessException, ParseException {
+		int length = 0;
+		while (offset + length < start && (layout.isBinary() ? length < recordSize
+				: (buffer[offset + length] & 0xFF) != cr && (buffer[offset + length] & 0xFF) != lf)) {
+			length++;
+		}
+
+		if (byteMode) {
+			if (length < recordSize) {
+				throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+			}
+			return annotationManager.convertToEntity(conf, layout, Arrays.copyOfRange(buffer, offset, offset + recordSize));
+		}
+
+		String str = new String(buffer, offset, length, charset);
+		if (str.length() < recordSize) {
+			throw new FixedLengthFormatException("The number of characters in the record is not satisfied.");
+		}
+		return annotationManager.convertToEntity(conf, layout, str.substring(0, recordSize));
+	}
+
+	/**
+	 * ファイルから追記されたバイトをバッファに読み込みます。
+	 *
+	 * @return 1バイト以上読み込んだ場合true
+	 */
+	private boolean fill() throws IOException {
+		if (channel == null) {
+			return false;
+		}
+		if (start > 0) {
+			System.arraycopy(buffer, start, buffer, 0, end - start);
+			end -= start;
+			start = 0;
+		}
+		if (end == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+
+		int count = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end), readPosition);
+		if (count <= 0) {
+			return false;
+		}
+		end += count;
+		readPosition += count;
+		return true;
+	}
+
+	/**
+	 * ファイルの置き換え、切り詰めを確認し、必要な場合は開き直します。
+	 * 現在のファイルの終わりまで読み込んだ後に呼び出します。
+	 *
+	 * @return 開き直した場合true
+	 */
+	private boolean rotate() throws IOException {
+		if (channel == null) {
+			return open();
+		}
+
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			// 削除されたファイルは、新しいファイルが作成されるまで読み込み済みとして扱います。
+			return false;
+		}
+
+		Object key = attributes.fileKey();
+		if (key != null && fileKey != null ? !key.equals(fileKey) : isReplaced(attributes)) {
+			// 書き込み途中で置き換えられたレコードは破棄します。
+			channel.close();
+			channel = null;
+			setPosition(0);
+			return open();
+		} else if (channel.size() < readPosition) {
+			setPosition(0);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * ファイルを開きます。
+	 *
+	 * @return ファイルが存在し、開いた場合true
+	 */
+	private boolean open() throws IOException {
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		fileKey = attributes.fileKey();
+		creationTime = attributes.creationTime();
+		head = null;
+		if (fileKey == null) {
+			head = readHead(channel);
+		}
+		return true;
+	}
+
+	/**
+	 * 識別子を取得できない場合に、作成日時と先頭のバイトでファイルが置き換えられたかどうかを判定します。
+	 * 判定できた先頭のバイトは、次回の判定のために保持します。
+	 */
+	private boolean isReplaced(BasicFileAttributes attributes) throws IOException {
+		if (creationTime != null && !creationTime.equals(attributes.creationTime())) {
+			return true;
+		}
+
+		byte[] current;
+		try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+			current = readHead(file);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		int length = Math.min(head.length, current.length);
+		for (int i = 0; i < length; i++) {
+			if (head[i] != current[i]) {
+				return true;
+			}
+		}
+		if (current.length > head.length) {
+			head = current;
+		}
+		return false;
+	}
+
+	/**
+	 * ファイルの先頭から、レコードサイズまでのバイトを読み込みます。
+	 */
+	private byte[] readHead(FileChannel file) throws IOException {
+		ByteBuffer ret = ByteBuffer.allocate(recordSize);
+		while (ret.hasRemaining()) {
+			if (file.read(ret, ret.position()) <= 0) {
+				break;
+			}
+		}
+		return Arrays.copyOf(ret.array(), ret.position());
+	}
+
+	/**
+	 * 読み込み後の終了処理です。
+	 * 別のスレッドで{@link #take(long, TimeUnit)}が待機している場合は、待機を終了します。
+	 *
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		try {
+			if (watchService != null) {
+				watchService.close();
+			}
+		} finally {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+}
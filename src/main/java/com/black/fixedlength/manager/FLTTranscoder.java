@@ -0,0 +1,382 @@
+package com.black.fixedlength.manager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * 固定長ファイルを、別の文字セット、読み取り形式の固定長ファイルに変換します。<p>
+ * レコードの配置情報に従って項目ごとに文字列を取り出し、読み込み側の設定でトリミングした後、
+ * 書き込み側の設定でパディングし直して出力します。エンティティへの変換は行わず、
+ * 指定された件数ごとに複数のスレッドで変換し、読み込み順に出力します。
+ * 使用するメモリは、変換中のレコード(件数×並列数×2)分です。<p>
+ * レコードはレコード判定文字で配置情報を選択します。ヘッダ、トレーラレコードを変換する場合は、
+ * それぞれの配置情報をデータレコードより前に指定してください。配置情報のレコードサイズは同じである必要があります。
+ * 文字の数値項目はそのまま、バイナリ項目はバイトのまま(ゾーン10進数はゾーン部を書き込み側の文字セットに合わせて)出力します。
+ *
+ */
+public class FLTTranscoder {
+
+	private final FLTConfig sourceConf;
+	private final FLTConfig targetConf;
+	private final Layout[] layouts;
+	private final int recordSize;
+	private final boolean binary;
+
+	private final ByteWidthCalculator sourceCalculator;
+	private final ByteWidthCalculator targetCalculator;
+
+	/**
+	 * 1回の変換処理で変換するレコード件数(初期値：4096)
+	 */
+	private int chunkRecords = 4096;
+
+	/**
+	 * 並列数(初期値：利用可能なプロセッサ数)
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 指定されたクラスの配置情報で変換するコンストラクタです。
+	 *
+	 * @param sourceConf 読み込み側の固定長形式情報
+	 * @param targetConf 書き込み側の固定長形式情報
+	 * @param recordClasses レコードのクラス(レコード判定文字を検査する順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTTranscoder(FLTConfig sourceConf, FLTConfig targetConf, Class<?>... recordClasses) throws UnsupportedEncodingException {
+		this(sourceConf, targetConf, getLayouts(recordClasses));
+	}
+
+	/**
+	 * 指定された配置情報で変換するコンストラクタです。
+	 *
+	 * @param sourceConf 読み込み側の固定長形式情報
+	 * @param targetConf 書き込み側の固定長形式情報
+	 * @param layouts レコードの配置情報(レコード判定文字を検査する順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IllegalArgumentException レコードサイズが異なる場合、文字数の読み取り形式でバイナリ項目を含む場合
+	 */
+	public FLTTranscoder(FLTConfig sourceConf, FLTConfig targetConf, RecordLayout... layouts) throws UnsupportedEncodingException {
+		if (sourceConf == null || targetConf == null || layouts == null || layouts.length == 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		this.sourceConf = sourceConf;
+		this.targetConf = targetConf;
+		this.sourceCalculator = sourceConf.getByteWidthCalculator();
+		this.targetCalculator = targetConf.getByteWidthCalculator();
+
+		this.recordSize = layouts[0].getRecordSize();
+		boolean binary = false;
+		this.layouts = new Layout[layouts.length];
+		for (int i = 0; i < layouts.length; i++) {
+			if (layouts[i].getRecordSize() != recordSize) {
+				throw new IllegalArgumentException("The record size of all layouts must be the same.");
+			} else if (layouts[i].isBinary()
+					&& (sourceConf.getFltType() != FLTType.BYTE || targetConf.getFltType() != FLTType.BYTE)) {
+				throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+			}
+			binary |= layouts[i].isBinary();
+			this.layouts[i] = new Layout(layouts[i]);
+		}
+		this.binary = binary;
+	}
+
+	private static RecordLayout[] getLayouts(Class<?>[] recordClasses) {
+		if (recordClasses == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		RecordLayout[] ret = new RecordLayout[recordClasses.length];
+		for (int i = 0; i < recordClasses.length; i++) {
+			ret[i] = FLTAnnotationManager.getLayout(recordClasses[i]);
+		}
+		return ret;
+	}
+
+	public int getChunkRecords() {
+		return chunkRecords;
+	}
+
+	public void setChunkRecords(int chunkRecords) {
+		this.chunkRecords = Math.max(1, chunkRecords);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * 指定されたファイルを変換して出力します。
+	 *
+	 * @param inputPath 読み込み先ファイルパス
+	 * @param outputPath 出力先ファイルパス
+	 * @return 変換したレコード件数
+	 * @throws IOException 入出力でエラーが発生した場合、配置情報に一致しないレコードがある場合、項目の変換に失敗した場合
+	 */
+	public long transcode(Path inputPath, Path outputPath) throws IOException {
+		if (inputPath == null || outputPath == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "flt-transcoder");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long count = 0;
+		Deque<Future<Chunk>> pending = new ArrayDeque<>();
+		Deque<Chunk> freeChunks = new ArrayDeque<>();
+		try (FLTReader reader = new FLTReader(sourceConf, inputPath, recordSize);
+				FLTWriter writer = new FLTWriter(targetConf, outputPath)) {
+			reader.setBinary(binary);
+
+			Chunk chunk = null;
+			while (true) {
+				if (chunk == null) {
+					chunk = freeChunks.isEmpty() ? new Chunk() : freeChunks.poll();
+					chunk.first = count + 1;
+					chunk.count = 0;
+				}
+				if (!chunk.read(reader)) {
+					break;
+				}
+				count++;
+				if (chunk.count == chunkRecords) {
+					pending.add(executor.submit(chunk));
+					chunk = null;
+
+					// 変換中のレコードが上限に達した場合は、先頭の変換結果を出力します。
+					while (pending.size() >= parallelism * 2) {
+						freeChunks.add(write(writer, pending.poll().get()));
+					}
+				}
+			}
+			if (chunk.count > 0) {
+				pending.add(executor.submit(chunk));
+			}
+			while (!pending.isEmpty()) {
+				write(writer, pending.poll().get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The transcoding was interrupted.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return count;
+	}
+
+	/**
+	 * 変換済みのレコードを出力します。
+	 */
+	private Chunk write(FLTWriter writer, Chunk chunk) throws IOException {
+		for (int i = 0; i < chunk.count; i++) {
+			if (chunk.targetLines != null) {
+				writer.write(chunk.targetLines[i], recordSize);
+			} else {
+				writer.writeRecord(chunk.targetData, i * recordSize, recordSize);
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * 配置情報と、項目ごとに解決した読み込み側、書き込み側の変換処理です。
+	 */
+	private final class Layout {
+		private final RecordLayout layout;
+		private final String recordCode;
+		private final byte[] recordCodeBytes;
+		private final ColumnBinding[] sourceBindings;
+		private final ColumnBinding[] targetBindings;
+
+		Layout(RecordLayout layout) {
+			this.layout = layout;
+			this.recordCode = layout.getRecordCodeNum() == null ? "" : layout.getRecordCodeNum();
+			this.recordCodeBytes = recordCode.getBytes(sourceCalculator.getCharset());
+			this.sourceBindings = new ColumnBinding[layout.getColumnCount()];
+			this.targetBindings = new ColumnBinding[layout.getColumnCount()];
+			for (int i = 0; i < sourceBindings.length; i++) {
+				ColumnLayout column = layout.getColumn(i);
+				if (!column.isBinary() && !column.isDecimalText()) {
+					sourceBindings[i] = ColumnBinding.of(column, sourceConf);
+					targetBindings[i] = ColumnBinding.of(column, targetConf);
+				}
+			}
+		}
+
+		boolean matches(byte[] record, int offset) {
+			for (int i = 0; i < recordCodeBytes.length; i++) {
+				if (record[offset + i] != recordCodeBytes[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		boolean matches(String line) {
+			return line.startsWith(recordCode);
+		}
+	}
+
+	/**
+	 * まとめて変換するレコードと変換結果です。
+	 * 読み込み形式に応じて、バイト配列または文字列で保持します。
+	 */
+	private final class Chunk implements Callable<Chunk> {
+		private final byte[] sourceData;
+		private final String[] sourceLines;
+		private final byte[] targetData;
+		private final String[] targetLines;
+
+		/**
+		 * 先頭のレコードの番号(1から開始)
+		 */
+		private long first;
+		private int count;
+
+		Chunk() {
+			boolean sourceBytes = sourceConf.getFltType() == FLTType.BYTE;
+			boolean targetBytes = targetConf.getFltType() == FLTType.BYTE;
+			this.sourceData = sourceBytes ? new byte[chunkRecords * recordSize] : null;
+			this.sourceLines = sourceBytes ? null : new String[chunkRecords];
+			this.targetData = targetBytes ? new byte[chunkRecords * recordSize] : null;
+			this.targetLines = targetBytes ? null : new String[chunkRecords];
+		}
+
+		/**
+		 * 1レコードを読み込み、末尾に追加します。
+		 *
+		 * @return ファイルの終わりに達した場合false
+		 */
+		boolean read(FLTReader reader) throws IOException {
+			if (sourceData != null) {
+				byte[] record = reader.readRecord();
+				if (record == null) {
+					return false;
+				}
+				System.arraycopy(record, 0, sourceData, count * recordSize, recordSize);
+			} else {
+				String line = reader.read();
+				if (line == null) {
+					return false;
+				}
+				sourceLines[count] = line;
+			}
+			count++;
+			return true;
+		}
+
+		@Override
+		public Chunk call() throws IOException {
+			StringBuilder line = targetLines != null ? new StringBuilder(recordSize) : null;
+			for (int i = 0; i < count; i++) {
+				int offset = i * recordSize;
+				Layout layout = select(i, offset);
+				if (line != null) {
+					line.setLength(0);
+				}
+
+				try {
+					for (int j = 0; j < layout.sourceBindings.length; j++) {
+						ColumnLayout column = layout.layout.getColumn(j);
+						if (column.isBinary()) {
+							copyNumber(column, offset);
+							continue;
+						}
+
+						String value = getText(column, i, offset);
+						if (!column.isDecimalText()) {
+							value = layout.sourceBindings[j].trim(value, sourceConf);
+							value = FLTAnnotationManager.padColumn(targetConf, layout.targetBindings[j], value);
+						}
+						if (line != null) {
+							line.append(value);
+						} else {
+							FLTAnnotationManager.encodeText(targetCalculator, column, value, targetData, offset + column.getOffset());
+						}
+					}
+				} catch (IOException | RuntimeException | ParseException e) {
+					throw new FixedLengthFormatException(String.format("Failed to transcode the record %d.", first + i), e);
+				}
+
+				if (line != null) {
+					targetLines[i] = line.toString();
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * レコード判定文字が一致する配置情報を返却します。
+		 */
+		private Layout select(int index, int offset) throws FixedLengthFormatException {
+			for (Layout layout : layouts) {
+				if (sourceData != null ? layout.matches(sourceData, offset) : layout.matches(sourceLines[index])) {
+					return layout;
+				}
+			}
+			throw new FixedLengthFormatException(String.format("No layout matches the record %d.", first + index));
+		}
+
+		/**
+		 * 読み込んだレコードから項目の文字列を取り出します。
+		 */
+		private String getText(ColumnLayout column, int index, int offset) {
+			if (sourceLines != null) {
+				return sourceLines[index].substring(column.getOffset(), column.getOffset() + column.getLength());
+			}
+
+			int start = offset + column.getOffset();
+			Charset charset = sourceCalculator.isAsciiCompatible()
+					&& ByteWidthCalculator.isAscii(sourceData, start, column.getLength())
+					? StandardCharsets.ISO_8859_1 : sourceCalculator.getCharset();
+			return new String(sourceData, start, column.getLength(), charset);
+		}
+
+		/**
+		 * バイナリ項目を書き込み側にコピーします。
+		 * ゾーン10進数でEBCDICとASCIIが異なる場合は、数値として読み込んでから書き込みます。
+		 */
+		private void copyNumber(ColumnLayout column, int offset) throws ParseException {
+			if (column.getEncoding() == ColumnEncoding.ZONED && sourceCalculator.isEbcdic() != targetCalculator.isEbcdic()) {
+				BigDecimal value = FLTNumberCodec.decodeColumn(column, sourceData, offset, sourceCalculator);
+				FLTAnnotationManager.putNumber(column, value, targetData, offset + column.getOffset(), targetCalculator.isEbcdic());
+				return;
+			}
+			System.arraycopy(sourceData, offset + column.getOffset(), targetData, offset + column.getOffset(), column.getLength());
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.black.fixedlength.manager;
+
+import java.util.Random;
+
+/**
+ * {@link FLTGenerator}で項目に設定する値を生成します。<p>
+ * 複数のスレッドから同時に呼び出されるため、状態を持たない実装にしてください。
+ * 乱数は引数の乱数生成器のみを使用することで、同じシードで同じ値が生成されます。
+ * 生成した値は項目の型に変換し、文字列は項目の長さに切り詰めて設定します。
+ *
+ * @see FLTValueGenerators
+ */
+@FunctionalInterface
+public interface FLTValueGenerator {
+
+	/**
+	 * 項目の値を生成します。
+	 *
+	 * @param random 乱数生成器
+	 * @param index データレコードの番号(0から開始、ヘッダ、トレーラレコードは-1)
+	 * @return 項目の値
+	 */
+	Object next(Random random, long index);
+}
@@ -0,0 +1,233 @@
+package com.black.fixedlength.manager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * よく使用する分布の{@link FLTValueGenerator}を生成します。<p>
+ * 文字の生成に使用する文字の集合として、英数字、ひらがな、カタカナ、漢字(JIS第1水準の一部)を定義しています。
+ * ひらがな、カタカナ、漢字はShift_JIS、EBCDIC(Cp930など)で2バイトの文字です。
+ *
+ */
+public final class FLTValueGenerators {
+
+	/**
+	 * 英数字
+	 */
+	public static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+	/**
+	 * ひらがな
+	 */
+	public static final String HIRAGANA = range('ぁ', 'ん');
+
+	/**
+	 * カタカナ
+	 */
+	public static final String KATAKANA = range('ァ', 'ヶ');
+
+	/**
+	 * 漢字(JIS第1水準の一部)
+	 */
+	public static final String KANJI = "日本東京大阪名古屋横浜神戸福岡札幌仙台広島京都市区町村県府道都"
+			+ "山川田中村上下本木林森石井小西北南高野原島藤佐伊加松竹梅花鳥風月"
+			+ "一二三四五六七八九十百千万円年月日時分秒金土火水会社員店品番号";
+
+	private FLTValueGenerators() {
+	}
+
+	private static String range(char first, char last) {
+		StringBuilder ret = new StringBuilder(last - first + 1);
+		for (char c = first; c <= last; c++) {
+			ret.append(c);
+		}
+		return ret.toString();
+	}
+
+	/**
+	 * 常に指定された値を返却する生成処理を返却します。
+	 *
+	 * @param value 値
+	 * @return 生成処理
+	 */
+	public static FLTValueGenerator constant(Object value) {
+		return (random, index) -> value;
+	}
+
+	/**
+	 * データレコードの番号に指定された値を加えた値を返却する生成処理を返却します。
+	 * 一意なキーの生成に使用します。
+	 *
+	 * @param start 最初のデータレコードの値
+	 * @return {@link Long}を返却する生成処理
+	 */
+	public static FLTValueGenerator sequence(long start) {
+		return (random, index) -> start + Math.max(index, 0);
+	}
+
+	/**
+	 * 指定された範囲の整数を一様に返却する生成処理を返却します。
+	 *
+	 * @param min 最小値
+	 * @param max 最大値
+	 * @return {@link Long}を返却する生成処理
+	 */
+	public static FLTValueGenerator uniform(long min, long max) {
+		if (max < min) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return (random, index) -> min + nextLong(random, max - min + 1);
+	}
+
+	/**
+	 * 指定された範囲の小数を一様に返却する生成処理を返却します。
+	 * 小数点以下の桁数は、最小値と最大値の桁数の大きい方です。
+	 *
+	 * @param min 最小値
+	 * @param max 最大値
+	 * @return {@link BigDecimal}を返却する生成処理
+	 */
+	public static FLTValueGenerator uniform(BigDecimal min, BigDecimal max) {
+		if (min == null || max == null || max.compareTo(min) < 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		int scale = Math.max(Math.max(min.scale(), max.scale()), 0);
+		long low = min.setScale(scale).unscaledValue().longValueExact();
+		long bound = max.setScale(scale).unscaledValue().longValueExact() - low + 1;
+		return (random, index) -> BigDecimal.valueOf(low + nextLong(random, bound), scale);
+	}
+
+	/**
+	 * 正規分布に従う小数を、指定された範囲に収めて返却する生成処理を返却します。
+	 *
+	 * @param mean 平均
+	 * @param stddev 標準偏差
+	 * @param min 最小値
+	 * @param max 最大値
+	 * @param scale 小数点以下の桁数
+	 * @return {@link BigDecimal}を返却する生成処理
+	 */
+	public static FLTValueGenerator normal(double mean, double stddev, double min, double max, int scale) {
+		if (stddev < 0 || max < min || scale < 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return (random, index) -> {
+			double value = Math.min(Math.max(mean + random.nextGaussian() * stddev, min), max);
+			return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+		};
+	}
+
+	/**
+	 * 指定された期間の日付を一様に返却する生成処理を返却します。
+	 *
+	 * @param from 開始日
+	 * @param to 終了日(この日を含む)
+	 * @return {@link Date}を返却する生成処理
+	 */
+	public static FLTValueGenerator dates(Date from, Date to) {
+		if (from == null || to == null || to.before(from)) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		long start = from.getTime();
+		long days = TimeUnit.MILLISECONDS.toDays(to.getTime() - start) + 1;
+		return (random, index) -> new Date(start + TimeUnit.DAYS.toMillis(nextLong(random, days)));
+	}
+
+	/**
+	 * 指定された値のいずれかを同じ確率で返却する生成処理を返却します。
+	 * レコード区分などの項目に使用します。
+	 *
+	 * @param values 値
+	 * @return 生成処理
+	 */
+	public static FLTValueGenerator choice(Object... values) {
+		if (values == null || values.length == 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		Object[] copy = values.clone();
+		return (random, index) -> copy[random.nextInt(copy.length)];
+	}
+
+	/**
+	 * 指定された値のいずれかを、重みに比例する確率で返却する生成処理を返却します。
+	 *
+	 * @param values 値
+	 * @param weights 値ごとの重み(0以上)
+	 * @return 生成処理
+	 */
+	public static FLTValueGenerator weighted(Object[] values, double[] weights) {
+		if (values == null || weights == null || values.length == 0 || values.length != weights.length) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		Object[] copy = values.clone();
+		double[] cumulative = new double[weights.length];
+		double total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (!(weights[i] >= 0)) {
+				throw new IllegalArgumentException("Invalid argument specified.");
+			}
+			total += weights[i];
+			cumulative[i] = total;
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		double sum = total;
+		return (random, index) -> copy[select(cumulative, random.nextDouble() * sum)];
+	}
+
+	/**
+	 * 指定された文字から、指定された範囲の文字数の文字列を返却する生成処理を返却します。
+	 * 項目のバイト数を超える文字列は、文字の境界で切り詰めて設定されます。
+	 *
+	 * @param characters 使用する文字({@link #ALPHANUMERIC}、{@link #KANJI}など)
+	 * @param minLength 最小文字数
+	 * @param maxLength 最大文字数
+	 * @return {@link String}を返却する生成処理
+	 */
+	public static FLTValueGenerator text(String characters, int minLength, int maxLength) {
+		if (characters == null || characters.isEmpty() || minLength < 0 || maxLength < minLength) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+		return (random, index) -> {
+			int length = minLength + random.nextInt(maxLength - minLength + 1);
+			char[] ret = new char[length];
+			for (int i = 0; i < length; i++) {
+				ret[i] = characters.charAt(random.nextInt(characters.length()));
+			}
+			return new String(ret);
+		};
+	}
+
+	/**
+	 * 累積の重みから、指定された値を含む位置を返却します。
+	 */
+	static int select(double[] cumulative, double value) {
+		for (int i = 0; i < cumulative.length - 1; i++) {
+			if (value < cumulative[i]) {
+				return i;
+			}
+		}
+		return cumulative.length - 1;
+	}
+
+	/**
+	 * 0以上、指定された値未満の整数を一様に返却します。
+	 */
+	static long nextLong(Random random, long bound) {
+		if (bound <= 0) {
+			// 範囲がlongの全体の場合です。
+			return random.nextLong();
+		}
+		long bits;
+		long ret;
+		do {
+			bits = random.nextLong() >>> 1;
+			ret = bits % bound;
+		} while (bits - ret + (bound - 1) < 0);
+		return ret;
+	}
+}
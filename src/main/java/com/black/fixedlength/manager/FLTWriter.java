@@ -1,15 +1,19 @@
 package com.black.fixedlength.manager;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 
 import com.black.fixedlength.FLTConfig;
 import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.type.FLTType;
 
 public class FLTWriter implements AutoCloseable {
 
@@ -17,6 +21,13 @@ public class FLTWriter implements AutoCloseable {
 
 	private BufferedWriter writer;
 
+	/**
+	 * バイト数の場合の書き込み先ストリーム
+	 */
+	private OutputStream output;
+	private Charset charset;
+	private byte[] lineSeparator;
+
 	/**
 	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
 	 *
@@ -33,9 +44,25 @@ public class FLTWriter implements AutoCloseable {
 		this.conf = conf;
 
 		FileOutputStream input = new FileOutputStream(outputPath.toFile());
-		OutputStreamWriter stream = new OutputStreamWriter(input,conf.getCharCode());
-		this.writer = new BufferedWriter(stream);
+		open(input);
+	}
+
+	/**
+	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param output 書き込み先ストリーム
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTWriter(FLTConfig conf, OutputStream output) throws UnsupportedEncodingException {
+		if (conf == null || output == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.conf = conf;
+		open(output);
 	}
+
 	/**
 	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
 	 *
@@ -54,6 +81,21 @@ public class FLTWriter implements AutoCloseable {
 		this.writer = writer;
 	}
 
+	/**
+	 * 読み込み形式に応じて書き込み先を準備します。
+	 * バイト数の場合はバイト単位で、文字数の場合は文字単位で書き込みます。
+	 */
+	private void open(OutputStream output) throws UnsupportedEncodingException {
+		if (conf.getFltType() == FLTType.BYTE) {
+			this.charset = conf.getByteWidthCalculator().getCharset();
+			this.output = new BufferedOutputStream(output, 8192);
+			this.lineSeparator = System.lineSeparator().getBytes(charset);
+		} else {
+			OutputStreamWriter stream = new OutputStreamWriter(output,conf.getCharCode());
+			this.writer = new BufferedWriter(stream);
+		}
+	}
+
 	/**
 	 * 指定された一行を書き込みます。
 	 * 指定されているrecordSizeより数値が一致しない場合はIOExceptionをスローします。
@@ -61,15 +103,21 @@ public class FLTWriter implements AutoCloseable {
 	 * @throws IOException 入出力でエラーが発生した場合
 	 */
 	public void write(String str, int recordSize) throws IOException {
+		if (output != null) {
+			byte[] byt = str.getBytes(charset);
+			if (byt.length != recordSize) {
+				throw new FixedLengthFormatException("The number of bytes in the record is not met.");
+			}
+			writeRecord(byt, 0, byt.length);
+			return;
+		}
 		if (writer == null) {
 			throw new IllegalStateException("it is already closed.");
 		}
 
 		switch (conf.getFltType()) {
 		case BYTE :
-			byte[] byt = str.getBytes(conf.getCharCode());
-
-			if (byt.length != recordSize) {
+			if (conf.getByteWidthCalculator().byteLength(str) != recordSize) {
 				throw new FixedLengthFormatException("The number of bytes in the record is not met.");
 			}
 			break;
@@ -85,6 +133,43 @@ public class FLTWriter implements AutoCloseable {
 		writer.newLine();
 	}
 
+	/**
+	 * 指定されたバイト配列を一行として書き込みます。
+	 * 固定長の読み取り形式がバイト数の場合のみ使用できます。
+	 *
+	 * @param record レコード
+	 * @param offset 開始位置
+	 * @param length バイト数
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public void writeRecord(byte[] record, int offset, int length) throws IOException {
+		if (output == null) {
+			if (writer == null) {
+				throw new IllegalStateException("it is already closed.");
+			} else if (conf.getFltType() != FLTType.BYTE) {
+				throw new IllegalStateException("The write type is not BYTE.");
+			}
+			writer.write(new String(record, offset, length, conf.getCharCode()));
+			writer.newLine();
+			return;
+		}
+
+		output.write(record, offset, length);
+		output.write(lineSeparator);
+	}
+
+	/**
+	 * バッファリングされている内容を書き込みます。
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public void flush() throws IOException {
+		if (output != null) {
+			output.flush();
+		} else if (writer != null) {
+			writer.flush();
+		}
+	}
+
 	/**
 	 * 書き込み後の終了処理です。
 	 * @throws IOException 入出力でエラーが発生した場合
@@ -95,6 +180,10 @@ public class FLTWriter implements AutoCloseable {
 			writer.close();
 			writer = null;
 		}
+		if (output != null) {
+			output.close();
+			output = null;
+		}
 	}
 
 }
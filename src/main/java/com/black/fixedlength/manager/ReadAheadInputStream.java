@@ -0,0 +1,185 @@
+package com.black.fixedlength.manager;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 別スレッドで読み込み元を先読みするストリームです。<p>
+ * 2つのダイレクトバッファを交互に使用し、呼び出し元が一方のバッファを消費している間に、
+ * 先読みスレッドがもう一方のバッファを読み込みます。
+ * 1回の読み込みで大きなバッファを満たすため、読み込みごとの待ち時間が大きい記憶装置で有効です。
+ *
+ */
+class ReadAheadInputStream extends InputStream {
+
+	/**
+	 * 読み込み元の終わり(またはエラー)を表すバッファ
+	 */
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	private final InputStream source;
+	private final ReadableByteChannel channel;
+
+	/**
+	 * 読み込み済みのバッファ、空のバッファ
+	 */
+	private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(3);
+	private final BlockingQueue<ByteBuffer> empty = new ArrayBlockingQueue<>(2);
+
+	private final Thread thread;
+
+	/**
+	 * 消費中のバッファ
+	 */
+	private ByteBuffer current;
+	private boolean endOfStream = false;
+	private boolean closed = false;
+
+	/**
+	 * 先読みスレッドで発生したエラー
+	 */
+	private volatile IOException error;
+
+	/**
+	 * 指定された読み込み元の先読みを開始するコンストラクタです。
+	 *
+	 * @param source 読み込み元ストリーム
+	 * @param bufferSize 1つのバッファのバイト数
+	 */
+	ReadAheadInputStream(InputStream source, int bufferSize) {
+		this.source = source;
+		this.channel = source instanceof FileInputStream ? ((FileInputStream) source).getChannel() : Channels.newChannel(source);
+		empty.add(ByteBuffer.allocateDirect(bufferSize));
+		empty.add(ByteBuffer.allocateDirect(bufferSize));
+
+		this.thread = new Thread(this::fill, "flt-read-ahead");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * 空のバッファを読み込み元の内容で満たし、読み込み済みのバッファとして引き渡します。
+	 * 先読みスレッドで実行します。
+	 */
+	private void fill() {
+		try {
+			while (true) {
+				ByteBuffer buffer = empty.take();
+				buffer.clear();
+
+				int count = 0;
+				while (buffer.hasRemaining() && (count = channel.read(buffer)) >= 0) {
+					// バッファが満たされるか、読み込み元の終わりに達するまで読み込みます。
+				}
+				buffer.flip();
+				if (buffer.hasRemaining()) {
+					filled.put(buffer);
+				}
+				if (count < 0) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			// 終了処理による割り込みです。
+			return;
+		} catch (IOException e) {
+			error = e;
+		}
+		filled.offer(END);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!next()) {
+			return -1;
+		}
+		return current.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (b == null) {
+			throw new NullPointerException();
+		} else if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		} else if (len == 0) {
+			return 0;
+		} else if (!next()) {
+			return -1;
+		}
+
+		int count = Math.min(len, current.remaining());
+		current.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return current != null && current != END ? current.remaining() : 0;
+	}
+
+	/**
+	 * 消費中のバッファに残りがない場合は、次の読み込み済みのバッファに切り替えます。
+	 *
+	 * @return 読み込めるバイトがある場合true、読み込み元の終わりに達した場合false
+	 */
+	private boolean next() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (current != null && current.hasRemaining()) {
+			return true;
+		} else if (endOfStream) {
+			return false;
+		}
+
+		if (current != null) {
+			empty.add(current);
+			current = null;
+		}
+		try {
+			ByteBuffer buffer = filled.take();
+			if (buffer == END) {
+				endOfStream = true;
+				if (error != null) {
+					throw error;
+				}
+				return false;
+			}
+			current = buffer;
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The read-ahead was interrupted.");
+		}
+	}
+
+	/**
+	 * 先読みスレッドを終了し、読み込み元を閉じます。
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		thread.interrupt();
+		try {
+			channel.close();
+			source.close();
+		} finally {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
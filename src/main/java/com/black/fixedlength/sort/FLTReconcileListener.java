@@ -0,0 +1,47 @@
+package com.black.fixedlength.sort;
+
+import java.util.List;
+
+/**
+ * 2つの固定長ファイルの突き合わせ結果を受け取ります。<p>
+ * 引数のレコードは次のレコードの読み込みで上書きされます。保持する場合は複製してください。
+ * 必要な結果のみ実装できるよう、各メソッドは何もしない実装を持ちます。
+ *
+ */
+public interface FLTReconcileListener {
+
+	/**
+	 * キーと比較項目が一致したレコードを通知します。
+	 *
+	 * @param left 左側のファイルのレコード
+	 * @param right 右側のファイルのレコード
+	 */
+	default void matched(byte[] left, byte[] right) {
+	}
+
+	/**
+	 * キーは一致し、比較項目が異なるレコードを通知します。
+	 *
+	 * @param left 左側のファイルのレコード
+	 * @param right 右側のファイルのレコード
+	 * @param columns 値が異なる項目名
+	 */
+	default void changed(byte[] left, byte[] right, List<String> columns) {
+	}
+
+	/**
+	 * 左側のファイルにのみ存在するレコードを通知します。
+	 *
+	 * @param left 左側のファイルのレコード
+	 */
+	default void leftOnly(byte[] left) {
+	}
+
+	/**
+	 * 右側のファイルにのみ存在するレコードを通知します。
+	 *
+	 * @param right 右側のファイルのレコード
+	 */
+	default void rightOnly(byte[] right) {
+	}
+}
@@ -0,0 +1,79 @@
+package com.black.fixedlength.sort;
+
+/**
+ * 2つの固定長ファイルの突き合わせ結果の件数を提供します。
+ *
+ */
+public class FLTReconcileResult {
+
+	private long matchedCount;
+	private long changedCount;
+	private long leftOnlyCount;
+	private long rightOnlyCount;
+
+	void addMatched() {
+		matchedCount++;
+	}
+
+	void addChanged() {
+		changedCount++;
+	}
+
+	void addLeftOnly() {
+		leftOnlyCount++;
+	}
+
+	void addRightOnly() {
+		rightOnlyCount++;
+	}
+
+	/**
+	 * キーと比較項目が一致したレコードの件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public long getMatchedCount() {
+		return matchedCount;
+	}
+
+	/**
+	 * キーは一致し、比較項目が異なるレコードの件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public long getChangedCount() {
+		return changedCount;
+	}
+
+	/**
+	 * 左側のファイルにのみ存在するレコードの件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public long getLeftOnlyCount() {
+		return leftOnlyCount;
+	}
+
+	/**
+	 * 右側のファイルにのみ存在するレコードの件数を返却します。
+	 *
+	 * @return 件数
+	 */
+	public long getRightOnlyCount() {
+		return rightOnlyCount;
+	}
+
+	/**
+	 * 全てのレコードが一致したかどうかを返却します。
+	 *
+	 * @return 変更、片側のみのレコードが存在しない場合true
+	 */
+	public boolean isMatched() {
+		return changedCount == 0 && leftOnlyCount == 0 && rightOnlyCount == 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("matched:%d, changed:%d, leftOnly:%d, rightOnly:%d", matchedCount, changedCount, leftOnlyCount, rightOnlyCount);
+	}
+}
@@ -0,0 +1,304 @@
+package com.black.fixedlength.sort;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.exception.FixedLengthFormatException;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.manager.FLTAnnotationManager;
+import com.black.fixedlength.manager.FLTReader;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * キー項目で並べ替えられた2つの固定長ファイルを突き合わせます。<p>
+ * 2つのファイルを先頭から同時に読み進める突き合わせ(マージジョイン)を行うため、
+ * ファイルの大きさによらず、使用するメモリはレコード数件分です。
+ * キーが一致したレコードは比較項目を比較し、一致、変更(異なる項目名)を通知します。
+ * キーが一致しないレコードは、左側のみ、右側のみとして通知します。<p>
+ * 桁数、格納形式が同じ項目はバイトのまま比較し、異なる項目は{@link FLTRecordComparator}と同様に比較します。
+ * 同じキーのレコードが複数ある場合は、出現順に1件ずつ対応付けます。
+ * レコード判定文字が一致しないレコード(ヘッダ、トレーラレコード)は対象外です。
+ * 固定長の読み取り形式がバイト数の場合のみ使用できます。
+ *
+ */
+public class FLTReconciler {
+
+	private final FLTConfig conf;
+	private final RecordLayout leftLayout;
+	private final RecordLayout rightLayout;
+	private final String[] keyColumns;
+
+	/**
+	 * 左右のレコードのキーの比較
+	 */
+	private final FLTRecordComparator comparator;
+
+	/**
+	 * 並び順の検査に使用する、左右それぞれのキーの比較
+	 */
+	private final FLTRecordComparator leftComparator;
+	private final FLTRecordComparator rightComparator;
+
+	/**
+	 * 比較項目
+	 */
+	private ColumnLayout[] leftColumns;
+	private ColumnLayout[] rightColumns;
+
+	/**
+	 * キー項目の並び順を検査するかどうかです。
+	 */
+	private boolean checkOrder = true;
+
+	/**
+	 * 指定されたクラスの配置情報で突き合わせるコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param leftClazz 左側のファイルのデータレコードのクラス
+	 * @param rightClazz 右側のファイルのデータレコードのクラス
+	 * @param keyColumns キー項目名(並び順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTReconciler(FLTConfig conf, Class<?> leftClazz, Class<?> rightClazz, String... keyColumns) throws UnsupportedEncodingException {
+		this(conf, FLTAnnotationManager.getLayout(leftClazz), FLTAnnotationManager.getLayout(rightClazz), keyColumns);
+	}
+
+	/**
+	 * 指定された配置情報で突き合わせるコンストラクタです。
+	 * 比較項目は、左右の配置情報に同じ項目名で存在するキー項目以外の項目です。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param leftLayout 左側のファイルのデータレコードの配置情報
+	 * @param rightLayout 右側のファイルのデータレコードの配置情報
+	 * @param keyColumns キー項目名(並び順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTReconciler(FLTConfig conf, RecordLayout leftLayout, RecordLayout rightLayout, String... keyColumns) throws UnsupportedEncodingException {
+		if (conf == null || leftLayout == null || rightLayout == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		} else if (conf.getFltType() != FLTType.BYTE) {
+			throw new IllegalArgumentException("The reconciliation requires the read type BYTE.");
+		}
+		this.conf = conf;
+		this.leftLayout = leftLayout;
+		this.rightLayout = rightLayout;
+		this.comparator = new FLTRecordComparator(conf, leftLayout, rightLayout, keyColumns);
+		this.leftComparator = new FLTRecordComparator(conf, leftLayout, keyColumns);
+		this.rightComparator = new FLTRecordComparator(conf, rightLayout, keyColumns);
+		this.keyColumns = keyColumns.clone();
+
+		List<String> names = new ArrayList<>();
+		for (ColumnLayout column : leftLayout.getColumns()) {
+			if (rightLayout.getColumn(column.getName()) != null && !Arrays.asList(keyColumns).contains(column.getName())) {
+				names.add(column.getName());
+			}
+		}
+		setCompareColumns(names.toArray(new String[names.size()]));
+	}
+
+	/**
+	 * 比較項目を指定します。項目名は左右の配置情報に存在する必要があります。
+	 *
+	 * @param columns 比較項目名
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合、文字と数値の項目を比較する場合
+	 */
+	public void setCompareColumns(String... columns) {
+		if (columns == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		ColumnLayout[] left = new ColumnLayout[columns.length];
+		ColumnLayout[] right = new ColumnLayout[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			left[i] = leftLayout.getColumn(columns[i]);
+			right[i] = rightLayout.getColumn(columns[i]);
+			if (left[i] == null || right[i] == null) {
+				throw new IllegalArgumentException(String.format("Unknown column %s.", columns[i]));
+			} else if (!FLTRecordComparator.isComparable(left[i], right[i])) {
+				throw new IllegalArgumentException(String.format("The column %s can not be compared as characters and numbers.", columns[i]));
+			}
+		}
+		this.leftColumns = left;
+		this.rightColumns = right;
+	}
+
+	public String[] getKeyColumns() {
+		return keyColumns.clone();
+	}
+
+	public boolean isCheckOrder() {
+		return checkOrder;
+	}
+
+	/**
+	 * キー項目の並び順を検査するかどうかを設定します(初期値：true)。
+	 * 検査する場合、キーの昇順に並んでいないレコードがあるとエラーになります。
+	 *
+	 * @param checkOrder 検査する場合true
+	 */
+	public void setCheckOrder(boolean checkOrder) {
+		this.checkOrder = checkOrder;
+	}
+
+	/**
+	 * 2つのファイルを突き合わせ、結果を通知します。
+	 *
+	 * @param leftPath 左側のファイルパス
+	 * @param rightPath 右側のファイルパス
+	 * @param listener 突き合わせ結果の通知先
+	 * @return 突き合わせ結果の件数
+	 * @throws IOException 入出力でエラーが発生した場合、キー項目の並び順が不正な場合
+	 */
+	public FLTReconcileResult reconcile(Path leftPath, Path rightPath, FLTReconcileListener listener) throws IOException {
+		if (leftPath == null || rightPath == null || listener == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		FLTReconcileResult result = new FLTReconcileResult();
+		try (Side left = new Side(leftPath, leftLayout, leftComparator, "left");
+				Side right = new Side(rightPath, rightLayout, rightComparator, "right")) {
+			left.next();
+			right.next();
+
+			while (left.record != null && right.record != null) {
+				int cmp = comparator.compare(left.record, right.record);
+				if (cmp < 0) {
+					listener.leftOnly(left.record);
+					result.addLeftOnly();
+					left.next();
+				} else if (cmp > 0) {
+					listener.rightOnly(right.record);
+					result.addRightOnly();
+					right.next();
+				} else {
+					List<String> changed = compareColumns(left.record, right.record);
+					if (changed.isEmpty()) {
+						listener.matched(left.record, right.record);
+						result.addMatched();
+					} else {
+						listener.changed(left.record, right.record, changed);
+						result.addChanged();
+					}
+					left.next();
+					right.next();
+				}
+			}
+
+			for (; left.record != null; left.next()) {
+				listener.leftOnly(left.record);
+				result.addLeftOnly();
+			}
+			for (; right.record != null; right.next()) {
+				listener.rightOnly(right.record);
+				result.addRightOnly();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * キーが一致したレコードの比較項目を比較し、値が異なる項目名を返却します。
+	 */
+	private List<String> compareColumns(byte[] left, byte[] right) {
+		List<String> ret = null;
+		for (int i = 0; i < leftColumns.length; i++) {
+			ColumnLayout l = leftColumns[i];
+			ColumnLayout r = rightColumns[i];
+
+			boolean equal;
+			if (FLTRecordComparator.isSameShape(l, r)) {
+				equal = equals(left, l.getOffset(), right, r.getOffset(), l.getLength());
+			} else {
+				equal = comparator.compareColumns(l, left, 0, r, right, 0) == 0;
+			}
+			if (!equal) {
+				if (ret == null) {
+					ret = new ArrayList<>();
+				}
+				ret.add(l.getName());
+			}
+		}
+		return ret == null ? Collections.<String>emptyList() : Collections.unmodifiableList(ret);
+	}
+
+	private static boolean equals(byte[] o1, int offset1, byte[] o2, int offset2, int length) {
+		for (int i = 0; i < length; i++) {
+			if (o1[offset1 + i] != o2[offset2 + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean startsWith(byte[] record, byte[] recordCode) {
+		for (int i = 0; i < recordCode.length; i++) {
+			if (record[i] != recordCode[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 突き合わせる片側のファイルです。
+	 * 並び順の検査のため、直前のデータレコードを保持します。
+	 */
+	private final class Side implements AutoCloseable {
+		private final FLTReader reader;
+		private final FLTRecordComparator order;
+		private final String name;
+		private final byte[] recordCode;
+
+		/**
+		 * 現在のデータレコード(ファイルの終わりに達した場合はnull)
+		 */
+		private byte[] record;
+		private final byte[] previous;
+		private boolean hasPrevious = false;
+		private long count = 0;
+
+		Side(Path path, RecordLayout layout, FLTRecordComparator order, String name) throws IOException {
+			this.reader = new FLTReader(conf, path, layout.getRecordSize());
+			this.reader.setBinary(layout.isBinary());
+			this.order = order;
+			this.name = name;
+			this.recordCode = layout.getRecordCodeNum() == null ? new byte[0]
+					: layout.getRecordCodeNum().getBytes(conf.getByteWidthCalculator().getCharset());
+			this.previous = new byte[layout.getRecordSize()];
+		}
+
+		/**
+		 * 次のデータレコードを読み込みます。
+		 */
+		void next() throws IOException {
+			if (checkOrder && record != null) {
+				System.arraycopy(record, 0, previous, 0, previous.length);
+				hasPrevious = true;
+			}
+
+			while ((record = reader.readRecord()) != null && !startsWith(record, recordCode)) {
+				// ヘッダ、トレーラレコードは対象外です。
+			}
+			if (record == null) {
+				return;
+			}
+
+			count++;
+			if (checkOrder && hasPrevious && order.compare(previous, record) > 0) {
+				throw new FixedLengthFormatException(String.format("The %s file is not sorted by %s. record:%d", name, Arrays.toString(keyColumns), count));
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
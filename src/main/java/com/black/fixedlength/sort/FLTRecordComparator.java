@@ -0,0 +1,303 @@
+package com.black.fixedlength.sort;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.util.Comparator;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.manager.FLTAnnotationManager;
+import com.black.fixedlength.manager.FLTNumberCodec;
+import com.black.fixedlength.type.ColumnEncoding;
+
+/**
+ * 固定長レコードのバイト配列を、指定されたキー項目で比較します。<p>
+ * 文字の項目はバイトの符号なしの値で比較します。
+ * バイナリ項目、文字の数値項目は、文字列を生成せずに数値として比較します。<p>
+ * 配置情報の異なる2つのレコード(例：自社のファイルと取引先のファイル)を比較することもできます。
+ * 桁数や格納形式が異なるキー項目は、文字の項目は短い方を空白で補って、数値の項目は数値として比較します。
+ *
+ */
+public class FLTRecordComparator implements Comparator<byte[]> {
+
+	/**
+	 * キー項目
+	 */
+	private final ColumnLayout[] keys;
+
+	/**
+	 * 2番目の引数のレコードのキー項目(同じ配置情報の場合は{@link #keys}と同じ)
+	 */
+	private final ColumnLayout[] otherKeys;
+
+	/**
+	 * キー項目ごとの、2つのレコードの桁数、格納形式が同じかどうかです。
+	 */
+	private final boolean[] sameShape;
+
+	/**
+	 * バイト数計算処理、空白のバイト
+	 */
+	private final ByteWidthCalculator calculator;
+	private final byte space;
+
+	/**
+	 * 文字セット
+	 */
+	private final Charset charset;
+
+	/**
+	 * ASCII互換の文字セットかどうかです。
+	 */
+	private final boolean asciiCompatible;
+
+	/**
+	 * 指定されたクラスのキー項目で比較するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz @インターフェースが実装されいるクラス
+	 * @param keyColumns キー項目名(比較順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IllegalArgumentException キー項目が指定されていない場合、存在しない項目名が指定された場合
+	 */
+	public FLTRecordComparator(FLTConfig conf, Class<?> clazz, String... keyColumns) throws UnsupportedEncodingException {
+		this(conf, FLTAnnotationManager.getLayout(clazz), keyColumns);
+	}
+
+	/**
+	 * 指定された配置情報のキー項目で比較するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout 配置情報
+	 * @param keyColumns キー項目名(比較順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IllegalArgumentException キー項目が指定されていない場合、存在しない項目名が指定された場合
+	 */
+	public FLTRecordComparator(FLTConfig conf, RecordLayout layout, String... keyColumns) throws UnsupportedEncodingException {
+		this(conf, layout, layout, keyColumns);
+	}
+
+	/**
+	 * 異なる配置情報のレコードを、同じ項目名のキー項目で比較するコンストラクタです。
+	 * 最初の引数のレコードは{@code layout}、2番目の引数のレコードは{@code otherLayout}の配置情報で比較します。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout 最初の引数のレコードの配置情報
+	 * @param otherLayout 2番目の引数のレコードの配置情報
+	 * @param keyColumns キー項目名(比較順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 * @throws IllegalArgumentException キー項目が指定されていない場合、存在しない項目名が指定された場合、文字と数値のキー項目を比較する場合
+	 */
+	public FLTRecordComparator(FLTConfig conf, RecordLayout layout, RecordLayout otherLayout, String... keyColumns) throws UnsupportedEncodingException {
+		if (conf == null || layout == null || otherLayout == null || keyColumns == null || keyColumns.length == 0) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.keys = getKeys(layout, keyColumns);
+		this.otherKeys = layout == otherLayout ? keys : getKeys(otherLayout, keyColumns);
+		this.sameShape = new boolean[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			sameShape[i] = isSameShape(keys[i], otherKeys[i]);
+			if (!isComparable(keys[i], otherKeys[i])) {
+				throw new IllegalArgumentException(String.format("The key column %s can not be compared as characters and numbers.", keys[i].getName()));
+			}
+		}
+
+		this.calculator = conf.getByteWidthCalculator();
+		this.charset = calculator.getCharset();
+		this.asciiCompatible = calculator.isAsciiCompatible();
+		this.space = " ".getBytes(charset)[0];
+	}
+
+	private static ColumnLayout[] getKeys(RecordLayout layout, String[] keyColumns) {
+		ColumnLayout[] ret = new ColumnLayout[keyColumns.length];
+		for (int i = 0; i < keyColumns.length; i++) {
+			ret[i] = layout.getColumn(keyColumns[i]);
+			if (ret[i] == null) {
+				throw new IllegalArgumentException(String.format("Unknown column %s.", keyColumns[i]));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 2つの項目の桁数、格納形式が同じかどうかを返却します。
+	 * 同じ場合は、項目のバイトをそのまま比較できます。
+	 */
+	static boolean isSameShape(ColumnLayout column, ColumnLayout other) {
+		return column.getLength() == other.getLength() && column.getEncoding() == other.getEncoding()
+				&& column.getScale() == other.getScale() && column.getSign() == other.getSign()
+				&& column.isDecimalText() == other.isDecimalText();
+	}
+
+	/**
+	 * 2つの項目を比較できるかどうかを返却します。
+	 * 文字と数値の項目は比較できませんが、項目の型が数値の文字の項目は数値の項目と数値として比較できます。
+	 */
+	static boolean isComparable(ColumnLayout column, ColumnLayout other) {
+		return isSameShape(column, other) || isNumeric(column) == isNumeric(other)
+				|| (isNumericType(column) && isNumericType(other));
+	}
+
+	static boolean isNumeric(ColumnLayout column) {
+		return column.isBinary() || column.isDecimalText();
+	}
+
+	private static boolean isNumericType(ColumnLayout column) {
+		Class<?> type = column.getType();
+		return type == long.class || type == Long.class || type == int.class || type == Integer.class
+				|| type == short.class || type == Short.class || type == BigDecimal.class;
+	}
+
+	@Override
+	public int compare(byte[] o1, byte[] o2) {
+		return compare(o1, 0, o2, 0);
+	}
+
+	/**
+	 * バイト配列内の指定された位置から始まるレコード同士を比較します。
+	 *
+	 * @param o1 比較するレコードを含むバイト配列
+	 * @param offset1 レコードの開始位置
+	 * @param o2 比較するレコードを含むバイト配列
+	 * @param offset2 レコードの開始位置
+	 * @return 最初の引数が2番目の引数より小さい場合は負の整数、等しい場合は0、大きい場合は正の整数
+	 * @throws IllegalArgumentException 数値のキー項目の値が不正な場合
+	 */
+	public int compare(byte[] o1, int offset1, byte[] o2, int offset2) {
+		for (int i = 0; i < keys.length; i++) {
+			ColumnLayout key = keys[i];
+			int ret;
+			if (sameShape[i]) {
+				ret = compareColumn(key, o1, offset1 + key.getOffset(), o2, offset2 + otherKeys[i].getOffset());
+			} else {
+				ret = compareColumns(key, o1, offset1, otherKeys[i], o2, offset2);
+			}
+			if (ret != 0) {
+				return ret;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 桁数、格納形式が異なる項目同士を比較します。
+	 * 文字の項目は短い方を空白で補って比較し、数値の項目は数値として比較します(空白のみの値は最小値として扱います)。
+	 */
+	int compareColumns(ColumnLayout column, byte[] o1, int offset1, ColumnLayout other, byte[] o2, int offset2) {
+		if (!isNumeric(column) && !isNumeric(other)) {
+			int start1 = offset1 + column.getOffset();
+			int start2 = offset2 + other.getOffset();
+			int length = Math.max(column.getLength(), other.getLength());
+			for (int i = 0; i < length; i++) {
+				int b1 = (i < column.getLength() ? o1[start1 + i] : space) & 0xFF;
+				int b2 = (i < other.getLength() ? o2[start2 + i] : space) & 0xFF;
+				if (b1 != b2) {
+					return b1 - b2;
+				}
+			}
+			return 0;
+		}
+
+		try {
+			BigDecimal value1 = FLTNumberCodec.decodeColumn(column, o1, offset1, calculator);
+			BigDecimal value2 = FLTNumberCodec.decodeColumn(other, o2, offset2, calculator);
+			if (value1 == null || value2 == null) {
+				return value1 == value2 ? 0 : value1 == null ? -1 : 1;
+			}
+			return value1.compareTo(value2);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(String.format("Invalid value of column %s.", column.getName()), e);
+		}
+	}
+
+	private int compareColumn(ColumnLayout key, byte[] o1, int offset1, byte[] o2, int offset2) {
+		int length = key.getLength();
+		if (!key.isBinary() && !key.isDecimalText()) {
+			for (int i = 0; i < length; i++) {
+				int ret = (o1[offset1 + i] & 0xFF) - (o2[offset2 + i] & 0xFF);
+				if (ret != 0) {
+					return ret;
+				}
+			}
+			return 0;
+		}
+
+		try {
+			if (key.getEncoding() == ColumnEncoding.BINARY) {
+				return Long.compare(FLTNumberCodec.decodeBinary(o1, offset1, length), FLTNumberCodec.decodeBinary(o2, offset2, length));
+			} else if (digits(key) <= 18) {
+				return Long.compare(unscaled(key, o1, offset1), unscaled(key, o2, offset2));
+			}
+			BigDecimal value1 = decimal(key, o1, offset1);
+			BigDecimal value2 = decimal(key, o2, offset2);
+			if (value1 == null || value2 == null) {
+				return value1 == value2 ? 0 : value1 == null ? -1 : 1;
+			}
+			return value1.compareTo(value2);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(String.format("Invalid value of key column %s.", key.getName()), e);
+		}
+	}
+
+	private static int digits(ColumnLayout key) {
+		return key.getEncoding() == ColumnEncoding.PACKED ? FLTNumberCodec.packedDigits(key.getLength()) : key.getLength();
+	}
+
+	private long unscaled(ColumnLayout key, byte[] record, int offset) throws ParseException {
+		switch (key.getEncoding()) {
+		case PACKED :
+			return FLTNumberCodec.decodePacked(record, offset, key.getLength());
+		case ZONED :
+			return FLTNumberCodec.decodeZoned(record, offset, key.getLength());
+		default:
+			// 空白のみの値は最小値として扱います。
+			if (asciiCompatible) {
+				if (isAsciiBlank(record, offset, key.getLength())) {
+					return Long.MIN_VALUE;
+				}
+				return FLTNumberCodec.parseUnscaled(record, offset, key.getLength(), key.getSign());
+			}
+			String value = new String(record, offset, key.getLength(), charset);
+			if (FLTNumberCodec.isBlank(value, 0, value.length())) {
+				return Long.MIN_VALUE;
+			}
+			return FLTNumberCodec.parseUnscaled(value, 0, value.length(), key.getSign());
+		}
+	}
+
+	private static boolean isAsciiBlank(byte[] record, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (record[i] != ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private BigDecimal decimal(ColumnLayout key, byte[] record, int offset) throws ParseException {
+		switch (key.getEncoding()) {
+		case PACKED :
+			return FLTNumberCodec.decodePackedDecimal(record, offset, key.getLength(), 0);
+		case ZONED :
+			return FLTNumberCodec.decodeZonedDecimal(record, offset, key.getLength(), 0);
+		default:
+			// 空白のみの値はnull(最小値)として扱います。
+			if (asciiCompatible) {
+				if (isAsciiBlank(record, offset, key.getLength())) {
+					return null;
+				}
+				return FLTNumberCodec.parseDecimal(record, offset, key.getLength(), key.getSign(), 0);
+			}
+			String value = new String(record, offset, key.getLength(), charset);
+			if (FLTNumberCodec.isBlank(value, 0, value.length())) {
+				return null;
+			}
+			return FLTNumberCodec.parseDecimal(value, 0, value.length(), key.getSign(), 0);
+		}
+	}
+}
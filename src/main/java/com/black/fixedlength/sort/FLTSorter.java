@@ -0,0 +1,510 @@
+package com.black.fixedlength.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.manager.FLTAnnotationManager;
+import com.black.fixedlength.manager.FLTReader;
+import com.black.fixedlength.manager.FLTWriter;
+import com.black.fixedlength.type.FLTType;
+
+/**
+ * 固定長ファイルをキー項目で並べ替えます。<p>
+ * レコードはバイト配列のまま比較し、エンティティへの変換は行いません。
+ * 指定されたバッファサイズに収まらない場合は、並べ替えたレコードを一時ファイルに書き出し、
+ * それらを併合して出力します(外部マージソート)。一時ファイルの作成は並列に行います。<p>
+ * ヘッダ、トレーラレコード(レコード判定文字が一致しないレコード)は並べ替えの対象とせず、
+ * 先頭、末尾にそのまま出力します。固定長の読み取り形式がバイト数の場合のみ使用できます。
+ *
+ */
+public class FLTSorter {
+
+	private final FLTConfig conf;
+	private final RecordLayout layout;
+	private final FLTRecordComparator comparator;
+
+	/**
+	 * 並べ替えに使用するメモリのバイト数(初期値：64MB)
+	 */
+	private long bufferSize = 64L * 1024 * 1024;
+
+	/**
+	 * 一時ファイルを並列に作成するスレッド数(初期値：プロセッサ数)
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 一度に併合する一時ファイルの最大数(初期値：64)
+	 */
+	private int mergeWidth = 64;
+
+	/**
+	 * 一時ファイルの作成先(初期値：システムの一時ディレクトリ)
+	 */
+	private Path tempDirectory;
+
+	/**
+	 * 指定されたクラスのキー項目で並べ替えるコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz データレコードのクラス
+	 * @param keyColumns キー項目名(比較順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTSorter(FLTConfig conf, Class<?> clazz, String... keyColumns) throws UnsupportedEncodingException {
+		this(conf, FLTAnnotationManager.getLayout(clazz), keyColumns);
+	}
+
+	/**
+	 * 指定された配置情報のキー項目で並べ替えるコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param layout データレコードの配置情報
+	 * @param keyColumns キー項目名(比較順)
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTSorter(FLTConfig conf, RecordLayout layout, String... keyColumns) throws UnsupportedEncodingException {
+		if (conf.getFltType() != FLTType.BYTE) {
+			throw new IllegalArgumentException("The sort requires the read type BYTE.");
+		}
+		this.conf = conf;
+		this.layout = layout;
+		this.comparator = new FLTRecordComparator(conf, layout, keyColumns);
+	}
+
+	public long getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(long bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	public int getMergeWidth() {
+		return mergeWidth;
+	}
+
+	public void setMergeWidth(int mergeWidth) {
+		this.mergeWidth = Math.max(2, mergeWidth);
+	}
+
+	public Path getTempDirectory() {
+		return tempDirectory;
+	}
+
+	public void setTempDirectory(Path tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * 指定されたファイルを並べ替えて出力します。
+	 *
+	 * @param inputPath 読み込み先ファイルパス
+	 * @param outputPath 出力先ファイルパス
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public void sort(Path inputPath, Path outputPath) throws IOException {
+		int recordSize = layout.getRecordSize();
+		int chunkRecords = (int) Math.max(1, Math.min(Integer.MAX_VALUE / recordSize, bufferSize / parallelism / recordSize));
+		byte[] recordCode = layout.getRecordCodeNum() == null ? new byte[0]
+				: layout.getRecordCodeNum().getBytes(conf.getByteWidthCalculator().getCharset());
+
+		List<byte[]> headers = new ArrayList<>();
+		List<byte[]> trailers = new ArrayList<>();
+		List<Path> runs = new ArrayList<>();
+		List<Future<Path>> futures = new ArrayList<>();
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, new SortThreadFactory());
+		BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(parallelism);
+		int chunkCount = 0;
+		try {
+			Chunk chunk = null;
+			try (FLTReader reader = new FLTReader(conf, inputPath, recordSize)) {
+				reader.setBinary(layout.isBinary());
+
+				byte[] record;
+				while ((record = reader.readRecord()) != null) {
+					if (!trailers.isEmpty() || !startsWith(record, recordCode)) {
+						if (chunk == null && futures.isEmpty()) {
+							headers.add(record.clone());
+						} else {
+							trailers.add(record.clone());
+						}
+						continue;
+					}
+
+					if (chunk == null) {
+						chunk = freeChunks.poll();
+						if (chunk == null && chunkCount < parallelism) {
+							chunk = new Chunk(chunkRecords, recordSize);
+							chunkCount++;
+						} else if (chunk == null) {
+							chunk = freeChunks.take();
+						}
+					}
+					chunk.add(record);
+					if (chunk.isFull()) {
+						futures.add(executor.submit(new SpillTask(chunk, freeChunks)));
+						chunk = null;
+					}
+				}
+			}
+
+			// すべてのレコードがメモリに収まる場合は一時ファイルを作成せずに出力します。
+			if (futures.isEmpty()) {
+				try (FLTWriter writer = new FLTWriter(conf, outputPath)) {
+					writeAll(writer, headers, recordSize);
+					if (chunk != null) {
+						chunk.sort(comparator);
+						for (int i = 0; i < chunk.count; i++) {
+							writer.writeRecord(chunk.data, chunk.index[i] * recordSize, recordSize);
+						}
+					}
+					writeAll(writer, trailers, recordSize);
+				}
+				return;
+			}
+
+			if (chunk != null) {
+				futures.add(executor.submit(new SpillTask(chunk, freeChunks)));
+			}
+			for (Iterator<Future<Path>> it = futures.iterator(); it.hasNext();) {
+				runs.add(it.next().get());
+				it.remove();
+			}
+			freeChunks.clear();
+
+			merge(runs, headers, trailers, outputPath);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The sort was interrupted.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+			// 実行中の並べ替えは中断できないため、終了を待ってから、エラーにより取得されなかった一時ファイルも削除します。
+			awaitTermination(executor);
+			for (Future<Path> future : futures) {
+				if (future.isDone() && !future.isCancelled()) {
+					try {
+						runs.add(future.get());
+					} catch (InterruptedException | ExecutionException e) {
+						// 作成に失敗した一時ファイルは作成処理内で削除済みです。
+					}
+				}
+			}
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	/**
+	 * 一時ファイルを併合して出力します。
+	 * 一時ファイルの数が併合数を超える場合は、段階的に併合します。
+	 */
+	private void merge(List<Path> runs, List<byte[]> headers, List<byte[]> trailers, Path outputPath) throws IOException {
+		int recordSize = layout.getRecordSize();
+
+		List<Path> current = new ArrayList<>(runs);
+		while (current.size() > mergeWidth) {
+			List<Path> next = new ArrayList<>();
+			for (int i = 0; i < current.size(); i += mergeWidth) {
+				List<Path> group = current.subList(i, Math.min(i + mergeWidth, current.size()));
+				Path merged = createTempFile();
+				runs.add(merged);
+				try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(merged), 1 << 16)) {
+					mergeRuns(group, record -> output.write(record, 0, recordSize));
+				}
+				for (Path run : group) {
+					Files.deleteIfExists(run);
+				}
+				next.add(merged);
+			}
+			current = next;
+		}
+
+		try (FLTWriter writer = new FLTWriter(conf, outputPath)) {
+			writeAll(writer, headers, recordSize);
+			mergeRuns(current, record -> writer.writeRecord(record, 0, recordSize));
+			writeAll(writer, trailers, recordSize);
+		}
+	}
+
+	/**
+	 * 並べ替え済みの一時ファイルを併合します。
+	 * キーが等しい場合は、先に作成された一時ファイルのレコードを先に出力します。
+	 */
+	private void mergeRuns(List<Path> runs, RecordSink sink) throws IOException {
+		int recordSize = layout.getRecordSize();
+		PriorityQueue<RunCursor> queue = new PriorityQueue<>(runs.size(), (o1, o2) -> {
+			int ret = comparator.compare(o1.record, o2.record);
+			return ret != 0 ? ret : Integer.compare(o1.order, o2.order);
+		});
+
+		List<RunCursor> cursors = new ArrayList<>();
+		try {
+			for (int i = 0; i < runs.size(); i++) {
+				RunCursor cursor = new RunCursor(runs.get(i), i, recordSize);
+				cursors.add(cursor);
+				if (cursor.next()) {
+					queue.add(cursor);
+				}
+			}
+
+			RunCursor cursor;
+			while ((cursor = queue.poll()) != null) {
+				sink.write(cursor.record);
+				if (cursor.next()) {
+					queue.add(cursor);
+				}
+			}
+		} finally {
+			for (RunCursor c : cursors) {
+				c.close();
+			}
+		}
+	}
+
+	/**
+	 * 実行中の処理の終了を待機します。待機中に割り込まれた場合も終了まで待機し、割り込み状態を戻します。
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Path createTempFile() throws IOException {
+		return tempDirectory == null ? Files.createTempFile("flt-sort", ".run")
+				: Files.createTempFile(tempDirectory, "flt-sort", ".run");
+	}
+
+	private static void writeAll(FLTWriter writer, List<byte[]> records, int recordSize) throws IOException {
+		for (byte[] record : records) {
+			writer.writeRecord(record, 0, recordSize);
+		}
+	}
+
+	private static boolean startsWith(byte[] record, byte[] recordCode) {
+		for (int i = 0; i < recordCode.length; i++) {
+			if (record[i] != recordCode[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * レコードの出力先です。
+	 */
+	private interface RecordSink {
+		void write(byte[] record) throws IOException;
+	}
+
+	/**
+	 * 並べ替え前のレコードを保持する領域です。
+	 * レコードは連続したバイト配列に格納し、並べ替えは位置の配列に対して行います。
+	 */
+	private static final class Chunk {
+		private final byte[] data;
+		private final int[] index;
+		private final int[] work;
+		private final int recordSize;
+		private int count;
+
+		Chunk(int capacity, int recordSize) {
+			this.data = new byte[capacity * recordSize];
+			this.index = new int[capacity];
+			this.work = new int[capacity];
+			this.recordSize = recordSize;
+		}
+
+		void add(byte[] record) {
+			System.arraycopy(record, 0, data, count * recordSize, recordSize);
+			index[count] = count;
+			count++;
+		}
+
+		boolean isFull() {
+			return count == index.length;
+		}
+
+		void clear() {
+			count = 0;
+		}
+
+		/**
+		 * 安定なマージソートで並べ替えます。
+		 */
+		void sort(FLTRecordComparator comparator) {
+			sort(comparator, 0, count);
+		}
+
+		private void sort(FLTRecordComparator comparator, int from, int to) {
+			if (to - from <= 16) {
+				for (int i = from + 1; i < to; i++) {
+					int value = index[i];
+					int j = i - 1;
+					while (j >= from && compare(comparator, index[j], value) > 0) {
+						index[j + 1] = index[j];
+						j--;
+					}
+					index[j + 1] = value;
+				}
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			sort(comparator, from, middle);
+			sort(comparator, middle, to);
+			if (compare(comparator, index[middle - 1], index[middle]) <= 0) {
+				return;
+			}
+
+			System.arraycopy(index, from, work, from, to - from);
+			int left = from;
+			int right = middle;
+			for (int i = from; i < to; i++) {
+				if (right >= to || (left < middle && compare(comparator, work[left], work[right]) <= 0)) {
+					index[i] = work[left++];
+				} else {
+					index[i] = work[right++];
+				}
+			}
+		}
+
+		private int compare(FLTRecordComparator comparator, int o1, int o2) {
+			return comparator.compare(data, o1 * recordSize, data, o2 * recordSize);
+		}
+	}
+
+	/**
+	 * 並べ替えたレコードを一時ファイルに書き出す処理です。
+	 */
+	private final class SpillTask implements Callable<Path> {
+		private final Chunk chunk;
+		private final BlockingQueue<Chunk> freeChunks;
+
+		SpillTask(Chunk chunk, BlockingQueue<Chunk> freeChunks) {
+			this.chunk = chunk;
+			this.freeChunks = freeChunks;
+		}
+
+		@Override
+		public Path call() throws IOException {
+			try {
+				chunk.sort(comparator);
+
+				Path run = createTempFile();
+				try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(run), 1 << 16)) {
+					for (int i = 0; i < chunk.count; i++) {
+						output.write(chunk.data, chunk.index[i] * chunk.recordSize, chunk.recordSize);
+					}
+				} catch (IOException e) {
+					Files.deleteIfExists(run);
+					throw e;
+				}
+				return run;
+			} finally {
+				chunk.clear();
+				freeChunks.offer(chunk);
+			}
+		}
+	}
+
+	/**
+	 * 一時ファイルを先頭から1レコードずつ読み込みます。
+	 */
+	private static final class RunCursor implements AutoCloseable {
+		private final InputStream input;
+		private final byte[] record;
+		private final int order;
+
+		RunCursor(Path run, int order, int recordSize) throws IOException {
+			this.input = new BufferedInputStream(Files.newInputStream(run), 1 << 16);
+			this.record = new byte[recordSize];
+			this.order = order;
+		}
+
+		boolean next() throws IOException {
+			int length = 0;
+			while (length < record.length) {
+				int count = input.read(record, length, record.length - length);
+				if (count < 0) {
+					break;
+				}
+				length += count;
+			}
+			if (length != 0 && length != record.length) {
+				throw new IOException("The temporary file is corrupted.");
+			}
+			return length == record.length;
+		}
+
+		@Override
+		public void close() throws IOException {
+			input.close();
+		}
+	}
+
+	/**
+	 * 並べ替え用のデーモンスレッドを作成します。
+	 */
+	private static final class SortThreadFactory implements ThreadFactory {
+		private final AtomicInteger number = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "flt-sort-" + number.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.black.fixedlength.type;
+
+/**
+ * 項目の格納形式
+ *
+ */
+public enum ColumnEncoding {
+	/**
+	 * 文字(指定された文字コードでエンコードされた文字列)
+	 */
+	TEXT
+
+	/**
+	 * パック10進数(COMP-3)
+	 * 1バイトに2桁を格納し、最終バイトの下位4ビットを符号(C/F:正、D/B:負)とします。
+	 */
+	, PACKED
+
+	/**
+	 * ゾーン10進数
+	 * 1バイトに1桁を格納し、最終バイトの上位4ビットを符号(D/B/7:負、それ以外:正)とします。
+	 */
+	, ZONED
+
+	/**
+	 * 2進数(ビッグエンディアンの2の補数、1～8バイト)
+	 */
+	, BINARY
+}
@@ -0,0 +1,32 @@
+package com.black.fixedlength.type;
+
+/**
+ * 数値項目の符号の位置
+ *
+ */
+public enum SignPosition {
+	/**
+	 * 符号なし
+	 */
+	NONE
+
+	/**
+	 * 先頭1桁に符号(+/-)を格納します。
+	 */
+	, LEADING
+
+	/**
+	 * 末尾1桁に符号(+/-)を格納します。
+	 */
+	, TRAILING
+
+	/**
+	 * 先頭の数字に符号を重ねて格納します。(正：{、A～I　負：}、J～R)
+	 */
+	, LEADING_OVERPUNCH
+
+	/**
+	 * 末尾の数字に符号を重ねて格納します。(正：{、A～I　負：}、J～R)
+	 */
+	, TRAILING_OVERPUNCH
+}
@@ -0,0 +1,47 @@
+package com.black.fixedlength.type;
+
+/**
+ * 検証エラーの種類
+ *
+ */
+public enum ValidationErrorType {
+	/**
+	 * レコードの長さがレコードサイズと一致しません。
+	 */
+	RECORD_SIZE
+
+	/**
+	 * レコード判定文字がいずれのレコードとも一致しません。
+	 */
+	, UNKNOWN_RECORD_CODE
+
+	/**
+	 * 空行が存在します。(空行を無視しない場合)
+	 */
+	, BLANK_LINE
+
+	/**
+	 * レコードの直後に改行コードが存在しません。
+	 */
+	, LINE_SEPARATOR
+
+	/**
+	 * ヘッダレコードが存在しません。
+	 */
+	, MISSING_HEADER
+
+	/**
+	 * トレーラレコードが存在しません。
+	 */
+	, MISSING_TRAILER
+
+	/**
+	 * トレーラレコードの後にレコードが存在します。
+	 */
+	, RECORD_AFTER_TRAILER
+
+	/**
+	 * トレーラレコードの件数がデータレコードの件数と一致しません。
+	 */
+	, TRAILER_COUNT
+}
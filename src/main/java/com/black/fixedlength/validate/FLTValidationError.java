@@ -0,0 +1,49 @@
+package com.black.fixedlength.validate;
+
+import com.black.fixedlength.type.ValidationErrorType;
+
+/**
+ * 固定長ファイルの検証で検出されたエラーを提供します。
+ *
+ */
+public final class FLTValidationError {
+
+	/**
+	 * 行番号(1から開始、ファイル全体のエラーの場合は0)
+	 */
+	private final long lineNumber;
+
+	/**
+	 * エラーの種類
+	 */
+	private final ValidationErrorType type;
+
+	/**
+	 * エラー内容
+	 */
+	private final String message;
+
+	public FLTValidationError(long lineNumber, ValidationErrorType type, String message) {
+		this.lineNumber = lineNumber;
+		this.type = type;
+		this.message = message;
+	}
+
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	public ValidationErrorType getType() {
+		return type;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return lineNumber == 0 ? String.format("%s: %s", type, message)
+				: String.format("line %d %s: %s", lineNumber, type, message);
+	}
+}
@@ -0,0 +1,123 @@
+package com.black.fixedlength.validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.black.fixedlength.type.ValidationErrorType;
+
+/**
+ * 固定長ファイルの検証結果を提供します。
+ *
+ */
+public final class FLTValidationReport {
+
+	/**
+	 * 保持するエラーの最大件数
+	 */
+	private final int maxErrors;
+
+	/**
+	 * 読み込んだ行数(空行を含む)
+	 */
+	private long lineCount;
+
+	/**
+	 * データレコードの件数
+	 */
+	private long recordCount;
+
+	/**
+	 * 空行の件数
+	 */
+	private long blankLineCount;
+
+	private boolean headerFound;
+	private boolean trailerFound;
+
+	/**
+	 * 検出したエラーの件数(保持していないエラーを含む)
+	 */
+	private long errorCount;
+	private final List<FLTValidationError> errors = new ArrayList<>();
+
+	FLTValidationReport(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	void addError(long lineNumber, ValidationErrorType type, String message) {
+		errorCount++;
+		if (errors.size() < maxErrors) {
+			errors.add(new FLTValidationError(lineNumber, type, message));
+		}
+	}
+
+	void setLineCount(long lineCount) {
+		this.lineCount = lineCount;
+	}
+
+	void incrementRecordCount() {
+		recordCount++;
+	}
+
+	void incrementBlankLineCount() {
+		blankLineCount++;
+	}
+
+	void setHeaderFound(boolean headerFound) {
+		this.headerFound = headerFound;
+	}
+
+	void setTrailerFound(boolean trailerFound) {
+		this.trailerFound = trailerFound;
+	}
+
+	/**
+	 * エラーが検出されなかったかどうかを返却します。
+	 *
+	 * @return エラーが検出されなかった場合true
+	 */
+	public boolean isValid() {
+		return errorCount == 0;
+	}
+
+	public long getLineCount() {
+		return lineCount;
+	}
+
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	public long getBlankLineCount() {
+		return blankLineCount;
+	}
+
+	public boolean isHeaderFound() {
+		return headerFound;
+	}
+
+	public boolean isTrailerFound() {
+		return trailerFound;
+	}
+
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * 検出したエラーを返却します。
+	 * 最大件数を超えたエラーは含まれません。
+	 *
+	 * @return エラーのリスト
+	 */
+	public List<FLTValidationError> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("lines=%d, records=%d, blankLines=%d, header=%s, trailer=%s, errors=%d",
+				lineCount, recordCount, blankLineCount, headerFound, trailerFound, errorCount);
+	}
+}
@@ -0,0 +1,468 @@
+package com.black.fixedlength.validate;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.charset.ByteWidthCalculator;
+import com.black.fixedlength.layout.ColumnLayout;
+import com.black.fixedlength.layout.RecordLayout;
+import com.black.fixedlength.manager.FLTAnnotationManager;
+import com.black.fixedlength.manager.FLTNumberCodec;
+import com.black.fixedlength.type.FLTType;
+import com.black.fixedlength.type.ValidationErrorType;
+
+/**
+ * 固定長ファイルの形式のみを検証します。<p>
+ * エンティティへの変換は行わず、バイト配列のままレコードサイズ、レコード判定文字、空行、
+ * ヘッダ、トレーラレコードの有無とトレーラレコードの件数を検証します。
+ * エラーが検出されても読み込みを続け、ファイル全体の結果を返却します。<p>
+ * レコードの長さは、{@link com.black.fixedlength.manager.FLTReader}と同様に、ヘッダ、データ、トレーラレコードのそれぞれのレコードサイズ以上である必要があります。
+ * レコードサイズを超える部分は読み込み時に無視されるため、一致することを検証する場合は{@link #setStrictRecordSize(boolean)}を指定してください。
+ * また、レコードの種類はレコード判定文字で判定するため、トレーラレコードを検証する場合は
+ * データレコードとトレーラレコードのいずれかにレコード判定文字を指定してください。
+ *
+ */
+public class FLTValidator {
+
+	private static final int BUFFER_SIZE = 65536;
+
+	private final FLTConfig conf;
+	private final ByteWidthCalculator calculator;
+	private final Charset charset;
+
+	/**
+	 * 文字セットでエンコードした改行コード
+	 */
+	private int cr = '\r';
+	private int lf = '\n';
+
+	private final RecordLayout dataLayout;
+	private final byte[] dataCode;
+	private RecordLayout headerLayout;
+	private byte[] headerCode;
+	private RecordLayout trailerLayout;
+	private byte[] trailerCode;
+
+	/**
+	 * トレーラレコードのデータレコード件数の項目
+	 */
+	private ColumnLayout trailerCountColumn;
+
+	/**
+	 * 保持するエラーの最大件数(初期値：100)
+	 */
+	private int maxErrors = 100;
+
+	/**
+	 * レコードの長さがレコードサイズと一致することを検証するかどうか(初期値：false)
+	 */
+	private boolean strictRecordSize = false;
+
+	/**
+	 * 指定された固定長形式情報を使用して、構築するコンストラクタです。
+	 *
+	 * @param conf 固定長形式情報
+	 * @param clazz データレコードのクラス
+	 * @throws UnsupportedEncodingException 指定された文字セットがサポートされていない場合
+	 */
+	public FLTValidator(FLTConfig conf, Class<?> clazz) throws UnsupportedEncodingException {
+		if (conf == null || clazz == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		this.conf = conf;
+		this.calculator = conf.getByteWidthCalculator();
+		this.charset = calculator.getCharset();
+		this.dataLayout = FLTAnnotationManager.getLayout(clazz);
+		if (dataLayout.isBinary() && conf.getFltType() != FLTType.BYTE) {
+			throw new IllegalArgumentException("Binary columns require the read type BYTE.");
+		}
+		this.dataCode = encode(dataLayout.getRecordCodeNum());
+
+		byte[] crBytes = "\r".getBytes(charset);
+		byte[] lfBytes = "\n".getBytes(charset);
+		if (crBytes.length == 1 && lfBytes.length == 1) {
+			this.cr = crBytes[0] & 0xFF;
+			this.lf = lfBytes[0] & 0xFF;
+		}
+	}
+
+	/**
+	 * ヘッダレコードのクラスを設定します。
+	 * 設定した場合、ヘッダレコードが存在しないファイルはエラーになります。
+	 *
+	 * @param clazz ヘッダレコードのクラス
+	 */
+	public void setHeader(Class<?> clazz) {
+		this.headerLayout = clazz == null ? null : FLTAnnotationManager.getLayout(clazz);
+		this.headerCode = headerLayout == null ? null : encode(headerLayout.getRecordCodeNum());
+	}
+
+	/**
+	 * トレーラレコードのクラスを設定します。
+	 * 設定した場合、トレーラレコードが存在しないファイルはエラーになります。
+	 *
+	 * @param clazz トレーラレコードのクラス
+	 */
+	public void setTrailer(Class<?> clazz) {
+		setTrailer(clazz, null);
+	}
+
+	/**
+	 * トレーラレコードのクラスと、データレコードの件数を格納する項目を設定します。
+	 *
+	 * @param clazz トレーラレコードのクラス
+	 * @param countColumn データレコードの件数を格納する項目名(検証しない場合はnull)
+	 * @throws IllegalArgumentException 存在しない項目名が指定された場合
+	 */
+	public void setTrailer(Class<?> clazz, String countColumn) {
+		this.trailerLayout = clazz == null ? null : FLTAnnotationManager.getLayout(clazz);
+		this.trailerCode = trailerLayout == null ? null : encode(trailerLayout.getRecordCodeNum());
+		this.trailerCountColumn = null;
+		if (trailerLayout != null && countColumn != null) {
+			trailerCountColumn = trailerLayout.getColumn(countColumn);
+			if (trailerCountColumn == null) {
+				throw new IllegalArgumentException(String.format("Unknown column %s.", countColumn));
+			}
+		}
+	}
+
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+
+	public void setMaxErrors(int maxErrors) {
+		this.maxErrors = Math.max(0, maxErrors);
+	}
+
+	public boolean isStrictRecordSize() {
+		return strictRecordSize;
+	}
+
+	/**
+	 * レコードの長さがレコードサイズを超える行をエラーとするかどうかを設定します。
+	 * 指定しない場合は、読み込みと同様にレコードサイズより短い行のみをエラーとします。
+	 *
+	 * @param strictRecordSize レコードサイズと一致することを検証する場合true
+	 */
+	public void setStrictRecordSize(boolean strictRecordSize) {
+		this.strictRecordSize = strictRecordSize;
+	}
+
+	/**
+	 * 指定されたファイルを検証します。
+	 *
+	 * @param inputPath 読み込み先ファイルパス
+	 * @return 検証結果
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public FLTValidationReport validate(Path inputPath) throws IOException {
+		if (inputPath == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		try (InputStream input = new FileInputStream(inputPath.toFile())) {
+			return validate(input);
+		}
+	}
+
+	/**
+	 * 指定されたストリームを検証します。
+	 * ストリームはクローズしません。
+	 *
+	 * @param input 読み込み元ストリーム
+	 * @return 検証結果
+	 * @throws IOException 入出力でエラーが発生した場合
+	 */
+	public FLTValidationReport validate(InputStream input) throws IOException {
+		if (input == null) {
+			throw new IllegalArgumentException("Invalid argument specified.");
+		}
+
+		Scan scan = new Scan(new FLTValidationReport(maxErrors));
+		if (dataLayout.isBinary()) {
+			scanRecords(input, scan);
+		} else {
+			scanLines(input, scan);
+		}
+
+		FLTValidationReport report = scan.report;
+		report.setLineCount(scan.lineNumber);
+		if (headerLayout != null && !report.isHeaderFound()) {
+			report.addError(0, ValidationErrorType.MISSING_HEADER, "Header does not exist.");
+		}
+		if (trailerLayout != null && !report.isTrailerFound()) {
+			report.addError(0, ValidationErrorType.MISSING_TRAILER, "Trailer does not exist.");
+		}
+		return report;
+	}
+
+	/**
+	 * 改行コードで区切られた行ごとに検証します。
+	 */
+	private void scanLines(InputStream input, Scan scan) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		byte[] line = new byte[Math.max(dataLayout.getRecordSize() * 2, 256)];
+		int lineLength = 0;
+
+		int count;
+		while ((count = input.read(buffer, 0, buffer.length)) >= 0) {
+			int start = 0;
+			for (int i = 0; i < count; i++) {
+				if ((buffer[i] & 0xFF) != lf) {
+					continue;
+				}
+				if (lineLength == 0) {
+					checkLine(buffer, start, i - start, scan);
+				} else {
+					// バッファの境界をまたぐ行は連結して検証します。
+					line = append(line, lineLength, buffer, start, i - start);
+					checkLine(line, 0, lineLength + i - start, scan);
+					lineLength = 0;
+				}
+				start = i + 1;
+			}
+			if (start < count) {
+				line = append(line, lineLength, buffer, start, count - start);
+				lineLength += count - start;
+			}
+		}
+		if (lineLength > 0) {
+			checkLine(line, 0, lineLength, scan);
+		}
+	}
+
+	private void checkLine(byte[] bytes, int offset, int length, Scan scan) {
+		scan.lineNumber++;
+		if (length > 0 && (bytes[offset + length - 1] & 0xFF) == cr) {
+			length--;
+		}
+
+		if (length == 0) {
+			scan.report.incrementBlankLineCount();
+			if (!conf.isIgnoreblankLines()) {
+				scan.report.addError(scan.lineNumber, ValidationErrorType.BLANK_LINE, "The line is blank.");
+			}
+			return;
+		}
+
+		checkRecord(bytes, offset, length, measure(bytes, offset, length), scan);
+	}
+
+	/**
+	 * バイナリ項目を含むレコードを、データレコードのバイト数ごとに検証します。
+	 * 改行コードはレコードの直後のみを判定し、最初のレコードに改行コードがない場合は改行コードなしのファイルとして扱います。
+	 */
+	private void scanRecords(InputStream input, Scan scan) throws IOException {
+		int recordSize = dataLayout.getRecordSize();
+		RecordInput in = new RecordInput(input);
+		byte[] record = new byte[recordSize];
+		Boolean separated = null;
+
+		while (true) {
+			int length = in.readFully(record);
+			if (length == 0) {
+				break;
+			}
+			scan.lineNumber++;
+			if (length < recordSize) {
+				scan.report.addError(scan.lineNumber, ValidationErrorType.RECORD_SIZE,
+						String.format("The record size is %d, but %d was read.", recordSize, length));
+				break;
+			}
+
+			checkRecord(record, 0, length, -1, scan);
+
+			boolean separator = false;
+			int c = in.peek();
+			if (c == cr) {
+				in.skip();
+				c = in.peek();
+				separator = true;
+			}
+			if (c == lf) {
+				in.skip();
+				separator = true;
+			}
+			if (separated == null) {
+				separated = separator;
+			} else if (separated != separator && c != -1) {
+				scan.report.addError(scan.lineNumber, ValidationErrorType.LINE_SEPARATOR,
+						separated ? "The line separator is missing." : "An unexpected line separator was found.");
+			}
+		}
+	}
+
+	/**
+	 * レコードの種類を判定し、レコードサイズとトレーラレコードの件数を検証します。
+	 *
+	 * @param size レコードの長さ(検証しない場合は負の値)
+	 */
+	private void checkRecord(byte[] bytes, int offset, int length, int size, Scan scan) {
+		FLTValidationReport report = scan.report;
+		if (report.isTrailerFound()) {
+			report.addError(scan.lineNumber, ValidationErrorType.RECORD_AFTER_TRAILER, "A record exists after the trailer.");
+			return;
+		}
+
+		RecordLayout layout;
+		if (headerLayout != null && !scan.recordFound && startsWith(bytes, offset, length, headerCode)) {
+			layout = headerLayout;
+			report.setHeaderFound(true);
+		} else if (dataCode.length > 0 && startsWith(bytes, offset, length, dataCode)) {
+			layout = dataLayout;
+			report.incrementRecordCount();
+		} else if (trailerLayout != null && startsWith(bytes, offset, length, trailerCode)) {
+			layout = trailerLayout;
+			report.setTrailerFound(true);
+		} else if (dataCode.length == 0) {
+			layout = dataLayout;
+			report.incrementRecordCount();
+		} else {
+			report.addError(scan.lineNumber, ValidationErrorType.UNKNOWN_RECORD_CODE, "The record code is unknown.");
+			scan.recordFound = true;
+			return;
+		}
+		scan.recordFound = true;
+
+		if (size >= 0 && (size < layout.getRecordSize() || (strictRecordSize && size > layout.getRecordSize()))) {
+			report.addError(scan.lineNumber, ValidationErrorType.RECORD_SIZE,
+					String.format("The record size is %d, but the line has %d.", layout.getRecordSize(), size));
+			return;
+		}
+
+		if (layout == trailerLayout && trailerCountColumn != null) {
+			checkTrailerCount(bytes, offset, length, scan);
+		}
+	}
+
+	private void checkTrailerCount(byte[] bytes, int offset, int length, Scan scan) {
+		FLTValidationReport report = scan.report;
+		BigDecimal count;
+		try {
+			if (conf.getFltType() == FLTType.BYTE
+					|| (calculator.isAsciiCompatible() && ByteWidthCalculator.isAscii(bytes, offset, length))) {
+				count = FLTNumberCodec.decodeColumn(trailerCountColumn, bytes, offset, calculator);
+			} else {
+				// 文字数の配置の場合は、文字列に変換して読み込みます。
+				String str = new String(bytes, offset, length, charset);
+				int begin = trailerCountColumn.getOffset();
+				int end = begin + trailerCountColumn.getLength();
+				count = FLTNumberCodec.isBlank(str, begin, end) ? null
+						: FLTNumberCodec.parseDecimal(str, begin, end, trailerCountColumn.getSign(), trailerCountColumn.getScale());
+			}
+		} catch (ParseException e) {
+			report.addError(scan.lineNumber, ValidationErrorType.TRAILER_COUNT,
+					String.format("The record count of the trailer is invalid. (%s)", e.getMessage()));
+			return;
+		}
+
+		if (count == null || count.compareTo(BigDecimal.valueOf(report.getRecordCount())) != 0) {
+			report.addError(scan.lineNumber, ValidationErrorType.TRAILER_COUNT,
+					String.format("The record count of the trailer is %s, but %d records were read.", count, report.getRecordCount()));
+		}
+	}
+
+	/**
+	 * レコードの長さを、読み取り形式に応じてバイト数または文字数で返却します。
+	 */
+	private int measure(byte[] bytes, int offset, int length) {
+		if (conf.getFltType() == FLTType.BYTE
+				|| (calculator.isAsciiCompatible() && ByteWidthCalculator.isAscii(bytes, offset, length))) {
+			return length;
+		}
+		return new String(bytes, offset, length, charset).length();
+	}
+
+	private byte[] encode(String recordCodeNum) {
+		return recordCodeNum == null ? new byte[0] : recordCodeNum.getBytes(charset);
+	}
+
+	private static boolean startsWith(byte[] bytes, int offset, int length, byte[] code) {
+		if (code.length > length) {
+			return false;
+		}
+		for (int i = 0; i < code.length; i++) {
+			if (bytes[offset + i] != code[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] append(byte[] line, int lineLength, byte[] bytes, int offset, int length) {
+		byte[] ret = line;
+		if (lineLength + length > ret.length) {
+			ret = Arrays.copyOf(ret, Math.max(ret.length * 2, lineLength + length));
+		}
+		System.arraycopy(bytes, offset, ret, lineLength, length);
+		return ret;
+	}
+
+	/**
+	 * 1回の検証の状態です。
+	 */
+	private static final class Scan {
+		private final FLTValidationReport report;
+		private long lineNumber;
+		private boolean recordFound;
+
+		Scan(FLTValidationReport report) {
+			this.report = report;
+		}
+	}
+
+	/**
+	 * バイナリ項目を含むレコードの読み込み元です。
+	 */
+	private static final class RecordInput {
+		private final InputStream input;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position;
+		private int limit;
+
+		RecordInput(InputStream input) {
+			this.input = input;
+		}
+
+		int readFully(byte[] dest) throws IOException {
+			int ret = 0;
+			while (ret < dest.length) {
+				if (position >= limit && !fill()) {
+					break;
+				}
+				int count = Math.min(dest.length - ret, limit - position);
+				System.arraycopy(buffer, position, dest, ret, count);
+				position += count;
+				ret += count;
+			}
+			return ret;
+		}
+
+		int peek() throws IOException {
+			if (position >= limit && !fill()) {
+				return -1;
+			}
+			return buffer[position] & 0xFF;
+		}
+
+		void skip() {
+			position++;
+		}
+
+		private boolean fill() throws IOException {
+			int count = input.read(buffer, 0, buffer.length);
+			position = 0;
+			limit = Math.max(count, 0);
+			return count > 0;
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package com.black.fixedlength.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.manager.FLTWriter;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTJdbcExporter}、{@link FLTJdbcImporter}のテストです。<p>
+ * ResultSet、PreparedStatementはProxyで作成した、メモリ上の行を返却、記録する実装を使用します。
+ *
+ */
+public class FLTJdbcBridgeTest extends TestCase {
+
+	@Record(recordCodeNum = "D")
+	public static class Data {
+		@Column(length = 1)
+		String code = "D";
+		@Column(length = 4)
+		int id;
+		@Column(length = 6)
+		String name;
+		@Column(length = 7, scale = 2)
+		BigDecimal amount;
+		@Column(length = 4, encoding = ColumnEncoding.PACKED)
+		long quantity;
+	}
+
+	@Record(recordCodeNum = "T")
+	public static class Text {
+		@Column(length = 1)
+		String code = "T";
+		@Column(length = 4)
+		int id;
+		@Column(length = 6)
+		String name;
+	}
+
+	private Path file;
+
+	@Override
+	protected void setUp() throws Exception {
+		file = Files.createTempFile("flt-jdbc", ".dat");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * バイト数の読み取り形式で、ResultSetの列を項目に直接書き込み、読み込んだレコードから登録します。
+	 */
+	public void testByteRoundTrip() throws Exception {
+		FLTConfig conf = new FLTConfig("Shift_JIS");
+		conf.setFltType(FLTType.BYTE);
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			rows.add(new Object[] { "D", Integer.valueOf(i), "名前" + i, new BigDecimal(i + ".25"), Long.valueOf(-i) });
+		}
+
+		FLTJdbcExporter exporter = new FLTJdbcExporter(conf, Data.class);
+		exporter.mapColumn("amount", "AMT");
+		try (FLTWriter writer = new FLTWriter(conf, file)) {
+			writer.write("H000000000000000000000", 22);
+			assertEquals(25, exporter.export(resultSet(rows, "CODE", "ID", "NAME", "AMT", "QUANTITY"), writer));
+			writer.write("E000000000000000000000", 22);
+		}
+
+		// パック10進数の項目は改行コードと同じバイトを含むことがあるため、位置で検証します。
+		byte[] bytes = Files.readAllBytes(file);
+		int offset = 2 * (22 + System.lineSeparator().length());
+		assertEquals("D0001名前1 0000125", new String(bytes, offset, 18, "Shift_JIS"));
+		assertEquals(0x1D, bytes[offset + 21]);
+
+		for (boolean pipelined : new boolean[] { false, true }) {
+			Recorder recorder = new Recorder();
+			FLTJdbcImporter importer = new FLTJdbcImporter(conf, Data.class);
+			importer.setParameterColumns("id", "name", "amount", "quantity");
+			importer.setBatchSize(10);
+			importer.setPipelined(pipelined);
+
+			assertEquals(25, importer.importFrom(file, recorder.statement()));
+			assertEquals(3, recorder.batches);
+			assertEquals(Arrays.<Object>asList(Integer.valueOf(3), "名前3", new BigDecimal("3.25"), Long.valueOf(-3)), recorder.rows.get(3));
+		}
+	}
+
+	/**
+	 * 文字数の読み取り形式で、出力と登録を行います。
+	 */
+	public void testStringRoundTrip() throws Exception {
+		FLTConfig conf = new FLTConfig("UTF-8");
+		conf.setFltType(FLTType.STRING);
+
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { "T", Integer.valueOf(7), "あいう" });
+		rows.add(new Object[] { "T", Integer.valueOf(8), "abc" });
+
+		assertEquals(2, new FLTJdbcExporter(conf, Text.class).export(resultSet(rows, "CODE", "ID", "NAME"), file));
+		assertEquals(Arrays.asList("T0007あいう   ", "T0008abc   "), Files.readAllLines(file, Charset.forName("UTF-8")));
+
+		Recorder recorder = new Recorder();
+		FLTJdbcImporter importer = new FLTJdbcImporter(conf, Text.class);
+		importer.setParameterColumns("name", "id");
+		assertEquals(2, importer.importFrom(file, recorder.statement()));
+		assertEquals(Arrays.<Object>asList("あいう", Integer.valueOf(7)), recorder.rows.get(0));
+		assertEquals(Arrays.<Object>asList("abc", Integer.valueOf(8)), recorder.rows.get(1));
+	}
+
+	/**
+	 * NULLの列は書き込みでエラーになります。
+	 */
+	public void testNullColumn() throws Exception {
+		FLTConfig conf = new FLTConfig("UTF-8");
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { "T", Integer.valueOf(1), null });
+
+		try {
+			new FLTJdbcExporter(conf, Text.class).export(resultSet(rows, "CODE", "ID", "NAME"), file);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("The value of column name is null.", e.getMessage());
+		}
+	}
+
+	/**
+	 * 指定された行を返却するResultSetを作成します。
+	 */
+	private static ResultSet resultSet(final List<Object[]> rows, final String... labels) {
+		InvocationHandler handler = new InvocationHandler() {
+			private int row = -1;
+			private boolean wasNull;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				String name = method.getName();
+				if (name.equals("next")) {
+					return Boolean.valueOf(++row < rows.size());
+				} else if (name.equals("findColumn")) {
+					for (int i = 0; i < labels.length; i++) {
+						if (labels[i].equalsIgnoreCase((String) args[0])) {
+							return Integer.valueOf(i + 1);
+						}
+					}
+					throw new SQLException("Unknown column " + args[0]);
+				} else if (name.equals("wasNull")) {
+					return Boolean.valueOf(wasNull);
+				}
+
+				Object value = rows.get(row)[((Integer) args[0]).intValue() - 1];
+				wasNull = value == null;
+				if (name.equals("getString")) {
+					return value == null ? null : value.toString();
+				} else if (name.equals("getInt")) {
+					return value == null ? Integer.valueOf(0) : value;
+				} else if (name.equals("getLong")) {
+					return value == null ? Long.valueOf(0) : value;
+				} else if (name.equals("getBigDecimal")) {
+					return value;
+				}
+				throw new UnsupportedOperationException(name);
+			}
+		};
+		return (ResultSet) Proxy.newProxyInstance(FLTJdbcBridgeTest.class.getClassLoader(), new Class<?>[] { ResultSet.class }, handler);
+	}
+
+	/**
+	 * 登録されたパラメータを記録するPreparedStatementです。
+	 */
+	private static final class Recorder implements InvocationHandler {
+		private final List<List<Object>> rows = new ArrayList<>();
+		private final List<Object> current = new ArrayList<>();
+		private int batches;
+
+		PreparedStatement statement() {
+			return (PreparedStatement) Proxy.newProxyInstance(FLTJdbcBridgeTest.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("set")) {
+				int index = ((Integer) args[0]).intValue() - 1;
+				while (current.size() <= index) {
+					current.add(null);
+				}
+				current.set(index, name.equals("setNull") ? null : args[1]);
+				return null;
+			} else if (name.equals("addBatch")) {
+				rows.add(new ArrayList<>(current));
+				current.clear();
+				return null;
+			} else if (name.equals("executeBatch")) {
+				batches++;
+				return new int[0];
+			}
+			throw new UnsupportedOperationException(name);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.black.fixedlength.manager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.format.DefaultZeroPaddingFormatter;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTEntityWriter}のテストです。<p>
+ * トレーラレコードの管理項目を設定した場合の、トレーラレコードの自動出力を検証します。
+ *
+ */
+public class FLTEntityWriterTest extends TestCase {
+
+	@Record(recordCodeNum = "D")
+	public static class Data {
+		@Column(length = 1)
+		String code = "D";
+		@Column(length = 8, scale = 2)
+		BigDecimal amount;
+	}
+
+	public static class Name {
+		@Column(length = 4)
+		String name;
+	}
+
+	@Record(recordCodeNum = "T")
+	public static class Trailer {
+		@Column(length = 1)
+		String code = "T";
+		@Column(length = 3)
+		int count;
+		@Column(length = 6, scale = 2)
+		BigDecimal total;
+	}
+
+	private FLTConfig conf;
+	private FLTControlTotals controlTotals;
+	private Path path;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("Shift_JIS");
+		conf.setFltType(FLTType.BYTE);
+		controlTotals = new FLTControlTotals(Data.class, Trailer.class);
+		controlTotals.setCountColumn("count");
+		controlTotals.addSumColumn("total", "amount");
+		path = Files.createTempFile("flt-writer", ".dat");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.deleteIfExists(path);
+	}
+
+	private static Data data(String amount) {
+		Data data = new Data();
+		data.amount = amount == null ? null : new BigDecimal(amount);
+		return data;
+	}
+
+	/**
+	 * 正常に書き込んだ場合は、終了時にトレーラレコードを出力します。
+	 */
+	public void testTrailerWritten() throws Exception {
+		try (FLTEntityWriter writer = new FLTEntityWriter(conf, path)) {
+			writer.setControlTotals(controlTotals);
+			writer.write(data("1.25"));
+			writer.write(data("2.50"));
+		}
+
+		List<String> lines = Files.readAllLines(path);
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(2), lines.get(2).startsWith("T002000375"));
+	}
+
+	/**
+	 * 書き込みに失敗した後に閉じた場合は、トレーラレコードを出力しません。
+	 */
+	public void testNoTrailerAfterFailedWrite() throws Exception {
+		try (FLTEntityWriter writer = new FLTEntityWriter(conf, path)) {
+			writer.setControlTotals(controlTotals);
+			writer.write(data("1.25"));
+			writer.write(data(null));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("The value of column amount is null.", e.getMessage());
+		}
+
+		List<String> lines = Files.readAllLines(path);
+		assertEquals(1, lines.size());
+		assertTrue(lines.get(0).startsWith("D"));
+	}
+
+	/**
+	 * 中止した場合は、トレーラレコードを出力しません。
+	 */
+	public void testNoTrailerAfterAbort() throws Exception {
+		try (FLTEntityWriter writer = new FLTEntityWriter(conf, path)) {
+			writer.setControlTotals(controlTotals);
+			writer.write(data("1.25"));
+			writer.abort();
+		}
+
+		assertEquals(1, Files.readAllLines(path).size());
+	}
+
+	/**
+	 * 書き込みの途中で変更したパディングを、次のレコードから使用します。
+	 */
+	public void testPaddingChangedAfterWrite() throws Exception {
+		Name entity = new Name();
+		entity.name = "12";
+		try (FLTEntityWriter writer = new FLTEntityWriter(conf, path)) {
+			writer.write(entity);
+			conf.setPadding(String.class, new DefaultZeroPaddingFormatter());
+			writer.write(entity);
+		}
+
+		List<String> lines = Files.readAllLines(path);
+		assertEquals("12  ", lines.get(0));
+		assertEquals("0012", lines.get(1));
+	}
+}
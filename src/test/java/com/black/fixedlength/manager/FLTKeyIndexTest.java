@@ -0,0 +1,199 @@
+package com.black.fixedlength.manager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTKeyIndex}のテストです。<p>
+ * 固定長ファイルはバイト列で直接作成し、レコードの位置を検証します。
+ *
+ */
+public class FLTKeyIndexTest extends TestCase {
+
+	@Record(recordCodeNum = "D")
+	public static class Text {
+		@Column(length = 1)
+		String code = "D";
+		@Column(length = 4)
+		String id;
+		@Column(length = 4)
+		String name;
+	}
+
+	public static class Binary {
+		@Column(length = 2, encoding = ColumnEncoding.BINARY)
+		int id;
+		@Column(length = 2)
+		String name;
+		@Column(length = 1, encoding = ColumnEncoding.BINARY)
+		int tail;
+	}
+
+	private FLTConfig conf;
+	private Path data;
+	private Path index;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("US-ASCII");
+		conf.setFltType(FLTType.BYTE);
+		data = Files.createTempFile("flt-index", ".dat");
+		index = Files.createTempFile("flt-index", ".idx");
+		Files.delete(index);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.deleteIfExists(data);
+		Files.deleteIfExists(index);
+	}
+
+	private void append(String text) throws Exception {
+		append(text.getBytes("US-ASCII"));
+	}
+
+	private void append(byte[] bytes) throws Exception {
+		Files.write(data, bytes, StandardOpenOption.APPEND);
+	}
+
+	private static byte[] binary(int id, String name, int tail) {
+		return new byte[] { (byte) (id >> 8), (byte) id, (byte) name.charAt(0), (byte) name.charAt(1), (byte) tail };
+	}
+
+	/**
+	 * 作成後に追記されたレコードのみを、更新で追加します。
+	 */
+	public void testAppendAndUpdate() throws Exception {
+		append("HHEADER\nD0003ccc \nD0001aaa \nD0002bbb \n");
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "id")) {
+			assertEquals(3, keyIndex.update());
+			assertEquals(8, keyIndex.find("0003"));
+			assertEquals(18, keyIndex.find("0001"));
+			assertEquals(-1, keyIndex.find("0004"));
+
+			append("D0005eee \nD0004ddd \nTTRAILER\n");
+			assertEquals(2, keyIndex.update());
+			assertEquals(5, keyIndex.size());
+			assertEquals(48, keyIndex.find("0004"));
+			assertEquals(0, keyIndex.update());
+		}
+
+		// 開き直した場合は、索引ファイルに記録した位置から更新します。
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "id")) {
+			assertEquals(5, keyIndex.size());
+			assertEquals(Files.size(data), keyIndex.getIndexedLength());
+			assertEquals(0, keyIndex.update());
+			assertEquals(38, keyIndex.find("0005"));
+		}
+	}
+
+	/**
+	 * 書き込み途中のレコードは、残りが追記された後の更新で追加します。
+	 */
+	public void testTrailingPartialRecord() throws Exception {
+		append("D0001aaa \nD0002bbb \nD00");
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "id")) {
+			assertEquals(2, keyIndex.update());
+			assertEquals(20, keyIndex.getIndexedLength());
+
+			append("03ccc \n");
+			assertEquals(1, keyIndex.update());
+			assertEquals(20, keyIndex.find("0003"));
+			assertEquals(30, keyIndex.getIndexedLength());
+		}
+	}
+
+	/**
+	 * バイナリ項目を含む場合は、改行コードの有無に関わらずレコードサイズで区切り、
+	 * 更新をまたいで追記された改行コードも読み飛ばします。
+	 */
+	public void testBinarySeparatorAcrossUpdates() throws Exception {
+		// 改行コードのないレコード(項目に改行コードと同じバイトを含む)
+		append(binary(13, "ab", 10));
+		append(binary(10, "cd", 13));
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Binary.class, "id")) {
+			assertEquals(2, keyIndex.update());
+			assertEquals(0, keyIndex.find(Integer.valueOf(13)));
+			assertEquals(5, keyIndex.find(Integer.valueOf(10)));
+
+			// CRのみが追記された時点では、LFが続くかどうかは次回の更新で判定します。
+			append(new byte[] { '\r' });
+			assertEquals(0, keyIndex.update());
+			append(new byte[] { '\n' });
+			append(binary(0x0D0A, "ef", 10));
+			append(new byte[] { '\n' });
+			assertEquals(1, keyIndex.update());
+			assertEquals(12, keyIndex.find(Integer.valueOf(0x0D0A)));
+		}
+
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Binary.class, "id")) {
+			append(binary(13, "gh", 1));
+			assertEquals(1, keyIndex.update());
+			assertTrue(Arrays.equals(new long[] { 0, 18 }, keyIndex.findAll(Integer.valueOf(13))));
+		}
+	}
+
+	/**
+	 * 固定長ファイルが短くなった場合は、索引を作成し直します。
+	 */
+	public void testRebuildWhenShrunk() throws Exception {
+		append("D0001aaa \nD0002bbb \nD0003ccc \n");
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "id")) {
+			assertEquals(3, keyIndex.update());
+
+			Files.write(data, "D0009zzz \n".getBytes("US-ASCII"));
+			assertEquals(1, keyIndex.update());
+			assertEquals(1, keyIndex.size());
+			assertEquals(-1, keyIndex.find("0001"));
+			assertEquals(0, keyIndex.find("0009"));
+		}
+	}
+
+	/**
+	 * 重複したキーは、ファイル内で最も前のレコードの位置を返却します(一時ファイルへの分割、マージを含む)。
+	 */
+	public void testDuplicateKeyReturnsEarliest() throws Exception {
+		append("D0002aaa \nD0001bbb \nD0002ccc \nD0002ddd \n");
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "id")) {
+			keyIndex.setChunkEntries(1);
+			assertEquals(4, keyIndex.update());
+			assertEquals(0, keyIndex.find("0002"));
+			assertTrue(Arrays.equals(new long[] { 0, 20, 30 }, keyIndex.findAll("0002")));
+
+			append("D0002eee \nD0001fff \n");
+			assertEquals(2, keyIndex.update());
+			assertEquals(0, keyIndex.find("0002"));
+			assertEquals(10, keyIndex.find("0001"));
+			assertTrue(Arrays.equals(new long[] { 0, 20, 30, 40 }, keyIndex.findAll("0002")));
+		}
+	}
+
+	/**
+	 * 異なるキー項目で開いた索引ファイルは使用せず、作成し直します。
+	 */
+	public void testReopenWithDifferentKey() throws Exception {
+		append("D0001aaa \nD0002bbb \n");
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "id")) {
+			assertEquals(2, keyIndex.update());
+		}
+
+		// キーのバイト数が同じで位置が異なる項目
+		try (FLTKeyIndex keyIndex = new FLTKeyIndex(conf, data, index, Text.class, "name")) {
+			assertEquals(0, keyIndex.size());
+			assertEquals(0, keyIndex.getIndexedLength());
+			assertEquals(2, keyIndex.update());
+			assertEquals(10, keyIndex.find("bbb "));
+			assertEquals(-1, keyIndex.find("0001"));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.black.fixedlength.manager;
+
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTPartitionedWriter}のテストです。<p>
+ * トレーラレコードの管理項目を設定した場合の、各ファイルのトレーラレコードを検証します。
+ *
+ */
+public class FLTPartitionedWriterTest extends TestCase {
+
+	@Record(recordCodeNum = "D")
+	public static class Data {
+		@Column(length = 1)
+		String code = "D";
+		@Column(length = 1)
+		String part;
+		@Column(length = 8, scale = 2)
+		BigDecimal amount;
+	}
+
+	@Record(recordCodeNum = "T")
+	public static class Trailer {
+		@Column(length = 1)
+		String code = "T";
+		@Column(length = 3)
+		int count;
+		@Column(length = 6, scale = 2)
+		BigDecimal total;
+	}
+
+	private FLTConfig conf;
+	private FLTControlTotals controlTotals;
+	private Path dir;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("Shift_JIS");
+		conf.setFltType(FLTType.BYTE);
+		controlTotals = new FLTControlTotals(Data.class, Trailer.class);
+		controlTotals.setCountColumn("count");
+		controlTotals.addSumColumn("total", "amount");
+		dir = Files.createTempDirectory("flt-partition");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path file : files) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(dir);
+	}
+
+	private FLTPartitionedWriter<Data> newWriter() throws Exception {
+		FLTPartitionedWriter<Data> writer = new FLTPartitionedWriter<>(conf, data -> data.part, (key, seq) -> dir.resolve(key + "_" + seq + ".dat"));
+		writer.setMaxRecords(2);
+		writer.setControlTotals(controlTotals);
+		return writer;
+	}
+
+	private static Data data(String part, String amount) {
+		Data data = new Data();
+		data.part = part;
+		data.amount = amount == null ? null : new BigDecimal(amount);
+		return data;
+	}
+
+	private List<String> lines(String name) throws Exception {
+		return Files.readAllLines(dir.resolve(name));
+	}
+
+	/**
+	 * 正常に書き込んだ場合は、終了時に各ファイルにトレーラレコードを出力します。
+	 */
+	public void testTrailerWritten() throws Exception {
+		try (FLTPartitionedWriter<Data> writer = newWriter()) {
+			writer.write(data("a", "1.00"));
+			writer.write(data("b", "2.00"));
+		}
+
+		assertEquals(Arrays.asList("Da00000100", "T001000100"), lines("a_0.dat"));
+		assertEquals(Arrays.asList("Db00000200", "T001000200"), lines("b_0.dat"));
+	}
+
+	/**
+	 * 書き込みに失敗した後に閉じた場合は、書き込み途中のファイルにトレーラレコードを出力しません。
+	 * 上限を超えて切り替えたファイルには、切り替え時のトレーラレコードが残ります。
+	 */
+	public void testNoTrailerAfterFailedWrite() throws Exception {
+		try (FLTPartitionedWriter<Data> writer = newWriter()) {
+			writer.write(data("a", "1.00"));
+			writer.write(data("a", "1.00"));
+			writer.write(data("a", "1.00"));
+			writer.write(data("b", "2.00"));
+			writer.write(data("b", null));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("The value of column amount is null.", e.getMessage());
+		}
+
+		assertEquals(Arrays.asList("Da00000100", "Da00000100", "T002000200"), lines("a_0.dat"));
+		assertEquals(Arrays.asList("Da00000100"), lines("a_1.dat"));
+		assertEquals(Arrays.asList("Db00000200"), lines("b_0.dat"));
+	}
+
+	/**
+	 * 中止した場合は、書き込み途中のファイルにトレーラレコードを出力しません。
+	 */
+	public void testNoTrailerAfterAbort() throws Exception {
+		try (FLTPartitionedWriter<Data> writer = newWriter()) {
+			writer.write(data("a", "1.00"));
+			writer.abort();
+		}
+
+		assertEquals(Arrays.asList("Da00000100"), lines("a_0.dat"));
+	}
+}
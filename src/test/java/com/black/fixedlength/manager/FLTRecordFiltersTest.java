@@ -0,0 +1,103 @@
+package com.black.fixedlength.manager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+import com.black.fixedlength.type.SignPosition;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTRecordFilters}の数値項目の条件のテストです。
+ *
+ */
+public class FLTRecordFiltersTest extends TestCase {
+
+	public static class Data {
+		@Column(length = 3, encoding = ColumnEncoding.PACKED)
+		long packed;
+		@Column(length = 4, encoding = ColumnEncoding.ZONED)
+		int zoned;
+		@Column(length = 4, encoding = ColumnEncoding.BINARY)
+		int binary;
+		@Column(length = 7, scale = 2, sign = SignPosition.LEADING)
+		BigDecimal amount;
+		@Column(length = 12, encoding = ColumnEncoding.PACKED)
+		BigDecimal big;
+	}
+
+	private FLTConfig conf;
+	private FLTRecordAccessor accessor;
+	private FLTRecordFilters filters;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("US-ASCII");
+		conf.setFltType(FLTType.BYTE);
+		accessor = new FLTRecordAccessor(conf, FLTAnnotationManager.getLayout(Data.class));
+		filters = new FLTRecordFilters(conf, Data.class);
+	}
+
+	private byte[] record(long packed, int zoned, int binary, String amount, String big) throws Exception {
+		byte[] ret = new byte[accessor.getLayout().getRecordSize()];
+		accessor.encode(0, Long.valueOf(packed), ret);
+		accessor.encode(1, Integer.valueOf(zoned), ret);
+		accessor.encode(2, Integer.valueOf(binary), ret);
+		accessor.encode(3, new BigDecimal(amount), ret);
+		accessor.encode(4, new BigDecimal(big), ret);
+		return ret;
+	}
+
+	/**
+	 * 等しい値の条件は、符号の表現が異なるパック10進数、ゾーン10進数にも一致します。
+	 */
+	public void testEqualTo() throws Exception {
+		byte[] record = record(12345, -42, -7, "1.50", "12345678901234567890");
+		assertTrue(filters.equalTo("packed", Long.valueOf(12345)).test(record));
+		assertFalse(filters.equalTo("packed", Long.valueOf(12344)).test(record));
+		assertTrue(filters.equalTo("zoned", Integer.valueOf(-42)).test(record));
+		assertFalse(filters.equalTo("zoned", Integer.valueOf(42)).test(record));
+		assertTrue(filters.equalTo("binary", Integer.valueOf(-7)).test(record));
+		assertTrue(filters.equalTo("amount", new BigDecimal("1.5")).test(record));
+		assertTrue(filters.equalTo("big", new BigDecimal("12345678901234567890")).test(record));
+		assertFalse(filters.equalTo("big", new BigDecimal("12345678901234567891")).test(record));
+
+		// 正の符号をFで表したパック10進数
+		record[2] = (byte) ((record[2] & 0xF0) | 0x0F);
+		assertTrue(filters.equalTo("packed", Long.valueOf(12345)).test(record));
+	}
+
+	/**
+	 * 範囲の条件は両端を含み、空白のみの文字の数値項目には一致しません。
+	 */
+	public void testBetween() throws Exception {
+		FLTRecordFilter filter = filters.between("amount", new BigDecimal("1.00"), new BigDecimal("2.50"));
+		assertFalse(filter.test(record(0, 0, 0, "0.99", "0")));
+		assertTrue(filter.test(record(0, 0, 0, "1.00", "0")));
+		assertTrue(filter.test(record(0, 0, 0, "2.50", "0")));
+		assertFalse(filter.test(record(0, 0, 0, "2.51", "0")));
+		assertFalse(filter.test(record(0, 0, 0, "-2.00", "0")));
+
+		byte[] blank = record(0, 0, 0, "1.00", "0");
+		Arrays.fill(blank, 11, 18, (byte) ' ');
+		assertFalse(filter.test(blank));
+
+		assertTrue(filters.between("packed", null, Long.valueOf(-1)).test(record(-99999, 0, 0, "0", "0")));
+		assertTrue(filters.between("big", new BigDecimal("99999999999999999999"), null).test(record(0, 0, 0, "0", "100000000000000000000")));
+	}
+
+	/**
+	 * いずれかの値と等しい条件です。
+	 */
+	public void testIn() throws Exception {
+		FLTRecordFilter filter = filters.in("zoned", Integer.valueOf(3), Integer.valueOf(-1), Integer.valueOf(7));
+		assertTrue(filter.test(record(0, -1, 0, "0", "0")));
+		assertTrue(filter.test(record(0, 7, 0, "0", "0")));
+		assertFalse(filter.test(record(0, 1, 0, "0", "0")));
+		assertTrue(filters.in("binary", Integer.valueOf(Integer.MIN_VALUE)).test(record(0, 0, Integer.MIN_VALUE, "0", "0")));
+	}
+}
@@ -0,0 +1,202 @@
+package com.black.fixedlength.manager;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTTailReader}のテストです。<p>
+ * 追記、切り詰め、置き換えは、テストメソッド内でファイルを直接書き換えて再現します。
+ *
+ */
+public class FLTTailReaderTest extends TestCase {
+
+	@Record(recordCodeNum = "D")
+	public static class Text {
+		@Column(length = 1)
+		String code = "D";
+		@Column(length = 5)
+		int id;
+		@Column(length = 4)
+		String name;
+	}
+
+	@Record(recordCodeNum = "D")
+	public static class Binary {
+		@Column(length = 1)
+		String code = "D";
+		@Column(length = 2, encoding = ColumnEncoding.BINARY)
+		int id;
+		@Column(length = 3)
+		String name;
+	}
+
+	private FLTConfig conf;
+	private Path dir;
+	private Path data;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("US-ASCII");
+		conf.setFltType(FLTType.BYTE);
+		dir = Files.createTempDirectory("flt-tail");
+		data = dir.resolve("tail.dat");
+		Files.createFile(data);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path file : files) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(dir);
+	}
+
+	private void append(byte[] bytes, int from, int to) throws Exception {
+		Files.write(data, Arrays.copyOfRange(bytes, from, to), StandardOpenOption.APPEND);
+	}
+
+	private void append(String text) throws Exception {
+		byte[] bytes = text.getBytes("US-ASCII");
+		append(bytes, 0, bytes.length);
+	}
+
+	private static String text(int from, int to) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			sb.append(String.format("D%05d%-4s\r\n", i, "n" + i));
+		}
+		return sb.toString();
+	}
+
+	private static byte[] binary(int id, String name) {
+		return new byte[] { 'D', (byte) (id >> 8), (byte) id, (byte) name.charAt(0), (byte) name.charAt(1), (byte) name.charAt(2) };
+	}
+
+	/**
+	 * 読み込めるレコードをすべて読み込み、項目idを追加します。
+	 */
+	private static void pollAll(FLTTailReader<Text> reader, List<Integer> ids) throws Exception {
+		Text entity;
+		while ((entity = reader.poll()) != null) {
+			ids.add(entity.id);
+		}
+	}
+
+	/**
+	 * 少しずつ追記されたファイルから、各レコードを1度だけ読み込みます。
+	 */
+	public void testSlicedAppend() throws Exception {
+		byte[] bytes = ("HHEADER   \r\n" + text(0, 50)).getBytes("US-ASCII");
+		List<Integer> ids = new ArrayList<>();
+		try (FLTTailReader<Text> reader = new FLTTailReader<>(conf, data, Text.class)) {
+			for (int i = 0; i < bytes.length; i += 7) {
+				append(bytes, i, Math.min(i + 7, bytes.length));
+				pollAll(reader, ids);
+			}
+			assertEquals(Files.size(data), reader.getPosition());
+		}
+
+		assertEquals(50, ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			assertEquals(i, ids.get(i).intValue());
+		}
+	}
+
+	/**
+	 * 読み込み位置を保存し、別の読み込みで続きから読み込みます。
+	 */
+	public void testResumeFromPosition() throws Exception {
+		append(text(0, 3));
+		long position;
+		try (FLTTailReader<Text> reader = new FLTTailReader<>(conf, data, Text.class)) {
+			assertEquals(0, reader.poll().id);
+			assertEquals(1, reader.poll().id);
+			position = reader.getPosition();
+			assertEquals(24, position);
+		}
+
+		append(text(3, 5));
+		List<Integer> ids = new ArrayList<>();
+		try (FLTTailReader<Text> reader = new FLTTailReader<>(conf, data, Text.class)) {
+			reader.setPosition(position);
+			pollAll(reader, ids);
+		}
+		assertEquals(Arrays.asList(2, 3, 4), ids);
+	}
+
+	/**
+	 * バイナリ項目を含む場合は、改行コードが別々に追記されても続きから読み込みます。
+	 */
+	public void testResumeBinaryAcrossSeparator() throws Exception {
+		// 項目idの値にCRと同じバイトを含む
+		append(binary(13, "abc"), 0, 6);
+		append(new byte[] { '\r' }, 0, 1);
+		long position;
+		try (FLTTailReader<Binary> reader = new FLTTailReader<>(conf, data, Binary.class)) {
+			assertEquals(13, reader.poll().id);
+			assertNull(reader.poll());
+			position = reader.getPosition();
+		}
+
+		append(new byte[] { '\n' }, 0, 1);
+		append(binary(10, "def"), 0, 6);
+		try (FLTTailReader<Binary> reader = new FLTTailReader<>(conf, data, Binary.class)) {
+			reader.setPosition(position);
+			Binary entity = reader.poll();
+			assertEquals(10, entity.id);
+			assertEquals("def", entity.name);
+			assertNull(reader.poll());
+		}
+	}
+
+	/**
+	 * ファイルが切り詰められた場合は、先頭から読み込み直します。
+	 */
+	public void testTruncation() throws Exception {
+		List<Integer> ids = new ArrayList<>();
+		try (FLTTailReader<Text> reader = new FLTTailReader<>(conf, data, Text.class)) {
+			append(text(0, 3));
+			pollAll(reader, ids);
+
+			Files.write(data, new byte[0]);
+			assertNull(reader.poll());
+			append(text(10, 12));
+			pollAll(reader, ids);
+		}
+		assertEquals(Arrays.asList(0, 1, 2, 10, 11), ids);
+	}
+
+	/**
+	 * ファイルが移動で置き換えられた場合は、新しいファイルを先頭から読み込みます。
+	 * 置き換え後のファイルが元のファイルより大きい場合も検知します。
+	 */
+	public void testReplaceByMove() throws Exception {
+		List<Integer> ids = new ArrayList<>();
+		try (FLTTailReader<Text> reader = new FLTTailReader<>(conf, data, Text.class)) {
+			append(text(0, 2));
+			pollAll(reader, ids);
+
+			Path next = dir.resolve("tail.new");
+			Files.write(next, text(20, 25).getBytes("US-ASCII"));
+			Files.move(next, data, StandardCopyOption.REPLACE_EXISTING);
+			pollAll(reader, ids);
+		}
+		assertEquals(Arrays.asList(0, 1, 20, 21, 22, 23, 24), ids);
+	}
+}
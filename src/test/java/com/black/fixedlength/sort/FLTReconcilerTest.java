@@ -0,0 +1,96 @@
+package com.black.fixedlength.sort;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.black.fixedlength.FLT;
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.format.DefaultZeroPaddingFormatter;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTReconciler}のテストです。
+ *
+ */
+public class FLTReconcilerTest extends TestCase {
+
+	public static class Ours {
+		@Column(length = 4)
+		int id;
+		@Column(length = 9)
+		long amount;
+
+		Ours() {
+		}
+
+		Ours(int id, long amount) {
+			this.id = id;
+			this.amount = amount;
+		}
+	}
+
+	public static class Bank {
+		@Column(length = 4)
+		int id;
+		@Column(length = 5, encoding = ColumnEncoding.PACKED)
+		long amount;
+
+		Bank() {
+		}
+
+		Bank(int id, long amount) {
+			this.id = id;
+			this.amount = amount;
+		}
+	}
+
+	private Path ours;
+	private Path bank;
+
+	@Override
+	protected void setUp() throws Exception {
+		ours = Files.createTempFile("flt-ours", ".dat");
+		bank = Files.createTempFile("flt-bank", ".dat");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.deleteIfExists(ours);
+		Files.deleteIfExists(bank);
+	}
+
+	/**
+	 * 文字の数値項目とパック10進数の項目を、数値として突き合わせます。
+	 */
+	public void testTextAndPackedAmount() throws Exception {
+		FLTConfig conf = new FLTConfig("Shift_JIS");
+		conf.setFltType(FLTType.BYTE);
+		conf.setPadding(int.class, new DefaultZeroPaddingFormatter());
+		conf.setPadding(long.class, new DefaultZeroPaddingFormatter());
+
+		FLT.save(conf, ours, Arrays.asList(new Ours(1, 100), new Ours(2, 250), new Ours(3, 5)));
+		FLT.save(conf, bank, Arrays.asList(new Bank(1, 100), new Bank(2, 260), new Bank(4, 7)));
+
+		final List<List<String>> changed = new ArrayList<>();
+		FLTReconciler reconciler = new FLTReconciler(conf, Ours.class, Bank.class, "id");
+		FLTReconcileResult result = reconciler.reconcile(ours, bank, new FLTReconcileListener() {
+			@Override
+			public void changed(byte[] left, byte[] right, List<String> columns) {
+				changed.add(columns);
+			}
+		});
+
+		assertEquals(1, result.getMatchedCount());
+		assertEquals(1, result.getChangedCount());
+		assertEquals(1, result.getLeftOnlyCount());
+		assertEquals(1, result.getRightOnlyCount());
+		assertEquals(Arrays.asList(Arrays.asList("amount")), changed);
+	}
+}
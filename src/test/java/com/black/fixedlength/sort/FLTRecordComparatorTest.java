@@ -0,0 +1,53 @@
+package com.black.fixedlength.sort;
+
+import java.math.BigDecimal;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.type.FLTType;
+import com.black.fixedlength.type.SignPosition;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTRecordComparator}のテストです。
+ *
+ */
+public class FLTRecordComparatorTest extends TestCase {
+
+	public static class Amount {
+		@Column(length = 9, sign = SignPosition.LEADING)
+		BigDecimal shortAmount;
+		@Column(length = 20, sign = SignPosition.LEADING)
+		BigDecimal longAmount;
+	}
+
+	private FLTConfig conf;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("Shift_JIS");
+		conf.setFltType(FLTType.BYTE);
+	}
+
+	private static byte[] record(String shortAmount, String longAmount) throws Exception {
+		return String.format("%9s%20s", shortAmount, longAmount).getBytes("Shift_JIS");
+	}
+
+	/**
+	 * 空白のみの数値の文字のキーは、桁数に関わらず最小値として並べます。
+	 */
+	public void testBlankDecimalSortsFirst() throws Exception {
+		byte[] blank = record("", "");
+		byte[] negative = record("-00000005", "-0000000000000000005");
+		byte[] positive = record("000000003", "00000000000000000003");
+
+		for (String key : new String[] { "shortAmount", "longAmount" }) {
+			FLTRecordComparator comparator = new FLTRecordComparator(conf, Amount.class, key);
+			assertTrue(key, comparator.compare(blank, negative) < 0);
+			assertTrue(key, comparator.compare(negative, blank) > 0);
+			assertEquals(key, 0, comparator.compare(blank, blank));
+			assertTrue(key, comparator.compare(negative, positive) < 0);
+		}
+	}
+}
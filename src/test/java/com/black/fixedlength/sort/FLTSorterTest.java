@@ -0,0 +1,99 @@
+package com.black.fixedlength.sort;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.type.ColumnEncoding;
+import com.black.fixedlength.type.FLTType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTSorter}のテストです。
+ *
+ */
+public class FLTSorterTest extends TestCase {
+
+	public static class Data {
+		@Column(length = 5, encoding = ColumnEncoding.PACKED)
+		long id;
+		@Column(length = 11)
+		String name;
+	}
+
+	private Path directory;
+	private Path input;
+	private Path output;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = Files.createTempDirectory("flt-sort-test");
+		input = Files.createTempFile("flt-sort", ".dat");
+		output = Files.createTempFile("flt-sort", ".out");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path path : stream) {
+				Files.delete(path);
+			}
+		}
+		Files.delete(directory);
+		Files.deleteIfExists(input);
+		Files.deleteIfExists(output);
+	}
+
+	/**
+	 * 並べ替えに失敗した場合、他のスレッドで並べ替え中の一時ファイルも残りません。
+	 */
+	public void testNoRunLeftAfterFailure() throws Exception {
+		FLTConfig conf = new FLTConfig("US-ASCII");
+		conf.setFltType(FLTType.BYTE);
+
+		// 最初の一時ファイルのレコードに不正なパック10進数を含め、後の一時ファイルは並べ替えに時間がかかる件数にします。
+		int records = 400000;
+		Random random = new Random(1);
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(input))) {
+			for (int i = 0; i < records; i++) {
+				long id = i == 0 ? -1 : random.nextInt(1000000000);
+				out.write(i == 0 ? new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF } : packed(id));
+				out.write("name       \n".getBytes("US-ASCII"));
+			}
+		}
+
+		FLTSorter sorter = new FLTSorter(conf, Data.class, "id");
+		sorter.setTempDirectory(directory);
+		sorter.setParallelism(4);
+		sorter.setBufferSize(4L * 100000 * 16);
+		try {
+			sorter.sort(input, output);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid value of key column id.", e.getMessage());
+		}
+
+		// 終了後に作成される一時ファイルがないことも確認します。
+		Thread.sleep(500);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			assertFalse(stream.iterator().hasNext());
+		}
+	}
+
+	private static byte[] packed(long value) {
+		byte[] ret = new byte[5];
+		ret[4] = (byte) (((value % 10) << 4) | 0x0C);
+		value /= 10;
+		for (int i = 3; i >= 0; i--) {
+			ret[i] = (byte) ((value % 10) | ((value / 10 % 10) << 4));
+			value /= 100;
+		}
+		return ret;
+	}
+}
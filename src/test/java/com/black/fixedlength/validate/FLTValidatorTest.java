@@ -0,0 +1,76 @@
+package com.black.fixedlength.validate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.black.fixedlength.FLT;
+import com.black.fixedlength.FLTConfig;
+import com.black.fixedlength.annotation.Column;
+import com.black.fixedlength.annotation.Record;
+import com.black.fixedlength.type.FLTType;
+import com.black.fixedlength.type.ValidationErrorType;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link FLTValidator}のテストです。
+ *
+ */
+public class FLTValidatorTest extends TestCase {
+
+	@Record(recordCodeNum = "D")
+	public static class Data {
+		@Column(length = 1)
+		String code;
+		@Column(length = 4)
+		String name;
+	}
+
+	private FLTConfig conf;
+	private Path path;
+
+	@Override
+	protected void setUp() throws Exception {
+		conf = new FLTConfig("Shift_JIS");
+		conf.setFltType(FLTType.BYTE);
+		path = Files.createTempFile("flt-validate", ".dat");
+		// 1行目はレコードサイズを超え、3行目はレコードサイズに満たない
+		Files.write(path, "Dab  XX\r\nDcd  \r\nDe\r\n".getBytes("Shift_JIS"));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * 読み込みと同様に、レコードサイズを超える行はエラーとしません。
+	 */
+	public void testLongLineAccepted() throws Exception {
+		FLTValidationReport report = new FLTValidator(conf, Data.class).validate(path);
+
+		List<FLTValidationError> errors = report.getErrors();
+		assertEquals(1, errors.size());
+		assertEquals(3, errors.get(0).getLineNumber());
+		assertEquals(ValidationErrorType.RECORD_SIZE, errors.get(0).getType());
+
+		// 検証でエラーとならない行は、読み込みでもエラーとなりません。
+		Files.write(path, "Dab  XX\r\nDcd  \r\n".getBytes("Shift_JIS"));
+		assertTrue(new FLTValidator(conf, Data.class).validate(path).isValid());
+		assertEquals(2, FLT.load(conf, path, Data.class).size());
+	}
+
+	/**
+	 * レコードサイズとの一致を指定した場合は、レコードサイズを超える行もエラーとします。
+	 */
+	public void testStrictRecordSize() throws Exception {
+		FLTValidator validator = new FLTValidator(conf, Data.class);
+		validator.setStrictRecordSize(true);
+		List<FLTValidationError> errors = validator.validate(path).getErrors();
+
+		assertEquals(2, errors.size());
+		assertEquals(1, errors.get(0).getLineNumber());
+		assertEquals(3, errors.get(1).getLineNumber());
+	}
+}